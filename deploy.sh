@@ -289,6 +289,12 @@ metadata:
         fi
     fi
     
+    # Knative only mounts persistent volume claims, as the backend's checkout
+    # cache needs, when these features are enabled
+    print_info "Enabling persistent volume claims for Knative services..."
+    oc patch knativeserving/knative-serving -n knative-serving --type merge \
+      -p '{"spec":{"config":{"features":{"kubernetes.podspec-persistent-volume-claim":"enabled","kubernetes.podspec-persistent-volume-write":"enabled"}}}}' || true
+
     print_success "OpenShift Serverless is ready"
 fi
 
@@ -347,6 +353,22 @@ data:
   minio.bucket-name: "waver-bucket"
 EOF
 
+# Persistent cache of repository checkouts, shared by all backend pods
+cat << EOF | oc apply -f -
+apiVersion: v1
+kind: PersistentVolumeClaim
+metadata:
+  name: waver-repositories
+  labels:
+    app: waver-backend
+spec:
+  accessModes:
+    - ReadWriteMany
+  resources:
+    requests:
+      storage: 20Gi
+EOF
+
 # Deploy backend as Knative Service
 print_step "Deploying Waver Backend (Serverless)"
 cat << EOF | oc apply -f -
@@ -431,15 +453,26 @@ spec:
             configMapKeyRef:
               name: waver-backend-config
               key: minio.bucket-name
+        - name: WAVER_JOBS_STORE
+          value: "MINIO"
         - name: WAVER_GIT_CLONE_DIR
           value: "/tmp/waver-git-clone"
+        - name: WAVER_CHECKOUT_PATH
+          value: "/var/cache/waver/repositories"
         resources:
           requests:
             memory: "512Mi"
             cpu: "200m"
           limits:
-            memory: "1Gi"
+            memory: "1536Mi"
             cpu: "1000m"
+        securityContext:
+          readOnlyRootFilesystem: true
+        volumeMounts:
+        - name: scratch
+          mountPath: /tmp
+        - name: repositories
+          mountPath: /var/cache/waver
         livenessProbe:
           httpGet:
             path: /q/health/live
@@ -452,6 +485,15 @@ spec:
             port: 8080
           initialDelaySeconds: 5
           periodSeconds: 5
+      volumes:
+      - name: scratch
+        emptyDir:
+          medium: Memory
+          sizeLimit: 512Mi
+      - name: repositories
+        persistentVolumeClaim:
+          claimName: waver-repositories
+          readOnly: false
 EOF
 
 print_info "Waiting for backend Knative service to be ready..."
@@ -1,7 +1,15 @@
 package dev.shaaf.waver.backend;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Utility class providing file and path manipulation operations.
@@ -15,6 +23,9 @@ import java.nio.file.Paths;
  */
 public class FileUtil {
 
+    /** Matches the scp-like syntax of SSH Git URLs, e.g. "git@github.com:user/repo.git". */
+    private static final Pattern SCP_LIKE_URL = Pattern.compile("^[\\w.-]+@([\\w.-]+):(?!//)(.+)$");
+
     /**
      * Extracts the folder name from a given input path string.
      * <p>
@@ -47,4 +58,92 @@ public class FileUtil {
             return projectName;
         }
     }
+
+    /**
+     * Normalizes a repository source URL so that different spellings of the
+     * same repository map to the same key.
+     * <p>
+     * For remote repositories, the scheme, user info, query, fragment, trailing
+     * slashes and the ".git" suffix are removed and the result is lower-cased,
+     * so "https://GitHub.com/User/Repo.git", "http://github.com/user/repo/" and
+     * "git@github.com:user/repo.git" all normalize to "github.com/user/repo".
+     * Local paths are made absolute and normalized but keep their case.
+     *
+     * @param sourceUrl The URL or path of the source repository
+     * @return The normalized key, or null if the input is null or blank
+     */
+    public static String normalizeSourceUrl(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isBlank()) {
+            return null;
+        }
+        String url = sourceUrl.trim();
+
+        String hostAndPath;
+        Matcher scpLike = SCP_LIKE_URL.matcher(url);
+        int schemeEnd = url.indexOf("://");
+        if (scpLike.matches()) {
+            hostAndPath = scpLike.group(1) + "/" + scpLike.group(2);
+        } else if (schemeEnd > 0) {
+            hostAndPath = url.substring(schemeEnd + 3);
+            int suffix = indexOfAny(hostAndPath, '?', '#');
+            if (suffix >= 0) {
+                hostAndPath = hostAndPath.substring(0, suffix);
+            }
+            int pathStart = hostAndPath.indexOf('/');
+            int userInfoEnd = hostAndPath.lastIndexOf('@', pathStart < 0 ? hostAndPath.length() : pathStart);
+            if (userInfoEnd >= 0) {
+                hostAndPath = hostAndPath.substring(userInfoEnd + 1);
+            }
+        } else {
+            return Paths.get(url).toAbsolutePath().normalize().toString();
+        }
+
+        while (hostAndPath.endsWith("/")) {
+            hostAndPath = hostAndPath.substring(0, hostAndPath.length() - 1);
+        }
+        if (hostAndPath.endsWith(".git")) {
+            hostAndPath = hostAndPath.substring(0, hostAndPath.length() - 4);
+        }
+        return hostAndPath.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks whether a source URL names a remote repository, as opposed to a
+     * local directory. URLs with a scheme, including {@code file://}, and
+     * scp-like SSH URLs are remote.
+     *
+     * @param sourceUrl The URL or path of the source repository
+     * @return true if the source is a remote repository
+     */
+    public static boolean isRemoteSource(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isBlank()) {
+            return false;
+        }
+        String url = sourceUrl.trim();
+        return url.indexOf("://") > 0 || SCP_LIKE_URL.matcher(url).matches();
+    }
+
+    /**
+     * Deletes a file or a directory with all its content. Nothing happens if
+     * the path does not exist.
+     *
+     * @param path The file or directory to delete, may be null
+     * @throws IOException if a file cannot be deleted
+     */
+    public static void deleteRecursively(Path path) throws IOException {
+        if (path == null || !Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        int a = value.indexOf(first);
+        int b = value.indexOf(second);
+        return a < 0 ? b : (b < 0 ? a : Math.min(a, b));
+    }
 }
@@ -0,0 +1,50 @@
+package dev.shaaf.waver.backend;
+
+/**
+ * Record representing the answer to a tutorial generation request.
+ * <p>
+ * This immutable data structure is returned to the caller of the Funqy
+ * endpoint and tells whether the request was queued for processing, attached
+ * to a running generation of the same repository, answered from a recent run,
+ * or refused, for example because the work queue is full.
+ *
+ * @param status The outcome of the submission
+ * @param jobId The id of the job answering the request, or null if the request was refused
+ * @param sourceUrl The source URL of the submitted request, or null if the request was invalid
+ * @param queuedCount The number of requests waiting for a pipeline slot after this submission
+ * @param message A human readable explanation of the outcome
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public record GenerationSubmission(Status status, String jobId, String sourceUrl, int queuedCount, String message) {
+
+    /**
+     * Possible outcomes of a generation request.
+     */
+    public enum Status {
+        /** The request was queued and will be processed. */
+        ACCEPTED,
+        /** The same repository is already queued or running; the request was attached to that job. */
+        COALESCED,
+        /** The same repository was generated moments ago; its existing output answers the request. */
+        ALREADY_GENERATED,
+        /** The queue is full; the caller should retry later (comparable to HTTP 429). */
+        QUEUE_FULL,
+        /** The backend is shutting down and does not accept work (comparable to HTTP 503). */
+        UNAVAILABLE,
+        /** The request was missing its source URL. */
+        INVALID
+    }
+
+    /**
+     * Checks whether a pipeline will produce output for the request, either
+     * a new one or one that was already queued or running.
+     *
+     * @return true if the status is {@link Status#ACCEPTED} or {@link Status#COALESCED}
+     */
+    public boolean isAccepted() {
+        return status == Status.ACCEPTED || status == Status.COALESCED;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.shaaf.waver.backend;
+
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.job.GenerationJob;
+import dev.shaaf.waver.backend.job.JobService;
+import io.quarkus.funqy.Funq;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+
+/**
+ * Serverless function endpoints for polling the status of tutorial generation jobs.
+ * <p>
+ * Every accepted generation request returns a job id. These functions let
+ * callers, such as the site, follow a job from {@code QUEUED} through the
+ * pipeline stages to {@code DONE} or {@code FAILED}, including the time each
+ * stage was entered.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class JobFunqy {
+
+    /** Service keeping track of generation jobs. */
+    @Inject
+    JobService jobService;
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /**
+     * Funqy endpoint listing the most recent generation jobs.
+     *
+     * @return Up to {@code waver.jobs.list-limit} jobs, newest first
+     */
+    @Funq
+    public List<GenerationJob> jobs() {
+        return jobService.list(waverConfig.jobs().listLimit());
+    }
+
+    /**
+     * Funqy endpoint looking up a single generation job.
+     *
+     * @param query The job id, or the source URL whose most recent job is wanted
+     * @return The job, or null if no matching job exists
+     */
+    @Funq
+    public GenerationJob job(JobQuery query) {
+        if (query == null) {
+            return null;
+        }
+        if (query.id() != null) {
+            return jobService.find(query.id()).orElse(null);
+        }
+        if (query.sourceUrl() != null) {
+            return jobService.latestFor(query.sourceUrl(), waverConfig.jobs().listLimit()).orElse(null);
+        }
+        return null;
+    }
+}
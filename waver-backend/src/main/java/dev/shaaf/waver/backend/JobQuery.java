@@ -0,0 +1,18 @@
+package dev.shaaf.waver.backend;
+
+/**
+ * Record representing a lookup of a tutorial generation job.
+ * <p>
+ * A job is looked up by the id returned in the {@link GenerationSubmission}.
+ * Without an id, the most recent job for the given source URL is returned.
+ *
+ * @param id The job id, or null to look up by source URL
+ * @param sourceUrl The source URL of the repository, in any spelling
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public record JobQuery(String id, String sourceUrl) {
+
+}
@@ -1,14 +1,17 @@
 package dev.shaaf.waver.backend;
 
+import dev.shaaf.waver.backend.process.GenerationQueue;
+import io.quarkus.funqy.Context;
 import io.quarkus.funqy.Funq;
+import io.quarkus.funqy.knative.events.CloudEvent;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.reactive.messaging.Channel;
-import org.eclipse.microprofile.reactive.messaging.Emitter;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * Serverless function endpoint for handling tutorial generation requests.
@@ -17,8 +20,15 @@ import java.nio.file.Path;
  * or cloud events. It acts as the entry point for external systems to trigger
  * tutorial generation processes.
  * <p>
- * The function validates incoming requests and forwards them to the background
- * processing system through reactive messaging.
+ * The function validates incoming requests and submits them to the bounded
+ * {@link GenerationQueue}, reporting back whether the request was accepted.
+ * A batch of requests can be submitted in one call with
+ * {@link #generateBatch(List, CloudEvent)}.
+ * <p>
+ * Requests arriving as CloudEvents take their tenant and priority from the
+ * event's {@value #TENANT_ATTRIBUTE} and {@value #PRIORITY_ATTRIBUTE}
+ * extension attributes, which override the fields of the payload. Without a
+ * tenant in either, the event's {@code source} attribute names the tenant.
  *
  * @author Waver Team
  * @version 1.0
@@ -27,35 +37,143 @@ import java.nio.file.Path;
 @ApplicationScoped
 public class WaverFunqy {
 
+    /** CloudEvent extension attribute naming the tenant of a request. */
+    public static final String TENANT_ATTRIBUTE = "tenant";
+
+    /** CloudEvent extension attribute holding the priority of a request. */
+    public static final String PRIORITY_ATTRIBUTE = "priority";
+
+    /** Logger instance for this function. */
+    private static final Logger logger = Logger.getLogger(WaverFunqy.class.getName());
+
     /**
-     * Message emitter for sending processing requests to the background service.
-     * This emitter is connected to the "requests" channel for async processing.
+     * Work queue that limits how many generation pipelines run at the same time.
      */
     @Inject
-    @Channel("requests")
-    Emitter<WaverProcessEvent> requestEmitter;
+    GenerationQueue generationQueue;
 
     /**
      * Funqy endpoint for generating tutorials from source code repositories.
      * <p>
-     * This function validates the incoming request and forwards it to the
-     * background processing system. It provides immediate response while
-     * the actual tutorial generation happens asynchronously.
+     * This function validates the incoming request and submits it to the
+     * generation queue. It provides immediate response while the actual
+     * tutorial generation happens asynchronously. When the queue is full the
+     * response has the status {@link GenerationSubmission.Status#QUEUE_FULL},
+     * and the caller should retry later.
      *
      * @param request The processing event containing the source URL
      *               and other generation parameters
+     * @param cloudEvent The CloudEvent the request arrived in, or null if it was a plain HTTP request
+     * @return The outcome of the submission
      */
     @Funq
-    public void generate(WaverProcessEvent request) {
+    public GenerationSubmission generate(WaverProcessEvent request, @Context CloudEvent<?> cloudEvent) {
 
-        if (request == null || request.sourceUrl() == null) {
+        if (!isValid(request)) {
             System.err.println("Received invalid request: payload or sourceUrl is null.");
-            return;
+            return invalid();
         }
         
         System.out.println("FUNQY_ENDPOINT: Received request for " + request.sourceUrl() + ". Handing off to background processor.");
 
         // call back immediately and forward
-        requestEmitter.send(request);
+        return generationQueue.submit(withCloudEventAttributes(request, cloudEvent));
+    }
+
+    /**
+     * Submits a request that did not arrive as a CloudEvent.
+     *
+     * @param request The processing event containing the source URL
+     * @return The outcome of the submission
+     * @see #generate(WaverProcessEvent, CloudEvent)
+     */
+    public GenerationSubmission generate(WaverProcessEvent request) {
+        return generate(request, null);
+    }
+
+    /**
+     * Funqy endpoint for submitting many generation requests in one call, such
+     * as a scheduled refresh of a list of repositories.
+     * <p>
+     * All requests are validated first, then the valid ones are submitted to
+     * the generation queue together, as by {@link GenerationQueue#submitAll(List)}.
+     * Repeated repositories are attached to the job of their first request.
+     * A CloudEvent's tenant and priority attributes apply to every request.
+     *
+     * @param requests The processing events
+     * @param cloudEvent The CloudEvent the requests arrived in, or null if it was a plain HTTP request
+     * @return The outcome of every request, in the order of the requests
+     */
+    @Funq
+    public List<GenerationSubmission> generateBatch(List<WaverProcessEvent> requests,
+                                                    @Context CloudEvent<?> cloudEvent) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+
+        List<WaverProcessEvent> valid = new ArrayList<>(requests.size());
+        for (WaverProcessEvent request : requests) {
+            if (isValid(request)) {
+                valid.add(withCloudEventAttributes(request, cloudEvent));
+            }
+        }
+        Iterator<GenerationSubmission> submitted = generationQueue.submitAll(valid).iterator();
+
+        List<GenerationSubmission> outcomes = new ArrayList<>(requests.size());
+        for (WaverProcessEvent request : requests) {
+            outcomes.add(isValid(request) ? submitted.next() : invalid());
+        }
+        logger.info("FUNQY_ENDPOINT: Received batch of " + requests.size() + " requests, "
+                + outcomes.stream().filter(GenerationSubmission::isAccepted).count() + " accepted");
+        return outcomes;
+    }
+
+    /**
+     * Submits a batch of requests that did not arrive as a CloudEvent.
+     *
+     * @param requests The processing events
+     * @return The outcome of every request, in the order of the requests
+     * @see #generateBatch(List, CloudEvent)
+     */
+    public List<GenerationSubmission> generateBatch(List<WaverProcessEvent> requests) {
+        return generateBatch(requests, null);
+    }
+
+    private static boolean isValid(WaverProcessEvent request) {
+        return request != null && request.sourceUrl() != null;
+    }
+
+    private static GenerationSubmission invalid() {
+        return new GenerationSubmission(GenerationSubmission.Status.INVALID, null, null, 0,
+                "Request payload or sourceUrl is missing");
+    }
+
+    /**
+     * Takes the tenant and priority of a request from the attributes of the
+     * CloudEvent it arrived in.
+     *
+     * @param request The processing event
+     * @param cloudEvent The CloudEvent, or null
+     * @return The processing event with the tenant and priority of the CloudEvent
+     */
+    static WaverProcessEvent withCloudEventAttributes(WaverProcessEvent request, CloudEvent<?> cloudEvent) {
+        if (cloudEvent == null) {
+            return request;
+        }
+        Map<String, String> extensions = cloudEvent.extensions() != null ? cloudEvent.extensions() : Map.of();
+        String tenant = extensions.get(TENANT_ATTRIBUTE);
+        if (tenant == null || tenant.isBlank()) {
+            tenant = request.tenant() != null ? request.tenant() : cloudEvent.source();
+        }
+        WaverProcessEvent.Priority priority = request.priority();
+        String value = extensions.get(PRIORITY_ATTRIBUTE);
+        if (value != null && !value.isBlank()) {
+            try {
+                priority = WaverProcessEvent.Priority.parse(value);
+            } catch (IllegalArgumentException e) {
+                logger.warning("Ignoring unknown priority '" + value + "' of CloudEvent " + cloudEvent.id());
+            }
+        }
+        return new WaverProcessEvent(request.sourceUrl(), tenant, priority);
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,69 @@
 package dev.shaaf.waver.backend;
 
+import java.util.Locale;
+
 /**
  * Record representing a tutorial generation processing event.
  * <p>
  * This immutable data structure carries the necessary information for
  * triggering a tutorial generation process. It is used in the messaging
  * system to communicate between different components of the application.
+ * <p>
+ * The tenant and the priority decide how the request is scheduled: waiting
+ * requests are served fairly across tenants, and requests of a higher
+ * priority lane get a larger share of the pipeline slots.
  *
  * @param sourceUrl The URL or path to the source code repository from which
  *                 to generate tutorials
+ * @param tenant The tenant or source system the request comes from, or null
+ *               if it is unknown
+ * @param priority The priority lane of the request; {@link Priority#NORMAL} if not given
  *
  * @author Waver Team
  * @version 1.0
  * @since 1.0
  */
-public record WaverProcessEvent(String sourceUrl) {
+public record WaverProcessEvent(String sourceUrl, String tenant, Priority priority) {
+
+    /**
+     * Constructs a new WaverProcessEvent, defaulting a missing priority to
+     * {@link Priority#NORMAL}.
+     */
+    public WaverProcessEvent {
+        if (priority == null) {
+            priority = Priority.NORMAL;
+        }
+    }
+
+    /**
+     * Constructs a new WaverProcessEvent of an unknown tenant with normal priority.
+     *
+     * @param sourceUrl The URL or path to the source code repository
+     */
+    public WaverProcessEvent(String sourceUrl) {
+        this(sourceUrl, null, Priority.NORMAL);
+    }
+
+    /**
+     * Priority lanes of generation requests.
+     */
+    public enum Priority {
+        /** Interactive requests a user is waiting for. */
+        HIGH,
+        /** Regular requests. */
+        NORMAL,
+        /** Bulk and background requests, served with what is left. */
+        LOW;
 
+        /**
+         * Parses a priority, ignoring case.
+         *
+         * @param value The priority name, such as "high"
+         * @return The priority
+         * @throws IllegalArgumentException if the value names no priority
+         */
+        public static Priority parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
 }
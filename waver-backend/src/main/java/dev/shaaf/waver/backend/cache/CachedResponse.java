@@ -0,0 +1,32 @@
+package dev.shaaf.waver.backend.cache;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.time.Instant;
+
+/**
+ * Record representing an LLM response held in the response cache.
+ * <p>
+ * Only the text of the answer is kept. Token usage is deliberately not
+ * cached, so a served response does not count as tokens spent.
+ *
+ * @param text The text of the AI message
+ * @param modelName The model that produced the answer, or null if unknown
+ * @param createdAt When the response was received from the provider
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RegisterForReflection
+public record CachedResponse(String text, String modelName, Instant createdAt) {
+
+    /**
+     * Gets the approximate memory footprint of the response.
+     *
+     * @return The size in bytes
+     */
+    public long sizeInBytes() {
+        return 2L * text.length() + (modelName == null ? 0 : 2L * modelName.length());
+    }
+}
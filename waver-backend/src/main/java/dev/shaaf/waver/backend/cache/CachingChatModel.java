@@ -0,0 +1,171 @@
+package dev.shaaf.waver.backend.cache;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Chat model decorator answering repeated prompts from a {@link ResponseStore}.
+ * <p>
+ * Re-running a repository sends the same prompts to the pipeline stages and
+ * gets near-identical answers. This decorator keys every request by the
+ * provider, the model name, the request parameters and a hash of the
+ * normalized prompt, and serves a cached answer instead of calling the
+ * provider again.
+ * <p>
+ * Requests with tools are never cached, and only complete, non-blank answers
+ * are stored, so a truncated or empty answer is retried on the next run.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CachingChatModel implements ChatModel {
+
+    /** Runs of whitespace, collapsed when normalizing prompts. */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** The chat model answering cache misses. */
+    private final ChatModel delegate;
+
+    /** Store holding the cached responses. */
+    private final ResponseStore store;
+
+    /** Clock used to timestamp new responses. */
+    private final Clock clock;
+
+    /**
+     * Constructs a new CachingChatModel.
+     *
+     * @param delegate The chat model answering cache misses
+     * @param store The store holding the cached responses
+     * @param clock The clock used to timestamp new responses
+     */
+    public CachingChatModel(ChatModel delegate, ResponseStore store, Clock clock) {
+        this.delegate = delegate;
+        this.store = store;
+        this.clock = clock;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        ChatRequestParameters parameters = effectiveParameters(chatRequest);
+        if (!parameters.toolSpecifications().isEmpty()) {
+            return delegate.chat(chatRequest);
+        }
+
+        String key = keyOf(delegate.provider(), parameters, chatRequest);
+        Optional<CachedResponse> cached = store.get(key);
+        if (cached.isPresent()) {
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from(cached.get().text()))
+                    .modelName(cached.get().modelName())
+                    .finishReason(FinishReason.STOP)
+                    .build();
+        }
+
+        ChatResponse response = delegate.chat(chatRequest);
+        if (isCacheable(response)) {
+            store.put(key, new CachedResponse(response.aiMessage().text(), response.modelName(), clock.instant()));
+        }
+        return response;
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    /**
+     * Computes the cache key of a request.
+     *
+     * @param provider The provider of the model
+     * @param parameters The effective request parameters, including the model defaults
+     * @param chatRequest The request
+     * @return The hex encoded SHA-256 hash identifying the request
+     */
+    static String keyOf(ModelProvider provider, ChatRequestParameters parameters, ChatRequest chatRequest) {
+        StringBuilder canonical = new StringBuilder()
+                .append("provider=").append(provider).append('\n')
+                .append("model=").append(parameters.modelName()).append('\n')
+                .append("temperature=").append(parameters.temperature()).append('\n')
+                .append("topP=").append(parameters.topP()).append('\n')
+                .append("topK=").append(parameters.topK()).append('\n')
+                .append("frequencyPenalty=").append(parameters.frequencyPenalty()).append('\n')
+                .append("presencePenalty=").append(parameters.presencePenalty()).append('\n')
+                .append("maxOutputTokens=").append(parameters.maxOutputTokens()).append('\n')
+                .append("stopSequences=").append(parameters.stopSequences()).append('\n')
+                .append("responseFormat=").append(parameters.responseFormat()).append('\n');
+        for (ChatMessage message : chatRequest.messages()) {
+            canonical.append(message.type()).append(": ").append(normalize(textOf(message))).append('\n');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Normalizes a prompt so that differences in whitespace do not change the key.
+     *
+     * @param text The prompt text
+     * @return The trimmed text with runs of whitespace collapsed to one space
+     */
+    static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    }
+
+    private ChatRequestParameters effectiveParameters(ChatRequest chatRequest) {
+        ChatRequestParameters defaults = delegate.defaultRequestParameters();
+        return defaults == null ? chatRequest.parameters() : defaults.overrideWith(chatRequest.parameters());
+    }
+
+    private static String textOf(ChatMessage message) {
+        return switch (message) {
+            case SystemMessage system -> system.text();
+            case UserMessage user -> user.hasSingleText() ? user.singleText() : user.contents().toString();
+            case AiMessage ai -> ai.hasToolExecutionRequests()
+                    ? ai.text() + ai.toolExecutionRequests()
+                    : ai.text();
+            default -> message.toString();
+        };
+    }
+
+    private static boolean isCacheable(ChatResponse response) {
+        return response != null
+                && response.aiMessage() != null
+                && !response.aiMessage().hasToolExecutionRequests()
+                && response.aiMessage().text() != null
+                && !response.aiMessage().text().isBlank()
+                && (response.finishReason() == null || response.finishReason() == FinishReason.STOP);
+    }
+}
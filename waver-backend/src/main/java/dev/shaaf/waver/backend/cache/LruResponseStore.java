@@ -0,0 +1,118 @@
+package dev.shaaf.waver.backend.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory response store bounded by entry count and total size.
+ * <p>
+ * Entries are kept in access order; when either bound is exceeded the least
+ * recently used entries are evicted. Expired entries are dropped when they
+ * are read. All methods are thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class LruResponseStore implements ResponseStore {
+
+    /** Maximum number of entries. */
+    private final int maxEntries;
+
+    /** Maximum total size of the entries in bytes. */
+    private final long maxBytes;
+
+    /** How long an entry is served. */
+    private final Duration ttl;
+
+    /** Clock used to check expiry. */
+    private final Clock clock;
+
+    /** Entries in access order, least recently used first. */
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Total size of the entries in bytes. */
+    private long totalBytes;
+
+    /**
+     * Constructs a new LruResponseStore.
+     *
+     * @param maxEntries The maximum number of entries
+     * @param maxBytes The maximum total size of the entries in bytes
+     * @param ttl How long an entry is served
+     * @param clock The clock used to check expiry
+     * @throws IllegalArgumentException if a bound is less than 1
+     */
+    public LruResponseStore(int maxEntries, long maxBytes, Duration ttl, Clock clock) {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException(
+                    "Cache bounds must be at least 1: entries=" + maxEntries + ", bytes=" + maxBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized Optional<CachedResponse> get(String key) {
+        CachedResponse response = entries.get(key);
+        if (response == null) {
+            return Optional.empty();
+        }
+        if (isExpired(response)) {
+            remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(response);
+    }
+
+    @Override
+    public synchronized void put(String key, CachedResponse response) {
+        if (response.sizeInBytes() > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, response);
+        totalBytes += response.sizeInBytes();
+
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().sizeInBytes();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Gets the number of cached entries.
+     *
+     * @return The entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the total size of the cached entries.
+     *
+     * @return The size in bytes
+     */
+    public synchronized long sizeInBytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.sizeInBytes();
+        }
+    }
+
+    private boolean isExpired(CachedResponse response) {
+        return !response.createdAt().plus(ttl).isAfter(clock.instant());
+    }
+}
@@ -0,0 +1,119 @@
+package dev.shaaf.waver.backend.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+
+import java.io.ByteArrayInputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Response store sharing cached responses through the MinIO bucket.
+ * <p>
+ * Every response is stored as a JSON object under {@value #PREFIX}, so all
+ * backend instances, and instances started after a scale-to-zero, reuse the
+ * same answers. The leading dot keeps the folder out of the tutorial listing
+ * of the site. Expired objects are ignored when read; removing them is left
+ * to a bucket lifecycle rule.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MinioResponseStore implements ResponseStore {
+
+    /** Object name prefix of cached responses. */
+    public static final String PREFIX = ".waver/llm-cache/";
+
+    /** Logger instance for this store. */
+    private static final Logger logger = Logger.getLogger(MinioResponseStore.class.getName());
+
+    /** Mapper writing ISO-8601 timestamps. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /** MinIO client for storage operations. */
+    private final MinioClient minioClient;
+
+    /** Bucket holding the cached responses. */
+    private final String bucketName;
+
+    /** How long a response is served. */
+    private final Duration ttl;
+
+    /** Clock used to check expiry. */
+    private final Clock clock;
+
+    /**
+     * Constructs a new MinioResponseStore.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket holding the cached responses
+     * @param ttl How long a response is served
+     * @param clock The clock used to check expiry
+     */
+    public MinioResponseStore(MinioClient minioClient, String bucketName, Duration ttl, Clock clock) {
+        this.minioClient = minioClient;
+        this.bucketName = bucketName;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<CachedResponse> get(String key) {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(key))
+                        .build())) {
+            CachedResponse cached = MAPPER.readValue(response, CachedResponse.class);
+            if (!cached.createdAt().plus(ttl).isAfter(clock.instant())) {
+                return Optional.empty();
+            }
+            return Optional.of(cached);
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchKey".equals(e.errorResponse().code())) {
+                logger.warning("Failed to read cached response " + key + ": " + e.getMessage());
+            }
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.warning("Failed to read cached response " + key + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(response);
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName(key))
+                            .stream(new ByteArrayInputStream(json), json.length, -1)
+                            .contentType("application/json")
+                            .build());
+        } catch (Exception e) {
+            logger.warning("Failed to store cached response " + key + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the object name of a cached response.
+     *
+     * @param key The cache key
+     * @return The object name in the bucket
+     */
+    public static String objectName(String key) {
+        return PREFIX + key + ".json";
+    }
+}
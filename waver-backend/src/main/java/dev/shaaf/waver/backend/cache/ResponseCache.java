@@ -0,0 +1,126 @@
+package dev.shaaf.waver.backend.cache;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.MinioConfig;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.MinioClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Clock;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Two-tier cache of LLM responses shared by all generation runs.
+ * <p>
+ * Responses are looked up in a bounded in-memory LRU tier first and, if
+ * {@code waver.cache.shared} is enabled, in the MinIO bucket second. A hit in
+ * MinIO is copied into memory, and new responses are written to both tiers.
+ * Lookups are counted in {@code waver.llm.cache}, tagged with the tier that
+ * answered or {@code miss}.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ResponseCache implements ResponseStore {
+
+    /** Logger instance for this cache. */
+    private static final Logger logger = Logger.getLogger(ResponseCache.class.getName());
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected MinIO configuration settings. */
+    @Inject
+    MinioConfig minioConfig;
+
+    /** Injected MinIO client, used by the shared tier. */
+    @Inject
+    MinioClient minioClient;
+
+    /** Injected registry the cache lookups are counted in. */
+    @Inject
+    MeterRegistry registry;
+
+    /** Clock used to timestamp and expire responses. */
+    Clock clock = Clock.systemUTC();
+
+    /** The in-memory tier, or null if caching is disabled. */
+    private ResponseStore local;
+
+    /** The MinIO tier, or null if it is disabled. */
+    private ResponseStore shared;
+
+    /**
+     * Creates the configured tiers after dependency injection is complete.
+     */
+    @PostConstruct
+    void init() {
+        WaverConfig.Cache cache = waverConfig.cache();
+        if (!cache.enabled()) {
+            logger.info("LLM response cache is disabled");
+            return;
+        }
+        local = new LruResponseStore(cache.maxEntries(), cache.maxSize().asLongValue(), cache.ttl(), clock);
+        if (cache.shared()) {
+            shared = new MinioResponseStore(minioClient, minioConfig.bucketName(), cache.ttl(), clock);
+        }
+        logger.info("LLM response cache enabled: max-entries=" + cache.maxEntries()
+                + ", max-size=" + cache.maxSize().asLongValue() + ", shared=" + cache.shared());
+    }
+
+    /**
+     * Wraps a chat model so that its responses are served from this cache.
+     *
+     * @param chatModel The chat model answering cache misses
+     * @return The caching chat model, or the given model if caching is disabled
+     */
+    public ChatModel wrap(ChatModel chatModel) {
+        if (local == null || chatModel == null) {
+            return chatModel;
+        }
+        return new CachingChatModel(chatModel, this, clock);
+    }
+
+    @Override
+    public Optional<CachedResponse> get(String key) {
+        Optional<CachedResponse> response = local.get(key);
+        if (response.isPresent()) {
+            count("local");
+            return response;
+        }
+        if (shared != null) {
+            response = shared.get(key);
+            if (response.isPresent()) {
+                local.put(key, response.get());
+                count("shared");
+                return response;
+            }
+        }
+        count("miss");
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        local.put(key, response);
+        if (shared != null) {
+            shared.put(key, response);
+        }
+    }
+
+    private void count(String result) {
+        Counter.builder("waver.llm.cache")
+                .description("LLM response cache lookups")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+}
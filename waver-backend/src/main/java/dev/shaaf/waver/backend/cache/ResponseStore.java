@@ -0,0 +1,33 @@
+package dev.shaaf.waver.backend.cache;
+
+import java.util.Optional;
+
+/**
+ * Storage tier of the LLM response cache.
+ * <p>
+ * Keys are the hex encoded hashes computed by {@link CachingChatModel#keyOf}.
+ * Implementations must be thread safe and must not throw: a tier that cannot
+ * be read behaves like a miss, and a failed write is dropped.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public interface ResponseStore {
+
+    /**
+     * Looks up a cached response.
+     *
+     * @param key The cache key
+     * @return The response, or empty if it is not cached or has expired
+     */
+    Optional<CachedResponse> get(String key);
+
+    /**
+     * Stores a response.
+     *
+     * @param key The cache key
+     * @param response The response to cache
+     */
+    void put(String key, CachedResponse response);
+}
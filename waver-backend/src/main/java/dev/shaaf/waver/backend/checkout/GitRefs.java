@@ -0,0 +1,83 @@
+package dev.shaaf.waver.backend.checkout;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resolves the commits git references point to, with JGit, so the
+ * {@code git} command line does not have to be installed.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class GitRefs {
+
+    private GitRefs() {
+        // Utility class
+    }
+
+    /**
+     * Resolves the commit the default branch of a remote repository points
+     * to, like {@code git ls-remote <url> HEAD}, without cloning it.
+     *
+     * @param sourceUrl The URL of the remote repository
+     * @param timeout How long to wait on the remote before giving up
+     * @return The commit id, or empty if the repository has no commits
+     * @throws IOException if the remote cannot be reached or is not a git repository
+     */
+    public static Optional<String> remoteHead(String sourceUrl, Duration timeout) throws IOException {
+        try {
+            Ref head = Git.lsRemoteRepository()
+                    .setRemote(sourceUrl)
+                    .setTimeout(seconds(timeout))
+                    .callAsMap()
+                    .get(Constants.HEAD);
+            return Optional.ofNullable(head).map(Ref::getObjectId).map(ObjectId::name);
+        } catch (GitAPIException | RuntimeException e) {
+            throw new IOException("Failed to list references of " + sourceUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Resolves the commit checked out in a local working tree, like
+     * {@code git rev-parse HEAD}. Parent directories are searched for the
+     * repository, so the directory may be below the top of the working tree.
+     *
+     * @param dir A directory of the working tree
+     * @return The commit id, or empty if the directory is not in a repository or nothing is committed
+     * @throws IOException if the repository cannot be read
+     */
+    public static Optional<String> localHead(Path dir) throws IOException {
+        FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(dir.toFile());
+        if (builder.getGitDir() == null) {
+            return Optional.empty();
+        }
+        try (Repository repository = builder.build()) {
+            return Optional.ofNullable(repository.resolve(Constants.HEAD)).map(ObjectId::name);
+        } catch (RepositoryNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Converts a timeout to the whole seconds JGit takes; JGit waits forever on zero.
+     *
+     * @param timeout The timeout
+     * @return The timeout in seconds, at least one
+     */
+    static int seconds(Duration timeout) {
+        return Math.clamp(timeout.toSeconds(), 1, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,228 @@
+package dev.shaaf.waver.backend.checkout;
+
+import dev.shaaf.waver.backend.FileUtil;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.ignore.FastIgnoreRule;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Cache of shallow, sparse checkouts of remote repositories.
+ * <p>
+ * The first checkout of a repository is a single-branch clone of depth one
+ * that only writes the files matching {@code waver.checkout.include} to the
+ * working tree. The clone is kept under {@code waver.checkout.path}, in a
+ * directory named after the normalized source URL, so later runs only fetch
+ * the newest commit of the default branch and replace the working tree with
+ * its included files. A cached clone that cannot be updated is deleted and
+ * cloned again.
+ * <p>
+ * Git is run in-process with JGit, so the image needs no {@code git} command
+ * line. JGit cannot clone partially, so a clone fetches every file of the
+ * newest commit, but never the history.
+ * <p>
+ * Checkouts of the same repository are serialized, across instances sharing
+ * the cache volume too, by a lock file next to the clone; different
+ * repositories are checked out in parallel.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class RepositoryCheckout {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(RepositoryCheckout.class.getName());
+
+    /** Characters replaced when deriving a directory name from a normalized URL. */
+    private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[^a-z0-9._-]");
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Locks serializing checkouts of the same repository, keyed by directory name. */
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new RepositoryCheckout whose configuration is injected.
+     */
+    public RepositoryCheckout() {
+    }
+
+    /**
+     * Constructs a new RepositoryCheckout with explicit configuration.
+     *
+     * @param waverConfig The configuration holding the checkout settings
+     */
+    public RepositoryCheckout(WaverConfig waverConfig) {
+        this.waverConfig = waverConfig;
+    }
+
+    /**
+     * Brings the cached checkout of a repository up to date with its default
+     * branch, cloning it if it is not cached yet.
+     *
+     * @param sourceUrl The URL of the remote repository
+     * @return The directory holding the checked out files
+     * @throws IOException if the repository cannot be cloned
+     */
+    public Path checkout(String sourceUrl) throws IOException {
+        WaverConfig.Checkout config = waverConfig.checkout();
+        Path root = Paths.get(config.path()).toAbsolutePath();
+        String name = directoryName(sourceUrl);
+        Path dir = root.resolve(name);
+
+        ReentrantLock lock = locks.computeIfAbsent(name, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            Files.createDirectories(root);
+            try (FileChannel lockFile = FileChannel.open(root.resolve(name + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = lockFile.lock()) {
+                if (Files.isDirectory(dir.resolve(".git"))) {
+                    try {
+                        update(dir, config);
+                        logger.info("Updated cached checkout of " + sourceUrl + " in " + dir);
+                        return dir;
+                    } catch (IOException e) {
+                        logger.warning("Failed to update cached checkout of " + sourceUrl + ", cloning again: "
+                                + e.getMessage());
+                        FileUtil.deleteRecursively(dir);
+                    }
+                }
+                clone(sourceUrl, root, dir, config);
+                logger.info("Cloned " + sourceUrl + " into " + dir);
+                return dir;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Derives the cache directory name of a repository from its normalized URL.
+     *
+     * @param sourceUrl The URL of the remote repository
+     * @return A directory name that is the same for all spellings of the URL
+     */
+    static String directoryName(String sourceUrl) {
+        return UNSAFE_CHARACTERS.matcher(FileUtil.normalizeSourceUrl(sourceUrl).toLowerCase(Locale.ROOT))
+                .replaceAll("_");
+    }
+
+    private void clone(String sourceUrl, Path root, Path dir, WaverConfig.Checkout config) throws IOException {
+        // Clone next to the cache entry and move it in place once complete, so
+        // an interrupted clone never looks like a cached checkout
+        Path staging = Files.createTempDirectory(root, ".clone-");
+        try {
+            try (Git git = Git.cloneRepository()
+                    .setURI(sourceUrl)
+                    .setDirectory(staging.toFile())
+                    .setDepth(1)
+                    .setCloneAllBranches(false)
+                    .setNoCheckout(true)
+                    .setTimeout(GitRefs.seconds(config.timeout()))
+                    .call()) {
+                checkoutIncluded(git, git.getRepository().resolve(Constants.HEAD), config);
+            } catch (GitAPIException | RuntimeException e) {
+                throw new IOException("Failed to clone " + sourceUrl + ": " + e.getMessage(), e);
+            }
+            try {
+                Files.move(staging, dir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(staging, dir);
+            }
+        } finally {
+            FileUtil.deleteRecursively(staging);
+        }
+    }
+
+    private void update(Path dir, WaverConfig.Checkout config) throws IOException {
+        try (Git git = Git.open(dir.toFile())) {
+            git.fetch()
+                    .setRemote("origin")
+                    .setRefSpecs(new RefSpec(Constants.HEAD))
+                    .setDepth(1)
+                    .setTimeout(GitRefs.seconds(config.timeout()))
+                    .call();
+            ObjectId head = git.getRepository().resolve(Constants.FETCH_HEAD);
+            git.reset().setMode(ResetCommand.ResetType.MIXED).setRef(head.name()).call();
+            // Rewritten on every update, so changed include patterns take effect
+            try (Stream<Path> entries = Files.list(dir)) {
+                for (Path entry : entries.filter(entry -> !entry.endsWith(Constants.DOT_GIT)).toList()) {
+                    FileUtil.deleteRecursively(entry);
+                }
+            }
+            checkoutIncluded(git, head, config);
+        } catch (GitAPIException | RuntimeException e) {
+            throw new IOException("Failed to update " + dir + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes the files of a commit that match the include patterns to the
+     * working tree. As in a gitignore file, the last pattern matching a path
+     * decides, and patterns starting with {@code !} exclude.
+     */
+    private void checkoutIncluded(Git git, ObjectId commit, WaverConfig.Checkout config)
+            throws IOException, GitAPIException {
+        if (commit == null) {
+            throw new IOException("Repository has no commits");
+        }
+        List<FastIgnoreRule> rules = config.include().stream().map(FastIgnoreRule::new).toList();
+        Repository repository = git.getRepository();
+        List<String> paths = new ArrayList<>();
+        try (TreeWalk walk = new TreeWalk(repository)) {
+            walk.reset(repository.parseCommit(commit).getTree());
+            walk.setRecursive(true);
+            while (walk.next()) {
+                if (walk.getFileMode() != FileMode.GITLINK && isIncluded(walk.getPathString(), rules)) {
+                    paths.add(walk.getPathString());
+                }
+            }
+        }
+        if (!paths.isEmpty()) {
+            git.checkout().setStartPoint(commit.name()).addPaths(paths).call();
+        }
+    }
+
+    private static boolean isIncluded(String path, List<FastIgnoreRule> rules) {
+        boolean included = false;
+        for (FastIgnoreRule rule : rules) {
+            if (rule.isMatch(path, false)) {
+                included = rule.getResult();
+            }
+        }
+        return included;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Persistent storage for the checkpoints of completed pipeline stages.
+ * <p>
+ * A checkpoint is an opaque serialized stage output, identified by the job
+ * id and the stage name.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public interface CheckpointStore {
+
+    /**
+     * Stores the checkpoint of a stage, replacing any previous one.
+     *
+     * @param jobId The job id
+     * @param stage The stage name
+     * @param checkpoint The serialized checkpoint
+     * @throws IOException if the checkpoint cannot be written
+     */
+    void save(String jobId, String stage, byte[] checkpoint) throws IOException;
+
+    /**
+     * Looks up the checkpoint of a stage.
+     *
+     * @param jobId The job id
+     * @param stage The stage name
+     * @return The serialized checkpoint, or empty if there is none
+     * @throws IOException if the checkpoint exists but cannot be read
+     */
+    Optional<byte[]> load(String jobId, String stage) throws IOException;
+
+    /**
+     * Removes all checkpoints of a job. Removing checkpoints that do not
+     * exist has no effect.
+     *
+     * @param jobId The job id
+     * @throws IOException if the checkpoints cannot be removed
+     */
+    void delete(String jobId) throws IOException;
+}
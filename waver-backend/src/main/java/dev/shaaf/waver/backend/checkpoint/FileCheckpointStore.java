@@ -0,0 +1,90 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import dev.shaaf.waver.backend.FileUtil;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Checkpoint store keeping one directory per job, with one JSON file per
+ * stage, in a local directory.
+ * <p>
+ * Files are written to a temporary file first and then moved into place,
+ * so a crash while writing never leaves a partial checkpoint behind.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class FileCheckpointStore implements CheckpointStore {
+
+    /** Suffix of checkpoint files. */
+    private static final String SUFFIX = ".json";
+
+    /** Directory holding the job directories. */
+    private final Path directory;
+
+    /**
+     * Constructs a new FileCheckpointStore, creating the directory if needed.
+     *
+     * @param directory The directory holding the job directories
+     * @throws IOException if the directory cannot be created or is not writable
+     */
+    public FileCheckpointStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        if (!Files.isWritable(this.directory)) {
+            throw new IOException("Checkpoint directory is not writable: " + directory);
+        }
+    }
+
+    @Override
+    public void save(String jobId, String stage, byte[] checkpoint) throws IOException {
+        Path jobDirectory = Files.createDirectories(directoryOf(jobId));
+        Path target = jobDirectory.resolve(fileName(stage));
+        Path temporary = Files.createTempFile(jobDirectory, stage, ".tmp");
+        try {
+            Files.write(temporary, checkpoint);
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> load(String jobId, String stage) throws IOException {
+        try {
+            return Optional.of(Files.readAllBytes(directoryOf(jobId).resolve(fileName(stage))));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String jobId) throws IOException {
+        FileUtil.deleteRecursively(directoryOf(jobId));
+    }
+
+    private Path directoryOf(String jobId) {
+        return directory.resolve(checkName("job id", jobId));
+    }
+
+    private static String fileName(String stage) {
+        return checkName("stage", stage) + SUFFIX;
+    }
+
+    private static String checkName(String kind, String name) {
+        if (name == null || name.isBlank() || name.contains("/") || name.contains("\\") || name.contains("..")) {
+            throw new IllegalArgumentException("Invalid " + kind + ": " + name);
+        }
+        return name;
+    }
+}
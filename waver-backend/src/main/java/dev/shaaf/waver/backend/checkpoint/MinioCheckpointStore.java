@@ -0,0 +1,118 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Checkpoint store keeping one JSON object per stage in the MinIO bucket.
+ * <p>
+ * Checkpoints are stored under {@value #PREFIX}, in one folder per job, so
+ * every replica finds the checkpoints of a job it claims.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MinioCheckpointStore implements CheckpointStore {
+
+    /** Object name prefix of checkpoint objects. */
+    public static final String PREFIX = ".waver/checkpoints/";
+
+    /** MinIO client for storage operations. */
+    private final MinioClient minioClient;
+
+    /** Bucket holding the checkpoint objects. */
+    private final String bucketName;
+
+    /**
+     * Constructs a new MinioCheckpointStore.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket holding the checkpoint objects
+     */
+    public MinioCheckpointStore(MinioClient minioClient, String bucketName) {
+        this.minioClient = minioClient;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public void save(String jobId, String stage, byte[] checkpoint) throws IOException {
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName(jobId, stage))
+                            .stream(new ByteArrayInputStream(checkpoint), checkpoint.length, -1)
+                            .contentType("application/json")
+                            .build());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to store checkpoint " + stage + " of job " + jobId, e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> load(String jobId, String stage) throws IOException {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(jobId, stage))
+                        .build())) {
+            return Optional.of(response.readAllBytes());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw new IOException("Failed to read checkpoint " + stage + " of job " + jobId, e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to read checkpoint " + stage + " of job " + jobId, e);
+        }
+    }
+
+    @Override
+    public void delete(String jobId) throws IOException {
+        try {
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(PREFIX + jobId + "/")
+                            .recursive(true)
+                            .build())) {
+                minioClient.removeObject(
+                        RemoveObjectArgs.builder()
+                                .bucket(bucketName)
+                                .object(result.get().objectName())
+                                .build());
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to delete checkpoints of job " + jobId, e);
+        }
+    }
+
+    /**
+     * Gets the object name of a checkpoint.
+     *
+     * @param jobId The job id
+     * @param stage The stage name
+     * @return The object name in the bucket
+     */
+    public static String objectName(String jobId, String stage) {
+        return PREFIX + jobId + "/" + stage + ".json";
+    }
+}
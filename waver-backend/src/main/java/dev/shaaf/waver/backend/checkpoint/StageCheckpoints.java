@@ -0,0 +1,199 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.shaaf.waver.backend.config.MinioConfig;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.minio.MinioClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Service saving and restoring the outputs of completed pipeline stages.
+ * <p>
+ * Stage outputs are classes of the tutorial library the backend does not
+ * know, so they are written as JSON together with their class names and
+ * restored as the same classes. Only classes of Waver, the JDK's common
+ * lists, maps and sets, {@link Optional}, time types, strings and boxed
+ * primitives are restored, so a tampered checkpoint cannot instantiate
+ * arbitrary classes.
+ * <p>
+ * Failing to save or restore a checkpoint is logged but never fails the
+ * generation itself; the stage is then simply run.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class StageCheckpoints {
+
+    /** Logger instance for this service. */
+    private static final Logger logger = Logger.getLogger(StageCheckpoints.class.getName());
+
+    /** Mapper recording the class of every value whose declared type does not tell it. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                    .allowIfSubType("dev.shaaf.waver.")
+                    .allowIfSubType(ArrayList.class)
+                    .allowIfSubType(HashMap.class)
+                    .allowIfSubType(LinkedHashMap.class)
+                    .allowIfSubType(HashSet.class)
+                    .allowIfSubType("java.util.ImmutableCollections$")
+                    .allowIfSubType(Optional.class)
+                    .allowIfSubType(String.class)
+                    .allowIfSubType(Boolean.class)
+                    .allowIfSubType(Character.class)
+                    .allowIfSubType(Byte.class)
+                    .allowIfSubType(Short.class)
+                    .allowIfSubType(Integer.class)
+                    .allowIfSubType(Long.class)
+                    .allowIfSubType(Float.class)
+                    .allowIfSubType(Double.class)
+                    .allowIfSubType("java.time.")
+                    .build(), ObjectMapper.DefaultTyping.NON_FINAL);
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected MinIO configuration settings. */
+    @Inject
+    MinioConfig minioConfig;
+
+    /** Injected MinIO client, used by the MinIO checkpoint store. */
+    @Inject
+    MinioClient minioClient;
+
+    /** Store the checkpoints are kept in; null if checkpoints are disabled. */
+    private CheckpointStore store;
+
+    /**
+     * Constructs a new StageCheckpoints whose store is created from the configuration.
+     */
+    public StageCheckpoints() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new StageCheckpoints with an explicit store.
+     *
+     * @param store The store the checkpoints are kept in, or null to disable checkpoints
+     */
+    public StageCheckpoints(CheckpointStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Creates the configured checkpoint store after dependency injection is
+     * complete. A local store whose directory cannot be written falls back to MinIO.
+     */
+    @PostConstruct
+    void init() {
+        WaverConfig.Checkpoints checkpoints = waverConfig.checkpoints();
+        if (store != null || !checkpoints.enabled()) {
+            return;
+        }
+        if (checkpoints.store() == WaverConfig.Checkpoints.Store.LOCAL) {
+            try {
+                store = new FileCheckpointStore(Paths.get(checkpoints.path()).toAbsolutePath());
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Local checkpoint store is not available, falling back to MinIO: " + e.getMessage());
+            }
+        }
+        store = new MinioCheckpointStore(minioClient, minioConfig.bucketName());
+    }
+
+    /**
+     * Checks whether stage outputs are checkpointed.
+     *
+     * @return true if checkpoints are enabled
+     */
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Saves the output of a completed stage.
+     *
+     * @param jobId The job id
+     * @param stage The stage name
+     * @param output The stage output
+     */
+    public void save(String jobId, String stage, Object output) {
+        if (store == null || output == null) {
+            return;
+        }
+        try {
+            store.save(jobId, stage, MAPPER.writeValueAsBytes(new StageCheckpoint(stage, Instant.now(), output)));
+            logger.fine("Checkpointed " + stage + " of job " + jobId);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to checkpoint " + stage + " of job " + jobId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restores the output of a stage that completed in an earlier run of the job.
+     *
+     * @param jobId The job id
+     * @param stage The stage name
+     * @return The stage output, or empty if the stage has no readable checkpoint
+     */
+    public Optional<Object> restore(String jobId, String stage) {
+        if (store == null) {
+            return Optional.empty();
+        }
+        try {
+            Optional<byte[]> checkpoint = store.load(jobId, stage);
+            if (checkpoint.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(MAPPER.readValue(checkpoint.get(), StageCheckpoint.class).output());
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Ignoring unreadable checkpoint " + stage + " of job " + jobId + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Removes all checkpoints of a job that will not run again.
+     *
+     * @param jobId The job id
+     */
+    public void discard(String jobId) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.delete(jobId);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to remove checkpoints of job " + jobId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The serialized form of a checkpoint.
+     *
+     * @param stage The stage name
+     * @param createdAt When the stage completed
+     * @param output The stage output
+     */
+    private record StageCheckpoint(String stage, Instant createdAt, Object output) {
+    }
+}
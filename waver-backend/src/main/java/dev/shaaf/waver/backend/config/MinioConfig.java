@@ -1,8 +1,12 @@
 package dev.shaaf.waver.backend.config;
 
+import io.quarkus.runtime.configuration.MemorySize;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.Duration;
+
 /**
  * Configuration interface for MinIO object storage settings.
  * <p>
@@ -46,4 +50,50 @@ public interface MinioConfig {
      */
     String bucketName();
 
+    /**
+     * Gets the settings used when uploading generated tutorials.
+     *
+     * @return The upload configuration
+     */
+    Upload upload();
+
+    /**
+     * Nested configuration interface for upload tuning settings.
+     */
+    interface Upload {
+        /**
+         * Gets the maximum number of files uploaded to MinIO at the same time.
+         * A value of 1 uploads files one after another.
+         *
+         * @return The upload concurrency limit
+         */
+        @WithDefault("8")
+        int concurrency();
+
+        /**
+         * Gets whether chapters are uploaded while the pipeline is still running.
+         * When disabled, everything is uploaded by the final pipeline stage.
+         *
+         * @return true if generated files are streamed to MinIO as they are written
+         */
+        @WithDefault("true")
+        boolean streaming();
+
+        /**
+         * Gets how often the output directory is scanned for new files when streaming.
+         *
+         * @return The interval between output directory scans
+         */
+        @WithDefault("2s")
+        Duration pollInterval();
+
+        /**
+         * Gets the size of a single part when a file is uploaded in multiple parts.
+         * Files up to this size are sent in a single request. Must be between 5M and 5G.
+         *
+         * @return The multipart upload part size
+         */
+        @WithDefault("16M")
+        MemorySize partSize();
+    }
 }
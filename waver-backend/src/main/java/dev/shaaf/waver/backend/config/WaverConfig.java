@@ -3,10 +3,16 @@ package dev.shaaf.waver.backend.config;
 
 import dev.shaaf.waver.llm.config.FormatConverter;
 import dev.shaaf.waver.llm.config.LLMProvider;
+import io.quarkus.runtime.configuration.MemorySize;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * Main configuration interface for Waver application settings.
@@ -65,6 +71,104 @@ public interface WaverConfig {
      */
     Gemini gemini();
 
+    /**
+     * Gets the settings of the queue that limits concurrent generation runs.
+     *
+     * @return The generation queue configuration
+     */
+    Queue queue();
+
+    /**
+     * Gets the settings of the store that keeps track of generation jobs.
+     *
+     * @return The job store configuration
+     */
+    Jobs jobs();
+
+    /**
+     * Gets the settings of the work queue shared by all replicas.
+     *
+     * @return The work configuration
+     */
+    Work work();
+
+    /**
+     * Gets the settings of the checkpoints of completed pipeline stages.
+     *
+     * @return The checkpoint configuration
+     */
+    Checkpoints checkpoints();
+
+    /**
+     * Gets the settings of the shared chat models.
+     *
+     * @return The chat model configuration
+     */
+    Models models();
+
+    /**
+     * Gets the settings of the LLM response cache.
+     *
+     * @return The response cache configuration
+     */
+    Cache cache();
+
+    /**
+     * Gets the settings of incremental regeneration.
+     *
+     * @return The incremental regeneration configuration
+     */
+    Incremental incremental();
+
+    /**
+     * Gets the settings of the cached checkouts of remote repositories.
+     *
+     * @return The checkout configuration
+     */
+    Checkout checkout();
+
+    /**
+     * Gets the size budget of the source files handed to the crawler.
+     *
+     * @return The ingest configuration
+     */
+    Ingest ingest();
+
+    /**
+     * Gets the settings of the map-reduce abstraction passes.
+     *
+     * @return The shard configuration
+     */
+    Shards shards();
+
+    /**
+     * Gets the threads the pipeline stages and uploads run on.
+     *
+     * @return The thread configuration
+     */
+    Threads threads();
+
+    /**
+     * Gets the retry and hedging settings of the LLM calls of the pipeline stages.
+     *
+     * @return The retry configuration
+     */
+    Retry retry();
+
+    /**
+     * Gets the settings of routing LLM calls over several providers.
+     *
+     * @return The routing configuration
+     */
+    Routing routing();
+
+    /**
+     * Gets the settings of streaming the answers of the chapter writer.
+     *
+     * @return The streaming configuration
+     */
+    Streaming streaming();
+
     /**
      * Nested configuration interface for OpenAI-specific settings.
      */
@@ -75,6 +179,23 @@ public interface WaverConfig {
          * @return Optional containing the API key if configured
          */
         Optional<String> apiKey();
+
+        /**
+         * Gets the request and token budgets of the OpenAI account.
+         *
+         * @return The OpenAI rate limit configuration
+         */
+        RateLimit rateLimit();
+
+        /**
+         * Gets the maximum number of tokens of source files handed to the
+         * crawler when generating with OpenAI. Larger repositories are packed
+         * into the budget by the {@link dev.shaaf.waver.backend.ingest.ContextPacker},
+         * which bounds the size of the abstraction prompt.
+         *
+         * @return The context token budget, or empty if only the ingest budget applies
+         */
+        OptionalInt contextTokens();
     }
 
     /**
@@ -87,5 +208,822 @@ public interface WaverConfig {
          * @return Optional containing the API key if configured
          */
         Optional<String> apiKey();
+
+        /**
+         * Gets the request and token budgets of the Gemini account.
+         *
+         * @return The Gemini rate limit configuration
+         */
+        RateLimit rateLimit();
+
+        /**
+         * Gets the maximum number of tokens of source files handed to the
+         * crawler when generating with Gemini. Larger repositories are packed
+         * into the budget by the {@link dev.shaaf.waver.backend.ingest.ContextPacker},
+         * which bounds the size of the abstraction prompt.
+         *
+         * @return The context token budget, or empty if only the ingest budget applies
+         */
+        OptionalInt contextTokens();
+    }
+
+    /**
+     * Nested configuration interface for the rate limits of an LLM provider.
+     * <p>
+     * The budgets are shared by all generation runs of this instance. Without
+     * configured budgets, calls are only slowed down after the provider
+     * answered with HTTP 429.
+     */
+    interface RateLimit {
+        /**
+         * Gets the number of requests the provider accepts per minute.
+         *
+         * @return The request budget, or empty if not limited
+         */
+        OptionalInt requestsPerMinute();
+
+        /**
+         * Gets the number of tokens, prompt and answer combined, the provider
+         * accepts per minute.
+         *
+         * @return The token budget, or empty if not limited
+         */
+        OptionalInt tokensPerMinute();
+
+        /**
+         * Gets how often a call rejected with HTTP 429 is retried.
+         *
+         * @return The maximum number of retries
+         */
+        @WithDefault("3")
+        int maxRetries();
+
+        /**
+         * Gets the pause after the first HTTP 429. Each further rejection in a
+         * row doubles it.
+         *
+         * @return The initial backoff
+         */
+        @WithDefault("2s")
+        Duration initialBackoff();
+
+        /**
+         * Gets the longest pause after an HTTP 429.
+         *
+         * @return The maximum backoff
+         */
+        @WithDefault("1m")
+        Duration maxBackoff();
+    }
+
+    /**
+     * Nested configuration interface for the generation work queue.
+     */
+    interface Queue {
+        /**
+         * Gets the maximum number of generation pipelines that run at the same time.
+         *
+         * @return The number of concurrently running pipelines
+         */
+        @WithDefault("2")
+        int maxInFlight();
+
+        /**
+         * Gets the maximum number of requests waiting for a free pipeline slot.
+         * Ignored by the {@link OverflowStrategy#BUFFER} strategy.
+         *
+         * @return The queue depth limit
+         */
+        @WithDefault("16")
+        int depth();
+
+        /**
+         * Gets what happens to a request that arrives while the queue is full.
+         *
+         * @return The overflow strategy
+         */
+        @WithDefault("REJECT")
+        OverflowStrategy overflow();
+
+        /**
+         * Gets how long a successful generation answers new requests for the same
+         * repository from its existing output instead of starting another run.
+         * A value of zero always starts a new run once the previous one has finished.
+         *
+         * @return The window after completion in which duplicates are not regenerated
+         */
+        @WithDefault("5m")
+        Duration completionWindow();
+
+        /**
+         * Gets the weights of the priority lanes. Waiting requests are
+         * started by weighted fair queuing: every tenant of a lane gets a
+         * share of the pipeline slots proportional to the weight of the lane,
+         * however many requests it submitted.
+         *
+         * @return The lane weights
+         */
+        Weights weights();
+
+        /**
+         * Nested configuration interface for the weights of the priority lanes.
+         */
+        interface Weights {
+            /**
+             * Gets the weight of the high priority lane.
+             *
+             * @return The weight, at least 1
+             */
+            @WithDefault("8")
+            int high();
+
+            /**
+             * Gets the weight of the normal priority lane.
+             *
+             * @return The weight, at least 1
+             */
+            @WithDefault("4")
+            int normal();
+
+            /**
+             * Gets the weight of the low priority lane.
+             *
+             * @return The weight, at least 1
+             */
+            @WithDefault("1")
+            int low();
+        }
+
+        /**
+         * Strategies for handling requests that do not fit into the queue.
+         */
+        enum OverflowStrategy {
+            /** The new request is refused and the caller is told the queue is full. */
+            REJECT,
+            /** The oldest waiting request is dropped to make room for the new one. */
+            DROP_OLDEST,
+            /** Every request is queued, regardless of the configured depth. */
+            BUFFER
+        }
+    }
+
+    /**
+     * Nested configuration interface for the job store.
+     */
+    interface Jobs {
+        /**
+         * Gets where generation jobs are persisted. The local store falls back
+         * to MinIO if its directory cannot be created or written.
+         *
+         * @return The job store type
+         */
+        @WithDefault("LOCAL")
+        Store store();
+
+        /**
+         * Gets the directory of the local job store.
+         *
+         * @return The job directory path
+         */
+        @WithDefault("jobs")
+        String path();
+
+        /**
+         * Gets the maximum number of jobs returned when listing jobs, newest first.
+         *
+         * @return The job list limit
+         */
+        @WithDefault("50")
+        int listLimit();
+
+        /**
+         * Gets how long a job is kept after its last change. Older jobs are
+         * removed once an hour, together with their latest-job pointer; a job
+         * that did not change for this long was abandoned by a replica that
+         * stopped, even if it never ended. Zero keeps jobs forever.
+         *
+         * @return The job retention
+         */
+        @WithDefault("7d")
+        Duration retention();
+
+        /**
+         * Supported job stores.
+         */
+        enum Store {
+            /** One JSON file per job in a local directory. */
+            LOCAL,
+            /** One JSON object per job in the MinIO bucket. */
+            MINIO
+        }
+    }
+
+    /**
+     * Nested configuration interface for the work queue shared by all replicas.
+     * <p>
+     * In {@link Mode#LOCAL} mode every replica runs the requests it receives
+     * and loses its queue on restart. In {@link Mode#LEASED} mode requests
+     * are queued in a {@link dev.shaaf.waver.backend.work.WorkStore}; every
+     * replica claims requests while it has a free pipeline slot, renews the
+     * lease while the pipeline runs, and requests of a replica that stopped
+     * renewing are claimed again by another one. Job status must then be
+     * shared as well, with {@code waver.jobs.store=MINIO}.
+     */
+    interface Work {
+        /**
+         * Gets how requests are distributed over the replicas.
+         *
+         * @return The work mode
+         */
+        @WithDefault("LOCAL")
+        Mode mode();
+
+        /**
+         * Gets where requests are queued in {@link Mode#LEASED} mode.
+         *
+         * @return The work store type
+         */
+        @WithDefault("MINIO")
+        Store store();
+
+        /**
+         * Gets how long a claimed request stays leased without renewal. The
+         * lease is renewed every third of this duration while the pipeline runs.
+         *
+         * @return The lease duration
+         */
+        @WithDefault("2m")
+        Duration lease();
+
+        /**
+         * Gets how often a replica with a free pipeline slot looks for requests to claim.
+         *
+         * @return The poll interval
+         */
+        @WithDefault("5s")
+        Duration pollInterval();
+
+        /**
+         * Gets how often a request is claimed before it is given up, for
+         * example because every replica processing it crashed.
+         *
+         * @return The maximum number of attempts
+         */
+        @WithDefault("3")
+        int maxAttempts();
+
+        /**
+         * Supported work modes.
+         */
+        enum Mode {
+            /** Every replica runs the requests it receives in its own queue. */
+            LOCAL,
+            /** Requests are queued in a shared store and claimed under a lease. */
+            LEASED
+        }
+
+        /**
+         * Supported work stores.
+         */
+        enum Store {
+            /** Items kept in memory; for a single replica and tests. */
+            MEMORY,
+            /** One JSON object per item in the MinIO bucket, changed with conditional writes. */
+            MINIO
+        }
+    }
+
+    /**
+     * Nested configuration interface for the checkpoints of completed
+     * pipeline stages.
+     * <p>
+     * Checkpoints are written for requests claimed in {@link Work.Mode#LEASED}
+     * mode, the only requests that are run again under the same job id: a
+     * replica claiming a request whose previous replica crashed resumes after
+     * the last checkpointed stage instead of repeating its LLM calls.
+     */
+    interface Checkpoints {
+        /**
+         * Gets whether the outputs of the LLM analysis stages are checkpointed.
+         *
+         * @return true if stage outputs are checkpointed
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Gets where checkpoints are kept. A crashed replica's checkpoints are
+         * only found by other replicas in MinIO; the local store needs the
+         * same persistent volume after a restart.
+         *
+         * @return The checkpoint store type
+         */
+        @WithDefault("MINIO")
+        Store store();
+
+        /**
+         * Gets the directory of the local checkpoint store.
+         *
+         * @return The checkpoint directory path
+         */
+        @WithDefault("checkpoints")
+        String path();
+
+        /**
+         * Supported checkpoint stores.
+         */
+        enum Store {
+            /** One directory of JSON files per job in a local directory. */
+            LOCAL,
+            /** One folder of JSON objects per job in the MinIO bucket. */
+            MINIO
+        }
+    }
+
+    /**
+     * Nested configuration interface for the shared chat models.
+     */
+    interface Models {
+        /**
+         * Gets whether the chat model of the configured provider is created at
+         * startup instead of on the first request.
+         *
+         * @return true if the model is created at startup
+         */
+        @WithDefault("true")
+        boolean warmUp();
+
+        /**
+         * Gets a prompt sent once to the model at startup, so that the connection
+         * and TLS session to the provider are open before the first request.
+         * Every warm-up call is billed by the provider, so it is disabled by default.
+         *
+         * @return Optional containing the warm-up prompt if configured
+         */
+        Optional<String> warmUpPrompt();
+    }
+
+    /**
+     * Nested configuration interface for the LLM response cache.
+     */
+    interface Cache {
+        /**
+         * Gets whether LLM responses are cached, so that re-running a repository
+         * does not pay again for identical prompts.
+         *
+         * @return true if responses are cached
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Gets the maximum number of responses kept in memory.
+         *
+         * @return The local entry limit
+         */
+        @WithDefault("1000")
+        int maxEntries();
+
+        /**
+         * Gets the maximum total size of the responses kept in memory. The least
+         * recently used responses are evicted first.
+         *
+         * @return The local size limit
+         */
+        @WithDefault("64M")
+        MemorySize maxSize();
+
+        /**
+         * Gets whether responses are also shared through the MinIO bucket, so
+         * that all instances and restarts reuse them.
+         *
+         * @return true if the MinIO tier is enabled
+         */
+        @WithDefault("false")
+        boolean shared();
+
+        /**
+         * Gets how long a cached response is reused.
+         *
+         * @return The time to live of a cached response
+         */
+        @WithDefault("7d")
+        Duration ttl();
+    }
+
+    /**
+     * Nested configuration interface for incremental regeneration.
+     */
+    interface Incremental {
+        /**
+         * Gets whether a run is skipped when the repository, and the settings
+         * shaping the output, are unchanged since the last complete upload.
+         *
+         * @return true if unchanged repositories are skipped
+         */
+        @WithDefault("true")
+        boolean enabled();
+    }
+
+    /**
+     * Nested configuration interface for the cached checkouts of remote repositories.
+     */
+    interface Checkout {
+        /**
+         * Gets whether remote repositories are checked out into the local
+         * cache before the Code-crawler stage. If disabled, or if the checkout
+         * fails, the crawler is given the URL itself.
+         *
+         * @return true if remote repositories are checked out
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Gets the directory the checkouts are cached in. It should be on a
+         * persistent volume that survives between runs, not in memory.
+         *
+         * @return The checkout cache directory
+         */
+        @WithDefault("repositories")
+        String path();
+
+        /**
+         * Gets the sparse-checkout patterns selecting the files that are
+         * checked out. They should cover the files the crawler reads.
+         *
+         * @return The gitignore-style include patterns
+         */
+        @WithDefault("*.java,*.kt,*.kts,*.scala,*.groovy,*.py,*.js,*.jsx,*.ts,*.tsx,*.go,*.rs,"
+                + "*.c,*.h,*.cpp,*.hpp,*.cs,*.rb,*.php,*.swift,*.md")
+        List<String> include();
+
+        /**
+         * Gets how long a clone or fetch may wait on the remote without
+         * receiving any data before it is abandoned.
+         *
+         * @return The git network timeout
+         */
+        @WithDefault("10m")
+        Duration timeout();
+    }
+
+    /**
+     * Nested configuration interface for the size budget of the crawled sources.
+     * <p>
+     * The crawler keeps every file it reads in memory. A repository larger
+     * than the budget is sampled, so memory use stays flat regardless of the
+     * repository size.
+     */
+    interface Ingest {
+        /**
+         * Gets the maximum total size of the files handed to the crawler.
+         *
+         * @return The byte budget
+         */
+        @WithDefault("16M")
+        MemorySize maxSize();
+
+        /**
+         * Gets the maximum number of tokens of the files handed to the crawler,
+         * at about four bytes per token. The smaller of both budgets applies.
+         *
+         * @return The token budget, or empty if only the byte budget applies
+         */
+        OptionalInt maxTokens();
+
+        /**
+         * Gets the maximum size of a single file handed to the crawler. Larger
+         * files are usually generated or bundled and are skipped.
+         *
+         * @return The per-file size limit
+         */
+        @WithDefault("512K")
+        MemorySize maxFileSize();
+    }
+
+    /**
+     * Nested configuration interface for the map-reduce abstraction passes.
+     * <p>
+     * A single abstraction call over a very large repository is truncated or
+     * fails. With sharding enabled, the crawled sources are split into
+     * module-sized shards, abstractions are identified per shard in parallel
+     * and merged before relationships are identified over all of them.
+     */
+    interface Shards {
+        /**
+         * Checks whether large repositories are split into shards.
+         *
+         * @return true if sharding is enabled
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Gets the maximum number of shards a repository is split into.
+         *
+         * @return The shard count
+         */
+        @WithDefault("4")
+        int count();
+
+        /**
+         * Gets the maximum number of shards whose abstractions are identified
+         * at the same time. All shards share the rate limit of the provider.
+         *
+         * @return The shard concurrency
+         */
+        @WithDefault("2")
+        int concurrency();
+
+        /**
+         * Gets the minimum number of crawled files for a repository to be
+         * split; smaller repositories are processed in a single pass.
+         *
+         * @return The file threshold
+         */
+        @WithDefault("500")
+        int minFiles();
+    }
+
+    /**
+     * Nested configuration interface for the threads the pipeline stages and
+     * uploads run on.
+     * <p>
+     * Stages that mostly wait for the LLM provider or MinIO run on the I/O
+     * executor; the crawler, source sampling and hashing run on a bounded pool
+     * of platform threads. Neither runs on the common fork-join pool.
+     */
+    interface Threads {
+        /**
+         * Gets the threads blocking I/O runs on.
+         *
+         * @return The I/O thread strategy
+         */
+        @WithDefault("VIRTUAL")
+        IoThreads io();
+
+        /**
+         * Gets the number of platform threads for blocking I/O with {@link IoThreads#PLATFORM}.
+         *
+         * @return The I/O pool size
+         */
+        @WithDefault("32")
+        int ioPoolSize();
+
+        /**
+         * Gets the number of platform threads for CPU-heavy work. Defaults to
+         * the number of available processors.
+         *
+         * @return Optional containing the CPU pool size if configured
+         */
+        OptionalInt cpuPoolSize();
+
+        /**
+         * Supported thread strategies for blocking I/O.
+         */
+        enum IoThreads {
+            /** A new virtual thread per task. */
+            VIRTUAL,
+            /** A fixed pool of platform threads. */
+            PLATFORM
+        }
+    }
+
+    /**
+     * Nested configuration interface for the retries and hedged requests of
+     * LLM calls.
+     * <p>
+     * A call that fails with a transient error, such as a timeout or an HTTP
+     * 5xx, is retried after a jittered exponential backoff, as long as the
+     * deadline of the call leaves time for it. Rate limit rejections are
+     * retried by the rate limiter instead. With hedging, a duplicate request
+     * is sent once a call has taken longer than the observed latency quantile
+     * of its stage, and whichever answers first is used. Every setting but the
+     * backoff can be overridden per stage under {@code waver.retry.stages.<stage>}.
+     */
+    interface Retry {
+        /**
+         * Gets whether LLM calls are retried and bounded by their deadline.
+         *
+         * @return true if calls are retried
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Gets how often a call is attempted at most, the first attempt included.
+         *
+         * @return The maximum number of attempts
+         */
+        @WithDefault("3")
+        int maxAttempts();
+
+        /**
+         * Gets how long a call may take, all attempts and backoffs included.
+         * Zero leaves calls unbounded, so a slow chapter is never abandoned.
+         *
+         * @return The deadline of a call, or zero for none
+         */
+        @WithDefault("0s")
+        Duration deadline();
+
+        /**
+         * Gets the upper bound of the pause before the first retry. It doubles
+         * with every further retry; the actual pause is drawn at random below it.
+         *
+         * @return The initial backoff
+         */
+        @WithDefault("1s")
+        Duration initialBackoff();
+
+        /**
+         * Gets the upper bound of the pause before a retry.
+         *
+         * @return The maximum backoff
+         */
+        @WithDefault("30s")
+        Duration maxBackoff();
+
+        /**
+         * Gets whether a duplicate request is sent for slow calls. Every hedge
+         * is billed by the provider.
+         *
+         * @return true if slow calls are hedged
+         */
+        @WithDefault("false")
+        boolean hedge();
+
+        /**
+         * Gets the quantile of the observed call latencies of a stage after
+         * which a call is hedged.
+         *
+         * @return The hedge quantile, between 0 and 1
+         */
+        @WithDefault("0.95")
+        double hedgeQuantile();
+
+        /**
+         * Gets how many calls of a stage must have been observed before its
+         * calls are hedged.
+         *
+         * @return The minimum number of observed calls
+         */
+        @WithDefault("20")
+        int hedgeMinSamples();
+
+        /**
+         * Gets the shortest time a call runs before it is hedged, however fast
+         * the stage usually answers.
+         *
+         * @return The minimum hedge delay
+         */
+        @WithDefault("5s")
+        Duration hedgeMinDelay();
+
+        /**
+         * Gets the settings of individual stages, keyed by stage name, such as
+         * {@code Technical-writer}.
+         *
+         * @return The stage settings
+         */
+        Map<String, Stage> stages();
+
+        /**
+         * Nested configuration interface for the retry settings of one stage.
+         * Settings that are not given are taken from {@link Retry}.
+         */
+        interface Stage {
+            /**
+             * Gets whether the calls of the stage are retried.
+             *
+             * @return Optional containing whether calls are retried if configured
+             */
+            Optional<Boolean> enabled();
+
+            /**
+             * Gets how often a call of the stage is attempted at most.
+             *
+             * @return The maximum number of attempts, or empty if not configured
+             */
+            OptionalInt maxAttempts();
+
+            /**
+             * Gets how long a call of the stage may take.
+             *
+             * @return Optional containing the deadline if configured
+             */
+            Optional<Duration> deadline();
+
+            /**
+             * Gets whether slow calls of the stage are hedged.
+             *
+             * @return Optional containing whether calls are hedged if configured
+             */
+            Optional<Boolean> hedge();
+        }
+    }
+
+    /**
+     * Nested configuration interface for routing LLM calls over several
+     * providers.
+     * <p>
+     * Every provider is called with its own API key, {@code waver.<provider>.api-key},
+     * and draws from its own rate budget, {@code waver.<provider>.rate-limit}.
+     * A call rejected with HTTP 429 or failing otherwise is sent to the next
+     * provider instead of being retried by the rate limiter. Providers without
+     * an API key are left out.
+     */
+    interface Routing {
+        /**
+         * Gets whether LLM calls are routed over several providers. Otherwise
+         * only {@code waver.llm-provider} is called.
+         *
+         * @return true if calls are routed
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Gets the providers calls are routed to, in order of preference.
+         *
+         * @return Optional containing the providers if configured, otherwise only {@code waver.llm-provider}
+         */
+        Optional<List<LLMProvider>> providers();
+
+        /**
+         * Gets how the provider of a call is chosen.
+         *
+         * @return The routing strategy
+         */
+        @WithDefault("LEAST_LOADED")
+        Strategy strategy();
+
+        /**
+         * Gets whether a generation run sticks to the provider that answered
+         * its first call, so all chapters of a tutorial are written by the
+         * same model. The run only moves on when that provider fails.
+         *
+         * @return true if runs are pinned to a provider
+         */
+        @WithDefault("true")
+        boolean pinJobs();
+
+        /**
+         * Gets how long a provider is avoided after a failed call.
+         *
+         * @return The cooldown
+         */
+        @WithDefault("30s")
+        Duration cooldown();
+
+        /**
+         * Strategies for choosing the provider of a call.
+         */
+        enum Strategy {
+            /** The provider with the fewest calls in flight across all runs. */
+            LEAST_LOADED,
+            /** The provider with the lowest average latency of its recent calls. */
+            LOWEST_LATENCY
+        }
+    }
+
+    /**
+     * Nested configuration interface for streaming the answers of the chapter
+     * writer.
+     * <p>
+     * With streaming, the Technical-writer stage calls the streaming chat
+     * model of the provider and appends the tokens of every chapter to a
+     * draft file below {@code <output-path>/.drafts/<project>/} as they
+     * arrive. A draft is removed once its chapter has been written to the
+     * tutorial. Long chapters are not cut off by the read timeout of a
+     * blocking call, and their progress can be followed on disk.
+     */
+    interface Streaming {
+        /**
+         * Gets whether chapters are streamed from the provider.
+         *
+         * @return true if chapters are streamed
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Gets how much text of a chapter is buffered before it is flushed to
+         * its draft file.
+         *
+         * @return The flush size
+         */
+        @WithDefault("4K")
+        MemorySize flushSize();
+
+        /**
+         * Gets how long a streamed chapter waits for the next token before it
+         * is abandoned and retried.
+         *
+         * @return The idle timeout
+         */
+        @WithDefault("2m")
+        Duration idleTimeout();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+package dev.shaaf.waver.backend.ingest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Packs the most informative files of a repository into a token budget.
+ * <p>
+ * The abstraction stage sees every file the crawler reads, so its prompt
+ * grows with the repository until it hits the context limit or the cost
+ * ceiling of the provider. The packer ranks files by structural importance
+ * and keeps the highest ranked files that fit into the budget:
+ * <ul>
+ *     <li>Fan-in: the number of other files that mention the file's name, as
+ *         an import, a type reference or a module path. Files many others
+ *         depend on describe the core abstractions.</li>
+ *     <li>Public API surface: the number of public or exported declarations.</li>
+ *     <li>Size: larger files cost more of the budget and rank lower at equal importance.</li>
+ * </ul>
+ * Tests, examples and documentation, and vendored or generated code, are
+ * weighted down as in {@link SourceSampler#priority(Path)}. Token counts
+ * come from the {@link TokenEstimator}. Files are read line by line, so only
+ * the names they mention are kept in memory.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class ContextPacker {
+
+    /** Weight of one referencing file relative to one public declaration. */
+    private static final int FAN_IN_WEIGHT = 4;
+
+    /** Names shorter than this are too ambiguous to count as references. */
+    private static final int MIN_NAME_LENGTH = 3;
+
+    /** Lines declaring a public or exported symbol in common languages. */
+    private static final Pattern DECLARATION = Pattern.compile(
+            "^\\s*(?:public|export|pub)\\b|^(?:def|func|fn|class|interface|module)\\s");
+
+    /** File names that are too common to count as references. */
+    private static final Set<String> COMMON_NAMES = Set.of(
+            "index", "main", "mod", "lib", "init", "__init__", "setup", "test", "tests", "util", "utils",
+            "readme", "license", "package", "makefile", "config", "types");
+
+    /** Maximum estimated tokens of the packed files. */
+    private final long maxTokens;
+
+    /**
+     * Constructs a new ContextPacker.
+     *
+     * @param maxTokens The maximum estimated tokens of the packed files
+     */
+    public ContextPacker(long maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Ranks files of a repository and keeps the highest ranked ones that fit
+     * into the budget. A file that does not fit is skipped, but lower ranked
+     * smaller files may still be taken.
+     *
+     * @param root The repository root
+     * @param files The candidate files, relative to the repository root
+     * @return The packed files
+     * @throws IOException if a file cannot be read
+     */
+    public Packing pack(Path root, List<Path> files) throws IOException {
+        Map<String, List<Integer>> filesByName = new HashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            String name = referenceName(files.get(i));
+            if (name != null) {
+                filesByName.computeIfAbsent(name, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<FileStats> stats = new ArrayList<>(files.size());
+        int[] fanIn = new int[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            FileStats file = scan(root, files.get(i), filesByName.keySet());
+            stats.add(file);
+            String ownName = referenceName(file.path());
+            for (String name : file.references()) {
+                if (!name.equals(ownName)) {
+                    filesByName.get(name).forEach(index -> fanIn[index]++);
+                }
+            }
+        }
+
+        List<RankedFile> ranked = new ArrayList<>(files.size());
+        long totalTokens = 0;
+        for (int i = 0; i < stats.size(); i++) {
+            FileStats file = stats.get(i);
+            totalTokens += file.tokens();
+            ranked.add(new RankedFile(file.path(), file.tokens(), score(file, fanIn[i])));
+        }
+        ranked.sort(Comparator.comparingDouble(RankedFile::score).reversed()
+                .thenComparingLong(RankedFile::tokens)
+                .thenComparing(file -> file.path().toString()));
+
+        List<Path> packed = new ArrayList<>();
+        long packedTokens = 0;
+        for (RankedFile file : ranked) {
+            if (packedTokens + file.tokens() <= maxTokens) {
+                packed.add(file.path());
+                packedTokens += file.tokens();
+            }
+        }
+        return new Packing(packed, packedTokens, files.size(), totalTokens);
+    }
+
+    /**
+     * Gets the name other files use to refer to a file: its file name
+     * without extension.
+     *
+     * @param file The path of the file
+     * @return The name, or null if it is too short or too common to tell references apart
+     */
+    static String referenceName(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        if (dot >= 0) {
+            name = name.substring(0, dot);
+        }
+        return name.length() < MIN_NAME_LENGTH || COMMON_NAMES.contains(name.toLowerCase(Locale.ROOT))
+                ? null
+                : name;
+    }
+
+    private static double score(FileStats file, int fanIn) {
+        double importance = 1 + FAN_IN_WEIGHT * fanIn + file.declarations();
+        double cost = Math.log(file.tokens() + 2) / Math.log(2);
+        return importance / ((1 << SourceSampler.priority(file.path())) * cost);
+    }
+
+    private static FileStats scan(Path root, Path file, Set<String> names) throws IOException {
+        TokenEstimator estimator = new TokenEstimator();
+        Set<String> references = new HashSet<>();
+        int declarations = 0;
+        // Malformed input is replaced rather than reported, so binary files are estimated too
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(root.resolve(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                estimator.accept(line).accept("\n");
+                if (DECLARATION.matcher(line).find()) {
+                    declarations++;
+                }
+                collectReferences(line, names, references);
+            }
+        }
+        return new FileStats(file, estimator.tokens(), declarations, references);
+    }
+
+    private static void collectReferences(String line, Set<String> names, Set<String> references) {
+        int start = -1;
+        for (int i = 0; i <= line.length(); i++) {
+            boolean identifier = i < line.length()
+                    && (Character.isLetterOrDigit(line.charAt(i)) || line.charAt(i) == '_');
+            if (identifier && start < 0) {
+                start = i;
+            } else if (!identifier && start >= 0) {
+                if (i - start >= MIN_NAME_LENGTH) {
+                    String word = line.substring(start, i);
+                    if (names.contains(word)) {
+                        references.add(word);
+                    }
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * What scanning a file found.
+     *
+     * @param path The path relative to the repository root
+     * @param tokens The estimated token count
+     * @param declarations The number of public or exported declarations
+     * @param references The names of other files the file mentions
+     */
+    private record FileStats(Path path, long tokens, int declarations, Set<String> references) {
+    }
+
+    /**
+     * A file with its rank.
+     *
+     * @param path The path relative to the repository root
+     * @param tokens The estimated token count
+     * @param score The importance per cost; higher is packed first
+     */
+    private record RankedFile(Path path, long tokens, double score) {
+    }
+
+    /**
+     * Files packed into the budget.
+     *
+     * @param files The packed files, relative to the repository root, highest ranked first
+     * @param tokens The estimated tokens of the packed files
+     * @param totalFiles The number of candidate files
+     * @param totalTokens The estimated tokens of all candidate files
+     */
+    public record Packing(List<Path> files, long tokens, int totalFiles, long totalTokens) {
+
+        /**
+         * Checks whether every candidate file was packed.
+         *
+         * @return true if nothing was left out
+         */
+        public boolean isComplete() {
+            return files.size() == totalFiles;
+        }
+    }
+}
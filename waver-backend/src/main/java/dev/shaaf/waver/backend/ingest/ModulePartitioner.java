@@ -0,0 +1,145 @@
+package dev.shaaf.waver.backend.ingest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Partitions the files of a repository into module-sized shards of similar
+ * weight.
+ * <p>
+ * Files are first grouped by their top-level directory. A group heavier
+ * than a fair share of the total is split by the next directory level, until
+ * no group exceeds the fair share or a group only holds files of a single
+ * directory. The groups are then distributed over the shards, heaviest
+ * first, each into the lightest shard so far. A module is therefore only
+ * split across shards if it alone would outweigh a shard.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ModulePartitioner {
+
+    private ModulePartitioner() {
+    }
+
+    /**
+     * Partitions files into shards.
+     *
+     * @param files The files, in any order
+     * @param pathOf Gets the path of a file relative to the repository root, with '/' or '\' separators
+     * @param weightOf Gets the weight of a file, such as its size
+     * @param count The maximum number of shards
+     * @param <T> The type of the files
+     * @return The non-empty shards, ordered by their first file, each keeping the order of the given files
+     */
+    public static <T> List<List<T>> partition(List<T> files, Function<T, String> pathOf,
+                                              ToLongFunction<T> weightOf, int count) {
+        if (count <= 1 || files.size() <= 1) {
+            return List.of(files);
+        }
+
+        List<String[]> directories = new ArrayList<>(files.size());
+        long[] weights = new long[files.size()];
+        long total = 0;
+        List<Integer> all = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String[] segments = pathOf.apply(files.get(i)).replace('\\', '/').split("/");
+            directories.add(Arrays.copyOf(segments, segments.length - 1));
+            weights[i] = Math.max(0, weightOf.applyAsLong(files.get(i)));
+            total += weights[i];
+            all.add(i);
+        }
+
+        long fairShare = Math.max(1, (total + count - 1) / count);
+        List<Module> modules = new ArrayList<>(split(new Module(0, all, total), directories, weights));
+        while (true) {
+            Module largest = modules.stream()
+                    .filter(module -> module.splittable && module.weight > fairShare)
+                    .max(Comparator.comparingLong(module -> module.weight))
+                    .orElse(null);
+            if (largest == null) {
+                break;
+            }
+            modules.remove(largest);
+            modules.addAll(split(largest, directories, weights));
+        }
+
+        modules.sort(Comparator.comparingLong((Module module) -> module.weight).reversed()
+                .thenComparingInt(module -> module.files.getFirst()));
+        List<List<Integer>> shards = new ArrayList<>();
+        long[] shardWeights = new long[count];
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (Module module : modules) {
+            int lightest = 0;
+            for (int i = 1; i < count; i++) {
+                if (shardWeights[i] < shardWeights[lightest]) {
+                    lightest = i;
+                }
+            }
+            shards.get(lightest).addAll(module.files);
+            shardWeights[lightest] += module.weight;
+        }
+
+        return shards.stream()
+                .filter(shard -> !shard.isEmpty())
+                .map(shard -> shard.stream().sorted().toList())
+                .sorted(Comparator.comparingInt(List::getFirst))
+                .map(shard -> shard.stream().map(files::get).toList())
+                .toList();
+    }
+
+    /**
+     * Splits a module by the next directory level. Files directly in the
+     * module's directory stay together.
+     */
+    private static List<Module> split(Module module, List<String[]> directories, long[] weights) {
+        int depth = module.depth + 1;
+        Map<String, List<Integer>> children = new LinkedHashMap<>();
+        boolean deeper = false;
+        for (int file : module.files) {
+            String[] dirs = directories.get(file);
+            deeper |= dirs.length >= depth;
+            String key = String.join("/", Arrays.copyOf(dirs, Math.min(depth, dirs.length)));
+            children.computeIfAbsent(key, k -> new ArrayList<>()).add(file);
+        }
+        if (!deeper) {
+            return List.of(new Module(module.depth, module.files, module.weight, false));
+        }
+        List<Module> result = new ArrayList<>();
+        for (List<Integer> child : children.values()) {
+            long weight = child.stream().mapToLong(file -> weights[file]).sum();
+            result.add(new Module(depth, child, weight));
+        }
+        return result;
+    }
+
+    /**
+     * A group of files sharing the directories up to a depth.
+     */
+    private static final class Module {
+        final int depth;
+        final List<Integer> files;
+        final long weight;
+        final boolean splittable;
+
+        Module(int depth, List<Integer> files, long weight) {
+            this(depth, files, weight, true);
+        }
+
+        Module(int depth, List<Integer> files, long weight, boolean splittable) {
+            this.depth = depth;
+            this.files = files;
+            this.weight = weight;
+            this.splittable = splittable;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package dev.shaaf.waver.backend.ingest;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Selects the files of a source repository that fit into a size budget.
+ * <p>
+ * The crawler reads every file it is given into memory, so the budget bounds
+ * the memory a run needs regardless of the size of the repository. Only file
+ * sizes are read when selecting; contents are never loaded.
+ * <p>
+ * Files larger than the per-file limit are skipped, as they are usually
+ * generated or bundled. The rest are taken greedily in order of priority:
+ * regular sources first, then tests, examples and documentation, then
+ * vendored and generated code; within a priority, files closer to the
+ * repository root come first. A file that does not fit into the remaining
+ * budget is skipped, but smaller files after it may still be taken.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class SourceSampler {
+
+    /** Bytes per token assumed when converting a token budget into bytes. */
+    public static final int BYTES_PER_TOKEN = 4;
+
+    /** Directory names whose files are taken after regular sources. */
+    private static final Set<String> SECONDARY_DIRECTORIES = Set.of(
+            "test", "tests", "__tests__", "spec", "specs", "example", "examples", "sample", "samples",
+            "doc", "docs", "benchmark", "benchmarks");
+
+    /** Directory names whose files are taken last. */
+    private static final Set<String> VENDORED_DIRECTORIES = Set.of(
+            "vendor", "third_party", "thirdparty", "node_modules", "generated", "dist", "build", "target", "out");
+
+    /** Maximum total size of the selected files, in bytes. */
+    private final long maxBytes;
+
+    /** Maximum size of a single selected file, in bytes. */
+    private final long maxFileSize;
+
+    /**
+     * Constructs a new SourceSampler.
+     *
+     * @param maxBytes The maximum total size of the selected files, in bytes
+     * @param maxFileSize The maximum size of a single selected file, in bytes
+     */
+    public SourceSampler(long maxBytes, long maxFileSize) {
+        this.maxBytes = maxBytes;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Selects the files of a repository that fit into the budget. Files below
+     * {@code .git} directories and symbolic links are ignored.
+     *
+     * @param root The repository root
+     * @return The selected files
+     * @throws IOException if the repository cannot be read
+     */
+    public Selection select(Path root) throws IOException {
+        List<SourceFile> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dir.getFileName() != null && ".git".equals(dir.getFileName().toString())
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    files.add(new SourceFile(root.relativize(file), attrs.size()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(Comparator.comparingInt((SourceFile file) -> priority(file.path()))
+                .thenComparingInt(file -> file.path().getNameCount())
+                .thenComparing(file -> file.path().toString()));
+
+        List<Path> selected = new ArrayList<>();
+        long selectedBytes = 0;
+        long totalBytes = 0;
+        for (SourceFile file : files) {
+            totalBytes += file.size();
+            if (file.size() <= maxFileSize && selectedBytes + file.size() <= maxBytes) {
+                selected.add(file.path());
+                selectedBytes += file.size();
+            }
+        }
+        return new Selection(selected, selectedBytes, files.size(), totalBytes);
+    }
+
+    /**
+     * Makes files of a repository available in another directory, keeping
+     * their relative paths. Files are hard linked where the file system
+     * allows it and copied otherwise; either way their content is streamed,
+     * never held in memory.
+     *
+     * @param root The repository root
+     * @param files The files to make available, relative to the repository root
+     * @param target The directory to place them in
+     * @throws IOException if a file cannot be linked or copied
+     */
+    public static void materialize(Path root, List<Path> files, Path target) throws IOException {
+        for (Path file : files) {
+            Path source = root.resolve(file);
+            Path destination = target.resolve(file.toString());
+            Files.createDirectories(destination.getParent());
+            try {
+                Files.createLink(destination, source);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(source, destination);
+            }
+        }
+    }
+
+    /**
+     * Gets the priority of a file; lower values are selected first.
+     *
+     * @param file The path of the file relative to the repository root
+     * @return 0 for regular sources, 1 for tests, examples and documentation, 2 for vendored and generated code
+     */
+    static int priority(Path file) {
+        int priority = 0;
+        for (int i = 0; i < file.getNameCount() - 1; i++) {
+            String name = file.getName(i).toString().toLowerCase(Locale.ROOT);
+            if (VENDORED_DIRECTORIES.contains(name)) {
+                return 2;
+            }
+            if (SECONDARY_DIRECTORIES.contains(name)) {
+                priority = 1;
+            }
+        }
+        return priority;
+    }
+
+    /**
+     * A file of the repository and its size.
+     *
+     * @param path The path relative to the repository root
+     * @param size The size in bytes
+     */
+    private record SourceFile(Path path, long size) {
+    }
+
+    /**
+     * Files selected from a repository.
+     *
+     * @param files The selected files, relative to the repository root, in order of priority
+     * @param bytes The total size of the selected files
+     * @param totalFiles The number of files in the repository
+     * @param totalBytes The total size of all files in the repository
+     */
+    public record Selection(List<Path> files, long bytes, int totalFiles, long totalBytes) {
+
+        /**
+         * Checks whether every file of the repository was selected.
+         *
+         * @return true if nothing was left out
+         */
+        public boolean isComplete() {
+            return files.size() == totalFiles;
+        }
+    }
+}
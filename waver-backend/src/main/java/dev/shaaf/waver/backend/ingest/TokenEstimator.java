@@ -0,0 +1,113 @@
+package dev.shaaf.waver.backend.ingest;
+
+/**
+ * Fast local estimate of the number of tokens an LLM tokenizer produces for
+ * a text, without loading a vocabulary.
+ * <p>
+ * The estimate follows how byte-pair encoders split source code: a word of
+ * up to four letters or digits is one token and longer words take one token
+ * per four characters; a space before a word is merged into it; a line break
+ * with the indentation after it is one token; punctuation takes one token per
+ * two characters; any other character, such as CJK text or emoji, takes one
+ * token each. The result is usually slightly above the real count, which is
+ * the safe side for a budget.
+ * <p>
+ * Text can be fed in chunks of any size; words split across chunks are
+ * counted once. Instances are not thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TokenEstimator {
+
+    /** Characters of a word covered by one token. */
+    private static final int CHARS_PER_WORD_TOKEN = 4;
+
+    /** Characters of a punctuation run covered by one token. */
+    private static final int CHARS_PER_SYMBOL_TOKEN = 2;
+
+    /** Kinds of character runs. */
+    private enum Run { NONE, WORD, SYMBOL, SPACE, LINE }
+
+    /** Tokens of the completed runs. */
+    private long tokens;
+
+    /** Kind of the run in progress. */
+    private Run run = Run.NONE;
+
+    /** Length of the run in progress. */
+    private int length;
+
+    /**
+     * Estimates the number of tokens of a text.
+     *
+     * @param text The text
+     * @return The estimated token count
+     */
+    public static long estimate(CharSequence text) {
+        TokenEstimator estimator = new TokenEstimator();
+        estimator.accept(text);
+        return estimator.tokens();
+    }
+
+    /**
+     * Adds the next chunk of the text.
+     *
+     * @param chunk The chunk
+     * @return This estimator
+     */
+    public TokenEstimator accept(CharSequence chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '\n' || c == '\r') {
+                next(Run.LINE);
+            } else if (Character.isWhitespace(c)) {
+                if (run != Run.LINE) {
+                    next(Run.SPACE);
+                }
+            } else if (c < 0x80 && (Character.isLetterOrDigit(c) || c == '_')) {
+                next(Run.WORD);
+            } else if (c < 0x80) {
+                next(Run.SYMBOL);
+            } else if (!Character.isLowSurrogate(c)) {
+                // Non-ASCII letters, ideographs and emoji are rarely merged
+                close();
+                tokens++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets the estimated number of tokens of the text fed so far.
+     *
+     * @return The estimated token count
+     */
+    public long tokens() {
+        return tokens + tokensOf(run, length);
+    }
+
+    private void next(Run kind) {
+        if (kind != run) {
+            close();
+            run = kind;
+        }
+        length++;
+    }
+
+    private void close() {
+        tokens += tokensOf(run, length);
+        run = Run.NONE;
+        length = 0;
+    }
+
+    private static long tokensOf(Run kind, int length) {
+        return switch (kind) {
+            case WORD -> (length + CHARS_PER_WORD_TOKEN - 1) / CHARS_PER_WORD_TOKEN;
+            case SYMBOL -> (length + CHARS_PER_SYMBOL_TOKEN - 1) / CHARS_PER_SYMBOL_TOKEN;
+            case LINE -> 1;
+            case SPACE, NONE -> 0;
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package dev.shaaf.waver.backend.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Job store keeping one JSON file per job in a local directory.
+ * <p>
+ * Files are written to a temporary file first and then moved into place,
+ * so readers never see a partially written job. The latest-job pointers are
+ * text files holding a job id in the {@value #LATEST} subdirectory.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class FileJobStore implements JobStore {
+
+    /** Logger instance for this store. */
+    private static final Logger logger = Logger.getLogger(FileJobStore.class.getName());
+
+    /** Suffix of job files. */
+    private static final String SUFFIX = ".json";
+
+    /** Subdirectory holding the latest-job pointers. */
+    private static final String LATEST = "latest";
+
+    /** Directory holding the job files. */
+    private final Path directory;
+
+    /**
+     * Constructs a new FileJobStore, creating the directory if needed.
+     *
+     * @param directory The directory holding the job files
+     * @throws IOException if the directory cannot be created or is not writable
+     */
+    public FileJobStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        if (!Files.isWritable(this.directory)) {
+            throw new IOException("Job directory is not writable: " + directory);
+        }
+    }
+
+    @Override
+    public void save(GenerationJob job) throws IOException {
+        write(fileOf(job.id()), JobJson.write(job));
+    }
+
+    @Override
+    public Optional<GenerationJob> find(String id) throws IOException {
+        try (InputStream in = Files.newInputStream(fileOf(id))) {
+            return Optional.of(JobJson.read(in));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<GenerationJob> list() throws IOException {
+        List<GenerationJob> jobs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    jobs.add(JobJson.read(in));
+                } catch (IOException e) {
+                    logger.warning("Skipping unreadable job file " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return jobs;
+    }
+
+    @Override
+    public void delete(String id) throws IOException {
+        Files.deleteIfExists(fileOf(id));
+    }
+
+    @Override
+    public void saveLatest(String key, String id) throws IOException {
+        Path pointer = pointerOf(key);
+        Files.createDirectories(pointer.getParent());
+        write(pointer, id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Optional<String> findLatest(String key) throws IOException {
+        try {
+            return Optional.of(Files.readString(pointerOf(key), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void deleteLatest(String key) throws IOException {
+        Files.deleteIfExists(pointerOf(key));
+    }
+
+    private void write(Path target, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, content);
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path pointerOf(String key) {
+        return directory.resolve(LATEST).resolve(JobJson.pointerName(key));
+    }
+
+    private Path fileOf(String id) {
+        if (id == null || id.isBlank() || id.contains("/") || id.contains("\\") || id.contains("..")) {
+            throw new IllegalArgumentException("Invalid job id: " + id);
+        }
+        return directory.resolve(id + SUFFIX);
+    }
+}
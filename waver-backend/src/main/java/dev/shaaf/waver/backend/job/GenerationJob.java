@@ -0,0 +1,88 @@
+package dev.shaaf.waver.backend.job;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Record representing a tutorial generation job and its progress.
+ * <p>
+ * Jobs are immutable; every state change produces a new instance that is
+ * stored by the {@link JobService}. The time each state was entered is kept
+ * in {@code stageTimestamps}, so callers can see how long every stage took.
+ *
+ * @param id The unique job id
+ * @param sourceUrl The source URL the job generates a tutorial for
+ * @param state The current state
+ * @param createdAt When the job was queued
+ * @param updatedAt When the job last changed
+ * @param stageTimestamps When each state was entered, in state order
+ * @param error The failure reason if the job failed, otherwise null
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RegisterForReflection
+public record GenerationJob(String id, String sourceUrl, JobState state, Instant createdAt, Instant updatedAt,
+                            Map<JobState, Instant> stageTimestamps, String error) {
+
+    /**
+     * Creates a new GenerationJob, copying the stage timestamps into an unmodifiable, state-ordered map.
+     */
+    public GenerationJob {
+        EnumMap<JobState, Instant> timestamps = new EnumMap<>(JobState.class);
+        if (stageTimestamps != null) {
+            timestamps.putAll(stageTimestamps);
+        }
+        stageTimestamps = Collections.unmodifiableMap(timestamps);
+    }
+
+    /**
+     * Creates a job in the {@link JobState#QUEUED} state.
+     *
+     * @param id The unique job id
+     * @param sourceUrl The source URL to generate a tutorial for
+     * @param now The current time
+     * @return The queued job
+     */
+    public static GenerationJob queued(String id, String sourceUrl, Instant now) {
+        return new GenerationJob(id, sourceUrl, JobState.QUEUED, now, now, Map.of(JobState.QUEUED, now), null);
+    }
+
+    /**
+     * Moves the job to another state. Entering a state for the second time
+     * keeps the timestamp of the first entry, and a terminal job never changes.
+     *
+     * @param next The new state
+     * @param now The current time
+     * @return The updated job
+     */
+    public GenerationJob withState(JobState next, Instant now) {
+        if (state.isTerminal() || state == next) {
+            return this;
+        }
+        Map<JobState, Instant> timestamps = new EnumMap<>(JobState.class);
+        timestamps.putAll(stageTimestamps);
+        timestamps.putIfAbsent(next, now);
+        return new GenerationJob(id, sourceUrl, next, createdAt, now, timestamps, error);
+    }
+
+    /**
+     * Marks the job as failed.
+     *
+     * @param reason The failure reason
+     * @param now The current time
+     * @return The failed job, or this job if it had already ended
+     */
+    public GenerationJob failed(String reason, Instant now) {
+        if (state.isTerminal()) {
+            return this;
+        }
+        GenerationJob failed = withState(JobState.FAILED, now);
+        return new GenerationJob(id, sourceUrl, failed.state(), createdAt, now, failed.stageTimestamps(), reason);
+    }
+}
@@ -0,0 +1,48 @@
+package dev.shaaf.waver.backend.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * JSON serialization of generation jobs, and naming of the latest-job
+ * pointers, shared by the job stores.
+ */
+final class JobJson {
+
+    /** Mapper writing timestamps as ISO-8601 strings. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private JobJson() {
+    }
+
+    static byte[] write(GenerationJob job) throws IOException {
+        return MAPPER.writeValueAsBytes(job);
+    }
+
+    static GenerationJob read(InputStream in) throws IOException {
+        return MAPPER.readValue(in, GenerationJob.class);
+    }
+
+    /**
+     * Gets the name of the latest-job pointer of a repository, which is safe
+     * as a file and object name whatever the source URL contains.
+     */
+    static String pointerName(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
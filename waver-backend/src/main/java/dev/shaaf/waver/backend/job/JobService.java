@@ -0,0 +1,392 @@
+package dev.shaaf.waver.backend.job;
+
+import dev.shaaf.waver.backend.FileUtil;
+import dev.shaaf.waver.backend.config.MinioConfig;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.process.BackendProcessingService;
+import dev.shaaf.waver.backend.process.StageListener;
+import io.minio.MinioClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.logging.Logger;
+
+/**
+ * Service keeping track of tutorial generation jobs.
+ * <p>
+ * Every accepted generation request gets a job that moves through the
+ * {@link JobState} lifecycle as the pipeline progresses. Jobs are persisted
+ * in the configured {@link JobStore} on every change, so their status can be
+ * polled through {@link dev.shaaf.waver.backend.JobFunqy} from any instance.
+ * Jobs this instance is running are additionally kept in memory, as are jobs
+ * whose latest change could not be persisted; all other jobs, including those
+ * this instance only queued for another replica, are read from the store.
+ * <p>
+ * The newest job of every repository is recorded in the store as well, so it
+ * is found without listing all jobs. Jobs are removed once they have not
+ * changed for {@code waver.jobs.retention}.
+ * <p>
+ * Failing to persist a job is logged but never fails the generation itself.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class JobService {
+
+    /** Logger instance for this service. */
+    private static final Logger logger = Logger.getLogger(JobService.class.getName());
+
+    /** Job state entered when each pipeline stage starts. */
+    private static final Map<String, JobState> STAGE_STATES = Map.of(
+            BackendProcessingService.STAGE_CHECKOUT, JobState.CRAWLING,
+            BackendProcessingService.STAGE_CODE_CRAWLER, JobState.CRAWLING,
+            BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS, JobState.ABSTRACTING,
+            BackendProcessingService.STAGE_IDENTIFY_RELATIONSHIPS, JobState.ABSTRACTING,
+            BackendProcessingService.STAGE_CHAPTER_ORGANIZER, JobState.WRITING,
+            BackendProcessingService.STAGE_TECHNICAL_WRITER, JobState.WRITING,
+            BackendProcessingService.STAGE_META_INFO, JobState.WRITING,
+            BackendProcessingService.STAGE_MINIO_UPLOAD, JobState.UPLOADING);
+
+    /** How often jobs past their retention are removed. */
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected MinIO configuration settings. */
+    @Inject
+    MinioConfig minioConfig;
+
+    /** Injected MinIO client, used by the MinIO job store. */
+    @Inject
+    MinioClient minioClient;
+
+    /** Store the jobs are persisted in. */
+    private JobStore store;
+
+    /** Clock used to timestamp state changes. */
+    private final Clock clock;
+
+    /** Jobs this instance is running or failed to persist, keyed by id. */
+    private final Map<String, GenerationJob> activeJobs = new ConcurrentHashMap<>();
+
+    /** Removes jobs past their retention; null if jobs are kept forever. */
+    private ScheduledExecutorService pruning;
+
+    /**
+     * Constructs a new JobService whose store is created from the configuration.
+     */
+    public JobService() {
+        this(null, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new JobService with an explicit store.
+     *
+     * @param store The store the jobs are persisted in
+     * @param clock The clock used to timestamp state changes
+     */
+    public JobService(JobStore store, Clock clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates the configured job store after dependency injection is complete
+     * and starts removing jobs past their retention. A local store whose
+     * directory cannot be written falls back to MinIO.
+     */
+    @PostConstruct
+    void init() {
+        if (store != null) {
+            return;
+        }
+        WaverConfig.Jobs jobs = waverConfig.jobs();
+        store = createStore(jobs);
+        if (!jobs.retention().isZero() && !jobs.retention().isNegative()) {
+            pruning = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("waver-job-pruning").factory());
+            pruning.scheduleWithFixedDelay(() -> prune(jobs.retention()), 0, PRUNE_INTERVAL.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops removing jobs past their retention.
+     */
+    @PreDestroy
+    void stop() {
+        if (pruning != null) {
+            pruning.shutdownNow();
+        }
+    }
+
+    private JobStore createStore(WaverConfig.Jobs jobs) {
+        if (jobs.store() == WaverConfig.Jobs.Store.LOCAL) {
+            try {
+                return new FileJobStore(Paths.get(jobs.path()).toAbsolutePath());
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Local job store is not available, falling back to MinIO: " + e.getMessage());
+            }
+        }
+        return new MinioJobStore(minioClient, minioConfig.bucketName());
+    }
+
+    /**
+     * Creates and persists a queued job, and records it as the newest job of
+     * its repository.
+     *
+     * @param id The unique job id
+     * @param sourceUrl The source URL to generate a tutorial for
+     * @return The queued job
+     */
+    public GenerationJob create(String id, String sourceUrl) {
+        GenerationJob job = GenerationJob.queued(id, sourceUrl, clock.instant());
+        if (!persist(job)) {
+            // The replica running the job may be another one, so the job is only cached while the store lacks it
+            activeJobs.put(id, job);
+            return job;
+        }
+        try {
+            store.saveLatest(keyOf(sourceUrl), id);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to record job " + id + " as latest of " + sourceUrl + ": " + e.getMessage());
+        }
+        return job;
+    }
+
+    /**
+     * Moves a job to another state.
+     *
+     * @param id The job id
+     * @param state The new state
+     * @return The updated job, or empty if the job is unknown
+     */
+    public Optional<GenerationJob> transition(String id, JobState state) {
+        return update(id, job -> job.withState(state, clock.instant()));
+    }
+
+    /**
+     * Marks a job as failed.
+     *
+     * @param id The job id
+     * @param reason The failure reason
+     * @return The updated job, or empty if the job is unknown
+     */
+    public Optional<GenerationJob> fail(String id, String reason) {
+        return update(id, job -> job.failed(reason, clock.instant()));
+    }
+
+    /**
+     * Creates a listener that moves a job to the state matching each pipeline
+     * stage as the stage starts.
+     *
+     * @param id The job id
+     * @return The stage listener
+     */
+    public StageListener tracker(String id) {
+        return new StageListener() {
+            @Override
+            public void stageStarted(String stage) {
+                JobState state = STAGE_STATES.get(stage);
+                if (state != null) {
+                    transition(id, state);
+                }
+            }
+        };
+    }
+
+    /**
+     * Looks up a job by id.
+     *
+     * @param id The job id
+     * @return The job, or empty if it is unknown
+     */
+    public Optional<GenerationJob> find(String id) {
+        GenerationJob active = activeJobs.get(id);
+        if (active != null) {
+            return Optional.of(active);
+        }
+        try {
+            return store.find(id);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to read job " + id + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lists the most recently created jobs.
+     *
+     * @param limit The maximum number of jobs to return
+     * @return The jobs, newest first
+     */
+    public List<GenerationJob> list(int limit) {
+        Map<String, GenerationJob> jobs = new HashMap<>();
+        try {
+            store.list().forEach(job -> jobs.put(job.id(), job));
+        } catch (IOException e) {
+            logger.warning("Failed to list jobs, returning jobs of this instance only: " + e.getMessage());
+        }
+        // Jobs of this instance may be newer than their stored version
+        jobs.putAll(activeJobs);
+        List<GenerationJob> sorted = new ArrayList<>(jobs.values());
+        sorted.sort(Comparator.comparing(GenerationJob::createdAt).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * Finds the most recent job for a repository, through the latest-job
+     * pointer of the repository. Only if the repository has no pointer, for
+     * example because writing it failed, are the recent jobs searched.
+     *
+     * @param sourceUrl The source URL of the repository, in any spelling
+     * @param limit The maximum number of recent jobs to search without a pointer
+     * @return The newest job for the repository, or empty if there is none
+     */
+    public Optional<GenerationJob> latestFor(String sourceUrl, int limit) {
+        String key = keyOf(sourceUrl);
+        try {
+            Optional<String> latest = store.findLatest(key);
+            if (latest.isPresent()) {
+                return find(latest.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to read latest job of " + sourceUrl + ": " + e.getMessage());
+        }
+        return list(limit).stream()
+                .filter(job -> key.equals(keyOf(job.sourceUrl())))
+                .findFirst();
+    }
+
+    /**
+     * Finds the most recent job for a repository through its latest-job
+     * pointer only, without searching the recent jobs.
+     *
+     * @param sourceUrl The source URL of the repository, in any spelling
+     * @return The newest job for the repository, or empty if it has no pointer
+     */
+    public Optional<GenerationJob> latestFor(String sourceUrl) {
+        try {
+            return store.findLatest(keyOf(sourceUrl)).flatMap(this::find);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to read latest job of " + sourceUrl + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Removes a job that was created but will never run.
+     *
+     * @param id The job id
+     */
+    public void discard(String id) {
+        activeJobs.remove(id);
+        try {
+            Optional<GenerationJob> job = store.find(id);
+            store.delete(id);
+            if (job.isPresent()) {
+                deleteLatest(job.get());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to delete job " + id + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the jobs that have not changed for the retention period,
+     * except those this instance is running.
+     *
+     * @param retention How long a job is kept after its last change
+     * @return The number of removed jobs
+     */
+    int prune(Duration retention) {
+        Instant cutoff = clock.instant().minus(retention);
+        List<GenerationJob> jobs;
+        try {
+            jobs = store.list();
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to list jobs for removal: " + e.getMessage());
+            return 0;
+        }
+        int pruned = 0;
+        for (GenerationJob job : jobs) {
+            if (!job.updatedAt().isBefore(cutoff) || activeJobs.containsKey(job.id())) {
+                continue;
+            }
+            try {
+                store.delete(job.id());
+                deleteLatest(job);
+                pruned++;
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Failed to remove job " + job.id() + ": " + e.getMessage());
+            }
+        }
+        if (pruned > 0) {
+            logger.info("🧹 Removed " + pruned + " job(s) unchanged for " + retention);
+        }
+        return pruned;
+    }
+
+    /**
+     * Removes the latest-job pointer of the repository of a job, unless a
+     * newer job of the repository replaced it.
+     */
+    private void deleteLatest(GenerationJob job) throws IOException {
+        String key = keyOf(job.sourceUrl());
+        if (store.findLatest(key).filter(job.id()::equals).isPresent()) {
+            store.deleteLatest(key);
+        }
+    }
+
+    private static String keyOf(String sourceUrl) {
+        return Objects.requireNonNullElse(FileUtil.normalizeSourceUrl(sourceUrl), sourceUrl);
+    }
+
+    private synchronized Optional<GenerationJob> update(String id, UnaryOperator<GenerationJob> change) {
+        Optional<GenerationJob> current = find(id);
+        if (current.isEmpty()) {
+            logger.warning("Ignoring update of unknown job " + id);
+            return Optional.empty();
+        }
+        GenerationJob updated = change.apply(current.get());
+        if (updated != current.get()) {
+            activeJobs.put(id, updated);
+            if (persist(updated) && updated.state().isTerminal()) {
+                activeJobs.remove(id);
+            }
+        }
+        return Optional.of(updated);
+    }
+
+    private boolean persist(GenerationJob job) {
+        try {
+            store.save(job);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to persist job " + job.id() + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package dev.shaaf.waver.backend.job;
+
+/**
+ * Lifecycle states of a tutorial generation job.
+ * <p>
+ * A job starts as {@link #QUEUED}, moves through the pipeline stages in
+ * order and ends as either {@link #DONE} or {@link #FAILED}.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum JobState {
+    /** Waiting in the generation queue for a free pipeline slot. */
+    QUEUED,
+    /** Cloning and reading the source repository. */
+    CRAWLING,
+    /** Identifying abstractions and their relationships with the LLM. */
+    ABSTRACTING,
+    /** Organizing and writing the tutorial chapters. */
+    WRITING,
+    /** Uploading the generated tutorial to MinIO. */
+    UPLOADING,
+    /** The tutorial was generated and uploaded successfully. */
+    DONE,
+    /** The generation failed, or the job was dropped before it ran. */
+    FAILED;
+
+    /**
+     * Checks whether this state ends the job.
+     *
+     * @return true for {@link #DONE} and {@link #FAILED}
+     */
+    public boolean isTerminal() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.shaaf.waver.backend.job;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent storage for generation jobs.
+ * <p>
+ * Besides the jobs themselves, a store keeps a pointer from every repository
+ * to its newest job, so the job of a repository is found without listing
+ * all jobs.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public interface JobStore {
+
+    /**
+     * Stores a job, replacing any previous version with the same id.
+     *
+     * @param job The job to store
+     * @throws IOException if the job cannot be written
+     */
+    void save(GenerationJob job) throws IOException;
+
+    /**
+     * Looks up a job by id.
+     *
+     * @param id The job id
+     * @return The stored job, or empty if there is none
+     * @throws IOException if the job exists but cannot be read
+     */
+    Optional<GenerationJob> find(String id) throws IOException;
+
+    /**
+     * Lists all stored jobs, in no particular order.
+     *
+     * @return The stored jobs
+     * @throws IOException if the jobs cannot be read
+     */
+    List<GenerationJob> list() throws IOException;
+
+    /**
+     * Removes a job. Removing a job that does not exist has no effect.
+     *
+     * @param id The job id
+     * @throws IOException if the job cannot be removed
+     */
+    void delete(String id) throws IOException;
+
+    /**
+     * Records the newest job of a repository, replacing the previous one.
+     *
+     * @param key The normalized source URL of the repository
+     * @param id The job id
+     * @throws IOException if the pointer cannot be written
+     */
+    void saveLatest(String key, String id) throws IOException;
+
+    /**
+     * Looks up the newest job of a repository.
+     *
+     * @param key The normalized source URL of the repository
+     * @return The job id, or empty if no job of the repository was recorded
+     * @throws IOException if the pointer exists but cannot be read
+     */
+    Optional<String> findLatest(String key) throws IOException;
+
+    /**
+     * Removes the pointer to the newest job of a repository. Removing a
+     * pointer that does not exist has no effect.
+     *
+     * @param key The normalized source URL of the repository
+     * @throws IOException if the pointer cannot be removed
+     */
+    void deleteLatest(String key) throws IOException;
+}
@@ -0,0 +1,246 @@
+package dev.shaaf.waver.backend.job;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Job store keeping one JSON object per job in the MinIO bucket.
+ * <p>
+ * Jobs are stored under {@value #PREFIX}. The leading dot keeps the folder
+ * out of the tutorial listing of the site. The latest-job pointers are
+ * objects holding a job id under {@value #LATEST_PREFIX}.
+ * <p>
+ * Listing remembers every job it read together with the ETag of its object,
+ * so a repeated listing only reads the jobs that changed since.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MinioJobStore implements JobStore {
+
+    /** Object name prefix of job objects. */
+    public static final String PREFIX = ".waver/jobs/";
+
+    /** Object name prefix of latest-job pointers. */
+    public static final String LATEST_PREFIX = PREFIX + "latest/";
+
+    /** Logger instance for this store. */
+    private static final Logger logger = Logger.getLogger(MinioJobStore.class.getName());
+
+    /** MinIO client for storage operations. */
+    private final MinioClient minioClient;
+
+    /** Bucket holding the job objects. */
+    private final String bucketName;
+
+    /** Jobs read by the last listing, keyed by object name. */
+    private final Map<String, Listed> listed = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MinioJobStore.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket holding the job objects
+     */
+    public MinioJobStore(MinioClient minioClient, String bucketName) {
+        this.minioClient = minioClient;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public void save(GenerationJob job) throws IOException {
+        byte[] json = JobJson.write(job);
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName(job.id()))
+                            .stream(new ByteArrayInputStream(json), json.length, -1)
+                            .contentType("application/json")
+                            .build());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to store job " + job.id(), e);
+        }
+    }
+
+    @Override
+    public Optional<GenerationJob> find(String id) throws IOException {
+        return read(id).map(Listed::job);
+    }
+
+    @Override
+    public List<GenerationJob> list() throws IOException {
+        List<GenerationJob> jobs = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        try {
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(PREFIX)
+                            .build())) {
+                Item item = result.get();
+                String objectName = item.objectName();
+                if (!objectName.endsWith(".json")) {
+                    continue;
+                }
+                seen.add(objectName);
+                Listed known = listed.get(objectName);
+                if (known != null && known.etag() != null && known.etag().equals(unquoted(item.etag()))) {
+                    jobs.add(known.job());
+                    continue;
+                }
+                String id = objectName.substring(PREFIX.length(), objectName.length() - ".json".length());
+                try {
+                    Optional<Listed> read = read(id);
+                    if (read.isPresent()) {
+                        listed.put(objectName, read.get());
+                        jobs.add(read.get().job());
+                    }
+                } catch (IOException e) {
+                    logger.warning("Skipping unreadable job object " + objectName + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to list jobs", e);
+        }
+        listed.keySet().retainAll(seen);
+        return jobs;
+    }
+
+    @Override
+    public void delete(String id) throws IOException {
+        try {
+            minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName(id))
+                            .build());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to delete job " + id, e);
+        }
+    }
+
+    @Override
+    public void saveLatest(String key, String id) throws IOException {
+        byte[] content = id.getBytes(StandardCharsets.UTF_8);
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(LATEST_PREFIX + JobJson.pointerName(key))
+                            .stream(new ByteArrayInputStream(content), content.length, -1)
+                            .contentType("text/plain")
+                            .build());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to store latest job of " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<String> findLatest(String key) throws IOException {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(LATEST_PREFIX + JobJson.pointerName(key))
+                        .build())) {
+            return Optional.of(new String(response.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw new IOException("Failed to read latest job of " + key, e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to read latest job of " + key, e);
+        }
+    }
+
+    @Override
+    public void deleteLatest(String key) throws IOException {
+        try {
+            minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(LATEST_PREFIX + JobJson.pointerName(key))
+                            .build());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to delete latest job of " + key, e);
+        }
+    }
+
+    /**
+     * Gets the object name of a job.
+     *
+     * @param id The job id
+     * @return The object name in the bucket
+     */
+    public static String objectName(String id) {
+        return PREFIX + id + ".json";
+    }
+
+    private Optional<Listed> read(String id) throws IOException {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(id))
+                        .build())) {
+            return Optional.of(new Listed(JobJson.read(response), unquoted(response.headers().get("ETag"))));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw new IOException("Failed to read job " + id, e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to read job " + id, e);
+        }
+    }
+
+    /**
+     * Strips the quotes from an ETag; listings and reads do not agree on them.
+     */
+    private static String unquoted(String etag) {
+        return etag == null ? null : etag.replace("\"", "");
+    }
+
+    /**
+     * A job together with the ETag of the object it was read from.
+     *
+     * @param job The job
+     * @param etag The ETag of its object, or null if the server sent none
+     */
+    private record Listed(GenerationJob job, String etag) {
+    }
+}
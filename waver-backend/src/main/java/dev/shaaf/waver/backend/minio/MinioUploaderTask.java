@@ -7,15 +7,27 @@ import dev.shaaf.jgraphlet.TaskRunException;
 import dev.shaaf.waver.backend.FileUtil;
 import dev.shaaf.waver.llm.tutorial.model.GenerationContext;
 import io.minio.MinioClient;
-import io.minio.UploadObjectArgs;
+import io.minio.ObjectWriteArgs;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 /**
@@ -24,6 +36,22 @@ import java.util.stream.Stream;
  * This task is part of the tutorial generation pipeline and handles the final
  * step of uploading all generated files to MinIO object storage. It recursively
  * uploads all files from a source directory while maintaining the directory structure.
+ * Files are uploaded in parallel, bounded by the configured concurrency limit.
+ * <p>
+ * When a {@link StreamingMinioUploader} was running alongside the pipeline, this
+ * task stops it and only uploads the files it has not pushed yet. The commit
+ * marker ({@value #COMMIT_MARKER}) is always uploaded last, and only if every
+ * other file was uploaded, so readers never see a partially uploaded tutorial
+ * as complete.
+ * <p>
+ * The SHA-256 hash of every uploaded file is recorded in an {@link UploadManifest}
+ * stored next to the commit marker. Files whose content matches the manifest of
+ * the previous upload are skipped, and objects that are no longer generated are
+ * deleted.
+ * <p>
+ * Files are streamed straight from disk into {@link PutObjectArgs} requests;
+ * files larger than the configured part size are sent as multipart uploads,
+ * so no file is ever buffered in full.
  * <p>
  * The task implements the Task interface from the jgraphlet pipeline framework
  * and runs asynchronously as part of the overall generation process.
@@ -34,6 +62,15 @@ import java.util.stream.Stream;
  */
 public class MinioUploaderTask implements Task<GenerationContext, UploadResult> {
 
+    /** Name of the file whose presence marks a tutorial as completely uploaded. */
+    public static final String COMMIT_MARKER = "waver-config.json";
+
+    /** Default size of a single part in multipart uploads (16 MiB). */
+    public static final long DEFAULT_PART_SIZE = 16L * 1024 * 1024;
+
+    /** Logger instance for this task. */
+    private static final Logger logger = Logger.getLogger(MinioUploaderTask.class.getName());
+
     /** MinIO client for performing upload operations. */
     MinioClient minioClient;
 
@@ -46,25 +83,109 @@ public class MinioUploaderTask implements Task<GenerationContext, UploadResult>
     /** Project name used as prefix for uploaded objects. */
     String uploadProjectName;
 
+    /** Maximum number of files uploaded at the same time. */
+    int concurrency;
+
+    /** Uploader that streamed files while the pipeline was running, or null. */
+    StreamingMinioUploader streamingUploader;
+
+    /** Size of a single part when a file is uploaded in multiple parts. */
+    long partSize;
+
+    /** Executor the upload runs on. */
+    Executor executor;
+
     /**
-     * Constructs a new MinioUploaderTask with the specified parameters.
+     * Constructs a new MinioUploaderTask that uploads files one after another.
      *
      * @param minioClient The MinIO client for upload operations
      * @param sourceDirectory The directory containing files to upload
      * @param bucketName The target bucket name in MinIO
      */
     public MinioUploaderTask(MinioClient minioClient, Path sourceDirectory, String bucketName) {
+        this(minioClient, sourceDirectory, bucketName, 1);
+    }
+
+    /**
+     * Constructs a new MinioUploaderTask with the specified parameters.
+     *
+     * @param minioClient The MinIO client for upload operations
+     * @param sourceDirectory The directory containing files to upload
+     * @param bucketName The target bucket name in MinIO
+     * @param concurrency The maximum number of files uploaded at the same time
+     * @throws IllegalArgumentException if concurrency is less than 1
+     */
+    public MinioUploaderTask(MinioClient minioClient, Path sourceDirectory, String bucketName, int concurrency) {
+        this(minioClient, sourceDirectory, bucketName, concurrency, null);
+    }
+
+    /**
+     * Constructs a new MinioUploaderTask that completes the work of a streaming uploader.
+     *
+     * @param minioClient The MinIO client for upload operations
+     * @param sourceDirectory The directory containing files to upload
+     * @param bucketName The target bucket name in MinIO
+     * @param concurrency The maximum number of files uploaded at the same time
+     * @param streamingUploader The uploader that streamed files during the pipeline, or null
+     * @throws IllegalArgumentException if concurrency is less than 1
+     */
+    public MinioUploaderTask(MinioClient minioClient, Path sourceDirectory, String bucketName, int concurrency,
+                             StreamingMinioUploader streamingUploader) {
+        this(minioClient, sourceDirectory, bucketName, concurrency, streamingUploader, DEFAULT_PART_SIZE);
+    }
+
+    /**
+     * Constructs a new MinioUploaderTask with an explicit multipart part size.
+     *
+     * @param minioClient The MinIO client for upload operations
+     * @param sourceDirectory The directory containing files to upload
+     * @param bucketName The target bucket name in MinIO
+     * @param concurrency The maximum number of files uploaded at the same time
+     * @param streamingUploader The uploader that streamed files during the pipeline, or null
+     * @param partSize The size of a single part in multipart uploads, in bytes
+     * @throws IllegalArgumentException if concurrency is less than 1 or the part size is out of range
+     */
+    public MinioUploaderTask(MinioClient minioClient, Path sourceDirectory, String bucketName, int concurrency,
+                             StreamingMinioUploader streamingUploader, long partSize) {
+        this(minioClient, sourceDirectory, bucketName, concurrency, streamingUploader, partSize,
+                runnable -> Thread.ofVirtual().name("minio-upload-task").start(runnable));
+    }
+
+    /**
+     * Constructs a new MinioUploaderTask running on the given executor.
+     *
+     * @param minioClient The MinIO client for upload operations
+     * @param sourceDirectory The directory containing files to upload
+     * @param bucketName The target bucket name in MinIO
+     * @param concurrency The maximum number of files uploaded at the same time
+     * @param streamingUploader The uploader that streamed files during the pipeline, or null
+     * @param partSize The size of a single part in multipart uploads, in bytes
+     * @param executor The executor the upload runs on, suited to blocking I/O
+     * @throws IllegalArgumentException if concurrency is less than 1 or the part size is out of range
+     */
+    public MinioUploaderTask(MinioClient minioClient, Path sourceDirectory, String bucketName, int concurrency,
+                             StreamingMinioUploader streamingUploader, long partSize, Executor executor) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Upload concurrency must be at least 1: " + concurrency);
+        }
+        validatePartSize(partSize);
         this.minioClient = minioClient;
         this.sourceDirectory = sourceDirectory;
         this.bucketName = bucketName;
         this.uploadProjectName = FileUtil.getFolderNameFromInputPath(sourceDirectory.toString());
+        this.concurrency = concurrency;
+        this.streamingUploader = streamingUploader;
+        this.partSize = partSize;
+        this.executor = executor;
     }
 
     /**
      * Executes the upload task asynchronously.
      * <p>
      * This method is called by the pipeline framework and performs the
-     * actual upload operation in a separate thread.
+     * actual upload operation on the task's executor, a virtual thread unless
+     * another executor was given. A streaming uploader, if
+     * any, is stopped first so that it cannot race with the final upload.
      *
      * @param generationContext The generation context (not used in this task)
      * @param context The pipeline context for accessing shared data
@@ -75,24 +196,35 @@ public class MinioUploaderTask implements Task<GenerationContext, UploadResult>
     public CompletableFuture<UploadResult> execute(GenerationContext generationContext, PipelineContext context) {
         return CompletableFuture.supplyAsync(() -> {
             try {
+                if (streamingUploader != null) {
+                    streamingUploader.close();
+                }
                 return uploadDirectory(sourceDirectory.resolve(this.sourceDirectory), bucketName);
             } catch (Exception e) {
                 e.printStackTrace();
                 throw new TaskRunException("Failed to upload to MinIO", e);
             }
-        });
+        }, executor);
     }
 
     /**
      * Uploads all files from the source directory to MinIO recursively.
      * <p>
      * This method walks through the entire directory tree and uploads each
-     * regular file to MinIO while preserving the directory structure. The
-     * upload process tracks successful and failed uploads.
+     * regular file to MinIO while preserving the directory structure. Up to
+     * {@code concurrency} files are uploaded at the same time on virtual threads.
+     * Files whose content is unchanged since the previous upload, or that were
+     * already streamed in their current state, are not uploaded again. Objects
+     * from the previous upload that are no longer generated are deleted, the
+     * commit marker is uploaded after all other files have succeeded, whether
+     * it changed or not, and the manifest is written last.
+     * <p>
+     * All result lists are reported in directory walk order regardless of
+     * completion order.
      *
      * @param sourceDirectory The source directory to upload
      * @param bucketName The target bucket name
-     * @return An UploadResult containing lists of successful and failed uploads
+     * @return An UploadResult describing uploaded, skipped, failed and deleted objects
      * @throws IllegalArgumentException if the source directory doesn't exist
      * @throws RuntimeException if directory traversal fails
      */
@@ -101,37 +233,264 @@ public class MinioUploaderTask implements Task<GenerationContext, UploadResult>
             throw new IllegalArgumentException("Source path must be an existing directory: " + sourceDirectory);
         }
 
-        List<String> successfulUploads = new ArrayList<>();
-        List<String> failedUploads = new ArrayList<>();
+        List<Path> files;
         try (Stream<Path> stream = Files.walk(sourceDirectory)) {
-            stream
+            files = stream
                     .filter(Files::isRegularFile)
-                    .forEach(filePath -> {
-                        try {
-                            Path relativePath = sourceDirectory.relativize(filePath);
-                            String objectName = Paths.get(uploadProjectName, relativePath.toString()).toString();
-                            objectName = objectName.replace('\\', '/');
-                            minioClient.uploadObject(
-                                    UploadObjectArgs.builder()
-                                            .bucket(bucketName)
-                                            .object(objectName)
-                                            .filename(filePath.toString())
-                                            .build());
-
-                            successfulUploads.add(objectName);
-
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            failedUploads.add(filePath.toString());
-                        }
-                    });
+                    .sorted()
+                    .toList();
         } catch (IOException e) {
             throw new RuntimeException("Failed to read the source directory: " + sourceDirectory, e);
         }
 
-        return new UploadResult(successfulUploads, failedUploads);
+        List<Path> markers = files.stream().filter(MinioUploaderTask::isCommitMarker).toList();
+        List<Path> contents = files.stream().filter(file -> !isCommitMarker(file)).toList();
+
+        UploadManifest previous = loadManifest(bucketName);
+        UploadManifest current = UploadManifest.empty();
+        Outcomes outcomes = new Outcomes();
+        uploadFiles(sourceDirectory, contents, bucketName, previous, current, outcomes);
+        List<String> deletedObjects = deleteStaleObjects(sourceDirectory, files, bucketName, previous);
+        if (outcomes.failedUploads.isEmpty()) {
+            // Always written, even if unchanged: a streaming uploader may have removed it from the bucket
+            uploadFiles(sourceDirectory, markers, bucketName, UploadManifest.empty(), current, outcomes);
+        } else {
+            markers.forEach(marker -> outcomes.failedUploads.add(marker.toString()));
+        }
+        saveManifest(current, bucketName);
+
+        return new UploadResult(outcomes.successfulUploads, outcomes.failedUploads, outcomes.skippedUploads,
+                deletedObjects, outcomes.uploadedBytes, outcomes.skippedBytes);
     }
 
-}
+    /**
+     * Uploads the given files in parallel and appends the outcome of each file,
+     * in the order of the input list, to the collected outcomes.
+     *
+     * @param sourceDirectory The root directory being uploaded
+     * @param files The files to upload
+     * @param bucketName The target bucket name
+     * @param previous The manifest of the previous upload
+     * @param current The manifest of this upload, receiving the hash of every file now stored
+     * @param outcomes Receives the outcome of every file
+     */
+    private void uploadFiles(Path sourceDirectory, List<Path> files, String bucketName,
+                             UploadManifest previous, UploadManifest current, Outcomes outcomes) {
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                Thread.ofVirtual().name("minio-upload-", 0).factory())) {
+            List<Future<FileUpload>> uploads = new ArrayList<>(files.size());
+            for (Path filePath : files) {
+                uploads.add(executor.submit(() -> uploadFile(sourceDirectory, filePath, bucketName, previous)));
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    FileUpload upload = uploads.get(i).get();
+                    current.files().put(upload.objectName(), upload.hash());
+                    if (upload.transferred()) {
+                        outcomes.successfulUploads.add(upload.objectName());
+                        outcomes.uploadedBytes += upload.size();
+                    } else {
+                        outcomes.skippedUploads.add(upload.objectName());
+                        outcomes.skippedBytes += upload.size();
+                    }
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    outcomes.failedUploads.add(files.get(i).toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while uploading: " + sourceDirectory, e);
+                }
+            }
+        }
+    }
 
+    /**
+     * Uploads a single file unless the stored object already has the same content.
+     *
+     * @param sourceDirectory The root directory being uploaded
+     * @param filePath The file to upload
+     * @param bucketName The target bucket name
+     * @param previous The manifest of the previous upload
+     * @return The outcome of the upload
+     * @throws Exception if hashing or the upload fails
+     */
+    private FileUpload uploadFile(Path sourceDirectory, Path filePath, String bucketName,
+                                  UploadManifest previous) throws Exception {
+        String objectName = objectName(uploadProjectName, sourceDirectory, filePath);
+        long size = Files.size(filePath);
+        StreamingMinioUploader.StreamedFile streamed =
+                streamingUploader == null ? null : streamingUploader.streamedFile(filePath);
+        if (streamed != null) {
+            return new FileUpload(objectName, streamed.hash(), size, streamed.transferred());
+        }
 
+        String hash = UploadManifest.sha256(filePath);
+        if (hash.equals(previous.hashOf(objectName))) {
+            return new FileUpload(objectName, hash, size, false);
+        }
+        putFile(minioClient, bucketName, objectName, filePath, partSize);
+        return new FileUpload(objectName, hash, size, true);
+    }
+
+    /**
+     * Deletes the objects of the previous upload that were not generated this time.
+     *
+     * @param sourceDirectory The root directory being uploaded
+     * @param files All files generated this time
+     * @param bucketName The target bucket name
+     * @param previous The manifest of the previous upload
+     * @return The names of the deleted objects, in manifest order
+     */
+    private List<String> deleteStaleObjects(Path sourceDirectory, List<Path> files, String bucketName,
+                                            UploadManifest previous) {
+        Set<String> generated = new HashSet<>();
+        files.forEach(file -> generated.add(objectName(uploadProjectName, sourceDirectory, file)));
+
+        List<String> deletedObjects = new ArrayList<>();
+        for (String objectName : new TreeMap<>(previous.files()).keySet()) {
+            if (generated.contains(objectName)) {
+                continue;
+            }
+            try {
+                minioClient.removeObject(
+                        RemoveObjectArgs.builder()
+                                .bucket(bucketName)
+                                .object(objectName)
+                                .build());
+                deletedObjects.add(objectName);
+            } catch (Exception e) {
+                logger.warning("Failed to delete stale object " + objectName + ": " + e.getMessage());
+            }
+        }
+        return deletedObjects;
+    }
+
+    /**
+     * Loads the manifest of the previous upload. A manifest that cannot be read
+     * is treated as empty, which makes this upload transfer every file.
+     *
+     * @param bucketName The target bucket name
+     * @return The previous manifest, or an empty manifest
+     */
+    private UploadManifest loadManifest(String bucketName) {
+        try {
+            return UploadManifest.load(minioClient, bucketName, uploadProjectName);
+        } catch (Exception e) {
+            logger.warning("Failed to read upload manifest, uploading all files: " + e.getMessage());
+            return UploadManifest.empty();
+        }
+    }
+
+    /**
+     * Stores the manifest of this upload. Failing to store it only costs a full
+     * upload next time, so errors are logged rather than failing the task.
+     *
+     * @param manifest The manifest to store
+     * @param bucketName The target bucket name
+     */
+    private void saveManifest(UploadManifest manifest, String bucketName) {
+        try {
+            manifest.save(minioClient, bucketName, uploadProjectName);
+        } catch (Exception e) {
+            logger.warning("Failed to write upload manifest: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the object name for a file: its path relative to the source
+     * directory, prefixed with the project name and using forward slashes.
+     *
+     * @param projectName The project name used as prefix
+     * @param sourceDirectory The root directory being uploaded
+     * @param file The file to name
+     * @return The object name in the bucket
+     */
+    static String objectName(String projectName, Path sourceDirectory, Path file) {
+        Path relativePath = sourceDirectory.relativize(file);
+        return Paths.get(projectName, relativePath.toString()).toString().replace('\\', '/');
+    }
+
+    /**
+     * Uploads a file by streaming it into a put request. Files larger than the
+     * part size are split into a multipart upload, so at most one part is
+     * buffered at a time.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The target bucket name
+     * @param objectName The object name in the bucket
+     * @param file The file to upload
+     * @param partSize The size of a single part in multipart uploads, in bytes
+     * @throws Exception if the file cannot be read or the upload fails
+     */
+    static void putFile(MinioClient minioClient, String bucketName, String objectName, Path file,
+                        long partSize) throws Exception {
+        try (InputStream in = Files.newInputStream(file)) {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .stream(in, Files.size(file), partSize)
+                            .contentType(contentType(file))
+                            .build());
+        }
+    }
+
+    /**
+     * Guesses the content type of a file from its name.
+     *
+     * @param file The file to inspect
+     * @return The content type, or "application/octet-stream" if it cannot be determined
+     * @throws IOException if the file type detector fails
+     */
+    static String contentType(Path file) throws IOException {
+        String contentType = Files.probeContentType(file);
+        return contentType == null || contentType.isEmpty() ? "application/octet-stream" : contentType;
+    }
+
+    /**
+     * Validates a multipart part size against the limits of the S3 API.
+     *
+     * @param partSize The part size in bytes
+     * @throws IllegalArgumentException if the part size is below 5 MiB or above 5 GiB
+     */
+    static void validatePartSize(long partSize) {
+        if (partSize < ObjectWriteArgs.MIN_MULTIPART_SIZE || partSize > ObjectWriteArgs.MAX_PART_SIZE) {
+            throw new IllegalArgumentException("Upload part size must be between "
+                    + ObjectWriteArgs.MIN_MULTIPART_SIZE + " and " + ObjectWriteArgs.MAX_PART_SIZE + " bytes: " + partSize);
+        }
+    }
+
+    /**
+     * Checks whether a file is the tutorial commit marker.
+     *
+     * @param file The file to check
+     * @return true if the file is named {@value #COMMIT_MARKER}
+     */
+    static boolean isCommitMarker(Path file) {
+        return file.getFileName() != null && COMMIT_MARKER.equals(file.getFileName().toString());
+    }
+
+    /**
+     * Outcome of handling a single file.
+     *
+     * @param objectName The object name
+     * @param hash The hex encoded SHA-256 hash of the file
+     * @param size The file size in bytes
+     * @param transferred true if the file was uploaded, false if the stored object was already current
+     */
+    private record FileUpload(String objectName, String hash, long size, boolean transferred) {
+    }
+
+    /**
+     * Mutable collector for the outcomes of an upload, only accessed from the calling thread.
+     */
+    private static final class Outcomes {
+        final List<String> successfulUploads = new ArrayList<>();
+        final List<String> failedUploads = new ArrayList<>();
+        final List<String> skippedUploads = new ArrayList<>();
+        long uploadedBytes;
+        long skippedBytes;
+    }
+
+}
@@ -0,0 +1,165 @@
+package dev.shaaf.waver.backend.minio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Record representing the state of the source repository a tutorial was generated from.
+ * <p>
+ * The snapshot is stored as {@value #OBJECT_NAME} next to the tutorial after a
+ * successful run. It records the commit the repository was at, the settings
+ * that shape the output, and for local sources the SHA-256 hash of every file.
+ * Comparing it with a fresh snapshot tells whether a new run would start from
+ * the same input.
+ *
+ * @param sourceUrl The URL or path of the source repository
+ * @param commit The commit SHA of the repository, or null if it could not be determined
+ * @param settings The generation settings that shape the output, e.g. provider and format
+ * @param files Map of file path, relative to the repository root, to the hex encoded
+ *              SHA-256 hash of its content; empty for remote repositories
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RegisterForReflection
+public record SourceSnapshot(String sourceUrl, String commit, String settings, Map<String, String> files) {
+
+    /** Name of the snapshot object, relative to the project prefix. */
+    public static final String OBJECT_NAME = "waver-source.json";
+
+    /** Mapper used to read and write the snapshot as JSON. */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Creates a new SourceSnapshot, copying the file hashes into a sorted map.
+     */
+    public SourceSnapshot {
+        files = files == null ? new TreeMap<>() : new TreeMap<>(files);
+    }
+
+    /**
+     * Checks whether a run from this snapshot would start from the same input
+     * as the run that produced the previous one. A snapshot without a commit
+     * and without file hashes never matches, since nothing can be compared.
+     *
+     * @param previous The snapshot of the previous run
+     * @return true if commit, settings and file hashes are identical
+     */
+    public boolean matches(SourceSnapshot previous) {
+        if (previous == null || (commit == null && files.isEmpty())) {
+            return false;
+        }
+        return Objects.equals(commit, previous.commit())
+                && Objects.equals(settings, previous.settings())
+                && files.equals(previous.files());
+    }
+
+    /**
+     * Lists the files that differ from a previous snapshot.
+     *
+     * @param previous The snapshot of the previous run
+     * @return The added, modified and removed files
+     */
+    public Changes changesSince(SourceSnapshot previous) {
+        List<String> added = new ArrayList<>();
+        List<String> modified = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        files.forEach((path, hash) -> {
+            String previousHash = previous.files().get(path);
+            if (previousHash == null) {
+                added.add(path);
+            } else if (!previousHash.equals(hash)) {
+                modified.add(path);
+            }
+        });
+        previous.files().keySet().stream().filter(path -> !files.containsKey(path)).forEach(removed::add);
+        return new Changes(added, modified, removed);
+    }
+
+    /**
+     * Loads the snapshot of a project from MinIO.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket containing the project
+     * @param projectName The project name used as object prefix
+     * @return The stored snapshot, or empty if the project has none yet
+     * @throws Exception if the snapshot exists but cannot be read
+     */
+    public static Optional<SourceSnapshot> load(MinioClient minioClient, String bucketName, String projectName)
+            throws Exception {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(projectName))
+                        .build())) {
+            return Optional.of(MAPPER.readValue(response, SourceSnapshot.class));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores this snapshot in MinIO, replacing any previous version.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket containing the project
+     * @param projectName The project name used as object prefix
+     * @throws Exception if the snapshot cannot be written
+     */
+    public void save(MinioClient minioClient, String bucketName, String projectName) throws Exception {
+        byte[] json = MAPPER.writeValueAsBytes(this);
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(projectName))
+                        .stream(new ByteArrayInputStream(json), json.length, -1)
+                        .contentType("application/json")
+                        .build());
+    }
+
+    /**
+     * Gets the full object name of the snapshot for a project.
+     *
+     * @param projectName The project name used as object prefix
+     * @return The snapshot object name
+     */
+    public static String objectName(String projectName) {
+        return projectName + "/" + OBJECT_NAME;
+    }
+
+    /**
+     * Record representing the files that changed between two snapshots.
+     *
+     * @param added Files that are new
+     * @param modified Files whose content changed
+     * @param removed Files that no longer exist
+     */
+    public record Changes(List<String> added, List<String> modified, List<String> removed) {
+
+        /**
+         * Gets the total number of changed files.
+         *
+         * @return The count of added, modified and removed files
+         */
+        public int size() {
+            return added.size() + modified.size() + removed.size();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package dev.shaaf.waver.backend.minio;
+
+import dev.shaaf.waver.backend.FileUtil;
+import io.minio.MinioClient;
+import io.minio.RemoveObjectArgs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Uploads generated tutorial files to MinIO while the pipeline is still writing them.
+ * <p>
+ * The uploader periodically scans the output directory and pushes every file
+ * that was written during the current run as soon as it has stopped changing,
+ * i.e. its size and modification time are identical across two consecutive scans.
+ * This makes the first chapters readable on the site long before the whole
+ * pipeline has finished. Files whose content matches the {@link UploadManifest}
+ * of the previous upload are recorded without being transferred again.
+ * <p>
+ * The commit marker ({@value MinioUploaderTask#COMMIT_MARKER}) is never streamed;
+ * the final {@link MinioUploaderTask} closes this uploader, uploads any leftovers
+ * and writes the marker last. The marker of a previous run is removed before
+ * the first object is overwritten, so a project mixing the files of two runs
+ * never looks complete; if it cannot be removed, nothing is streamed.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class StreamingMinioUploader implements AutoCloseable {
+
+    /** Logger instance for this uploader. */
+    private static final Logger logger = Logger.getLogger(StreamingMinioUploader.class.getName());
+
+    /** MinIO client for performing upload operations. */
+    private final MinioClient minioClient;
+
+    /** Directory the pipeline writes generated files to. */
+    private final Path sourceDirectory;
+
+    /** Target bucket name in MinIO. */
+    private final String bucketName;
+
+    /** Project name used as prefix for uploaded objects. */
+    private final String uploadProjectName;
+
+    /** Interval between two scans of the source directory. */
+    private final Duration pollInterval;
+
+    /** Size of a single part when a file is uploaded in multiple parts. */
+    private final long partSize;
+
+    /** Files written before this instant belong to an earlier run and are left to the final stage. */
+    private final FileTime startedAt;
+
+    /** Stamps seen on the previous scan, only accessed from the scanning thread. */
+    private final Map<Path, FileStamp> lastSeen = new HashMap<>();
+
+    /** Files handled by this uploader, either transferred or found unchanged. */
+    private final Map<Path, StreamedFile> uploaded = new ConcurrentHashMap<>();
+
+    /** Manifest of the previous upload, loaded on the first scan. */
+    private UploadManifest previousManifest;
+
+    /** Whether the commit marker of the previous run is gone; only accessed from the scanning thread. */
+    private boolean commitMarkerRemoved;
+
+    /** Scheduler running the periodic scans. */
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("minio-stream-upload").factory());
+
+    /**
+     * Constructs a new StreamingMinioUploader. Call {@link #start()} to begin scanning.
+     *
+     * @param minioClient The MinIO client for upload operations
+     * @param sourceDirectory The directory the pipeline writes generated files to
+     * @param bucketName The target bucket name in MinIO
+     * @param pollInterval The interval between two scans of the source directory
+     */
+    public StreamingMinioUploader(MinioClient minioClient, Path sourceDirectory, String bucketName, Duration pollInterval) {
+        this(minioClient, sourceDirectory, bucketName, pollInterval, MinioUploaderTask.DEFAULT_PART_SIZE);
+    }
+
+    /**
+     * Constructs a new StreamingMinioUploader with an explicit multipart part size.
+     * Call {@link #start()} to begin scanning.
+     *
+     * @param minioClient The MinIO client for upload operations
+     * @param sourceDirectory The directory the pipeline writes generated files to
+     * @param bucketName The target bucket name in MinIO
+     * @param pollInterval The interval between two scans of the source directory
+     * @param partSize The size of a single part in multipart uploads, in bytes
+     * @throws IllegalArgumentException if the part size is out of range
+     */
+    public StreamingMinioUploader(MinioClient minioClient, Path sourceDirectory, String bucketName, Duration pollInterval,
+                                  long partSize) {
+        MinioUploaderTask.validatePartSize(partSize);
+        this.minioClient = minioClient;
+        this.sourceDirectory = sourceDirectory;
+        this.bucketName = bucketName;
+        this.uploadProjectName = FileUtil.getFolderNameFromInputPath(sourceDirectory.toString());
+        this.pollInterval = pollInterval;
+        this.partSize = partSize;
+        // Step back a second and truncate, so files from this run still count on file systems
+        // with coarse timestamps and when the kernel stamps files with a clock lagging behind
+        this.startedAt = FileTime.from(Instant.now().minusSeconds(1).truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Starts scanning the source directory in the background.
+     *
+     * @return This uploader, for use in try-with-resources statements
+     */
+    public StreamingMinioUploader start() {
+        long interval = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Checks whether a file was uploaded by this uploader and has not changed since.
+     *
+     * @param file The file to check
+     * @return true if the stored object matches the current file contents
+     */
+    public boolean isUploaded(Path file) {
+        return streamedFile(file) != null;
+    }
+
+    /**
+     * Gets what this uploader did with a file, provided the file has not changed since.
+     *
+     * @param file The file to look up
+     * @return The streamed file, or null if the file was not handled in its current state
+     */
+    StreamedFile streamedFile(Path file) {
+        StreamedFile streamed = uploaded.get(file);
+        return streamed != null && streamed.stamp().equals(FileStamp.of(file)) ? streamed : null;
+    }
+
+    /**
+     * Gets the number of files handled by this uploader so far, whether they
+     * were transferred or found unchanged.
+     *
+     * @return The count of handled files
+     */
+    public int getUploadedCount() {
+        return uploaded.size();
+    }
+
+    /**
+     * Stops scanning and waits for an in-progress scan to finish. Calling this
+     * method more than once has no further effect.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(1, TimeUnit.MINUTES)) {
+                logger.warning("Streaming upload did not finish in time for " + sourceDirectory);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Scans the source directory once and uploads every file that has been
+     * stable since the previous scan and was not uploaded in its current state yet.
+     */
+    void poll() {
+        if (!Files.isDirectory(sourceDirectory)) {
+            return;
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(sourceDirectory)) {
+            files = stream
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !MinioUploaderTask.isCommitMarker(file))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            logger.warning("Failed to scan " + sourceDirectory + ": " + e.getMessage());
+            return;
+        }
+
+        if (previousManifest == null) {
+            previousManifest = loadManifest();
+        }
+
+        for (Path file : files) {
+            FileStamp stamp = FileStamp.of(file);
+            FileStamp previous = lastSeen.put(file, stamp);
+            StreamedFile streamed = uploaded.get(file);
+            if (stamp == null || stamp.lastModified().compareTo(startedAt) < 0
+                    || !stamp.equals(previous) || (streamed != null && stamp.equals(streamed.stamp()))) {
+                continue;
+            }
+            try {
+                String objectName = MinioUploaderTask.objectName(uploadProjectName, sourceDirectory, file);
+                String hash = UploadManifest.sha256(file);
+                if (hash.equals(previousManifest.hashOf(objectName))) {
+                    uploaded.put(file, new StreamedFile(stamp, hash, false));
+                    continue;
+                }
+                if (!removeCommitMarker()) {
+                    // Left to the final upload stage, which writes the marker after all files
+                    continue;
+                }
+                MinioUploaderTask.putFile(minioClient, bucketName, objectName, file, partSize);
+                uploaded.put(file, new StreamedFile(stamp, hash, true));
+                logger.info("📤 Streamed " + objectName);
+            } catch (Exception e) {
+                // Left for the next scan or the final upload stage
+                logger.warning("Failed to stream " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes the commit marker of the previous run, once, before the first
+     * object of this run is written. Removing a missing marker succeeds.
+     *
+     * @return true if the marker is gone
+     */
+    private boolean removeCommitMarker() {
+        if (!commitMarkerRemoved) {
+            try {
+                minioClient.removeObject(RemoveObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(uploadProjectName + "/" + MinioUploaderTask.COMMIT_MARKER)
+                        .build());
+                commitMarkerRemoved = true;
+            } catch (Exception e) {
+                logger.warning("Failed to remove the commit marker of " + uploadProjectName
+                        + ", not streaming until it is removed: " + e.getMessage());
+            }
+        }
+        return commitMarkerRemoved;
+    }
+
+    /**
+     * Loads the manifest of the previous upload, treating an unreadable manifest as empty.
+     *
+     * @return The previous manifest, or an empty manifest
+     */
+    private UploadManifest loadManifest() {
+        try {
+            return UploadManifest.load(minioClient, bucketName, uploadProjectName);
+        } catch (Exception e) {
+            logger.warning("Failed to read upload manifest, streaming all files: " + e.getMessage());
+            return UploadManifest.empty();
+        }
+    }
+
+    /**
+     * A file handled by this uploader.
+     *
+     * @param stamp The size and modification time of the file when it was handled
+     * @param hash The hex encoded SHA-256 hash of the file
+     * @param transferred true if the file was uploaded, false if the stored object was already current
+     */
+    record StreamedFile(FileStamp stamp, String hash, boolean transferred) {
+    }
+
+    /**
+     * Size and modification time of a file, used to detect changes between scans.
+     *
+     * @param size The file size in bytes
+     * @param lastModified The last modification time
+     */
+    record FileStamp(long size, FileTime lastModified) {
+
+        static FileStamp of(Path file) {
+            try {
+                return new FileStamp(Files.size(file), Files.getLastModifiedTime(file));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
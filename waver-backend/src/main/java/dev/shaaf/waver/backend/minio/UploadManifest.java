@@ -0,0 +1,141 @@
+package dev.shaaf.waver.backend.minio;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Record representing the content hashes of all objects uploaded for a project.
+ * <p>
+ * The manifest is stored as {@value #OBJECT_NAME} next to the tutorial's commit
+ * marker. On the next upload of the same project, files whose SHA-256 hash matches
+ * the manifest entry are not uploaded again, and objects listed in the manifest
+ * that are no longer generated are deleted.
+ *
+ * @param files Map of object name to the hex encoded SHA-256 hash of its content
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RegisterForReflection
+public record UploadManifest(Map<String, String> files) {
+
+    /** Name of the manifest object, relative to the project prefix. */
+    public static final String OBJECT_NAME = "waver-manifest.json";
+
+    /** Mapper used to read and write the manifest as JSON. */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Creates an empty manifest.
+     *
+     * @return A manifest without entries
+     */
+    public static UploadManifest empty() {
+        return new UploadManifest(new TreeMap<>());
+    }
+
+    /**
+     * Gets the recorded hash of an object.
+     *
+     * @param objectName The object name
+     * @return The hex encoded SHA-256 hash, or null if the object is not listed
+     */
+    public String hashOf(String objectName) {
+        return files.get(objectName);
+    }
+
+    /**
+     * Loads the manifest of a project from MinIO.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket containing the project
+     * @param projectName The project name used as object prefix
+     * @return The stored manifest, or an empty manifest if the project has none yet
+     * @throws Exception if the manifest exists but cannot be read
+     */
+    public static UploadManifest load(MinioClient minioClient, String bucketName, String projectName) throws Exception {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(projectName))
+                        .build())) {
+            UploadManifest manifest = MAPPER.readValue(response, UploadManifest.class);
+            return manifest.files() == null ? empty() : new UploadManifest(new TreeMap<>(manifest.files()));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores this manifest in MinIO, replacing any previous version.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket containing the project
+     * @param projectName The project name used as object prefix
+     * @throws Exception if the manifest cannot be written
+     */
+    public void save(MinioClient minioClient, String bucketName, String projectName) throws Exception {
+        byte[] json = MAPPER.writeValueAsBytes(new UploadManifest(new TreeMap<>(files)));
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(projectName))
+                        .stream(new ByteArrayInputStream(json), json.length, -1)
+                        .contentType("application/json")
+                        .build());
+    }
+
+    /**
+     * Gets the full object name of the manifest for a project.
+     *
+     * @param projectName The project name used as object prefix
+     * @return The manifest object name
+     */
+    public static String objectName(String projectName) {
+        return projectName + "/" + OBJECT_NAME;
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file without loading it into memory.
+     *
+     * @param file The file to hash
+     * @return The hex encoded hash
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -7,16 +7,33 @@ import java.util.List;
  * <p>
  * This immutable data structure contains the results of uploading
  * multiple files to MinIO storage, tracking both successful and
- * failed upload attempts.
+ * failed upload attempts, files that were skipped because the stored
+ * object already had identical content, and stale objects that were deleted.
  *
  * @param successfulUploads List of object names that were successfully uploaded
  * @param failedUploads List of file paths that failed to upload
+ * @param skippedUploads List of object names whose content was unchanged and not uploaded again
+ * @param deletedObjects List of object names removed because they are no longer generated
+ * @param uploadedBytes Total number of bytes transferred
+ * @param skippedBytes Total number of bytes not transferred because the content was unchanged
  *
  * @author Waver Team
  * @version 1.0
  * @since 1.0
  */
-public record UploadResult(List<String> successfulUploads, List<String> failedUploads) {
+public record UploadResult(List<String> successfulUploads, List<String> failedUploads,
+                           List<String> skippedUploads, List<String> deletedObjects,
+                           long uploadedBytes, long skippedBytes) {
+
+    /**
+     * Creates a result for uploads that neither skipped nor deleted any objects.
+     *
+     * @param successfulUploads List of object names that were successfully uploaded
+     * @param failedUploads List of file paths that failed to upload
+     */
+    public UploadResult(List<String> successfulUploads, List<String> failedUploads) {
+        this(successfulUploads, failedUploads, List.of(), List.of(), 0, 0);
+    }
 
     /**
      * Gets the number of files that were successfully uploaded.
@@ -35,4 +52,22 @@ public record UploadResult(List<String> successfulUploads, List<String> failedUp
     public int getFailureCount() {
         return failedUploads.size();
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the number of files that were skipped because their content was unchanged.
+     *
+     * @return The count of skipped uploads
+     */
+    public int getSkippedCount() {
+        return skippedUploads.size();
+    }
+
+    /**
+     * Gets the number of stale objects that were deleted.
+     *
+     * @return The count of deleted objects
+     */
+    public int getDeletedCount() {
+        return deletedObjects.size();
+    }
+}
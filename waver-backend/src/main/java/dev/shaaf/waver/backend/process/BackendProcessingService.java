@@ -1,25 +1,45 @@
 package dev.shaaf.waver.backend.process;
 
 
+import dev.shaaf.jgraphlet.Task;
 import dev.shaaf.jgraphlet.TaskPipeline;
 import dev.shaaf.waver.backend.FileUtil;
 import dev.shaaf.waver.backend.WaverProcessEvent;
+import dev.shaaf.waver.backend.cache.ResponseCache;
+import dev.shaaf.waver.backend.checkout.RepositoryCheckout;
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
 import dev.shaaf.waver.backend.config.MinioConfig;
 import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.ingest.ContextPacker;
+import dev.shaaf.waver.backend.ingest.SourceSampler;
 import dev.shaaf.waver.backend.minio.MinioUploaderTask;
+import dev.shaaf.waver.backend.minio.SourceSnapshot;
+import dev.shaaf.waver.backend.minio.StreamingMinioUploader;
+import dev.shaaf.waver.backend.ratelimit.RateLimiter;
+import dev.shaaf.waver.backend.retry.ChatRetries;
+import dev.shaaf.waver.backend.routing.ProviderRouter;
 import dev.shaaf.waver.llm.config.*;
 import dev.shaaf.waver.llm.tutorial.task.*;
 import dev.langchain4j.model.chat.ChatModel;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
 import io.minio.MinioClient;
+import io.minio.errors.ErrorResponseException;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.reactive.messaging.Incoming;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.BiFunction;
 import java.util.logging.Logger;
 
 /**
@@ -27,14 +47,14 @@ import java.util.logging.Logger;
  * <p>
  * This service orchestrates the complete tutorial generation pipeline, including:
  * <ul>
- *     <li>Processing incoming events from messaging system</li>
+ *     <li>Processing requests handed over by the {@link GenerationQueue}</li>
  *     <li>Configuring LLM providers (OpenAI, Gemini)</li>
+ *     <li>Skipping repositories that did not change since their last complete upload</li>
  *     <li>Running the tutorial generation pipeline</li>
  *     <li>Uploading results to MinIO storage</li>
  * </ul>
  * <p>
- * The service is built on Quarkus framework using CDI for dependency injection
- * and MicroProfile Reactive Messaging for event processing.
+ * The service is built on Quarkus framework using CDI for dependency injection.
  *
  * @author Waver Team
  * @version 1.0
@@ -45,6 +65,30 @@ public class BackendProcessingService {
 
     /** Logger instance for this service. */
     private static final Logger logger = Logger.getLogger(BackendProcessingService.class.getName());
+
+    /** Name of the stage that checks out a remote repository before the pipeline runs. */
+    public static final String STAGE_CHECKOUT = "Repository-checkout";
+
+    /** Name of the pipeline stage that reads the source repository. */
+    public static final String STAGE_CODE_CRAWLER = "Code-crawler";
+
+    /** Name of the pipeline stage that identifies the core abstractions. */
+    public static final String STAGE_IDENTIFY_ABSTRACTIONS = "Identify-abstraction";
+
+    /** Name of the pipeline stage that identifies relationships between abstractions. */
+    public static final String STAGE_IDENTIFY_RELATIONSHIPS = "Identify-relationships";
+
+    /** Name of the pipeline stage that orders the chapters. */
+    public static final String STAGE_CHAPTER_ORGANIZER = "Chapter-organizer";
+
+    /** Name of the pipeline stage that writes the chapters. */
+    public static final String STAGE_TECHNICAL_WRITER = "Technical-writer";
+
+    /** Name of the pipeline stage that writes the tutorial metadata. */
+    public static final String STAGE_META_INFO = "Meta-info";
+
+    /** Name of the pipeline stage that uploads the tutorial to MinIO. */
+    public static final String STAGE_MINIO_UPLOAD = "Minio-upload";
     
     /** Injected configuration for Waver application settings. */
     @Inject
@@ -58,29 +102,118 @@ public class BackendProcessingService {
     @Inject
     MinioClient minioClient;
 
+    /** Injected pool of chat models shared by all generation runs. */
+    @Inject
+    ChatModelPool chatModelPool;
+
+    /** Injected cache answering repeated prompts without calling the provider. */
+    @Inject
+    ResponseCache responseCache;
+
+    /** Injected scheduler keeping all runs within the provider's request and token budgets. */
+    @Inject
+    RateLimiter rateLimiter;
+
+    /** Injected router spreading the LLM calls over several providers, if enabled. */
+    @Inject
+    ProviderRouter providerRouter;
+
+    /** Injected retries and hedged requests of the LLM calls of every stage. */
+    @Inject
+    ChatRetries chatRetries;
+
+    /** Injected metrics recording the duration, payloads and token usage of every stage. */
+    @Inject
+    PipelineMetrics pipelineMetrics;
+
+    /** Injected fingerprinter capturing the state of the source repository. */
+    @Inject
+    SourceFingerprinter sourceFingerprinter;
+
+    /** Injected cache of shallow, sparse checkouts of remote repositories. */
+    @Inject
+    RepositoryCheckout repositoryCheckout;
+
+    /** Injected store of the outputs of completed stages, so re-runs of a job resume after them. */
+    @Inject
+    StageCheckpoints stageCheckpoints;
+
+    /** Injected executors for blocking I/O and CPU-heavy work, keeping stages off the common pool. */
+    @Inject
+    PipelineExecutors pipelineExecutors;
+
+    /**
+     * Builds the chat model of the configured provider at startup, so the
+     * first request does not pay for it, or those of all routed providers if
+     * calls are routed. Skipped if warm-up is disabled or the provider is not
+     * configured yet; the model is then built on first use.
+     *
+     * @param event The Quarkus startup event
+     */
+    void warmUpChatModel(@Observes StartupEvent event) {
+        if (!waverConfig.models().warmUp()) {
+            return;
+        }
+        if (providerRouter.isEnabled()) {
+            providerRouter.apiKeys().forEach((provider, apiKey) ->
+                    chatModelPool.warmUp(provider, apiKey, waverConfig.models().warmUpPrompt()));
+            return;
+        }
+        try {
+            ProviderConfig providerConfig = getProviderConfig();
+            chatModelPool.warmUp(waverConfig.llmProvider(), providerConfig.getApiKey(),
+                    waverConfig.models().warmUpPrompt());
+        } catch (MissingConfigurationException e) {
+            logger.warning("Skipping chat model warm-up: " + e.getMessage());
+        }
+    }
+
     /**
-     * Handles incoming tutorial generation requests from the messaging system.
+     * Runs the tutorial generation pipeline for a queued request.
      * <p>
-     * This method receives events asynchronously and triggers the tutorial generation
-     * process for the specified source URL. The processing runs in a separate thread
-     * to avoid blocking the messaging system.
+     * This method is called by the {@link GenerationQueue} on one of its worker
+     * threads and blocks until the pipeline has finished, so that the queue's
+     * in-flight limit reflects the pipelines that are actually running.
+     *
+     * @param event The processing event containing the source URL to generate tutorials from
+     * @throws RuntimeException if the generation fails
+     */
+    public void runPipeline(WaverProcessEvent event) {
+        runPipeline(event, StageListener.NONE);
+    }
+
+    /**
+     * Runs the tutorial generation pipeline for a queued request, reporting
+     * the progress of every stage to the given listener.
+     *
+     * @param event The processing event containing the source URL to generate tutorials from
+     * @param listener The listener notified when a pipeline stage starts, completes or fails
+     * @throws RuntimeException if the generation fails
+     */
+    public void runPipeline(WaverProcessEvent event, StageListener listener) {
+        runPipeline(event, null, listener);
+    }
+
+    /**
+     * Runs the tutorial generation pipeline for a request that may be run
+     * again under the same job id, resuming after the stages an earlier run
+     * of the job checkpointed.
      *
      * @param event The processing event containing the source URL to generate tutorials from
-     * @return A CompletionStage that completes when the generation process finishes
+     * @param jobId The id of the job, or null if the run is not checkpointed
+     * @param listener The listener notified when a pipeline stage starts, completes or fails
+     * @throws RuntimeException if the generation fails
      */
-    @Incoming("requests")
-    public CompletionStage<Void> initAndRunPipeline(WaverProcessEvent event) {
+    public void runPipeline(WaverProcessEvent event, String jobId, StageListener listener) {
         logger.info("🚀 Event is invoked, starting generation: " + event.sourceUrl());
-        return CompletableFuture.runAsync(() -> {
-            try {
-                generate(event.sourceUrl());
-                logger.info("🚀 Generation has ended. Good bye! " + event.sourceUrl());
-            } catch (Exception e) {
-                logger.severe("❌ Error during tutorial generation: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Tutorial generation failed", e);
-            }
-        });
+        try {
+            generate(event.sourceUrl(), jobId, listener);
+            logger.info("🚀 Generation has ended. Good bye! " + event.sourceUrl());
+        } catch (Exception e) {
+            logger.severe("❌ Error during tutorial generation: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Tutorial generation failed", e);
+        }
     }
 
     /**
@@ -93,6 +226,31 @@ public class BackendProcessingService {
      * @throws MissingConfigurationException if the LLM API key is missing
      */
     public void generate(String inputPath) {
+        generate(inputPath, StageListener.NONE);
+    }
+
+    /**
+     * Generates a tutorial from the specified input path, reporting the
+     * progress of every pipeline stage to the given listener.
+     *
+     * @param inputPath The path to the source code repository to generate tutorials from
+     * @param listener The listener notified when a pipeline stage starts, completes or fails
+     * @throws MissingConfigurationException if the LLM API key is missing
+     */
+    public void generate(String inputPath, StageListener listener) {
+        generate(inputPath, null, listener);
+    }
+
+    /**
+     * Generates a tutorial from the specified input path for a job, resuming
+     * after the stages an earlier run of the job checkpointed.
+     *
+     * @param inputPath The path to the source code repository to generate tutorials from
+     * @param jobId The id of the job, or null if the run is not checkpointed
+     * @param listener The listener notified when a pipeline stage starts, completes or fails
+     * @throws MissingConfigurationException if the LLM API key is missing
+     */
+    public void generate(String inputPath, String jobId, StageListener listener) {
         ProviderConfig providerConfig = getProviderConfig();
         if (providerConfig.getApiKey() == null) {
             throw new MissingConfigurationException("LLM API key is missing.");
@@ -106,7 +264,9 @@ public class BackendProcessingService {
                         waverConfig.verbose(),
                         FileUtil.getFolderNameFromInputPath(inputPath),
                         waverConfig.outputFormat(),
-                        GenerationType.TUTORIAL)
+                        GenerationType.TUTORIAL),
+                jobId,
+                listener
         );
     }
 
@@ -126,31 +286,456 @@ public class BackendProcessingService {
      * <p>
      * This method:
      * <ol>
-     *     <li>Creates a ChatModel instance from the configured LLM provider</li>
+     *     <li>Takes the shared ChatModel of the configured LLM provider from the {@link ChatModelPool},
+     *         schedules its calls through the {@link RateLimiter} and puts the {@link ResponseCache}
+     *         in front of it; with routing, the {@link ProviderRouter} spreads the calls over the
+     *         shared ChatModels of several providers and fails over between them; below the cache
+     *         and the rate limiter, the calls of every stage are retried and hedged by the
+     *         {@link ChatRetries}; the calls are made on the I/O executor of the
+     *         {@link PipelineExecutors}; with streaming, the chapters are streamed into drafts as the
+     *         provider writes them</li>
      *     <li>Sets up the output directory structure</li>
-     *     <li>Constructs and runs the task pipeline with all necessary steps</li>
-     *     <li>Uploads the results to MinIO storage</li>
+     *     <li>Brings the cached checkout of a remote repository up to date, so the crawler reads local files</li>
+     *     <li>Samples the source files into the ingest budget and the context budget of the provider
+     *         if the repository exceeds them</li>
+     *     <li>Starts streaming generated chapters to MinIO, if enabled</li>
+     *     <li>Constructs and runs the task pipeline with all necessary steps, the crawler on the
+     *         bounded CPU pool and the LLM and upload stages on the I/O executor of the
+     *         {@link PipelineExecutors}, identifying the
+     *         abstractions of large repositories per shard if enabled, and restoring the analysis
+     *         stages an earlier run of the job checkpointed</li>
+     *     <li>Uploads the remaining results to MinIO storage</li>
      * </ol>
      *
      * @param appConfig Complete application configuration for the generation process
      */
     public void generate(AppConfig appConfig) {
+        generate(appConfig, StageListener.NONE);
+    }
+
+    /**
+     * Runs the tutorial generation pipeline, reporting the progress of every
+     * stage to the given listener.
+     * <p>
+     * If incremental regeneration is enabled and the {@link SourceSnapshot}
+     * of the repository matches the one stored with its last complete upload,
+     * the run is skipped. Otherwise the new snapshot is stored once the
+     * pipeline has uploaded the tutorial.
+     *
+     * @param appConfig Complete application configuration for the generation process
+     * @param listener The listener notified when a pipeline stage starts, completes or fails
+     */
+    public void generate(AppConfig appConfig, StageListener listener) {
+        generate(appConfig, null, listener);
+    }
+
+    /**
+     * Runs the tutorial generation pipeline for a job, reporting the progress
+     * of every stage to the given listener.
+     * <p>
+     * With a job id, the outputs of the LLM analysis stages are checkpointed,
+     * and stages an earlier run of the same job completed are restored
+     * instead of repeating their LLM calls. The writing stages are always
+     * run, as their output lives in the output directory of the replica.
+     *
+     * @param appConfig Complete application configuration for the generation process
+     * @param jobId The id of the job, or null if the run is not checkpointed
+     * @param listener The listener notified when a pipeline stage starts, completes or fails
+     */
+    public void generate(AppConfig appConfig, String jobId, StageListener listener) {
+        // Hashing the sources is CPU-heavy
+        SourceSnapshot snapshot = pipelineExecutors.computeOnCpu(() -> captureSnapshot(appConfig));
+        if (snapshot != null && isUpToDate(appConfig.projectName(), snapshot)) {
+            logger.info("⏭️ " + appConfig.inputPath() + " is unchanged since the last run"
+                    + (snapshot.commit() != null ? " (commit " + snapshot.commit() + ")" : "")
+                    + ", skipping generation");
+            pipelineMetrics.runSkipped();
+            return;
+        }
+
         logger.info("🚀 Starting Tutorial Generation for: " + appConfig.inputPath());
-        ChatModel chatModel = ModelProviderFactory.buildChatModel(appConfig.llmProvider(), appConfig.apiKey());
+        ProviderRouter.Run routing = providerRouter.newRun();
         Path outputDir = Paths.get(appConfig.absoluteOutputPath() + "/" + appConfig.projectName());
+        ChatModel writerModel = metered(writerChatModel(appConfig, routing,
+                chatModel(appConfig, routing, STAGE_TECHNICAL_WRITER, chatModelPool::get)), STAGE_TECHNICAL_WRITER);
+        StageListener observer = listener.andThen(pipelineMetrics);
 
-        
-        try (TaskPipeline tasksPipeLine = new TaskPipeline()) {
-            tasksPipeLine.add("Code-crawler", new CodeCrawlerTask())
-                    .then("Identify-abstraction", new IdentifyAbstractionsTask(chatModel, appConfig.projectName()))
-                    .then("Identify-relationships", new IdentifyRelationshipsTask(chatModel, appConfig.projectName()))
-                    .then("Chapter-organizer", new ChapterOrganizerTask(chatModel))
-                    .then("Technical-writer", new TechnicalWriterTask(chatModel, outputDir))
-                    .then("Meta-info", new MetaInfoTask(chatModel, outputDir, appConfig.projectName(), appConfig.inputPath()))
-                    .then("Minio-upload", new MinioUploaderTask(minioClient, outputDir, minioConfig.bucketName()));
-            tasksPipeLine.run(appConfig.inputPath()).join();
+        long start = System.nanoTime();
+        boolean success = false;
+        Path sampleDir = null;
+        try (StreamingMinioUploader streamingUploader = startStreamingUploader(outputDir);
+             TaskPipeline tasksPipeLine = new TaskPipeline()) {
+            String crawlPath = checkout(appConfig.inputPath(), observer);
+            sampleDir = pipelineExecutors.computeOnCpu(() -> sample(crawlPath, appConfig.llmProvider()));
+            tasksPipeLine.add(STAGE_CODE_CRAWLER, new ObservedTask<>(STAGE_CODE_CRAWLER,
+                            pipelineExecutors.onCpu(new CodeCrawlerTask()), observer))
+                    .then(STAGE_IDENTIFY_ABSTRACTIONS, new ObservedTask<>(STAGE_IDENTIFY_ABSTRACTIONS,
+                            pipelineExecutors.onIo(checkpointed(jobId, STAGE_IDENTIFY_ABSTRACTIONS,
+                                    sharded(new IdentifyAbstractionsTask(
+                                            stageModel(appConfig, routing, STAGE_IDENTIFY_ABSTRACTIONS),
+                                            appConfig.projectName())))), observer))
+                    .then(STAGE_IDENTIFY_RELATIONSHIPS, new ObservedTask<>(STAGE_IDENTIFY_RELATIONSHIPS,
+                            pipelineExecutors.onIo(checkpointed(jobId, STAGE_IDENTIFY_RELATIONSHIPS,
+                                    new IdentifyRelationshipsTask(
+                                            stageModel(appConfig, routing, STAGE_IDENTIFY_RELATIONSHIPS),
+                                            appConfig.projectName()))), observer))
+                    .then(STAGE_CHAPTER_ORGANIZER, new ObservedTask<>(STAGE_CHAPTER_ORGANIZER,
+                            pipelineExecutors.onIo(checkpointed(jobId, STAGE_CHAPTER_ORGANIZER,
+                                    new ChapterOrganizerTask(
+                                            stageModel(appConfig, routing, STAGE_CHAPTER_ORGANIZER)))),
+                            observer))
+                    .then(STAGE_TECHNICAL_WRITER, new ObservedTask<>(STAGE_TECHNICAL_WRITER,
+                            pipelineExecutors.onIo(new TechnicalWriterTask(writerModel, outputDir)), observer))
+                    .then(STAGE_META_INFO, new ObservedTask<>(STAGE_META_INFO,
+                            pipelineExecutors.onIo(new MetaInfoTask(stageModel(appConfig, routing, STAGE_META_INFO),
+                                    outputDir, appConfig.projectName(), appConfig.inputPath())), observer))
+                    .then(STAGE_MINIO_UPLOAD, new ObservedTask<>(STAGE_MINIO_UPLOAD,
+                            new MinioUploaderTask(minioClient, outputDir, minioConfig.bucketName(),
+                                    minioConfig.upload().concurrency(), streamingUploader,
+                                    minioConfig.upload().partSize().asLongValue(), pipelineExecutors.io()),
+                            observer));
+            tasksPipeLine.run(sampleDir != null ? sampleDir.toString() : crawlPath).join();
+            success = true;
+            saveSnapshot(appConfig.projectName(), snapshot);
             logger.info("\n✅ Tutorial generation complete! Output located at: " + outputDir);
+        } finally {
+            pipelineMetrics.runCompleted(Duration.ofNanos(System.nanoTime() - start), success);
+            deleteSample(sampleDir);
+        }
+    }
+
+    /**
+     * Builds the chat model of a stage of a run over the chat models of the
+     * configured provider, or of every routed provider. Repeated prompts are
+     * answered from the {@link ResponseCache}; the {@link ChatRetries} of the
+     * stage retry and hedge the other calls, and every attempt and hedged
+     * request is scheduled through the {@link RateLimiter}.
+     *
+     * @param appConfig The application configuration of the run
+     * @param routing The routing of the run, shared by all its chat models
+     * @param stage The stage the chat model is used by
+     * @param chatModels The chat model calling a provider with an API key
+     * @return The chat model of the stage
+     */
+    ChatModel chatModel(AppConfig appConfig, ProviderRouter.Run routing, String stage,
+                        BiFunction<LLMProvider, String, ChatModel> chatModels) {
+        // Cache hits are answered before the retries, so they are never hedged, and the rate limiter
+        // runs below the retries, so every request sent to the provider draws from its budget
+        if (providerRouter.isEnabled()) {
+            return routing.route((provider, apiKey, failover) -> responseCache.wrap(chatRetries.wrap(
+                    rateLimiter.wrap(chatModels.apply(provider, apiKey), provider, failover), stage)));
+        }
+        return responseCache.wrap(chatRetries.wrap(
+                rateLimiter.wrap(chatModels.apply(appConfig.llmProvider(), appConfig.apiKey()),
+                        appConfig.llmProvider()), stage));
+    }
+
+    /**
+     * Builds the chat model of the Technical-writer stage. With streaming,
+     * the chapters are streamed from the provider and their text is appended
+     * to drafts below {@code <output-path>/.drafts/<project>/} as it arrives;
+     * the drafts sit outside the output directory, so they are never uploaded.
+     * If no streaming model can be built, the chapters are written with the
+     * blocking chat model of the run. With routing, the writing stage shares
+     * the routing of the run, so it stays with the provider the run is pinned to.
+     *
+     * @param appConfig The application configuration of the run
+     * @param routing The routing of the run, shared by all its chat models
+     * @param chatModel The blocking chat model of the stage
+     * @return The chat model writing the chapters
+     */
+    ChatModel writerChatModel(AppConfig appConfig, ProviderRouter.Run routing, ChatModel chatModel) {
+        WaverConfig.Streaming streaming = waverConfig.streaming();
+        if (!streaming.enabled()) {
+            return chatModel;
+        }
+        Path draftDir = draftDir(Paths.get(appConfig.absoluteOutputPath(), appConfig.projectName()));
+        int flushChars = (int) Math.min(Integer.MAX_VALUE, streaming.flushSize().asLongValue());
+        try {
+            return chatModel(appConfig, routing, STAGE_TECHNICAL_WRITER,
+                    (provider, apiKey) -> new DraftStreamingChatModel(chatModelPool.getStreaming(provider, apiKey),
+                            chatModelPool.get(provider, apiKey), draftDir, flushChars, streaming.idleTimeout()));
+        } catch (RuntimeException e) {
+            logger.warning("Failed to create the streaming chat model, writing chapters without streaming: "
+                    + e.getMessage());
+            return chatModel;
+        }
+    }
+
+    /**
+     * Gets the directory the drafts of the chapters of a run are written to.
+     *
+     * @param outputDir The output directory of the run
+     * @return The draft directory, beside the output directory
+     */
+    static Path draftDir(Path outputDir) {
+        return outputDir.resolveSibling(".drafts").resolve(outputDir.getFileName());
+    }
+
+    private ChatModel stageModel(AppConfig appConfig, ProviderRouter.Run routing, String stage) {
+        return metered(chatModel(appConfig, routing, stage, chatModelPool::get), stage);
+    }
+
+    private ChatModel metered(ChatModel chatModel, String stage) {
+        // Metered around the cache and the retries, so a stage's call time includes budget waits and backoffs;
+        // offloaded, as the stages of waver-llm may call the model from threads of the common fork-join pool
+        return pipelineMetrics.metered(pipelineExecutors.onIo(chatModel), stage);
+    }
+
+    /**
+     * Checkpoints the output of a stage of a job, if checkpoints are enabled.
+     *
+     * @param jobId The id of the job, or null if the run is not checkpointed
+     * @param stage The stage name
+     * @param task The stage task
+     * @param <I> The input type of the task
+     * @param <O> The output type of the task
+     * @return The checkpointed task, or the task itself if the run is not checkpointed
+     */
+    <I, O> Task<I, O> checkpointed(String jobId, String stage, Task<I, O> task) {
+        if (jobId == null || !stageCheckpoints.isEnabled()) {
+            return task;
+        }
+        return new CheckpointedTask<>(jobId, stage, task, stageCheckpoints);
+    }
+
+    /**
+     * Runs the abstraction stage as map-reduce passes over module-sized
+     * shards of the crawled sources, if sharding is enabled. Relationships
+     * are identified afterwards over the merged abstractions, so links
+     * between shards are kept.
+     *
+     * @param task The abstraction task
+     * @param <I> The input type of the task
+     * @param <O> The output type of the task
+     * @return The sharded task, or the task itself if sharding is disabled
+     */
+    <I, O> Task<I, O> sharded(Task<I, O> task) {
+        WaverConfig.Shards shards = waverConfig.shards();
+        if (!shards.enabled()) {
+            return task;
+        }
+        return new ShardedTask<>(task, input -> CrawlShards.split(input, shards.count(), shards.minFiles()),
+                CrawlShards::merge, shards.concurrency(), pipelineExecutors.io());
+    }
+
+    /**
+     * Checks out a remote repository into the local cache, reporting the
+     * checkout as the {@value #STAGE_CHECKOUT} stage. Local directories are
+     * used as they are. A failed checkout is not fatal: the crawler is then
+     * given the URL and clones the repository itself.
+     *
+     * @param inputPath The local path or remote URL of the repository
+     * @param listener The listener notified when the checkout starts, completes or fails
+     * @return The path the crawler reads the repository from
+     */
+    String checkout(String inputPath, StageListener listener) {
+        if (!waverConfig.checkout().enabled() || !FileUtil.isRemoteSource(inputPath)) {
+            return inputPath;
+        }
+        listener.stageStarted(STAGE_CHECKOUT);
+        long start = System.nanoTime();
+        try {
+            Path dir = repositoryCheckout.checkout(inputPath);
+            listener.stageCompleted(STAGE_CHECKOUT, Duration.ofNanos(System.nanoTime() - start));
+            return dir.toString();
+        } catch (IOException | RuntimeException e) {
+            listener.stageFailed(STAGE_CHECKOUT, Duration.ofNanos(System.nanoTime() - start), e);
+            logger.warning("Failed to check out " + inputPath + ", the crawler clones it instead: " + e.getMessage());
+            return inputPath;
+        }
+    }
+
+    /**
+     * Applies the ingest budget to the repository the crawler reads. If the
+     * provider has a context token budget, the files within the ingest budget
+     * are further packed into it by the {@link ContextPacker}; with routing,
+     * the smallest budget of the routed providers applies. If files are
+     * left out, the selected ones are linked into a sample directory, named
+     * like the repository, below the checkout cache. Any failure is logged
+     * and the full repository is crawled.
+     *
+     * @param crawlPath The local directory or, if the checkout failed, the URL the crawler reads
+     * @param provider The LLM provider the tutorial is generated with
+     * @return The sample directory to crawl instead, or null if the whole repository fits the budget
+     */
+    Path sample(String crawlPath, LLMProvider provider) {
+        if (FileUtil.isRemoteSource(crawlPath) || !Files.isDirectory(Paths.get(crawlPath))) {
+            return null;
+        }
+        Path root = Paths.get(crawlPath).toAbsolutePath();
+        WaverConfig.Ingest ingest = waverConfig.ingest();
+        long maxBytes = ingest.maxSize().asLongValue();
+        if (ingest.maxTokens().isPresent()) {
+            maxBytes = Math.min(maxBytes, (long) ingest.maxTokens().getAsInt() * SourceSampler.BYTES_PER_TOKEN);
+        }
+        Path sampleRoot = null;
+        try {
+            SourceSampler.Selection selection = new SourceSampler(maxBytes, ingest.maxFileSize().asLongValue())
+                    .select(root);
+            if (!selection.isComplete()) {
+                logger.info("📉 " + root.getFileName() + " exceeds the ingest budget, crawling "
+                        + selection.files().size() + " of " + selection.totalFiles() + " files ("
+                        + selection.bytes() + " of " + selection.totalBytes() + " bytes)");
+            }
+            List<Path> files = selection.files();
+            OptionalInt contextTokens = contextTokensOf(provider);
+            if (contextTokens.isPresent()) {
+                ContextPacker.Packing packing = new ContextPacker(contextTokens.getAsInt()).pack(root, files);
+                if (!packing.isComplete()) {
+                    logger.info("🧩 Packing " + root.getFileName() + " into the " + provider + " context budget, "
+                            + "crawling " + packing.files().size() + " of " + packing.totalFiles() + " files ("
+                            + packing.tokens() + " of " + packing.totalTokens() + " estimated tokens)");
+                }
+                files = packing.files();
+            }
+            if (files.size() == selection.totalFiles()) {
+                return null;
+            }
+            Path cacheRoot = Files.createDirectories(Paths.get(waverConfig.checkout().path()).toAbsolutePath());
+            sampleRoot = Files.createTempDirectory(cacheRoot, ".sample-");
+            Path sampleDir = Files.createDirectory(sampleRoot.resolve(root.getFileName().toString()));
+            SourceSampler.materialize(root, files, sampleDir);
+            return sampleDir;
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to sample " + root + ", crawling the full repository: " + e.getMessage());
+            deleteQuietly(sampleRoot);
+            return null;
+        }
+    }
+
+    private OptionalInt contextTokensOf(LLMProvider provider) {
+        if (providerRouter.isEnabled()) {
+            // Any routed provider may get the prompt, so the smallest budget applies
+            return providerRouter.apiKeys().keySet().stream()
+                    .map(this::contextTokensOfProvider)
+                    .filter(OptionalInt::isPresent)
+                    .mapToInt(OptionalInt::getAsInt)
+                    .min();
+        }
+        return contextTokensOfProvider(provider);
+    }
+
+    private OptionalInt contextTokensOfProvider(LLMProvider provider) {
+        return switch (provider) {
+            case OpenAI -> waverConfig.openai().contextTokens();
+            case Gemini -> waverConfig.gemini().contextTokens();
+            case null, default -> OptionalInt.empty();
+        };
+    }
+
+    private void deleteSample(Path sampleDir) {
+        if (sampleDir != null) {
+            // The sample directory sits in its own temporary parent
+            deleteQuietly(sampleDir.getParent());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            FileUtil.deleteRecursively(path);
+        } catch (IOException e) {
+            logger.warning("Failed to delete " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Captures the snapshot of the repository a run starts from.
+     *
+     * @param appConfig The application configuration of the run
+     * @return The snapshot, or null if incremental regeneration is disabled
+     *         or the repository could not be read
+     */
+    SourceSnapshot captureSnapshot(AppConfig appConfig) {
+        if (!waverConfig.incremental().enabled()) {
+            return null;
+        }
+        try {
+            String settings = appConfig.llmProvider() + "/" + appConfig.outputFormat() + "/" + appConfig.generationType();
+            return sourceFingerprinter.capture(appConfig.inputPath(), settings);
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Failed to capture the state of " + appConfig.inputPath()
+                    + ", regenerating in full: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the tutorial of a project was completely uploaded from the
+     * same repository state. Any error reading the stored state counts as changed.
+     *
+     * @param projectName The project name used as object prefix
+     * @param snapshot The snapshot of the repository the run would start from
+     * @return true if the run can be skipped
+     */
+    boolean isUpToDate(String projectName, SourceSnapshot snapshot) {
+        try {
+            Optional<SourceSnapshot> previous = SourceSnapshot.load(minioClient, minioConfig.bucketName(), projectName);
+            if (previous.isEmpty()) {
+                return false;
+            }
+            if (!snapshot.matches(previous.get())) {
+                SourceSnapshot.Changes changes = snapshot.changesSince(previous.get());
+                logger.info("🔄 " + snapshot.sourceUrl() + " changed since the last run: commit "
+                        + previous.get().commit() + " -> " + snapshot.commit()
+                        + (changes.size() > 0 ? ", " + changes.added().size() + " added, "
+                                + changes.modified().size() + " modified, "
+                                + changes.removed().size() + " removed file(s)" : ""));
+                return false;
+            }
+            return commitMarkerExists(projectName);
+        } catch (Exception e) {
+            logger.warning("Failed to read the previous state of " + projectName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean commitMarkerExists(String projectName) throws Exception {
+        try (GetObjectResponse ignored = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(minioConfig.bucketName())
+                        .object(projectName + "/" + MinioUploaderTask.COMMIT_MARKER)
+                        .build())) {
+            return true;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stores the snapshot of a completed run. A failure is logged but does
+     * not fail the run; the next run then regenerates in full.
+     *
+     * @param projectName The project name used as object prefix
+     * @param snapshot The snapshot of the repository the run started from, may be null
+     */
+    private void saveSnapshot(String projectName, SourceSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.save(minioClient, minioConfig.bucketName(), projectName);
+        } catch (Exception e) {
+            logger.warning("Failed to store the source state of " + projectName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a streaming uploader for the given output directory if streaming
+     * uploads are enabled in the MinIO configuration.
+     *
+     * @param outputDir The directory the pipeline writes the tutorial to
+     * @return The running uploader, or null if streaming is disabled
+     */
+    StreamingMinioUploader startStreamingUploader(Path outputDir) {
+        if (!minioConfig.upload().streaming()) {
+            return null;
         }
+        return new StreamingMinioUploader(minioClient, outputDir, minioConfig.bucketName(),
+                minioConfig.upload().pollInterval(), minioConfig.upload().partSize().asLongValue()).start();
     }
 
     /**
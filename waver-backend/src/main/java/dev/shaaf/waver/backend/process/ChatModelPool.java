@@ -0,0 +1,181 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import dev.shaaf.waver.llm.config.ModelProviderFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+/**
+ * Pool of chat models shared by all generation runs.
+ * <p>
+ * Building a {@link ChatModel} creates a new HTTP client with its own
+ * connection pool, so building one per tutorial pays for a TCP and TLS
+ * handshake on the first call of every stage. The pool builds one model per
+ * provider and API key and hands the same instance to every pipeline, so
+ * connections to the provider are reused across requests. Chat models are
+ * thread safe and can be used by concurrent pipelines.
+ * <p>
+ * Streaming chat models are pooled the same way. They are built with the
+ * default request parameters of the provider's chat model, so they call the
+ * same model with the same temperature, sampling and output limit.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ChatModelPool {
+
+    /** Logger instance for this pool. */
+    private static final Logger logger = Logger.getLogger(ChatModelPool.class.getName());
+
+    /** Factory building a chat model for a provider and API key. */
+    BiFunction<LLMProvider, String, ChatModel> modelFactory = ModelProviderFactory::buildChatModel;
+
+    /** Factory building a streaming chat model for a provider, API key and request parameters. */
+    StreamingModelFactory streamingFactory = ChatModelPool::buildStreamingChatModel;
+
+    /** Chat models built so far, keyed by provider and API key. */
+    private final Map<ModelKey, ChatModel> models = new ConcurrentHashMap<>();
+
+    /** Streaming chat models built so far, keyed by provider and API key. */
+    private final Map<ModelKey, StreamingChatModel> streamingModels = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the streaming chat model of a provider.
+     */
+    @FunctionalInterface
+    interface StreamingModelFactory {
+        /**
+         * Builds the streaming chat model of a provider.
+         *
+         * @param provider The LLM provider
+         * @param apiKey The API key of the provider
+         * @param parameters The default request parameters of the provider's chat model
+         * @return The streaming chat model
+         */
+        StreamingChatModel build(LLMProvider provider, String apiKey, ChatRequestParameters parameters);
+    }
+
+    /**
+     * Gets the shared chat model for a provider and API key, building it on first use.
+     *
+     * @param provider The LLM provider
+     * @param apiKey The API key of the provider
+     * @return The shared chat model
+     */
+    public ChatModel get(LLMProvider provider, String apiKey) {
+        Objects.requireNonNull(provider, "provider");
+        return models.computeIfAbsent(new ModelKey(provider, apiKey), key -> {
+            logger.info("Creating shared chat model for " + provider);
+            return modelFactory.apply(provider, apiKey);
+        });
+    }
+
+    /**
+     * Gets the shared streaming chat model for a provider and API key,
+     * building it on first use for the model of {@link #get(LLMProvider, String)}.
+     *
+     * @param provider The LLM provider
+     * @param apiKey The API key of the provider
+     * @return The shared streaming chat model
+     * @throws IllegalStateException if the model of the provider's chat model is unknown
+     * @throws IllegalArgumentException if the provider does not support streaming
+     */
+    public StreamingChatModel getStreaming(LLMProvider provider, String apiKey) {
+        Objects.requireNonNull(provider, "provider");
+        return streamingModels.computeIfAbsent(new ModelKey(provider, apiKey), key -> {
+            ChatRequestParameters parameters = get(provider, apiKey).defaultRequestParameters();
+            if (parameters == null || parameters.modelName() == null) {
+                throw new IllegalStateException("The model of the " + provider + " chat model is unknown");
+            }
+            logger.info("Creating shared streaming chat model for " + provider + " (" + parameters.modelName() + ")");
+            return streamingFactory.build(provider, apiKey, parameters);
+        });
+    }
+
+    /**
+     * Builds the chat model for a provider ahead of the first request and
+     * optionally sends it a prompt, so the connection to the provider is open.
+     * A failing warm-up is logged; the model is then built or retried on first use.
+     *
+     * @param provider The LLM provider
+     * @param apiKey The API key of the provider
+     * @param prompt The prompt to send, or empty to only build the model
+     */
+    public void warmUp(LLMProvider provider, String apiKey, Optional<String> prompt) {
+        long start = System.nanoTime();
+        try {
+            ChatModel chatModel = get(provider, apiKey);
+            if (prompt.isPresent() && chatModel != null) {
+                chatModel.chat(prompt.get());
+            }
+            logger.info("🔥 Chat model for " + provider + " warmed up in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (RuntimeException e) {
+            logger.warning("Chat model warm-up for " + provider + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the number of chat models in the pool.
+     *
+     * @return The count of pooled models
+     */
+    public int size() {
+        return models.size();
+    }
+
+    /**
+     * Releases the pooled models on shutdown.
+     */
+    @PreDestroy
+    void clear() {
+        models.clear();
+        streamingModels.clear();
+    }
+
+    private static StreamingChatModel buildStreamingChatModel(LLMProvider provider, String apiKey,
+                                                              ChatRequestParameters parameters) {
+        return switch (provider) {
+            case OpenAI -> OpenAiStreamingChatModel.builder()
+                    .apiKey(apiKey)
+                    .defaultRequestParameters(parameters)
+                    .build();
+            case Gemini -> GoogleAiGeminiStreamingChatModel.builder()
+                    .apiKey(apiKey)
+                    .modelName(parameters.modelName())
+                    .temperature(parameters.temperature())
+                    .topP(parameters.topP())
+                    .topK(parameters.topK())
+                    .maxOutputTokens(parameters.maxOutputTokens())
+                    .build();
+            case null, default -> throw new IllegalArgumentException("Streaming is not supported for " + provider);
+        };
+    }
+
+    /**
+     * Key of a pooled model. The API key is kept out of {@link #toString()}.
+     *
+     * @param provider The LLM provider
+     * @param apiKey The API key of the provider
+     */
+    private record ModelKey(LLMProvider provider, String apiKey) {
+        @Override
+        public String toString() {
+            return "ModelKey[provider=" + provider + "]";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Task decorator that checkpoints the output of a pipeline stage.
+ * <p>
+ * If an earlier run of the same job completed the stage, its checkpointed
+ * output is returned without executing the wrapped task. Otherwise the
+ * wrapped task is executed and its output checkpointed once it completed.
+ * Only stages without side effects outside their output may be wrapped, as
+ * a restored stage does not repeat them.
+ *
+ * @param <I> The input type of the wrapped task
+ * @param <O> The output type of the wrapped task
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class CheckpointedTask<I, O> implements Task<I, O> {
+
+    /** Logger instance for this task. */
+    private static final Logger logger = Logger.getLogger(CheckpointedTask.class.getName());
+
+    /** Id of the job the stage runs for. */
+    private final String jobId;
+
+    /** Name of the stage, as registered in the pipeline. */
+    private final String stage;
+
+    /** The task doing the actual work. */
+    private final Task<I, O> delegate;
+
+    /** Saves and restores the stage output. */
+    private final StageCheckpoints checkpoints;
+
+    /**
+     * Constructs a new CheckpointedTask.
+     *
+     * @param jobId The id of the job the stage runs for
+     * @param stage The name of the stage
+     * @param delegate The task doing the actual work
+     * @param checkpoints Saves and restores the stage output
+     */
+    public CheckpointedTask(String jobId, String stage, Task<I, O> delegate, StageCheckpoints checkpoints) {
+        this.jobId = jobId;
+        this.stage = stage;
+        this.delegate = delegate;
+        this.checkpoints = checkpoints;
+    }
+
+    /**
+     * Restores the checkpointed output of the stage, or executes the wrapped
+     * task and checkpoints its output.
+     *
+     * @param input The input of the stage
+     * @param context The pipeline context
+     * @return The future of the stage output
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<O> execute(I input, PipelineContext context) {
+        Optional<Object> restored = checkpoints.restore(jobId, stage);
+        if (restored.isPresent()) {
+            logger.info("⏩ Resuming job " + jobId + " after " + stage + " from its checkpoint");
+            return CompletableFuture.completedFuture((O) restored.get());
+        }
+        return delegate.execute(input, context).thenApply(output -> {
+            checkpoints.save(jobId, stage, output);
+            return output;
+        });
+    }
+}
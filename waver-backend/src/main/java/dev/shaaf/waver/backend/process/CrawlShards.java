@@ -0,0 +1,118 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.waver.backend.ingest.ModulePartitioner;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits the crawled sources into module-sized shards for the abstraction
+ * stage, and merges the abstractions found per shard.
+ * <p>
+ * The crawler output is handled by its shape rather than by its type, so
+ * the backend does not depend on the model classes of the crawler:
+ * <ul>
+ *     <li>A map keyed by file path is partitioned by module with the
+ *         {@link ModulePartitioner}, weighted by the length of the file
+ *         contents where these are text.</li>
+ *     <li>A list of paths is partitioned by module as well; any other list
+ *         is cut into consecutive slices, which keeps the files of a
+ *         directory together as the crawler lists them in walk order.</li>
+ *     <li>Anything else, and any input with fewer than the minimum number
+ *         of files, is a single shard.</li>
+ * </ul>
+ * Lists and sets of abstractions are merged by concatenation, dropping
+ * duplicates; maps are merged key by key.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+final class CrawlShards {
+
+    private CrawlShards() {
+    }
+
+    /**
+     * Splits crawled sources into shards.
+     *
+     * @param input The crawler output
+     * @param count The maximum number of shards
+     * @param minFiles The minimum number of files for the input to be split at all
+     * @param <T> The type of the crawler output
+     * @return The shards, each of the same shape as the input
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> split(T input, int count, int minFiles) {
+        if (input instanceof Map<?, ?> map && map.size() >= minFiles) {
+            List<Map.Entry<?, ?>> entries = new ArrayList<>(map.entrySet());
+            List<T> shards = new ArrayList<>();
+            for (List<Map.Entry<?, ?>> part : ModulePartitioner.partition(entries,
+                    entry -> String.valueOf(entry.getKey()), entry -> weightOf(entry.getValue()), count)) {
+                Map<Object, Object> shard = new LinkedHashMap<>();
+                part.forEach(entry -> shard.put(entry.getKey(), entry.getValue()));
+                shards.add((T) shard);
+            }
+            return shards;
+        }
+        if (input instanceof List<?> list && list.size() >= minFiles) {
+            List<? extends List<?>> parts = list.stream().allMatch(CrawlShards::isPath)
+                    ? ModulePartitioner.partition(list, String::valueOf, file -> 1, count)
+                    : slices(list, count);
+            return parts.stream().map(part -> (T) new ArrayList<>(part)).toList();
+        }
+        return List.of(input);
+    }
+
+    /**
+     * Merges the outputs of the shards.
+     *
+     * @param outputs The outputs, in shard order
+     * @param <T> The type of the outputs
+     * @return The merged output
+     * @throws IllegalStateException if the outputs are neither collections nor maps
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T merge(List<T> outputs) {
+        if (outputs.size() == 1) {
+            return outputs.getFirst();
+        }
+        if (outputs.stream().allMatch(output -> output instanceof Map<?, ?>)) {
+            Map<Object, Object> merged = new LinkedHashMap<>();
+            outputs.forEach(output -> merged.putAll((Map<?, ?>) output));
+            return (T) merged;
+        }
+        if (outputs.stream().allMatch(output -> output instanceof Collection<?>)) {
+            Set<Object> merged = new LinkedHashSet<>();
+            outputs.forEach(output -> merged.addAll((Collection<?>) output));
+            return outputs.stream().allMatch(output -> output instanceof Set<?>)
+                    ? (T) merged
+                    : (T) new ArrayList<>(merged);
+        }
+        throw new IllegalStateException("Cannot merge shard results of type "
+                + outputs.getFirst().getClass().getName());
+    }
+
+    private static boolean isPath(Object file) {
+        return file instanceof Path || file instanceof CharSequence;
+    }
+
+    private static long weightOf(Object content) {
+        return content instanceof CharSequence text ? text.length() : 1;
+    }
+
+    private static List<List<?>> slices(List<?> list, int count) {
+        int size = (list.size() + count - 1) / count;
+        List<List<?>> slices = new ArrayList<>();
+        for (int start = 0; start < list.size(); start += size) {
+            slices.add(list.subList(start, Math.min(list.size(), start + size)));
+        }
+        return slices;
+    }
+}
@@ -0,0 +1,220 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Chat model calling a streaming chat model and appending the tokens of
+ * every answer to a draft file as they arrive.
+ * <p>
+ * The pipeline tasks take a blocking {@link ChatModel}, so the caller still
+ * waits for the complete answer, but the connection to the provider stays
+ * busy with tokens instead of idling until a long chapter is done, and the
+ * draft shows how far the chapter got; the streaming upload publishes it to
+ * the bucket. Text is flushed to the draft whenever the configured number of
+ * characters has been buffered. The draft of a call is removed once the call
+ * has ended; failing to write it does not fail the call.
+ * <p>
+ * A call whose stream stalls, with no token arriving for the idle timeout,
+ * fails with a {@link TimeoutException}, which the retries of the stage treat
+ * as transient; tokens the abandoned stream still delivers are dropped.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class DraftStreamingChatModel implements ChatModel {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(DraftStreamingChatModel.class.getName());
+
+    /** The streaming chat model doing the actual work. */
+    private final StreamingChatModel delegate;
+
+    /** The chat model the request parameters, provider and capabilities are taken from. */
+    private final ChatModel template;
+
+    /** The directory the drafts are written to. */
+    private final Path draftDir;
+
+    /** Number of characters buffered before they are flushed to a draft. */
+    private final int flushChars;
+
+    /** How long a call waits for the next token before it is abandoned. */
+    private final Duration idleTimeout;
+
+    /** Number of calls made so far, naming their drafts. */
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /**
+     * Constructs a new DraftStreamingChatModel.
+     *
+     * @param delegate The streaming chat model
+     * @param template The blocking chat model of the same provider and model, describing it
+     * @param draftDir The directory the drafts are written to
+     * @param flushChars The number of characters buffered before they are flushed to a draft
+     * @param idleTimeout How long a call waits for the next token before it is abandoned
+     */
+    DraftStreamingChatModel(StreamingChatModel delegate, ChatModel template, Path draftDir, int flushChars,
+                            Duration idleTimeout) {
+        this.delegate = delegate;
+        this.template = template;
+        this.draftDir = draftDir;
+        this.flushChars = Math.max(1, flushChars);
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        Draft draft = new Draft(draftDir.resolve("chapter-" + calls.incrementAndGet() + ".md.part"));
+        CompletableFuture<ChatResponse> answer = new CompletableFuture<>();
+        AtomicLong lastToken = new AtomicLong(System.nanoTime());
+        try {
+            delegate.chat(chatRequest, new StreamingChatResponseHandler() {
+                @Override
+                public void onPartialResponse(String partialResponse) {
+                    lastToken.set(System.nanoTime());
+                    draft.append(partialResponse);
+                }
+
+                @Override
+                public void onCompleteResponse(ChatResponse completeResponse) {
+                    answer.complete(completeResponse);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    answer.completeExceptionally(error);
+                }
+            });
+            return await(answer, lastToken);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while streaming from the LLM", e);
+        } finally {
+            draft.delete();
+        }
+    }
+
+    /**
+     * Waits for the complete answer as long as tokens keep arriving.
+     *
+     * @param answer The answer of the call
+     * @param lastToken When the last token arrived, in {@link System#nanoTime()}
+     * @return The complete answer
+     * @throws TimeoutException if no token arrived for the idle timeout
+     */
+    private ChatResponse await(CompletableFuture<ChatResponse> answer, AtomicLong lastToken)
+            throws ExecutionException, InterruptedException {
+        while (true) {
+            long left = lastToken.get() + idleTimeout.toNanos() - System.nanoTime();
+            if (left <= 0) {
+                throw new TimeoutException("No token arrived from the LLM for " + idleTimeout);
+            }
+            try {
+                return answer.get(left, TimeUnit.NANOSECONDS);
+            } catch (java.util.concurrent.TimeoutException e) {
+                // A token may have arrived meanwhile
+            }
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return template.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return template.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return template.supportedCapabilities();
+    }
+
+    /**
+     * The draft file of one call, opened with the first token.
+     */
+    private final class Draft {
+
+        /** The path of the draft. */
+        private final Path file;
+
+        /** The writer of the draft, or null before the first token. */
+        private Writer writer;
+
+        /** Number of characters written since the last flush. */
+        private int buffered;
+
+        /** Whether the draft is given up, because writing it failed or the call ended. */
+        private boolean failed;
+
+        Draft(Path file) {
+            this.file = file;
+        }
+
+        synchronized void append(String text) {
+            if (failed || text == null) {
+                return;
+            }
+            try {
+                if (writer == null) {
+                    Files.createDirectories(file.getParent());
+                    writer = Files.newBufferedWriter(file);
+                }
+                writer.write(text);
+                buffered += text.length();
+                if (buffered >= flushChars) {
+                    writer.flush();
+                    buffered = 0;
+                }
+            } catch (IOException e) {
+                failed = true;
+                logger.warning("Failed to write the draft " + file + ": " + e.getMessage());
+            }
+        }
+
+        synchronized void delete() {
+            // Tokens arriving after the call ended are not written
+            failed = true;
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warning("Failed to delete the draft " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,790 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.waver.backend.FileUtil;
+import dev.shaaf.waver.backend.GenerationSubmission;
+import dev.shaaf.waver.backend.WaverProcessEvent;
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
+import dev.shaaf.waver.backend.config.MinioConfig;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.job.GenerationJob;
+import dev.shaaf.waver.backend.job.JobService;
+import dev.shaaf.waver.backend.job.JobState;
+import dev.shaaf.waver.backend.work.InMemoryWorkStore;
+import dev.shaaf.waver.backend.work.MinioWorkStore;
+import dev.shaaf.waver.backend.work.WorkItem;
+import dev.shaaf.waver.backend.work.WorkStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.minio.MinioClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Bounded work queue in front of the tutorial generation pipeline.
+ * <p>
+ * At most {@code waver.queue.max-in-flight} pipelines run at the same time,
+ * each on its own virtual thread. Further requests wait in a queue of at most
+ * {@code waver.queue.depth} entries. What happens to a request that arrives
+ * while the queue is full depends on the configured
+ * {@link WaverConfig.Queue.OverflowStrategy}: it is refused, it replaces the
+ * oldest waiting request, or it is buffered without limit.
+ * <p>
+ * This keeps a burst of requests from starting dozens of LLM pipelines at once,
+ * which would exhaust memory and trip provider rate limits.
+ * <p>
+ * Waiting requests are started by weighted fair queuing over their tenant
+ * and priority lane (see {@link WeightedFairQueue}): every tenant of a lane
+ * gets a share of the free slots proportional to the lane's weight in
+ * {@code waver.queue.weights}, so a tenant submitting dozens of repositories
+ * does not starve the others, and high priority requests overtake low
+ * priority ones without shutting them out. The time requests wait for a
+ * slot is recorded per lane.
+ * <p>
+ * Requests are de-duplicated by their normalized source URL through an
+ * {@link InFlightRegistry}: a request for a repository that is already queued
+ * or running is attached to that job, and a request arriving within
+ * {@code waver.queue.completion-window} after a successful run is answered
+ * from the existing output.
+ * <p>
+ * Every accepted request gets a job in the {@link JobService}, whose id is
+ * returned to the caller so the progress of the generation can be polled.
+ * Duplicate requests receive the id of the job they were attached to.
+ * <p>
+ * With {@code waver.work.mode=LEASED}, requests are not run by the replica
+ * that received them but queued in a shared {@link WorkStore}. Every replica
+ * claims requests while it has a free pipeline slot and renews the lease
+ * while the pipeline runs; a request whose replica crashed is claimed again
+ * once its lease expired, resuming after the stages the crashed replica
+ * checkpointed. Claims follow the priority lanes strictly and, within a
+ * lane, favor the tenant with the fewest running requests; the lane weights
+ * and the overflow strategy only apply in local mode. A replica that lost the lease on a request stops its
+ * pipeline before the next stage and leaves the job, its checkpoints and the
+ * work item to the replica that took over. Duplicates are detected by the
+ * store, across all replicas.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class GenerationQueue {
+
+    /** Logger instance for this queue. */
+    private static final Logger logger = Logger.getLogger(GenerationQueue.class.getName());
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected service that runs the generation pipeline. */
+    @Inject
+    BackendProcessingService processingService;
+
+    /** Injected service keeping track of generation jobs. */
+    @Inject
+    JobService jobService;
+
+    /** Injected store of the outputs of completed stages of claimed requests. */
+    @Inject
+    StageCheckpoints stageCheckpoints;
+
+    /** Injected MinIO configuration settings, used by the MinIO work store. */
+    @Inject
+    MinioConfig minioConfig;
+
+    /** Injected MinIO client, used by the MinIO work store. */
+    @Inject
+    MinioClient minioClient;
+
+    /** Injected registry the queue wait times are recorded in. */
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /** Shared work store in leased mode, created from the configuration unless set; null in local mode. */
+    WorkStore workStore;
+
+    /** Executor running the pipelines, sized to the max-in-flight limit. */
+    private ThreadPoolExecutor executor;
+
+    /** Requests waiting for a pipeline slot, in fair order; the work queue of the executor. */
+    private WeightedFairQueue<Runnable> waiting;
+
+    /** Weights of the priority lanes. */
+    private Map<WaverProcessEvent.Priority, Integer> weights;
+
+    /** Time requests waited for a pipeline slot, per priority lane. */
+    private Map<WaverProcessEvent.Priority, Timer> waitTimers;
+
+    /** Strategy applied when the queue is full. */
+    private WaverConfig.Queue.OverflowStrategy overflow;
+
+    /** Repositories that are queued, running or were generated recently. */
+    private InFlightRegistry registry;
+
+    /** Name of this replica in the work store. */
+    private String replica;
+
+    /** Thread claiming requests from the work store in leased mode. */
+    private Thread claimer;
+
+    /** Renews the leases of the requests this replica is running. */
+    private ScheduledExecutorService renewals;
+
+    /** Ids of the work items this replica claimed and has not finished yet. */
+    private final Set<String> claimed = ConcurrentHashMap.newKeySet();
+
+    /** Waiting requests in the work store when they were last counted. */
+    private volatile int storeQueuedCount;
+
+    /** When the waiting requests in the work store were last counted, in nanoseconds; 0 if never. */
+    private volatile long storeCountedAt;
+
+    /**
+     * Creates the worker pool after dependency injection is complete.
+     *
+     * @throws IllegalArgumentException if the max-in-flight count, the queue depth or a lane weight is less than 1
+     */
+    @PostConstruct
+    void start() {
+        WaverConfig.Queue queue = waverConfig.queue();
+        overflow = queue.overflow();
+        if (queue.maxInFlight() < 1) {
+            throw new IllegalArgumentException("Queue max-in-flight must be at least 1: " + queue.maxInFlight());
+        }
+        if (overflow != WaverConfig.Queue.OverflowStrategy.BUFFER && queue.depth() < 1) {
+            throw new IllegalArgumentException("Queue depth must be at least 1: " + queue.depth());
+        }
+
+        weights = new EnumMap<>(WaverProcessEvent.Priority.class);
+        weights.put(WaverProcessEvent.Priority.HIGH, queue.weights().high());
+        weights.put(WaverProcessEvent.Priority.NORMAL, queue.weights().normal());
+        weights.put(WaverProcessEvent.Priority.LOW, queue.weights().low());
+        waitTimers = new EnumMap<>(WaverProcessEvent.Priority.class);
+        weights.forEach((lane, weight) -> {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Queue weight of the " + laneOf(lane) + " lane must be at least 1: "
+                        + weight);
+            }
+            waitTimers.put(lane, Timer.builder("waver.queue.wait")
+                    .description("Time generation requests waited for a pipeline slot")
+                    .tag("lane", laneOf(lane))
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofHours(2))
+                    .register(meterRegistry));
+        });
+
+        waiting = new WeightedFairQueue<>(overflow == WaverConfig.Queue.OverflowStrategy.BUFFER
+                ? Integer.MAX_VALUE
+                : queue.depth(), this::flowOf);
+        registry = new InFlightRegistry(queue.completionWindow(), Clock.systemUTC());
+        executor = new ThreadPoolExecutor(queue.maxInFlight(), queue.maxInFlight(), 0L, TimeUnit.MILLISECONDS,
+                waiting, Thread.ofVirtual().name("waver-generation-", 0).factory());
+        logger.info("Generation queue started: max-in-flight=" + queue.maxInFlight()
+                + ", depth=" + queue.depth() + ", overflow=" + overflow + ", weights=" + weights);
+
+        WaverConfig.Work work = waverConfig.work();
+        if (work.mode() == WaverConfig.Work.Mode.LEASED) {
+            startClaiming(work);
+        } else {
+            workStore = null;
+        }
+    }
+
+    /**
+     * Starts claiming requests from the shared work store.
+     *
+     * @param work The work configuration
+     * @throws IllegalArgumentException if the lease is not positive or the max attempts are less than 1
+     */
+    private void startClaiming(WaverConfig.Work work) {
+        if (work.lease().isNegative() || work.lease().isZero()) {
+            throw new IllegalArgumentException("Work lease must be positive: " + work.lease());
+        }
+        if (work.maxAttempts() < 1) {
+            throw new IllegalArgumentException("Work max-attempts must be at least 1: " + work.maxAttempts());
+        }
+        if (workStore == null) {
+            workStore = work.store() == WaverConfig.Work.Store.MEMORY
+                    ? new InMemoryWorkStore()
+                    : new MinioWorkStore(minioClient, minioConfig.bucketName());
+        }
+        replica = System.getenv().getOrDefault("HOSTNAME", "waver") + "-" + UUID.randomUUID().toString().substring(0, 8);
+        renewals = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("waver-lease-renewal").factory());
+        claimer = Thread.ofVirtual().name("waver-claimer").start(() -> claimLoop(work));
+        logger.info("Claiming generation requests from the " + work.store() + " work store as " + replica
+                + ": lease=" + work.lease() + ", poll-interval=" + work.pollInterval());
+    }
+
+    /**
+     * Submits a generation request.
+     * <p>
+     * A request for a repository that is already queued or running is attached
+     * to that job, and a request for a repository that was generated within the
+     * completion window is answered from the existing output. Otherwise the
+     * request runs immediately if a pipeline slot is free, or waits in the queue.
+     * If the queue is full, the overflow strategy decides whether the request is
+     * refused or the oldest waiting request is dropped. A job is only created
+     * once the request has a place in the queue.
+     *
+     * @param event The processing event containing the source URL
+     * @return The outcome of the submission
+     */
+    public GenerationSubmission submit(WaverProcessEvent event) {
+        GenerationSubmission submission;
+        if (workStore != null) {
+            // The work store detects duplicates atomically, so its requests need no lock
+            submission = enqueue(event);
+        } else {
+            synchronized (this) {
+                submission = enqueue(event);
+            }
+        }
+        return counted(submission, getQueuedCount());
+    }
+
+    /**
+     * Submits a batch of generation requests in one go, so no other request
+     * is queued in between.
+     * <p>
+     * The requests are submitted in the given order, each as by
+     * {@link #submit(WaverProcessEvent)}. A request for a repository that
+     * appeared earlier in the batch is not submitted again: it is attached to
+     * the job of the earlier request, or shares its outcome if that request
+     * was not queued. The queued count of every outcome is the count after
+     * the whole batch.
+     *
+     * @param events The processing events, each with a source URL
+     * @return The outcome of every submission, in the order of the events
+     */
+    public List<GenerationSubmission> submitAll(List<WaverProcessEvent> events) {
+        List<GenerationSubmission> outcomes;
+        if (workStore != null) {
+            outcomes = enqueueAll(events);
+        } else {
+            synchronized (this) {
+                outcomes = enqueueAll(events);
+            }
+        }
+        int queued = getQueuedCount();
+        return outcomes.stream().map(outcome -> counted(outcome, queued)).toList();
+    }
+
+    /**
+     * Queues a batch of requests, as described for {@link #submitAll(List)}.
+     * In local mode, must be called while holding the lock of this queue.
+     *
+     * @param events The processing events, each with a source URL
+     * @return The outcome of every submission, not yet counted
+     */
+    private List<GenerationSubmission> enqueueAll(List<WaverProcessEvent> events) {
+        Map<String, GenerationSubmission> earlier = new HashMap<>();
+        List<GenerationSubmission> outcomes = new ArrayList<>(events.size());
+        for (WaverProcessEvent event : events) {
+            String key = keyOf(event.sourceUrl());
+            GenerationSubmission first = earlier.get(key);
+            if (first == null) {
+                first = enqueue(event);
+                earlier.put(key, first);
+                outcomes.add(first);
+            } else if (first.jobId() != null) {
+                outcomes.add(submission(GenerationSubmission.Status.COALESCED, first.jobId(), event,
+                        "Attached to the generation of an earlier request in this batch"));
+            } else {
+                outcomes.add(submission(first.status(), null, event, first.message()));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Queues a request, as described for {@link #submit(WaverProcessEvent)}.
+     * In local mode, must be called while holding the lock of this queue.
+     *
+     * @param event The processing event containing the source URL
+     * @return The outcome of the submission, not yet counted
+     */
+    private GenerationSubmission enqueue(WaverProcessEvent event) {
+        if (executor.isShutdown()) {
+            return submission(GenerationSubmission.Status.UNAVAILABLE, null, event, "Backend is shutting down");
+        }
+        if (workStore != null) {
+            return offer(event);
+        }
+
+        String key = keyOf(event.sourceUrl());
+        InFlightRegistry.Registration registration = registry.register(key, UUID.randomUUID().toString());
+        String jobId = registration.jobId();
+        switch (registration.outcome()) {
+            case ATTACHED -> {
+                logger.info("🔗 Attaching request to the running generation of " + key);
+                return submission(GenerationSubmission.Status.COALESCED, jobId, event,
+                        "Attached to the running generation of this repository");
+            }
+            case COMPLETED -> {
+                logger.info("♻️ Repository was generated recently, serving existing output for " + key);
+                return submission(GenerationSubmission.Status.ALREADY_GENERATED, jobId, event,
+                        "Repository was generated recently, existing output is available");
+            }
+            case STARTED -> {
+                // New job, queued below
+            }
+        }
+
+        // Workers only ever take from the queue, so while holding the lock a full
+        // queue stays full and a queue with room keeps it until execute below
+        if (executor.getQueue().remainingCapacity() == 0
+                && (overflow != WaverConfig.Queue.OverflowStrategy.DROP_OLDEST || !dropOldest())) {
+            registry.release(key);
+            logger.warning("⚠️ Generation queue is full, rejecting request for " + event.sourceUrl());
+            return submission(GenerationSubmission.Status.QUEUE_FULL, null, event,
+                    "Generation queue is full, retry later");
+        }
+
+        jobService.create(jobId, event.sourceUrl());
+        try {
+            executor.execute(new QueuedGeneration(event, key, jobId));
+        } catch (RejectedExecutionException e) {
+            registry.release(key);
+            jobService.fail(jobId, "Backend is shutting down");
+            return submission(GenerationSubmission.Status.UNAVAILABLE, null, event, "Backend is shutting down");
+        }
+        return submission(GenerationSubmission.Status.ACCEPTED, jobId, event, "Request queued for generation");
+    }
+
+    /**
+     * Gets the number of requests waiting for a pipeline slot.
+     * <p>
+     * In leased mode, the waiting requests of all replicas are counted in the
+     * work store at most once per poll interval, so the count may lag behind
+     * by that long.
+     *
+     * @return The count of queued requests
+     */
+    public int getQueuedCount() {
+        if (workStore == null) {
+            return executor.getQueue().size();
+        }
+        long countedAt = storeCountedAt;
+        if (countedAt != 0 && System.nanoTime() - countedAt < waverConfig.work().pollInterval().toNanos()) {
+            return storeQueuedCount;
+        }
+        try {
+            Instant now = Instant.now();
+            storeQueuedCount = (int) workStore.list().stream().filter(item -> item.isClaimable(now)).count();
+        } catch (IOException e) {
+            logger.warning("Failed to count queued requests: " + e.getMessage());
+        }
+        storeCountedAt = System.nanoTime();
+        return storeQueuedCount;
+    }
+
+    /**
+     * Gets the number of pipelines currently running.
+     *
+     * @return The count of running pipelines
+     */
+    public int getInFlightCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Checks whether a repository is queued or running.
+     *
+     * @param sourceUrl The source URL of the repository, in any spelling
+     * @return true if a generation of the repository is queued or running
+     */
+    public boolean isInFlight(String sourceUrl) {
+        if (workStore != null) {
+            try {
+                return workStore.find(WorkItem.idOf(keyOf(sourceUrl))).isPresent();
+            } catch (IOException e) {
+                logger.warning("Failed to look up " + sourceUrl + " in the work store: " + e.getMessage());
+                return false;
+            }
+        }
+        return registry.isInFlight(keyOf(sourceUrl));
+    }
+
+    /**
+     * Stops accepting requests and discards the requests still waiting in the
+     * queue. Pipelines that are already running are allowed to finish.
+     */
+    @PreDestroy
+    void stop() {
+        if (claimer != null) {
+            // Running pipelines keep renewing their leases until they finish
+            claimer.interrupt();
+        }
+        List<Runnable> abandoned = new ArrayList<>();
+        executor.getQueue().drainTo(abandoned);
+        executor.shutdown();
+        for (Runnable runnable : abandoned) {
+            if (runnable instanceof QueuedGeneration generation) {
+                registry.release(generation.key);
+                jobService.fail(generation.jobId, "Discarded on shutdown");
+                logger.warning("Discarding queued request on shutdown: " + generation.event.sourceUrl());
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest waiting request of the lowest priority lane from the queue.
+     *
+     * @return true if a request was removed, false if the queue was empty
+     */
+    private boolean dropOldest() {
+        Runnable oldest = waiting.pollOldestOfLowestWeight();
+        if (oldest instanceof QueuedGeneration generation) {
+            registry.release(generation.key);
+            jobService.fail(generation.jobId, "Dropped from the full generation queue");
+            logger.warning("⚠️ Generation queue is full, dropping oldest request for " + generation.event.sourceUrl());
+        }
+        return oldest != null;
+    }
+
+    /**
+     * Queues a request in the shared work store. A request for a repository
+     * that is queued or running, or whose latest job succeeded within the
+     * completion window, is answered like in local mode. Otherwise the job is
+     * created first, so the replica claiming the request can track its
+     * progress right away.
+     *
+     * @param event The processing event containing the source URL
+     * @return The outcome of the submission
+     */
+    private GenerationSubmission offer(WaverProcessEvent event) {
+        String key = keyOf(event.sourceUrl());
+        Optional<WorkItem> existing;
+        try {
+            existing = workStore.find(WorkItem.idOf(key));
+        } catch (IOException e) {
+            existing = Optional.empty();
+        }
+        if (existing.isEmpty()) {
+            Optional<GenerationJob> latest = jobService.latestFor(event.sourceUrl());
+            Instant doneAt = latest.map(job -> job.stageTimestamps().get(JobState.DONE)).orElse(null);
+            if (doneAt != null && doneAt.plus(waverConfig.queue().completionWindow()).isAfter(Instant.now())) {
+                logger.info("♻️ Repository was generated recently, serving existing output for " + key);
+                return submission(GenerationSubmission.Status.ALREADY_GENERATED, latest.get().id(), event,
+                        "Repository was generated recently, existing output is available");
+            }
+            String jobId = UUID.randomUUID().toString();
+            jobService.create(jobId, event.sourceUrl());
+            try {
+                existing = workStore.offer(WorkItem.queued(key, jobId, event, Instant.now()));
+            } catch (IOException e) {
+                jobService.discard(jobId);
+                logger.warning("⚠️ Work store is not available, rejecting request for " + event.sourceUrl()
+                        + ": " + e.getMessage());
+                return submission(GenerationSubmission.Status.UNAVAILABLE, null, event,
+                        "Work store is not available, retry later");
+            }
+            if (existing.isEmpty()) {
+                return submission(GenerationSubmission.Status.ACCEPTED, jobId, event, "Request queued for generation");
+            }
+            // Queued by another replica in the meantime
+            jobService.discard(jobId);
+        }
+        logger.info("🔗 Attaching request to the queued or running generation of " + key);
+        return submission(GenerationSubmission.Status.COALESCED, existing.get().jobId(), event,
+                "Attached to the running generation of this repository");
+    }
+
+    /**
+     * Claims requests from the work store whenever a pipeline slot is free,
+     * until the queue is stopped.
+     *
+     * @param work The work configuration
+     */
+    private void claimLoop(WaverConfig.Work work) {
+        while (!executor.isShutdown()) {
+            boolean started = false;
+            if (claimed.size() < executor.getMaximumPoolSize()) {
+                try {
+                    Optional<WorkItem> item = workStore.claim(replica, Instant.now(), work.lease());
+                    if (item.isPresent()) {
+                        runClaimed(item.get(), work);
+                        started = true;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warning("Failed to claim work: " + e.getMessage());
+                }
+            }
+            if (!started) {
+                try {
+                    Thread.sleep(work.pollInterval());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a claimed request, renewing its lease every third of the lease
+     * duration until the pipeline finished. A request claimed more often
+     * than the configured attempts is given up.
+     *
+     * @param item The claimed work item
+     * @param work The work configuration
+     */
+    private void runClaimed(WorkItem item, WaverConfig.Work work) {
+        if (item.attempts() > work.maxAttempts()) {
+            logger.warning("⚠️ Giving up on " + item.sourceUrl() + " after " + work.maxAttempts() + " attempts");
+            // Checkpoints go first, so they are gone once the job reports its failure
+            stageCheckpoints.discard(item.jobId());
+            jobService.fail(item.jobId(), "Abandoned after " + work.maxAttempts() + " attempts");
+            completeQuietly(item);
+            return;
+        }
+        if (item.attempts() > 1) {
+            logger.info("♻️ Reclaiming " + item.sourceUrl() + " after its lease expired, attempt " + item.attempts());
+        } else {
+            waitTimers.get(item.priority()).record(Duration.between(item.createdAt(), Instant.now()));
+        }
+        claimed.add(item.id());
+        ClaimedGeneration generation = new ClaimedGeneration(item, work);
+        long period = Math.max(1, work.lease().toMillis() / 3);
+        generation.renewal = renewals.scheduleAtFixedRate(generation::renew, period, period, TimeUnit.MILLISECONDS);
+        try {
+            executor.execute(generation);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the lease expires and another replica claims the request
+            generation.renewal.cancel(false);
+            claimed.remove(item.id());
+        }
+    }
+
+    private void completeQuietly(WorkItem item) {
+        try {
+            if (!workStore.complete(item.id(), replica)) {
+                logger.warning("Work item of " + item.sourceUrl() + " was claimed by another replica in the meantime");
+            }
+        } catch (IOException e) {
+            // The lease expires and the request is claimed again
+            logger.warning("Failed to remove work item of " + item.sourceUrl() + ": " + e.getMessage());
+        }
+    }
+
+    private static String failureReason(RuntimeException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        return Objects.requireNonNullElse(cause.getMessage(), cause.getClass().getSimpleName());
+    }
+
+    /**
+     * Gets the flow a waiting request is scheduled in: its tenant within its
+     * priority lane. Requests of an unknown tenant share one flow per lane.
+     */
+    private WeightedFairQueue.Flow flowOf(Runnable runnable) {
+        WaverProcessEvent event = runnable instanceof QueuedGeneration generation
+                ? generation.event
+                : new WaverProcessEvent(null);
+        return new WeightedFairQueue.Flow(List.of(event.priority(), Objects.requireNonNullElse(event.tenant(), "")),
+                weights.get(event.priority()));
+    }
+
+    private static String laneOf(WaverProcessEvent.Priority priority) {
+        return priority.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String keyOf(String sourceUrl) {
+        return Objects.requireNonNullElse(FileUtil.normalizeSourceUrl(sourceUrl), sourceUrl);
+    }
+
+    private static GenerationSubmission submission(GenerationSubmission.Status status, String jobId,
+                                                   WaverProcessEvent event, String message) {
+        return new GenerationSubmission(status, jobId, event.sourceUrl(), 0, message);
+    }
+
+    private static GenerationSubmission counted(GenerationSubmission submission, int queuedCount) {
+        return new GenerationSubmission(submission.status(), submission.jobId(), submission.sourceUrl(),
+                queuedCount, submission.message());
+    }
+
+    /**
+     * A queued request, running the pipeline on a worker thread once a slot is
+     * free, recording the outcome on its job and removing the repository from
+     * the in-flight registry afterwards.
+     */
+    private final class QueuedGeneration implements Runnable {
+
+        /** The processing event. */
+        private final WaverProcessEvent event;
+
+        /** The normalized source URL the job is registered under. */
+        private final String key;
+
+        /** The id of the job tracking this request. */
+        private final String jobId;
+
+        /** When the request was queued, in nanoseconds. */
+        private final long queuedAt = System.nanoTime();
+
+        private QueuedGeneration(WaverProcessEvent event, String key, String jobId) {
+            this.event = event;
+            this.key = key;
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void run() {
+            waitTimers.get(event.priority()).record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            boolean success = false;
+            try {
+                processingService.runPipeline(event, jobService.tracker(jobId));
+                success = true;
+                jobService.transition(jobId, JobState.DONE);
+            } catch (RuntimeException e) {
+                // Already logged by the processing service; keep the worker thread alive
+                jobService.fail(jobId, failureReason(e));
+            } finally {
+                int attached = registry.complete(key, success);
+                if (attached > 0) {
+                    logger.info("Generation of " + key + " also answered " + attached + " duplicate request(s)");
+                }
+            }
+        }
+    }
+
+    /**
+     * A request claimed from the work store, running the pipeline on a worker
+     * thread, recording the outcome on its job and removing the work item
+     * afterwards.
+     * <p>
+     * Once the lease on the item is lost, because another replica claimed it
+     * or it expired while the store could not be reached, the pipeline is
+     * stopped when its next stage starts. The job, its checkpoints and the
+     * work item then belong to the replica that took over and are left alone.
+     */
+    private final class ClaimedGeneration implements Runnable {
+
+        /** The claimed work item. */
+        private final WorkItem item;
+
+        /** The work configuration. */
+        private final WaverConfig.Work work;
+
+        /** The periodic renewal of the lease on the item. */
+        private volatile ScheduledFuture<?> renewal;
+
+        /** When the lease expires unless renewed again. */
+        private volatile Instant leaseExpiresAt;
+
+        /** Whether this replica no longer holds the lease. */
+        private volatile boolean leaseLost;
+
+        private ClaimedGeneration(WorkItem item, WaverConfig.Work work) {
+            this.item = item;
+            this.work = work;
+            this.leaseExpiresAt = item.leaseExpiresAt();
+        }
+
+        @Override
+        public void run() {
+            StageListener leaseGuard = new StageListener() {
+                @Override
+                public void stageStarted(String stage) {
+                    if (leaseLost) {
+                        throw new CancellationException("Lost the lease on " + item.sourceUrl() + " before " + stage);
+                    }
+                }
+            };
+            try {
+                // A replica claiming the request after a crash resumes from the checkpoints of this run
+                processingService.runPipeline(item.event(), item.jobId(),
+                        leaseGuard.andThen(jobService.tracker(item.jobId())));
+                if (holdsLease()) {
+                    jobService.transition(item.jobId(), JobState.DONE);
+                }
+            } catch (RuntimeException e) {
+                // Already logged by the processing service; keep the worker thread alive
+                if (holdsLease()) {
+                    jobService.fail(item.jobId(), failureReason(e));
+                }
+            } finally {
+                renewal.cancel(false);
+                if (leaseLost) {
+                    logger.warning("⚠️ Leaving " + item.sourceUrl() + " to the replica that took over its lease");
+                } else {
+                    stageCheckpoints.discard(item.jobId());
+                    completeQuietly(item);
+                }
+                claimed.remove(item.id());
+            }
+        }
+
+        /**
+         * Renews the lease on the item, marking it as lost if the store
+         * refuses the renewal or could not be reached until the lease expired.
+         * Synchronized, as two concurrent renewals of the same version would
+         * make one of them fail.
+         */
+        private synchronized void renew() {
+            if (leaseLost) {
+                return;
+            }
+            Instant now = Instant.now();
+            boolean renewed;
+            try {
+                renewed = workStore.renew(item.id(), replica, now, work.lease());
+            } catch (IOException e) {
+                if (now.isBefore(leaseExpiresAt)) {
+                    // Retried with the next renewal, before the lease expires
+                    logger.warning("Failed to renew the lease on " + item.sourceUrl() + ": " + e.getMessage());
+                    return;
+                }
+                renewed = false;
+            }
+            if (renewed) {
+                leaseExpiresAt = now.plus(work.lease());
+                return;
+            }
+            leaseLost = true;
+            logger.warning("⚠️ Lost the lease on " + item.sourceUrl() + ", another replica may process it");
+            // Ends the periodic renewal
+            throw new IllegalStateException("Lease lost on " + item.id());
+        }
+
+        /**
+         * Checks whether this replica still holds the lease once the pipeline
+         * ended, renewing it so the lease outlasts recording the outcome.
+         */
+        private boolean holdsLease() {
+            renewal.cancel(false);
+            try {
+                renew();
+            } catch (IllegalStateException e) {
+                // Lease lost, already logged
+            }
+            return !leaseLost;
+        }
+    }
+}
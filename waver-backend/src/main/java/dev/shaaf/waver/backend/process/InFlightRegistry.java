@@ -0,0 +1,163 @@
+package dev.shaaf.waver.backend.process;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the repositories that are currently being generated or were
+ * generated recently.
+ * <p>
+ * Keys are normalized source URLs (see
+ * {@link dev.shaaf.waver.backend.FileUtil#normalizeSourceUrl(String)}). A
+ * repository is in flight from the moment its request is accepted until its
+ * pipeline finishes. Requests for a repository that is in flight attach to
+ * the running job instead of starting another pipeline, and requests that
+ * arrive within the completion window after a successful run are answered
+ * from the existing output.
+ * <p>
+ * All methods are thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class InFlightRegistry {
+
+    /**
+     * Result of registering a request.
+     *
+     * @param outcome What the caller has to do with the request
+     * @param jobId The id of the job answering the request
+     */
+    record Registration(Outcome outcome, String jobId) {
+    }
+
+    /**
+     * Outcome of registering a request.
+     */
+    enum Outcome {
+        /** No job exists for the repository; the caller must start one. */
+        STARTED,
+        /** A job for the repository is queued or running; the request was attached to it. */
+        ATTACHED,
+        /** The repository was generated successfully within the completion window. */
+        COMPLETED
+    }
+
+    /** How long a successful run answers requests for the same repository. */
+    private final Duration completionWindow;
+
+    /** Clock used to timestamp completed runs. */
+    private final Clock clock;
+
+    /** In-flight jobs, keyed by normalized source URL. */
+    private final Map<String, InFlightJob> inFlight = new HashMap<>();
+
+    /** Recent successful runs, keyed by normalized source URL. */
+    private final Map<String, CompletedJob> completed = new HashMap<>();
+
+    /**
+     * Constructs a new InFlightRegistry.
+     *
+     * @param completionWindow How long a successful run answers requests for the
+     *                         same repository; zero disables answering from existing output
+     * @param clock The clock used to timestamp completed runs
+     */
+    InFlightRegistry(Duration completionWindow, Clock clock) {
+        this.completionWindow = completionWindow;
+        this.clock = clock;
+    }
+
+    /**
+     * Registers a request for a repository.
+     *
+     * @param key The normalized source URL
+     * @param newJobId The id under which a new job is registered if none is in flight
+     * @return Whether the caller has to start the new job, was attached to a running
+     *         job, or can be answered from a recent run, with the id of that job
+     */
+    synchronized Registration register(String key, String newJobId) {
+        InFlightJob running = inFlight.get(key);
+        if (running != null) {
+            running.attached++;
+            return new Registration(Outcome.ATTACHED, running.jobId);
+        }
+
+        Instant now = clock.instant();
+        completed.values().removeIf(job -> isExpired(job.completedAt(), now));
+        CompletedJob recent = completed.get(key);
+        if (recent != null) {
+            return new Registration(Outcome.COMPLETED, recent.jobId());
+        }
+
+        inFlight.put(key, new InFlightJob(newJobId));
+        return new Registration(Outcome.STARTED, newJobId);
+    }
+
+    /**
+     * Removes a job that will not run, for example because it was rejected or
+     * dropped from the queue. Attached requests are dropped with it.
+     *
+     * @param key The normalized source URL
+     */
+    synchronized void release(String key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Marks a job as finished. A successful run answers further requests for
+     * the same repository until the completion window has passed.
+     *
+     * @param key The normalized source URL
+     * @param success true if the pipeline completed successfully
+     * @return The number of requests that were attached to the job
+     */
+    synchronized int complete(String key, boolean success) {
+        InFlightJob job = inFlight.remove(key);
+        if (job == null) {
+            return 0;
+        }
+        if (success && !completionWindow.isZero()) {
+            completed.put(key, new CompletedJob(job.jobId, clock.instant()));
+        }
+        return job.attached;
+    }
+
+    /**
+     * Checks whether a job for a repository is queued or running.
+     *
+     * @param key The normalized source URL
+     * @return true if the repository is in flight
+     */
+    synchronized boolean isInFlight(String key) {
+        return inFlight.containsKey(key);
+    }
+
+    private boolean isExpired(Instant completedAt, Instant now) {
+        return !completedAt.plus(completionWindow).isAfter(now);
+    }
+
+    /**
+     * A queued or running job, only accessed while holding the registry lock.
+     */
+    private static final class InFlightJob {
+        final String jobId;
+        int attached;
+
+        InFlightJob(String jobId) {
+            this.jobId = jobId;
+        }
+    }
+
+    /**
+     * A job that completed successfully.
+     *
+     * @param jobId The job id
+     * @param completedAt When the job completed
+     */
+    private record CompletedJob(String jobId, Instant completedAt) {
+    }
+}
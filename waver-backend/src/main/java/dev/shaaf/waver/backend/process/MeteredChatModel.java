@@ -0,0 +1,78 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Chat model decorator recording the calls and token usage of one pipeline
+ * stage in {@link PipelineMetrics}.
+ * <p>
+ * The decorator is created per stage around the shared model from the
+ * {@link ChatModelPool}, so concurrent runs keep sharing one model and its
+ * connections while the metrics still tell the stages apart.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class MeteredChatModel implements ChatModel {
+
+    /** The shared chat model doing the actual work. */
+    private final ChatModel delegate;
+
+    /** The stage the calls are recorded for. */
+    private final String stage;
+
+    /** Metrics the calls are recorded in. */
+    private final PipelineMetrics metrics;
+
+    /**
+     * Constructs a new MeteredChatModel.
+     *
+     * @param delegate The shared chat model
+     * @param stage The stage the calls are recorded for
+     * @param metrics The metrics the calls are recorded in
+     */
+    MeteredChatModel(ChatModel delegate, String stage, PipelineMetrics metrics) {
+        this.delegate = delegate;
+        this.stage = stage;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        long start = System.nanoTime();
+        ChatResponse response;
+        try {
+            response = delegate.chat(chatRequest);
+        } catch (RuntimeException e) {
+            metrics.llmCall(stage, Duration.ofNanos(System.nanoTime() - start), null, false);
+            throw e;
+        }
+        metrics.llmCall(stage, Duration.ofNanos(System.nanoTime() - start),
+                response == null ? null : response.tokenUsage(), true);
+        return response;
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
@@ -0,0 +1,89 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Task decorator that reports the lifecycle of a pipeline stage to a {@link StageListener}.
+ * <p>
+ * The wrapped task is executed unchanged; the listener is told when it starts,
+ * and when its future completes either normally or exceptionally, together
+ * with the elapsed time and, on success, the stage's input and output.
+ *
+ * @param <I> The input type of the wrapped task
+ * @param <O> The output type of the wrapped task
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class ObservedTask<I, O> implements Task<I, O> {
+
+    /** Name of the stage, as registered in the pipeline. */
+    private final String stage;
+
+    /** The task doing the actual work. */
+    private final Task<I, O> delegate;
+
+    /** Listener receiving the stage notifications. */
+    private final StageListener listener;
+
+    /**
+     * Constructs a new ObservedTask.
+     *
+     * @param stage The name of the stage
+     * @param delegate The task doing the actual work
+     * @param listener The listener receiving the stage notifications
+     */
+    public ObservedTask(String stage, Task<I, O> delegate, StageListener listener) {
+        this.stage = stage;
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    /**
+     * Executes the wrapped task and reports its progress to the listener.
+     *
+     * @param input The input of the stage
+     * @param context The pipeline context
+     * @return The future of the wrapped task
+     */
+    @Override
+    public CompletableFuture<O> execute(I input, PipelineContext context) {
+        listener.stageStarted(stage);
+        long start = System.nanoTime();
+        CompletableFuture<O> result;
+        try {
+            result = delegate.execute(input, context);
+        } catch (RuntimeException e) {
+            listener.stageFailed(stage, Duration.ofNanos(System.nanoTime() - start), e);
+            throw e;
+        }
+        return result.whenComplete((output, failure) -> {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            if (failure == null) {
+                listener.stageCompleted(stage, elapsed);
+                listener.stageOutput(stage, input, output);
+            } else {
+                listener.stageFailed(stage, elapsed, unwrap(failure));
+            }
+        });
+    }
+
+    /**
+     * Gets the name of the observed stage.
+     *
+     * @return The stage name
+     */
+    public String getStage() {
+        return stage;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,93 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Chat model decorator that makes the blocking calls of a stage on a given
+ * executor.
+ * <p>
+ * An {@link OffloadedTask} only moves the part of a stage that runs before
+ * it returns its future; calls the stage makes from its own asynchronous
+ * steps would otherwise block the thread they happen to run on, such as a
+ * worker of the common fork-join pool. The caller waits for the call through
+ * {@link CompletableFuture#get()}, which lets a fork-join pool add a worker
+ * while it blocks. Calls made on a thread of the executor itself run in
+ * place, so a bounded executor cannot deadlock on its own stages.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class OffloadedChatModel implements ChatModel {
+
+    /** The chat model doing the actual work. */
+    private final ChatModel delegate;
+
+    /** The executor the calls are made on. */
+    private final Executor executor;
+
+    /** Tells whether the current thread belongs to the executor. */
+    private final BooleanSupplier onExecutor;
+
+    /**
+     * Constructs a new OffloadedChatModel.
+     *
+     * @param delegate The chat model doing the actual work
+     * @param executor The executor the calls are made on
+     * @param onExecutor Tells whether the current thread belongs to the executor
+     */
+    OffloadedChatModel(ChatModel delegate, Executor executor, BooleanSupplier onExecutor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.onExecutor = onExecutor;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        if (onExecutor.getAsBoolean()) {
+            return delegate.chat(chatRequest);
+        }
+        CompletableFuture<ChatResponse> response = CompletableFuture.supplyAsync(
+                () -> delegate.chat(chatRequest), executor);
+        try {
+            return response.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the LLM", e);
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+}
@@ -0,0 +1,57 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Task decorator that executes a pipeline stage on a given executor.
+ * <p>
+ * The wrapped task is called on the executor rather than on the thread the
+ * pipeline calls it from, so a task doing its work before returning its
+ * future does not block the pipeline's thread or the common fork-join pool.
+ * A task that throws instead of returning a failed future fails the stage
+ * the same way.
+ *
+ * @param <I> The input type of the wrapped task
+ * @param <O> The output type of the wrapped task
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class OffloadedTask<I, O> implements Task<I, O> {
+
+    /** The task doing the actual work. */
+    private final Task<I, O> delegate;
+
+    /** The executor the task is called on. */
+    private final Executor executor;
+
+    /**
+     * Constructs a new OffloadedTask.
+     *
+     * @param delegate The task doing the actual work
+     * @param executor The executor the task is called on
+     */
+    public OffloadedTask(Task<I, O> delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * Calls the wrapped task on the executor.
+     *
+     * @param input The input of the stage
+     * @param context The pipeline context
+     * @return The future of the wrapped task's output
+     */
+    @Override
+    public CompletableFuture<O> execute(I input, PipelineContext context) {
+        return CompletableFuture.supplyAsync(() -> delegate.execute(input, context), executor)
+                .thenCompose(Function.identity());
+    }
+}
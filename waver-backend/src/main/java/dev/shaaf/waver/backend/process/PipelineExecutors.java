@@ -0,0 +1,301 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.jgraphlet.Task;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Executors the pipeline stages and uploads run on, instead of the common
+ * fork-join pool.
+ * <p>
+ * Three executors separate the kinds of work of a generation run:
+ * <ul>
+ *     <li>{@link #io()} - blocking calls to the LLM provider and MinIO. By
+ *         default every task gets its own virtual thread, so waiting calls do
+ *         not hold a platform thread. Chat models wrapped by
+ *         {@link #onIo(ChatModel)} make their calls here too.</li>
+ *     <li>{@link #llm()} - the attempts and hedged requests of retried LLM
+ *         calls, on threads of the same kind as the I/O executor but of their
+ *         own, so that the attempts never wait for the threads of the stages
+ *         waiting for them.</li>
+ *     <li>{@link #cpu()} - crawling, sampling and hashing the sources, on a
+ *         bounded pool of platform threads sized to the processors.</li>
+ * </ul>
+ * Both are instrumented, tagged with the pool name:
+ * <ul>
+ *     <li>{@code waver.executor.active} - tasks running</li>
+ *     <li>{@code waver.executor.queued} - tasks waiting for a thread</li>
+ *     <li>{@code waver.executor.wait} - time tasks waited for a thread</li>
+ *     <li>{@code waver.executor.saturation} - running tasks per thread of a
+ *         bounded pool; at 1 new tasks queue up</li>
+ * </ul>
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class PipelineExecutors {
+
+    /** Logger instance for this service. */
+    private static final Logger logger = Logger.getLogger(PipelineExecutors.class.getName());
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected registry the executor metrics are published to. */
+    @Inject
+    MeterRegistry registry;
+
+    /** Executor for blocking I/O. */
+    private MeteredExecutor io;
+
+    /** Executor for the attempts of retried LLM calls. */
+    private MeteredExecutor llm;
+
+    /** Executor for CPU-heavy work. */
+    private MeteredExecutor cpu;
+
+    /**
+     * Constructs a new PipelineExecutors whose configuration is injected.
+     */
+    public PipelineExecutors() {
+    }
+
+    /**
+     * Constructs and starts a new PipelineExecutors with explicit configuration.
+     *
+     * @param waverConfig The configuration holding the thread settings
+     * @param registry The registry the executor metrics are published to
+     */
+    public PipelineExecutors(WaverConfig waverConfig, MeterRegistry registry) {
+        this.waverConfig = waverConfig;
+        this.registry = registry;
+        start();
+    }
+
+    /**
+     * Creates the executors after dependency injection is complete.
+     *
+     * @throws IllegalArgumentException if a pool size is less than 1
+     */
+    @PostConstruct
+    void start() {
+        WaverConfig.Threads threads = waverConfig.threads();
+        int cpuThreads = threads.cpuPoolSize().orElse(Runtime.getRuntime().availableProcessors());
+        if (cpuThreads < 1) {
+            throw new IllegalArgumentException("CPU pool size must be at least 1: " + cpuThreads);
+        }
+        cpu = new MeteredExecutor("cpu", newPool(cpuThreads, "waver-cpu-"));
+        if (threads.io() == WaverConfig.Threads.IoThreads.PLATFORM) {
+            if (threads.ioPoolSize() < 1) {
+                throw new IllegalArgumentException("I/O pool size must be at least 1: " + threads.ioPoolSize());
+            }
+            io = new MeteredExecutor("io", newPool(threads.ioPoolSize(), "waver-io-"));
+            llm = new MeteredExecutor("llm", newPool(threads.ioPoolSize(), "waver-llm-"));
+        } else {
+            io = new MeteredExecutor("io",
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("waver-io-", 0).factory()));
+            llm = new MeteredExecutor("llm",
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("waver-llm-", 0).factory()));
+        }
+        logger.info("Pipeline executors started: io=" + threads.io()
+                + (threads.io() == WaverConfig.Threads.IoThreads.PLATFORM ? "(" + threads.ioPoolSize() + ")" : "")
+                + ", cpu=" + cpuThreads);
+    }
+
+    /**
+     * Stops accepting tasks. Running tasks are not interrupted.
+     */
+    @PreDestroy
+    void stop() {
+        io.executor.shutdown();
+        llm.executor.shutdown();
+        cpu.executor.shutdown();
+    }
+
+    /**
+     * Gets the executor for blocking calls to the LLM provider and MinIO.
+     *
+     * @return The I/O executor
+     */
+    public Executor io() {
+        return io;
+    }
+
+    /**
+     * Gets the executor the attempts and hedged requests of retried LLM calls
+     * run on.
+     *
+     * @return The LLM attempt executor
+     */
+    public Executor llm() {
+        return llm;
+    }
+
+    /**
+     * Gets the executor for CPU-heavy work such as crawling and hashing.
+     *
+     * @return The CPU executor
+     */
+    public Executor cpu() {
+        return cpu;
+    }
+
+    /**
+     * Wraps a task so that it is executed on the I/O executor.
+     *
+     * @param task The task to wrap
+     * @param <I> The input type of the task
+     * @param <O> The output type of the task
+     * @return The offloaded task
+     */
+    public <I, O> Task<I, O> onIo(Task<I, O> task) {
+        return new OffloadedTask<>(task, io);
+    }
+
+    /**
+     * Wraps a chat model so that its blocking calls are made on the I/O
+     * executor, wherever the stage calling it runs.
+     *
+     * @param chatModel The chat model to wrap
+     * @return The offloaded chat model
+     */
+    public ChatModel onIo(ChatModel chatModel) {
+        return new OffloadedChatModel(chatModel, io, io::isCurrent);
+    }
+
+    /**
+     * Wraps a task so that it is executed on the CPU executor.
+     *
+     * @param task The task to wrap
+     * @param <I> The input type of the task
+     * @param <O> The output type of the task
+     * @return The offloaded task
+     */
+    public <I, O> Task<I, O> onCpu(Task<I, O> task) {
+        return new OffloadedTask<>(task, cpu);
+    }
+
+    /**
+     * Runs CPU-heavy work on the CPU executor and waits for its result.
+     *
+     * @param work The work to run
+     * @param <T> The type of the result
+     * @return The result of the work
+     * @throws RuntimeException the exception thrown by the work
+     */
+    public <T> T computeOnCpu(Supplier<T> work) {
+        CompletableFuture<T> result = CompletableFuture.supplyAsync(work, cpu);
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ThreadPoolExecutor newPool(int threads, String prefix) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name(prefix, 0).daemon(true).factory());
+    }
+
+    /**
+     * Executor counting the tasks that wait for and run on the wrapped executor.
+     */
+    private final class MeteredExecutor implements Executor {
+
+        /** The executor running the tasks. */
+        final ExecutorService executor;
+
+        /** Tasks running. */
+        private final AtomicInteger active = new AtomicInteger();
+
+        /** Tasks submitted but not started yet. */
+        private final AtomicInteger queued = new AtomicInteger();
+
+        /** Time tasks waited for a thread. */
+        private final Timer wait;
+
+        /** Set while a thread runs a task of this executor. */
+        private final ThreadLocal<Boolean> running = new ThreadLocal<>();
+
+        MeteredExecutor(String pool, ExecutorService executor) {
+            this.executor = executor;
+            Gauge.builder("waver.executor.active", active, AtomicInteger::get)
+                    .description("Pipeline tasks running on the executor")
+                    .tag("pool", pool)
+                    .register(registry);
+            Gauge.builder("waver.executor.queued", queued, AtomicInteger::get)
+                    .description("Pipeline tasks waiting for a thread of the executor")
+                    .tag("pool", pool)
+                    .register(registry);
+            if (executor instanceof ThreadPoolExecutor bounded) {
+                Gauge.builder("waver.executor.saturation", active,
+                                running -> (double) running.get() / bounded.getMaximumPoolSize())
+                        .description("Running tasks per thread of the bounded executor")
+                        .tag("pool", pool)
+                        .register(registry);
+            }
+            this.wait = Timer.builder("waver.executor.wait")
+                    .description("Time pipeline tasks waited for a thread of the executor")
+                    .tag("pool", pool)
+                    .register(registry);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            long submitted = System.nanoTime();
+            queued.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    queued.decrementAndGet();
+                    wait.record(Duration.ofNanos(System.nanoTime() - submitted));
+                    active.incrementAndGet();
+                    running.set(Boolean.TRUE);
+                    try {
+                        task.run();
+                    } finally {
+                        running.remove();
+                        active.decrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                queued.decrementAndGet();
+                throw e;
+            }
+        }
+
+        /**
+         * Checks whether the current thread runs a task of this executor.
+         *
+         * @return true if called from a task of this executor
+         */
+        boolean isCurrent() {
+            return running.get() != null;
+        }
+    }
+}
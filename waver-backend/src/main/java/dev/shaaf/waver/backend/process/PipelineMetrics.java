@@ -0,0 +1,192 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.shaaf.waver.backend.minio.UploadResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Micrometer metrics of the tutorial generation pipeline.
+ * <p>
+ * Registered as a {@link StageListener} on every run, this records per stage:
+ * <ul>
+ *     <li>{@code waver.pipeline.stage.duration} - timer with a percentile
+ *         histogram, tagged with the stage and its outcome</li>
+ *     <li>{@code waver.pipeline.stage.errors} - counter tagged with the stage
+ *         and the exception type</li>
+ *     <li>{@code waver.pipeline.stage.payload} - size of the stage input and
+ *         output, tagged with the direction: characters for text, elements for
+ *         collections and bytes for uploads</li>
+ * </ul>
+ * Chat models handed to a stage through {@link #metered(ChatModel, String)}
+ * additionally record {@code waver.llm.calls} and {@code waver.llm.tokens}.
+ * Whole runs are recorded in {@code waver.pipeline.runs}, whose count per
+ * outcome gives the pipeline throughput. With the Prometheus registry the
+ * metrics are served at {@code /q/metrics}.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class PipelineMetrics implements StageListener {
+
+    /** Smallest stage duration the histogram buckets are tuned for. */
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(10);
+
+    /** Largest stage duration the histogram buckets are tuned for. */
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(30);
+
+    /** Injected registry the metrics are published to. */
+    @Inject
+    MeterRegistry registry;
+
+    @Override
+    public void stageCompleted(String stage, Duration elapsed) {
+        stageTimer(stage, "success").record(elapsed);
+    }
+
+    @Override
+    public void stageOutput(String stage, Object input, Object output) {
+        recordPayload(stage, "input", input);
+        recordPayload(stage, "output", output);
+    }
+
+    @Override
+    public void stageFailed(String stage, Duration elapsed, Throwable cause) {
+        stageTimer(stage, "failure").record(elapsed);
+        Counter.builder("waver.pipeline.stage.errors")
+                .description("Failed executions of a pipeline stage")
+                .tag("stage", stage)
+                .tag("exception", cause == null ? "none" : cause.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records a finished generation run.
+     *
+     * @param elapsed The time the run took
+     * @param success true if the run completed successfully
+     */
+    public void runCompleted(Duration elapsed, boolean success) {
+        Timer.builder("waver.pipeline.runs")
+                .description("Duration of complete tutorial generation runs")
+                .tag("outcome", success ? "success" : "failure")
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED.multipliedBy(4))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsed);
+    }
+
+    /**
+     * Records a generation run that was skipped because the repository did not
+     * change since the last complete upload.
+     */
+    public void runSkipped() {
+        Counter.builder("waver.pipeline.runs.skipped")
+                .description("Generation runs skipped because the source repository was unchanged")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Wraps a chat model so that its calls and token usage are recorded for a stage.
+     *
+     * @param chatModel The shared chat model
+     * @param stage The stage using the model
+     * @return The metered chat model
+     */
+    public ChatModel metered(ChatModel chatModel, String stage) {
+        return new MeteredChatModel(chatModel, stage, this);
+    }
+
+    /**
+     * Records one call to the chat model of a stage.
+     *
+     * @param stage The stage that made the call
+     * @param elapsed The time the call took
+     * @param tokenUsage The token usage reported by the provider, or null if unknown
+     * @param success true if the call returned a response
+     */
+    void llmCall(String stage, Duration elapsed, TokenUsage tokenUsage, boolean success) {
+        Timer.builder("waver.llm.calls")
+                .description("Calls to the LLM provider")
+                .tag("stage", stage)
+                .tag("outcome", success ? "success" : "failure")
+                .register(registry)
+                .record(elapsed);
+        if (tokenUsage != null) {
+            recordTokens(stage, "input", tokenUsage.inputTokenCount());
+            recordTokens(stage, "output", tokenUsage.outputTokenCount());
+        }
+    }
+
+    private void recordTokens(String stage, String type, Integer count) {
+        if (count == null) {
+            return;
+        }
+        Counter.builder("waver.llm.tokens")
+                .description("Tokens exchanged with the LLM provider")
+                .tag("stage", stage)
+                .tag("type", type)
+                .register(registry)
+                .increment(count);
+    }
+
+    private Timer stageTimer(String stage, String outcome) {
+        return Timer.builder("waver.pipeline.stage.duration")
+                .description("Duration of a pipeline stage")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void recordPayload(String stage, String direction, Object payload) {
+        long size = sizeOf(payload);
+        if (size < 0) {
+            return;
+        }
+        DistributionSummary.builder("waver.pipeline.stage.payload")
+                .description("Size of the input and output of a pipeline stage")
+                .tag("stage", stage)
+                .tag("direction", direction)
+                .register(registry)
+                .record(size);
+    }
+
+    /**
+     * Estimates the size of a stage payload.
+     *
+     * @param payload The stage input or output
+     * @return The size, or -1 if the payload has no meaningful size
+     */
+    static long sizeOf(Object payload) {
+        if (payload instanceof CharSequence text) {
+            return text.length();
+        }
+        if (payload instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (payload instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (payload instanceof UploadResult result) {
+            return result.uploadedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,147 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Task decorator that runs a pipeline stage in map-reduce fashion.
+ * <p>
+ * The input is split into shards, the wrapped task is executed once per
+ * shard with at most a configured number of shards running at the same
+ * time, and the outputs are reduced into one output in shard order. An input
+ * that yields a single shard is passed to the wrapped task unchanged.
+ * <p>
+ * If a shard fails, shards that have not started yet are skipped and the
+ * stage fails with the first failure.
+ *
+ * @param <I> The input type of the wrapped task
+ * @param <O> The output type of the wrapped task
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class ShardedTask<I, O> implements Task<I, O> {
+
+    /** Logger instance for this task. */
+    private static final Logger logger = Logger.getLogger(ShardedTask.class.getName());
+
+    /** Creates the virtual threads the shards run on, unless another executor is given. */
+    private static final ThreadFactory SHARD_THREADS = Thread.ofVirtual().name("waver-shard-", 0).factory();
+
+    /** The task executed per shard. */
+    private final Task<I, O> delegate;
+
+    /** Splits an input into shards. */
+    private final Function<I, List<I>> splitter;
+
+    /** Reduces the outputs of all shards, in shard order, into one output. */
+    private final Function<List<O>, O> reducer;
+
+    /** Maximum number of shards running at the same time. */
+    private final int concurrency;
+
+    /** Executor the shards run on. */
+    private final Executor executor;
+
+    /**
+     * Constructs a new ShardedTask.
+     *
+     * @param delegate The task executed per shard
+     * @param splitter Splits an input into shards
+     * @param reducer Reduces the outputs of all shards, in shard order, into one output
+     * @param concurrency The maximum number of shards running at the same time
+     * @throws IllegalArgumentException if the concurrency is less than 1
+     */
+    public ShardedTask(Task<I, O> delegate, Function<I, List<I>> splitter, Function<List<O>, O> reducer,
+                       int concurrency) {
+        this(delegate, splitter, reducer, concurrency, runnable -> SHARD_THREADS.newThread(runnable).start());
+    }
+
+    /**
+     * Constructs a new ShardedTask whose shards run on the given executor.
+     *
+     * @param delegate The task executed per shard
+     * @param splitter Splits an input into shards
+     * @param reducer Reduces the outputs of all shards, in shard order, into one output
+     * @param concurrency The maximum number of shards running at the same time
+     * @param executor The executor the shards run on, suited to blocking I/O
+     * @throws IllegalArgumentException if the concurrency is less than 1
+     */
+    public ShardedTask(Task<I, O> delegate, Function<I, List<I>> splitter, Function<List<O>, O> reducer,
+                       int concurrency, Executor executor) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Shard concurrency must be at least 1: " + concurrency);
+        }
+        this.delegate = delegate;
+        this.splitter = splitter;
+        this.reducer = reducer;
+        this.concurrency = concurrency;
+        this.executor = executor;
+    }
+
+    /**
+     * Executes the wrapped task for every shard of the input and reduces the outputs.
+     *
+     * @param input The input of the stage
+     * @param context The pipeline context, shared by all shards
+     * @return The future of the reduced output
+     */
+    @Override
+    public CompletableFuture<O> execute(I input, PipelineContext context) {
+        List<I> shards = splitter.apply(input);
+        if (shards.size() <= 1) {
+            return delegate.execute(shards.isEmpty() ? input : shards.getFirst(), context);
+        }
+        logger.info("🔀 Running " + shards.size() + " shards, " + Math.min(concurrency, shards.size())
+                + " at a time");
+
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<O>> outputs = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            I shard = shards.get(i);
+            int number = i + 1;
+            outputs.add(CompletableFuture.supplyAsync(() -> runShard(shard, number, context, permits, failure),
+                    executor));
+        }
+        // Waits for every shard, so no shard is still running when the stage fails
+        return CompletableFuture.allOf(outputs.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> {
+                    if (failure.get() != null) {
+                        throw new CompletionException(failure.get());
+                    }
+                    return reducer.apply(outputs.stream().map(CompletableFuture::join).toList());
+                });
+    }
+
+    private O runShard(I shard, int number, PipelineContext context, Semaphore permits,
+                       AtomicReference<Throwable> failure) {
+        permits.acquireUninterruptibly();
+        try {
+            if (failure.get() != null) {
+                throw new IllegalStateException("Shard " + number + " skipped after an earlier shard failed");
+            }
+            return delegate.execute(shard, context).join();
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (failure.compareAndSet(null, cause)) {
+                logger.warning("Shard " + number + " failed: " + cause.getMessage());
+            }
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+}
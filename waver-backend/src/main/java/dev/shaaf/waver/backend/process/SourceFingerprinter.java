@@ -0,0 +1,132 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.waver.backend.FileUtil;
+import dev.shaaf.waver.backend.checkout.GitRefs;
+import dev.shaaf.waver.backend.minio.SourceSnapshot;
+import dev.shaaf.waver.backend.minio.UploadManifest;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Captures {@link SourceSnapshot}s of source repositories.
+ * <p>
+ * For a local directory the snapshot holds the commit checked out, if the
+ * directory is a git working tree, and the SHA-256 hash of every file outside
+ * {@code .git}. For a remote repository only the commit its default branch
+ * points to is resolved, like {@code git ls-remote} does, so nothing has to
+ * be cloned to find out whether the repository changed.
+ * <p>
+ * Git is read with JGit, so no {@code git} command line is needed. If the
+ * commit cannot be resolved, it is left empty and remote repositories are
+ * always regenerated.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class SourceFingerprinter {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(SourceFingerprinter.class.getName());
+
+    /** How long resolving the commit of a remote repository may wait on the remote. */
+    private static final Duration GIT_TIMEOUT = Duration.ofSeconds(30);
+
+    /** Resolves the commit the default branch of a remote repository points to, or empty if it failed. */
+    Function<String, Optional<String>> remoteHead = SourceFingerprinter::resolveRemoteHead;
+
+    /** Resolves the commit checked out in a local directory, or empty if it failed. */
+    Function<Path, Optional<String>> localHead = SourceFingerprinter::resolveLocalHead;
+
+    /**
+     * Captures the snapshot of a source repository.
+     *
+     * @param inputPath The local path or remote URL of the repository
+     * @param settings The generation settings that shape the output
+     * @return The snapshot; its commit is null if it could not be determined
+     * @throws IOException if a local file cannot be read
+     */
+    public SourceSnapshot capture(String inputPath, String settings) throws IOException {
+        Path dir = localDirectory(inputPath);
+        if (dir == null) {
+            String commit = remoteHead.apply(inputPath).orElse(null);
+            return new SourceSnapshot(inputPath, commit, settings, Map.of());
+        }
+        String commit = localHead.apply(dir).orElse(null);
+        return new SourceSnapshot(inputPath, commit, settings, hashFiles(dir));
+    }
+
+    /**
+     * Hashes every regular file below a directory, skipping {@code .git}
+     * directories. Symbolic links are not followed.
+     *
+     * @param dir The repository root
+     * @return Map of path relative to the root, with '/' separators, to the hex encoded SHA-256 hash
+     * @throws IOException if a file cannot be read
+     */
+    static Map<String, String> hashFiles(Path dir) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) {
+                return path.getFileName() != null && ".git".equals(path.getFileName().toString())
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile()) {
+                    String relative = dir.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+                    files.put(relative, UploadManifest.sha256(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    private static Path localDirectory(String inputPath) {
+        if (FileUtil.isRemoteSource(inputPath)) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(inputPath);
+            return Files.isDirectory(path) ? path.toAbsolutePath() : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Optional<String> resolveRemoteHead(String sourceUrl) {
+        try {
+            return GitRefs.remoteHead(sourceUrl, GIT_TIMEOUT);
+        } catch (IOException e) {
+            logger.fine("Failed to resolve the commit of " + sourceUrl + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> resolveLocalHead(Path dir) {
+        try {
+            return GitRefs.localHead(dir);
+        } catch (IOException e) {
+            logger.fine("Failed to resolve the commit checked out in " + dir + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
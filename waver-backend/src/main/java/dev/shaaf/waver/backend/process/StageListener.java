@@ -0,0 +1,95 @@
+package dev.shaaf.waver.backend.process;
+
+import java.time.Duration;
+
+/**
+ * Callback interface notified when a stage of the generation pipeline starts,
+ * completes or fails.
+ * <p>
+ * Listeners are invoked by {@link ObservedTask} on whatever thread runs or
+ * completes the stage, so implementations must be thread safe. All methods
+ * have empty default implementations.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public interface StageListener {
+
+    /** Listener that ignores all notifications. */
+    StageListener NONE = new StageListener() {
+    };
+
+    /**
+     * Called before a stage starts executing.
+     *
+     * @param stage The stage name
+     */
+    default void stageStarted(String stage) {
+    }
+
+    /**
+     * Called after a stage has completed successfully.
+     *
+     * @param stage The stage name
+     * @param elapsed The time the stage took
+     */
+    default void stageCompleted(String stage, Duration elapsed) {
+    }
+
+    /**
+     * Called after a stage has completed successfully, with the value the
+     * stage received and the value it produced.
+     *
+     * @param stage The stage name
+     * @param input The input of the stage
+     * @param output The output of the stage
+     */
+    default void stageOutput(String stage, Object input, Object output) {
+    }
+
+    /**
+     * Called after a stage has failed.
+     *
+     * @param stage The stage name
+     * @param elapsed The time until the stage failed
+     * @param cause The failure
+     */
+    default void stageFailed(String stage, Duration elapsed, Throwable cause) {
+    }
+
+    /**
+     * Returns a listener that notifies this listener and then the other one.
+     *
+     * @param other The listener notified second
+     * @return The combined listener
+     */
+    default StageListener andThen(StageListener other) {
+        StageListener first = this;
+        return new StageListener() {
+            @Override
+            public void stageStarted(String stage) {
+                first.stageStarted(stage);
+                other.stageStarted(stage);
+            }
+
+            @Override
+            public void stageCompleted(String stage, Duration elapsed) {
+                first.stageCompleted(stage, elapsed);
+                other.stageCompleted(stage, elapsed);
+            }
+
+            @Override
+            public void stageOutput(String stage, Object input, Object output) {
+                first.stageOutput(stage, input, output);
+                other.stageOutput(stage, input, output);
+            }
+
+            @Override
+            public void stageFailed(String stage, Duration elapsed, Throwable cause) {
+                first.stageFailed(stage, elapsed, cause);
+                other.stageFailed(stage, elapsed, cause);
+            }
+        };
+    }
+}
@@ -0,0 +1,383 @@
+package dev.shaaf.waver.backend.process;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded blocking queue that hands out its elements by weighted fair
+ * queuing across flows.
+ * <p>
+ * Every element belongs to a flow, such as the requests of one tenant in one
+ * priority lane. Elements of a flow leave the queue in the order they
+ * arrived, but the flows take turns: each element is stamped with a virtual
+ * finish time, the finish time of the previous element of its flow or the
+ * current virtual time, whichever is later, plus the inverse of the flow's
+ * weight. The element with the earliest finish time leaves first, and the
+ * virtual time advances to it (self-clocked fair queuing). A flow with twice
+ * the weight therefore gets twice the turns while both are waiting, and a
+ * flow that queued fifty elements does not delay a flow that queued one.
+ * <p>
+ * Used as the work queue of a {@link java.util.concurrent.ThreadPoolExecutor}.
+ * All methods are thread safe.
+ *
+ * @param <E> The type of the elements
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class WeightedFairQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    /**
+     * The flow an element belongs to.
+     *
+     * @param key Identifies the flow
+     * @param weight The share of the flow relative to other flows, at least 1
+     */
+    record Flow(Object key, int weight) {
+    }
+
+    /** Orders entries by finish time, then by arrival. */
+    private static final Comparator<Entry<?>> SCHEDULE = Comparator.<Entry<?>>comparingDouble(entry -> entry.finish)
+            .thenComparingLong(entry -> entry.sequence);
+
+    /** Maximum number of elements. */
+    private final int capacity;
+
+    /** Gets the flow of an element. */
+    private final Function<? super E, Flow> flowOf;
+
+    /** Guards all state. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when an element was added. */
+    private final Condition notEmpty = lock.newCondition();
+
+    /** Signalled when an element was removed. */
+    private final Condition notFull = lock.newCondition();
+
+    /** Waiting elements, earliest finish time first. */
+    private final PriorityQueue<Entry<E>> entries = new PriorityQueue<>(SCHEDULE);
+
+    /** Finish time of the last element and number of waiting elements, per flow with waiting elements. */
+    private final Map<Object, FlowState> flows = new HashMap<>();
+
+    /** Finish time of the element that left the queue last. */
+    private double virtualTime;
+
+    /** Arrival counter, breaking ties between equal finish times. */
+    private long sequence;
+
+    /**
+     * Constructs a new WeightedFairQueue.
+     *
+     * @param capacity The maximum number of elements
+     * @param flowOf Gets the flow of an element
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    WeightedFairQueue(int capacity, Function<? super E, Flow> flowOf) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.flowOf = flowOf;
+    }
+
+    @Override
+    public boolean offer(E element) {
+        Objects.requireNonNull(element);
+        lock.lock();
+        try {
+            if (entries.size() == capacity) {
+                return false;
+            }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        Objects.requireNonNull(element);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (entries.size() == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(E element) throws InterruptedException {
+        Objects.requireNonNull(element);
+        lock.lockInterruptibly();
+        try {
+            while (entries.size() == capacity) {
+                notFull.await();
+            }
+            enqueue(element);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll() {
+        lock.lock();
+        try {
+            return entries.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public E peek() {
+        lock.lock();
+        try {
+            return entries.isEmpty() ? null : entries.peek().element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the element that has been waiting longest among the flows of
+     * the lowest weight, without advancing the virtual time.
+     *
+     * @return The removed element, or null if the queue is empty
+     */
+    E pollOldestOfLowestWeight() {
+        lock.lock();
+        try {
+            Entry<E> oldest = null;
+            for (Entry<E> entry : entries) {
+                if (oldest == null || entry.weight < oldest.weight
+                        || (entry.weight == oldest.weight && entry.sequence < oldest.sequence)) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return null;
+            }
+            entries.remove(oldest);
+            removed(oldest);
+            return oldest.element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        lock.lock();
+        try {
+            for (Iterator<Entry<E>> iterator = entries.iterator(); iterator.hasNext(); ) {
+                Entry<E> entry = iterator.next();
+                if (entry.element.equals(element)) {
+                    iterator.remove();
+                    removed(entry);
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        if (target == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && !entries.isEmpty()) {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets an iterator over a snapshot of the waiting elements, in the order
+     * they leave the queue.
+     *
+     * @return The iterator, removing from this queue
+     */
+    @Override
+    public Iterator<E> iterator() {
+        List<E> snapshot;
+        lock.lock();
+        try {
+            List<Entry<E>> scheduled = new ArrayList<>(entries);
+            scheduled.sort(SCHEDULE);
+            snapshot = scheduled.stream().map(entry -> entry.element).toList();
+        } finally {
+            lock.unlock();
+        }
+        Iterator<E> elements = snapshot.iterator();
+        return new Iterator<>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return elements.hasNext();
+            }
+
+            @Override
+            public E next() {
+                last = elements.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                WeightedFairQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private void enqueue(E element) {
+        Flow flow = flowOf.apply(element);
+        if (flow.weight() < 1) {
+            throw new IllegalArgumentException("Flow weight must be at least 1: " + flow);
+        }
+        FlowState state = flows.computeIfAbsent(flow.key(), key -> new FlowState());
+        double finish = Math.max(virtualTime, state.lastFinish) + 1.0 / flow.weight();
+        state.lastFinish = finish;
+        state.waiting++;
+        entries.add(new Entry<>(element, flow.key(), flow.weight(), finish, sequence++));
+        notEmpty.signal();
+    }
+
+    private E dequeue() {
+        Entry<E> entry = entries.poll();
+        virtualTime = entry.finish;
+        removed(entry);
+        return entry.element;
+    }
+
+    private void removed(Entry<E> entry) {
+        FlowState state = flows.get(entry.flow);
+        if (--state.waiting == 0) {
+            // An idle flow starts again at the virtual time
+            flows.remove(entry.flow);
+        }
+        notFull.signal();
+    }
+
+    /**
+     * A waiting element with its finish time.
+     */
+    private static final class Entry<E> {
+        final E element;
+        final Object flow;
+        final int weight;
+        final double finish;
+        final long sequence;
+
+        Entry(E element, Object flow, int weight, double finish, long sequence) {
+            this.element = element;
+            this.flow = flow;
+            this.weight = weight;
+            this.finish = finish;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Scheduling state of a flow with waiting elements.
+     */
+    private static final class FlowState {
+        double lastFinish;
+        int waiting;
+    }
+}
@@ -0,0 +1,252 @@
+package dev.shaaf.waver.backend.ratelimit;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Request and token budget of one LLM provider account.
+ * <p>
+ * Each budget is a token bucket holding at most one minute's worth of
+ * requests or tokens and refilling continuously. A caller reserves one request
+ * and its estimated tokens before calling the provider and waits until the
+ * buckets cover the reservation. Reservations are taken in arrival order, so
+ * callers that arrive while the budget is exhausted queue up behind each other.
+ * <p>
+ * The budget adapts to HTTP 429 answers: every rejection halves the refill
+ * rate, down to a tenth of the configured budget, and pauses all callers with
+ * an exponential backoff. Every successful call recovers five percent of the
+ * configured rate. Without configured budgets only the backoff applies.
+ * <p>
+ * All methods are thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class RateBudget {
+
+    /** Lowest fraction of the configured rate the budget is reduced to. */
+    static final double MIN_FACTOR = 0.1;
+
+    /** Fraction of the configured rate recovered by every successful call. */
+    static final double RECOVERY_STEP = 0.05;
+
+    /** Length of the budget period in nanoseconds. */
+    private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    /** Bucket of requests, or null if requests are not limited. */
+    private final Bucket requests;
+
+    /** Bucket of tokens, or null if tokens are not limited. */
+    private final Bucket tokens;
+
+    /** Pause after the first rejection in a row. */
+    private final Duration initialBackoff;
+
+    /** Longest pause after a rejection. */
+    private final Duration maxBackoff;
+
+    /** Source of the current time in nanoseconds. */
+    private final LongSupplier nanoClock;
+
+    /** Waits for a reservation to become available. */
+    private final Sleeper sleeper;
+
+    /** Fraction of the configured rate currently granted. */
+    private double factor = 1.0;
+
+    /** Number of rejections since the last successful call. */
+    private int consecutiveRejections;
+
+    /** Time until which all callers are paused, valid if {@link #paused} is set. */
+    private long pausedUntil;
+
+    /** Whether a backoff pause was ever started. */
+    private boolean paused;
+
+    /**
+     * Constructs a new RateBudget using the system clock.
+     *
+     * @param requestsPerMinute The request budget, or empty if not limited
+     * @param tokensPerMinute The token budget, or empty if not limited
+     * @param initialBackoff The pause after the first rejection in a row
+     * @param maxBackoff The longest pause after a rejection
+     */
+    public RateBudget(OptionalInt requestsPerMinute, OptionalInt tokensPerMinute,
+                      Duration initialBackoff, Duration maxBackoff) {
+        this(requestsPerMinute, tokensPerMinute, initialBackoff, maxBackoff, System::nanoTime,
+                TimeUnit.NANOSECONDS::sleep);
+    }
+
+    /**
+     * Constructs a new RateBudget with an explicit clock.
+     *
+     * @param requestsPerMinute The request budget, or empty if not limited
+     * @param tokensPerMinute The token budget, or empty if not limited
+     * @param initialBackoff The pause after the first rejection in a row
+     * @param maxBackoff The longest pause after a rejection
+     * @param nanoClock The source of the current time in nanoseconds
+     * @param sleeper Waits for a reservation to become available
+     * @throws IllegalArgumentException if a budget is less than 1
+     */
+    RateBudget(OptionalInt requestsPerMinute, OptionalInt tokensPerMinute,
+               Duration initialBackoff, Duration maxBackoff, LongSupplier nanoClock, Sleeper sleeper) {
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        long now = nanoClock.getAsLong();
+        this.requests = bucket("Requests per minute", requestsPerMinute, now);
+        this.tokens = bucket("Tokens per minute", tokensPerMinute, now);
+    }
+
+    /**
+     * Reserves one request and its estimated tokens, waiting until the budget
+     * covers them.
+     *
+     * @param estimatedTokens The tokens the call is expected to use
+     * @return How long the caller waited
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Duration acquire(long estimatedTokens) throws InterruptedException {
+        long wait = reserve(estimatedTokens);
+        if (wait > 0) {
+            sleeper.sleep(wait);
+        }
+        return Duration.ofNanos(wait);
+    }
+
+    /**
+     * Corrects the token bucket once the actual usage of a call is known.
+     *
+     * @param estimatedTokens The tokens reserved for the call
+     * @param actualTokens The tokens the call actually used
+     */
+    public synchronized void reconcile(long estimatedTokens, long actualTokens) {
+        if (tokens != null) {
+            tokens.refill(nanoClock.getAsLong(), factor);
+            tokens.take(actualTokens - estimatedTokens);
+        }
+    }
+
+    /**
+     * Records a call rejected with HTTP 429, reducing the rate and pausing
+     * all callers.
+     *
+     * @return The pause before the next call
+     */
+    public synchronized Duration rejected() {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        factor = Math.max(MIN_FACTOR, factor / 2);
+        consecutiveRejections++;
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(consecutiveRejections - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        long until = now + backoff.toNanos();
+        if (!paused || until - pausedUntil > 0) {
+            pausedUntil = until;
+            paused = true;
+        }
+        return backoff;
+    }
+
+    /**
+     * Records a successful call, recovering part of the configured rate.
+     */
+    public synchronized void succeeded() {
+        refill(nanoClock.getAsLong());
+        consecutiveRejections = 0;
+        factor = Math.min(1.0, factor + RECOVERY_STEP);
+    }
+
+    /**
+     * Gets the fraction of the configured rate currently granted.
+     *
+     * @return A value between {@value #MIN_FACTOR} and 1
+     */
+    public synchronized double factor() {
+        return factor;
+    }
+
+    /**
+     * Takes a reservation from the buckets.
+     *
+     * @param estimatedTokens The tokens the call is expected to use
+     * @return The nanoseconds to wait until the reservation is covered
+     */
+    synchronized long reserve(long estimatedTokens) {
+        long now = nanoClock.getAsLong();
+        refill(now);
+        long wait = paused ? Math.max(0, pausedUntil - now) : 0;
+        if (requests != null) {
+            requests.take(1);
+            wait = Math.max(wait, requests.waitNanos(factor));
+        }
+        if (tokens != null) {
+            tokens.take(estimatedTokens);
+            wait = Math.max(wait, tokens.waitNanos(factor));
+        }
+        return wait;
+    }
+
+    private void refill(long now) {
+        if (requests != null) {
+            requests.refill(now, factor);
+        }
+        if (tokens != null) {
+            tokens.refill(now, factor);
+        }
+    }
+
+    private static Bucket bucket(String name, OptionalInt perMinute, long now) {
+        if (perMinute.isEmpty()) {
+            return null;
+        }
+        if (perMinute.getAsInt() < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1: " + perMinute.getAsInt());
+        }
+        return new Bucket(perMinute.getAsInt(), now);
+    }
+
+    /**
+     * Waits for the given number of nanoseconds.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    /**
+     * Token bucket holding up to one minute's worth of a budget. The content
+     * goes negative while reservations wait for the bucket to refill.
+     */
+    private static final class Bucket {
+        final double perMinute;
+        double available;
+        long updatedAt;
+
+        Bucket(double perMinute, long now) {
+            this.perMinute = perMinute;
+            this.available = perMinute;
+            this.updatedAt = now;
+        }
+
+        void refill(long now, double factor) {
+            double capacity = perMinute * factor;
+            available = Math.min(capacity, available + (now - updatedAt) * capacity / NANOS_PER_MINUTE);
+            updatedAt = now;
+        }
+
+        void take(double amount) {
+            available -= amount;
+        }
+
+        long waitNanos(double factor) {
+            return available >= 0 ? 0 : (long) Math.ceil(-available * NANOS_PER_MINUTE / (perMinute * factor));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package dev.shaaf.waver.backend.ratelimit;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Chat model decorator scheduling calls within a {@link RateBudget}.
+ * <p>
+ * Every call first reserves one request and its estimated tokens, about one
+ * token per four characters of prompt plus the requested maximum output, and
+ * waits until the budget covers them. Once the provider answered, the
+ * estimate is corrected with the reported token usage. A call rejected with
+ * HTTP 429 slows the budget down and is retried after the backoff, up to the
+ * configured number of retries.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class RateLimitedChatModel implements ChatModel {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(RateLimitedChatModel.class.getName());
+
+    /** Characters per token assumed when estimating the size of a prompt. */
+    static final int CHARS_PER_TOKEN = 4;
+
+    /** The shared chat model doing the actual work. */
+    private final ChatModel delegate;
+
+    /** The budget of the provider account. */
+    private final RateBudget budget;
+
+    /** How often a rejected call is retried. */
+    private final int maxRetries;
+
+    /** Timer recording how long calls waited for the budget. */
+    private final Timer waitTimer;
+
+    /** Counter of calls rejected with HTTP 429. */
+    private final Counter rejections;
+
+    /**
+     * Constructs a new RateLimitedChatModel.
+     *
+     * @param delegate The shared chat model
+     * @param budget The budget of the provider account
+     * @param maxRetries How often a call rejected with HTTP 429 is retried
+     * @param waitTimer The timer recording how long calls waited for the budget
+     * @param rejections The counter of calls rejected with HTTP 429
+     */
+    public RateLimitedChatModel(ChatModel delegate, RateBudget budget, int maxRetries,
+                                Timer waitTimer, Counter rejections) {
+        this.delegate = delegate;
+        this.budget = budget;
+        this.maxRetries = maxRetries;
+        this.waitTimer = waitTimer;
+        this.rejections = rejections;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        long estimatedTokens = estimateTokens(chatRequest);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                waitTimer.record(budget.acquire(estimatedTokens));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the LLM rate limit", e);
+            }
+            try {
+                ChatResponse response = delegate.chat(chatRequest);
+                budget.succeeded();
+                if (response != null && response.tokenUsage() != null
+                        && response.tokenUsage().totalTokenCount() != null) {
+                    budget.reconcile(estimatedTokens, response.tokenUsage().totalTokenCount());
+                }
+                return response;
+            } catch (RuntimeException e) {
+                if (!isRateLimited(e)) {
+                    throw e;
+                }
+                Duration backoff = budget.rejected();
+                rejections.increment();
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                logger.warning("LLM provider rate limit reached, retrying in " + backoff.toMillis()
+                        + " ms (retry " + (attempt + 1) + " of " + maxRetries + ")");
+            }
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    /**
+     * Estimates the tokens a request uses, prompt and answer combined.
+     *
+     * @param chatRequest The request
+     * @return The estimated token count
+     */
+    static long estimateTokens(ChatRequest chatRequest) {
+        long characters = 0;
+        for (ChatMessage message : chatRequest.messages()) {
+            String text = textOf(message);
+            characters += text == null ? 0 : text.length();
+        }
+        Integer maxOutputTokens = chatRequest.maxOutputTokens();
+        return (characters + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN + (maxOutputTokens == null ? 0 : maxOutputTokens);
+    }
+
+    /**
+     * Checks whether a failure is a rejection by the provider's rate limit.
+     *
+     * @param failure The failure of a call
+     * @return true if the failure or one of its causes is an HTTP 429
+     */
+    static boolean isRateLimited(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RateLimitException
+                    || (cause instanceof HttpException http && http.statusCode() == 429)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String textOf(ChatMessage message) {
+        return switch (message) {
+            case SystemMessage system -> system.text();
+            case UserMessage user -> user.hasSingleText() ? user.singleText() : user.contents().toString();
+            case AiMessage ai -> ai.text();
+            default -> message.toString();
+        };
+    }
+}
@@ -0,0 +1,146 @@
+package dev.shaaf.waver.backend.ratelimit;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Scheduler keeping the LLM calls of all generation runs within the request
+ * and token budgets of each provider.
+ * <p>
+ * One {@link RateBudget} is created per {@link LLMProvider} from
+ * {@code waver.<provider>.rate-limit}, and every chat model wrapped for that
+ * provider draws from it, so concurrent runs share the budget instead of each
+ * running into the provider's limit. The time calls wait for the budget is
+ * recorded in {@code waver.llm.rate.wait}, rejections with HTTP 429 in
+ * {@code waver.llm.rate.rejections}, and the currently granted fraction of
+ * the budget in {@code waver.llm.rate.factor}.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class RateLimiter {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(RateLimiter.class.getName());
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected registry the waits and rejections are recorded in. */
+    @Inject
+    MeterRegistry registry;
+
+    /** Budgets, keyed by provider. */
+    private final Map<LLMProvider, RateBudget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new RateLimiter whose configuration is injected.
+     */
+    public RateLimiter() {
+    }
+
+    /**
+     * Constructs a new RateLimiter with explicit configuration.
+     *
+     * @param waverConfig The configuration holding the rate limits of each provider
+     * @param registry The registry the waits and rejections are recorded in
+     */
+    public RateLimiter(WaverConfig waverConfig, MeterRegistry registry) {
+        this.waverConfig = waverConfig;
+        this.registry = registry;
+    }
+
+    /**
+     * Wraps a chat model so that its calls draw from the budget of its provider.
+     *
+     * @param chatModel The chat model to wrap
+     * @param provider The provider the chat model calls
+     * @return The rate limited chat model, or the given model if the provider has no rate limit settings
+     */
+    public ChatModel wrap(ChatModel chatModel, LLMProvider provider) {
+        return wrap(chatModel, provider, false);
+    }
+
+    /**
+     * Wraps a chat model so that its calls draw from the budget of its provider.
+     * With failover, a call rejected with HTTP 429 still slows the budget down,
+     * but is thrown at once instead of being retried, so that it can be sent
+     * to another provider.
+     *
+     * @param chatModel The chat model to wrap
+     * @param provider The provider the chat model calls
+     * @param failover Whether rejected calls are thrown instead of retried
+     * @return The rate limited chat model, or the given model if the provider has no rate limit settings
+     */
+    public ChatModel wrap(ChatModel chatModel, LLMProvider provider, boolean failover) {
+        WaverConfig.RateLimit rateLimit = rateLimitOf(provider);
+        if (rateLimit == null) {
+            return chatModel;
+        }
+        RateBudget budget = budgets.computeIfAbsent(provider, p -> createBudget(p, rateLimit));
+        String tag = provider.name();
+        return new RateLimitedChatModel(chatModel, budget, failover ? 0 : rateLimit.maxRetries(),
+                Timer.builder("waver.llm.rate.wait")
+                        .description("Time LLM calls waited for the provider's request and token budget")
+                        .tag("provider", tag)
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofMinutes(5))
+                        .publishPercentileHistogram()
+                        .register(registry),
+                Counter.builder("waver.llm.rate.rejections")
+                        .description("LLM calls rejected by the provider with HTTP 429")
+                        .tag("provider", tag)
+                        .register(registry));
+    }
+
+    /**
+     * Gets the budget of a provider.
+     *
+     * @param provider The provider
+     * @return The budget, or null if no chat model of the provider was wrapped yet
+     */
+    RateBudget budgetOf(LLMProvider provider) {
+        return budgets.get(provider);
+    }
+
+    private RateBudget createBudget(LLMProvider provider, WaverConfig.RateLimit rateLimit) {
+        RateBudget budget = new RateBudget(rateLimit.requestsPerMinute(), rateLimit.tokensPerMinute(),
+                rateLimit.initialBackoff(), rateLimit.maxBackoff());
+        Gauge.builder("waver.llm.rate.factor", budget, RateBudget::factor)
+                .description("Fraction of the configured budget granted after HTTP 429 answers")
+                .tag("provider", provider.name())
+                .register(registry);
+        logger.info("LLM rate limit for " + provider + ": requests-per-minute="
+                + describe(rateLimit.requestsPerMinute().isPresent(), rateLimit.requestsPerMinute().orElse(0))
+                + ", tokens-per-minute="
+                + describe(rateLimit.tokensPerMinute().isPresent(), rateLimit.tokensPerMinute().orElse(0)));
+        return budget;
+    }
+
+    private WaverConfig.RateLimit rateLimitOf(LLMProvider provider) {
+        return switch (provider) {
+            case OpenAI -> waverConfig.openai().rateLimit();
+            case Gemini -> waverConfig.gemini().rateLimit();
+            case null, default -> null;
+        };
+    }
+
+    private static String describe(boolean limited, int perMinute) {
+        return limited ? String.valueOf(perMinute) : "unlimited";
+    }
+}
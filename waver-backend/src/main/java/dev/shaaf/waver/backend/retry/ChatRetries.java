@@ -0,0 +1,141 @@
+package dev.shaaf.waver.backend.retry;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.process.PipelineExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Retries and hedges the LLM calls of the pipeline stages.
+ * <p>
+ * The chat model of every stage is wrapped in a {@link RetryingChatModel}
+ * with the settings of {@code waver.retry}, overridden by those of
+ * {@code waver.retry.stages.<stage>}. The latencies a stage's hedge delay is
+ * estimated from are shared by all generation runs. Retries are counted in
+ * {@code waver.llm.retries}, hedged requests in {@code waver.llm.hedges} and
+ * the tokens of discarded answers in {@code waver.llm.wasted.tokens}.
+ * <p>
+ * Attempts run on the {@link PipelineExecutors#llm() LLM executor} rather
+ * than on the I/O executor, whose threads may all be taken by the stages
+ * waiting for them.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ChatRetries {
+
+    /** Number of recent calls of a stage its hedge delay is estimated from. */
+    static final int LATENCY_WINDOW = 200;
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected registry the retries, hedges and wasted tokens are recorded in. */
+    @Inject
+    MeterRegistry registry;
+
+    /** Injected executors, providing the one the attempts run on. */
+    @Inject
+    PipelineExecutors pipelineExecutors;
+
+    /** Recent call latencies, keyed by stage. */
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    /** Executor the attempts run on. */
+    private Executor executor;
+
+    /**
+     * Constructs a new ChatRetries whose configuration is injected.
+     */
+    public ChatRetries() {
+    }
+
+    /**
+     * Constructs a new ChatRetries with explicit configuration.
+     *
+     * @param waverConfig The configuration holding the retry settings
+     * @param registry The registry the retries, hedges and wasted tokens are recorded in
+     * @param executor The executor the attempts run on
+     */
+    public ChatRetries(WaverConfig waverConfig, MeterRegistry registry, Executor executor) {
+        this.waverConfig = waverConfig;
+        this.registry = registry;
+        this.executor = executor;
+    }
+
+    /**
+     * Takes the executor the attempts run on from the pipeline executors
+     * after dependency injection is complete.
+     */
+    @PostConstruct
+    void init() {
+        if (executor == null) {
+            executor = pipelineExecutors.llm();
+        }
+    }
+
+    /**
+     * Wraps the chat model of a stage so that its calls are retried and hedged.
+     *
+     * @param chatModel The chat model to wrap
+     * @param stage The stage the chat model is used by
+     * @return The retrying chat model, or the given model if retries are disabled for the stage
+     * @throws IllegalArgumentException if the settings of the stage are invalid
+     */
+    public ChatModel wrap(ChatModel chatModel, String stage) {
+        RetryPolicy policy = policyOf(stage);
+        if (policy == null) {
+            return chatModel;
+        }
+        return new RetryingChatModel(chatModel, stage, policy,
+                latencies.computeIfAbsent(stage, s -> new LatencyWindow(LATENCY_WINDOW)), executor,
+                Counter.builder("waver.llm.retries")
+                        .description("LLM calls attempted again after a transient failure")
+                        .tag("stage", stage)
+                        .register(registry),
+                Counter.builder("waver.llm.hedges")
+                        .description("Duplicate requests sent for slow LLM calls")
+                        .tag("stage", stage)
+                        .register(registry),
+                Counter.builder("waver.llm.wasted.tokens")
+                        .description("Tokens of LLM answers discarded because another request answered first"
+                                + " or the deadline had passed")
+                        .tag("stage", stage)
+                        .register(registry));
+    }
+
+    /**
+     * Gets the retry settings of a stage.
+     *
+     * @param stage The stage
+     * @return The settings, or null if the calls of the stage are not retried
+     * @throws IllegalArgumentException if the settings are invalid
+     */
+    RetryPolicy policyOf(String stage) {
+        WaverConfig.Retry retry = waverConfig.retry();
+        WaverConfig.Retry.Stage overrides = retry.stages().get(stage);
+        if (overrides == null) {
+            return retry.enabled() ? new RetryPolicy(retry.maxAttempts(), retry.deadline(), retry.initialBackoff(),
+                    retry.maxBackoff(), retry.hedge(), retry.hedgeQuantile(), retry.hedgeMinSamples(),
+                    retry.hedgeMinDelay()) : null;
+        }
+        if (!overrides.enabled().orElse(retry.enabled())) {
+            return null;
+        }
+        return new RetryPolicy(overrides.maxAttempts().orElse(retry.maxAttempts()),
+                overrides.deadline().orElse(retry.deadline()), retry.initialBackoff(), retry.maxBackoff(),
+                overrides.hedge().orElse(retry.hedge()), retry.hedgeQuantile(), retry.hedgeMinSamples(),
+                retry.hedgeMinDelay());
+    }
+}
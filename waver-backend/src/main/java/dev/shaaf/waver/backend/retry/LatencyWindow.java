@@ -0,0 +1,74 @@
+package dev.shaaf.waver.backend.retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The latencies of the most recent calls of a stage, for estimating how long
+ * a call usually takes.
+ * <p>
+ * Only the last {@code capacity} latencies are kept, so the estimate follows
+ * the provider when it gets faster or slower. All methods are thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class LatencyWindow {
+
+    /** Recent latencies in nanoseconds, overwritten in a ring. */
+    private final long[] samples;
+
+    /** Number of latencies recorded so far. */
+    private long recorded;
+
+    /**
+     * Constructs a new LatencyWindow.
+     *
+     * @param capacity The number of recent latencies kept
+     * @throws IllegalArgumentException if the capacity is less than 1
+     */
+    LatencyWindow(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Latency window capacity must be at least 1: " + capacity);
+        }
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Records the latency of a call.
+     *
+     * @param latency The time the call took
+     */
+    synchronized void record(Duration latency) {
+        samples[(int) (recorded++ % samples.length)] = latency.toNanos();
+    }
+
+    /**
+     * Gets the number of latencies kept.
+     *
+     * @return The sample count, at most the capacity
+     */
+    synchronized int size() {
+        return (int) Math.min(recorded, samples.length);
+    }
+
+    /**
+     * Gets a quantile of the latencies kept, by the nearest-rank method.
+     *
+     * @param quantile The quantile, between 0 and 1, such as 0.95
+     * @return The latency below which the given share of the calls finished, or null if none was recorded
+     */
+    Duration quantile(double quantile) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(samples, size());
+        }
+        if (sorted.length == 0) {
+            return null;
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return Duration.ofNanos(sorted[Math.clamp(rank - 1, 0, sorted.length - 1)]);
+    }
+}
@@ -0,0 +1,67 @@
+package dev.shaaf.waver.backend.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry and hedging settings of the LLM calls of one pipeline stage.
+ *
+ * @param maxAttempts How often a call is attempted at most, the first attempt included
+ * @param deadline How long a call may take, all attempts and backoffs included, or zero for no deadline
+ * @param initialBackoff The upper bound of the pause before the first retry
+ * @param maxBackoff The upper bound of the pause before any retry
+ * @param hedge Whether a duplicate request is sent for slow calls
+ * @param hedgeQuantile The quantile of the observed latencies after which a call is hedged
+ * @param hedgeMinSamples How many calls must have been observed before calls are hedged
+ * @param hedgeMinDelay The shortest time a call runs before it is hedged
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public record RetryPolicy(int maxAttempts, Duration deadline, Duration initialBackoff, Duration maxBackoff,
+                          boolean hedge, double hedgeQuantile, int hedgeMinSamples, Duration hedgeMinDelay) {
+
+    /**
+     * Constructs a new RetryPolicy, validating the settings.
+     *
+     * @throws IllegalArgumentException if the attempts are less than 1, the deadline is negative
+     *                                  or the hedge quantile is not between 0 and 1
+     */
+    public RetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Retry max-attempts must be at least 1: " + maxAttempts);
+        }
+        if (deadline.isNegative()) {
+            throw new IllegalArgumentException("Retry deadline must not be negative: " + deadline);
+        }
+        if (hedgeQuantile <= 0 || hedgeQuantile > 1) {
+            throw new IllegalArgumentException("Retry hedge-quantile must be between 0 and 1: " + hedgeQuantile);
+        }
+    }
+
+    /**
+     * Checks whether calls are abandoned once their deadline has passed.
+     *
+     * @return true if the calls have a deadline
+     */
+    boolean hasDeadline() {
+        return !deadline.isZero();
+    }
+
+    /**
+     * Draws the pause before a retry at random below an upper bound that
+     * doubles with every retry, so that calls failing together do not retry
+     * together ("full jitter").
+     *
+     * @param retry The number of the retry, starting at 1
+     * @return The pause
+     */
+    Duration backoff(int retry) {
+        long bound = initialBackoff.toMillis() << Math.min(retry - 1, 30);
+        if (bound < 0 || bound > maxBackoff.toMillis()) {
+            bound = maxBackoff.toMillis();
+        }
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+}
@@ -0,0 +1,300 @@
+package dev.shaaf.waver.backend.retry;
+
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.NonRetriableException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.exception.RetriableException;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Chat model decorator retrying failed calls and hedging slow ones, within
+ * the deadline of the call, if it has one.
+ * <p>
+ * Every attempt runs on the given executor while the caller waits for it, so
+ * a call never outlives its deadline, even if the provider does not answer.
+ * A call failing with a transient error, a timeout, an HTTP 408 or 5xx or an
+ * I/O error, is attempted again after a jittered exponential backoff, up to
+ * the maximum attempts and only if the backoff ends before the deadline.
+ * Rate limit rejections are left to the rate limiter, which wraps the
+ * delegate so that every attempt and hedged request draws from the budget.
+ * <p>
+ * With hedging, a second request is sent once an attempt has taken longer
+ * than the configured quantile of the latencies recently observed for the
+ * stage, and the first answer is used. The answer that arrives late, of a
+ * hedge or of an attempt that ran past the deadline, is discarded and its
+ * tokens are counted as wasted.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class RetryingChatModel implements ChatModel {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(RetryingChatModel.class.getName());
+
+    /** The chat model doing the actual work. */
+    private final ChatModel delegate;
+
+    /** The stage the calls are made for. */
+    private final String stage;
+
+    /** The retry and hedging settings of the stage. */
+    private final RetryPolicy policy;
+
+    /** The latencies of the recent calls of the stage. */
+    private final LatencyWindow latencies;
+
+    /** Executor the attempts run on. */
+    private final Executor executor;
+
+    /** Counter of retried calls. */
+    private final Counter retries;
+
+    /** Counter of hedged requests sent. */
+    private final Counter hedges;
+
+    /** Counter of the tokens of discarded answers. */
+    private final Counter wastedTokens;
+
+    /**
+     * Constructs a new RetryingChatModel.
+     *
+     * @param delegate The chat model doing the actual work
+     * @param stage The stage the calls are made for
+     * @param policy The retry and hedging settings of the stage
+     * @param latencies The latencies of the recent calls of the stage, shared by all runs
+     * @param executor The executor the attempts run on
+     * @param retries The counter of retried calls
+     * @param hedges The counter of hedged requests sent
+     * @param wastedTokens The counter of the tokens of discarded answers
+     */
+    RetryingChatModel(ChatModel delegate, String stage, RetryPolicy policy, LatencyWindow latencies,
+                      Executor executor, Counter retries, Counter hedges, Counter wastedTokens) {
+        this.delegate = delegate;
+        this.stage = stage;
+        this.policy = policy;
+        this.latencies = latencies;
+        this.executor = executor;
+        this.retries = retries;
+        this.hedges = hedges;
+        this.wastedTokens = wastedTokens;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        long deadline = System.nanoTime() + policy.deadline().toNanos();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return race(chatRequest, deadline);
+            } catch (RuntimeException e) {
+                if (attempt >= policy.maxAttempts() || !isRetryable(e)) {
+                    throw e;
+                }
+                Duration backoff = policy.backoff(attempt);
+                if (backoff.toNanos() >= remaining(deadline)) {
+                    throw e;
+                }
+                retries.increment();
+                logger.warning("LLM call of " + stage + " failed (" + e.getMessage() + "), retrying in "
+                        + backoff.toMillis() + " ms (attempt " + (attempt + 1) + " of " + policy.maxAttempts() + ")");
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting to retry the LLM call", interrupted);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    /**
+     * Runs one attempt of a call, hedged if it is slow.
+     *
+     * @param chatRequest The request
+     * @param deadline The deadline of the call, in {@link System#nanoTime()}
+     * @return The first answer
+     * @throws TimeoutException if no answer arrived before the deadline
+     */
+    private ChatResponse race(ChatRequest chatRequest, long deadline) {
+        Race race = new Race();
+        try {
+            race.send(chatRequest);
+            Duration hedgeDelay = hedgeDelay();
+            if (hedgeDelay != null) {
+                ChatResponse response = race.await(Math.min(hedgeDelay.toNanos(), remaining(deadline)));
+                if (response != null) {
+                    return response;
+                }
+                if (remaining(deadline) > 0) {
+                    hedges.increment();
+                    logger.info("LLM call of " + stage + " is taking longer than " + hedgeDelay.toMillis()
+                            + " ms, sending a hedged request");
+                    race.send(chatRequest);
+                }
+            }
+            ChatResponse response = race.await(remaining(deadline));
+            if (response == null) {
+                throw new TimeoutException("LLM call of " + stage + " did not finish within " + policy.deadline());
+            }
+            return response;
+        } finally {
+            race.decide();
+        }
+    }
+
+    /**
+     * Gets the time left until the deadline of a call.
+     *
+     * @param deadline The deadline of the call, in {@link System#nanoTime()}
+     * @return The time left in nanoseconds, or {@link Long#MAX_VALUE} if the call has no deadline
+     */
+    private long remaining(long deadline) {
+        return policy.hasDeadline() ? deadline - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets how long an attempt runs before it is hedged.
+     *
+     * @return The hedge delay, or null if the stage is not hedged or too few calls were observed yet
+     */
+    private Duration hedgeDelay() {
+        if (!policy.hedge() || latencies.size() < Math.max(1, policy.hedgeMinSamples())) {
+            return null;
+        }
+        Duration quantile = latencies.quantile(policy.hedgeQuantile());
+        return quantile.compareTo(policy.hedgeMinDelay()) > 0 ? quantile : policy.hedgeMinDelay();
+    }
+
+    /**
+     * Checks whether a failed call may succeed when attempted again.
+     *
+     * @param failure The failure of a call
+     * @return true if the failure or one of its causes is transient
+     */
+    static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RateLimitException || cause instanceof NonRetriableException) {
+                return false;
+            }
+            if (cause instanceof HttpException http) {
+                return http.statusCode() == 408 || http.statusCode() >= 500;
+            }
+            if (cause instanceof RetriableException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The requests sent for one attempt of a call, the first answer of which
+     * is used.
+     */
+    private final class Race {
+
+        /** Completed with the first answer, or with the failure once all requests failed. */
+        private final CompletableFuture<ChatResponse> winner = new CompletableFuture<>();
+
+        /** Number of requests still waiting for an answer. */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * Sends a request on the executor.
+         *
+         * @param chatRequest The request
+         */
+        void send(ChatRequest chatRequest) {
+            pending.incrementAndGet();
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                ChatResponse response;
+                try {
+                    response = delegate.chat(chatRequest);
+                } catch (Throwable e) {
+                    // The failure of a hedged request only counts if the other one failed too
+                    if (pending.decrementAndGet() == 0) {
+                        winner.completeExceptionally(e);
+                    }
+                    return;
+                }
+                latencies.record(Duration.ofNanos(System.nanoTime() - start));
+                pending.decrementAndGet();
+                if (!winner.complete(response)) {
+                    wasted(response);
+                }
+            });
+        }
+
+        /**
+         * Waits for the first answer.
+         *
+         * @param nanos How long to wait at most
+         * @return The answer, or null if none arrived in time
+         */
+        ChatResponse await(long nanos) {
+            try {
+                return winner.get(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+            } catch (java.util.concurrent.TimeoutException e) {
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException failure) {
+                    throw failure;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the LLM", e);
+            }
+        }
+
+        /**
+         * Ends the race, so that answers arriving from now on are discarded.
+         */
+        void decide() {
+            winner.cancel(false);
+        }
+
+        private void wasted(ChatResponse response) {
+            if (response != null && response.tokenUsage() != null
+                    && response.tokenUsage().totalTokenCount() != null) {
+                wastedTokens.increment(response.tokenUsage().totalTokenCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package dev.shaaf.waver.backend.routing;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Load, latency and health of one LLM provider, shared by all generation runs
+ * routing calls to it.
+ * <p>
+ * The load is the number of calls currently waiting for the provider, the
+ * latency an exponentially weighted moving average of its successful calls.
+ * A provider whose call failed is cooling down for a while, during which
+ * calls are only routed to it if every other provider is cooling down too.
+ * <p>
+ * All methods are thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class ProviderRoute {
+
+    /** Weight of the latest call in the latency average. */
+    static final double LATENCY_WEIGHT = 0.2;
+
+    /** Name of the provider, such as {@code OpenAI}. */
+    private final String name;
+
+    /** Source of the current time in nanoseconds. */
+    private final LongSupplier nanoClock;
+
+    /** How long the provider is avoided after a failed call, in nanoseconds. */
+    private final long cooldownNanos;
+
+    /** Counter of calls answered by the provider. */
+    private final Counter successes;
+
+    /** Counter of failed calls that were routed to another provider, or given up. */
+    private final Counter failures;
+
+    /** Number of calls currently waiting for the provider. */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /** Average latency of successful calls in nanoseconds, or 0 before the first one. */
+    private double latencyNanos;
+
+    /** End of the cooldown after the last failure, in {@link #nanoClock} time. */
+    private long coolingUntil;
+
+    /** Whether a call failed since the last successful one. */
+    private boolean cooling;
+
+    /**
+     * Constructs a new ProviderRoute.
+     *
+     * @param name The name of the provider
+     * @param cooldown How long the provider is avoided after a failed call
+     * @param successes The counter of calls answered by the provider
+     * @param failures The counter of failed calls
+     * @param nanoClock The source of the current time in nanoseconds
+     */
+    ProviderRoute(String name, Duration cooldown, Counter successes, Counter failures, LongSupplier nanoClock) {
+        this.name = name;
+        this.cooldownNanos = cooldown.toNanos();
+        this.successes = successes;
+        this.failures = failures;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Gets the name of the provider.
+     *
+     * @return The provider name
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Gets the number of calls currently waiting for the provider.
+     *
+     * @return The in-flight call count
+     */
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the average latency of the successful calls of the provider.
+     *
+     * @return The latency in nanoseconds, or 0 if no call succeeded yet
+     */
+    synchronized double latencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Checks whether the provider is cooling down after a failed call.
+     *
+     * @return true if calls should be routed elsewhere
+     */
+    synchronized boolean isCoolingDown() {
+        return cooling && nanoClock.getAsLong() - coolingUntil < 0;
+    }
+
+    /**
+     * Records the start of a call.
+     *
+     * @return The start time, to be passed to {@link #succeeded(long)}
+     */
+    long started() {
+        inFlight.incrementAndGet();
+        return nanoClock.getAsLong();
+    }
+
+    /**
+     * Records a successful call, ending any cooldown.
+     *
+     * @param start The start time returned by {@link #started()}
+     */
+    void succeeded(long start) {
+        inFlight.decrementAndGet();
+        long latency = nanoClock.getAsLong() - start;
+        synchronized (this) {
+            latencyNanos = latencyNanos == 0 ? latency : latencyNanos + LATENCY_WEIGHT * (latency - latencyNanos);
+            cooling = false;
+        }
+        successes.increment();
+    }
+
+    /**
+     * Records a failed call, starting a cooldown.
+     */
+    void failed() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            cooling = true;
+            coolingUntil = nanoClock.getAsLong() + cooldownNanos;
+        }
+        failures.increment();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,216 @@
+package dev.shaaf.waver.backend.routing;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Router spreading the LLM calls of all generation runs over the configured
+ * providers.
+ * <p>
+ * Each run gets a {@link Run}, which builds the {@link RoutingChatModel} of
+ * every stage over the providers of {@code waver.routing.providers} that have
+ * an API key; the stages of a run share its pin. The load, latency and
+ * cooldown of every provider are kept in one {@link ProviderRoute} shared by
+ * all runs, so concurrent runs balance against each other. Calls answered or
+ * failed by a provider are counted in {@code waver.llm.route.calls}, calls
+ * sent to another provider after a failure in {@code waver.llm.route.failovers},
+ * and the calls currently waiting for a provider are published as
+ * {@code waver.llm.route.in.flight}.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationScoped
+public class ProviderRouter {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(ProviderRouter.class.getName());
+
+    /** Injected configuration for Waver application settings. */
+    @Inject
+    WaverConfig waverConfig;
+
+    /** Injected registry the routed calls and failovers are recorded in. */
+    @Inject
+    MeterRegistry registry;
+
+    /** Routes, keyed by provider name. */
+    private final Map<String, ProviderRoute> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the chat model calling one provider.
+     */
+    @FunctionalInterface
+    public interface ChatModelFactory {
+        /**
+         * Builds the chat model calling a provider.
+         *
+         * @param provider The provider
+         * @param apiKey The API key of the provider
+         * @param failover Whether calls the provider rejects should fail over
+         *                 to another provider rather than be retried
+         * @return The chat model
+         */
+        ChatModel create(LLMProvider provider, String apiKey, boolean failover);
+    }
+
+    /**
+     * Constructs a new ProviderRouter whose configuration is injected.
+     */
+    public ProviderRouter() {
+    }
+
+    /**
+     * Constructs a new ProviderRouter with explicit configuration.
+     *
+     * @param waverConfig The configuration holding the routing settings and API keys
+     * @param registry The registry the routed calls and failovers are recorded in
+     */
+    public ProviderRouter(WaverConfig waverConfig, MeterRegistry registry) {
+        this.waverConfig = waverConfig;
+        this.registry = registry;
+    }
+
+    /**
+     * Checks whether LLM calls are routed over several providers.
+     *
+     * @return true if routing is enabled
+     */
+    public boolean isEnabled() {
+        return waverConfig.routing().enabled();
+    }
+
+    /**
+     * Gets the providers calls are routed to and their API keys, in order of
+     * preference. Providers without an API key are left out.
+     *
+     * @return The API keys, keyed by provider
+     */
+    public Map<LLMProvider, String> apiKeys() {
+        List<LLMProvider> providers = waverConfig.routing().providers()
+                .orElseGet(() -> List.of(waverConfig.llmProvider()));
+        Map<LLMProvider, String> apiKeys = new LinkedHashMap<>();
+        for (LLMProvider provider : providers) {
+            Optional<String> apiKey = apiKeyOf(provider).filter(key -> !key.isBlank());
+            if (apiKey.isPresent()) {
+                apiKeys.putIfAbsent(provider, apiKey.get());
+            } else {
+                logger.warning("No API key configured for " + provider + ", leaving it out of the LLM routing");
+            }
+        }
+        return apiKeys;
+    }
+
+    /**
+     * Creates the chat model of a generation run that has a single chat
+     * model, routing its calls over the providers that have an API key.
+     *
+     * @param factory The factory building the chat model of each provider
+     * @return The routing chat model
+     * @throws IllegalStateException if no provider has an API key
+     */
+    public ChatModel route(ChatModelFactory factory) {
+        return newRun().route(factory);
+    }
+
+    /**
+     * Starts the routing of a generation run.
+     *
+     * @return The routing of the run
+     */
+    public Run newRun() {
+        return new Run();
+    }
+
+    /**
+     * The routing of one generation run. All chat models it routes share the
+     * provider the run is pinned to, so the writing stage, with its own chat
+     * model, stays with the provider the analysis stages were answered by.
+     */
+    public final class Run {
+
+        /** The provider the run is pinned to, or null before the first answer. */
+        private final AtomicReference<ProviderRoute> pinned = new AtomicReference<>();
+
+        private Run() {
+        }
+
+        /**
+         * Creates a chat model of the run, routing its calls over the
+         * providers that have an API key.
+         *
+         * @param factory The factory building the chat model of each provider
+         * @return The routing chat model
+         * @throws IllegalStateException if no provider has an API key
+         */
+        public ChatModel route(ChatModelFactory factory) {
+            WaverConfig.Routing routing = waverConfig.routing();
+            Map<LLMProvider, String> apiKeys = apiKeys();
+            if (apiKeys.isEmpty()) {
+                throw new IllegalStateException("None of the routed LLM providers has an API key");
+            }
+            boolean failover = apiKeys.size() > 1;
+            List<RoutingChatModel.Target> targets = new ArrayList<>(apiKeys.size());
+            apiKeys.forEach((provider, apiKey) -> targets.add(new RoutingChatModel.Target(
+                    routeOf(provider.name()), factory.create(provider, apiKey, failover))));
+            return new RoutingChatModel(targets, routing.strategy(), routing.pinJobs(),
+                    Counter.builder("waver.llm.route.failovers")
+                            .description("LLM calls sent to another provider after a failure")
+                            .register(registry), pinned);
+        }
+    }
+
+    /**
+     * Gets the route of a provider, creating it on first use.
+     *
+     * @param name The provider name
+     * @return The route shared by all runs
+     */
+    ProviderRoute routeOf(String name) {
+        return routes.computeIfAbsent(name, this::createRoute);
+    }
+
+    private ProviderRoute createRoute(String name) {
+        ProviderRoute route = new ProviderRoute(name, waverConfig.routing().cooldown(),
+                Counter.builder("waver.llm.route.calls")
+                        .description("LLM calls answered or failed by a provider")
+                        .tag("provider", name)
+                        .tag("outcome", "success")
+                        .register(registry),
+                Counter.builder("waver.llm.route.calls")
+                        .description("LLM calls answered or failed by a provider")
+                        .tag("provider", name)
+                        .tag("outcome", "failure")
+                        .register(registry),
+                System::nanoTime);
+        Gauge.builder("waver.llm.route.in.flight", route, ProviderRoute::inFlight)
+                .description("LLM calls currently waiting for a provider")
+                .tag("provider", name)
+                .register(registry);
+        return route;
+    }
+
+    private Optional<String> apiKeyOf(LLMProvider provider) {
+        return switch (provider) {
+            case OpenAI -> waverConfig.openai().apiKey();
+            case Gemini -> waverConfig.gemini().apiKey();
+            case null, default -> Optional.empty();
+        };
+    }
+}
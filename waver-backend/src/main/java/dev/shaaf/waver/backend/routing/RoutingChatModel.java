@@ -0,0 +1,188 @@
+package dev.shaaf.waver.backend.routing;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Chat model routing every call to one of several providers and failing over
+ * to the next one when a provider answers with an error.
+ * <p>
+ * Calls go to the provider with the fewest calls in flight or with the lowest
+ * average latency, whichever the strategy asks for; ties go to the provider
+ * listed first. A provider whose last call failed, for example with HTTP 429,
+ * is tried last until its cooldown ended. If every provider fails, the
+ * failure of the last one is thrown.
+ * <p>
+ * One instance is created per stage model of a generation run, and all of them
+ * share the pin of the run. With pinning, the run sticks to the provider that
+ * answered its first call, so all chapters of a tutorial are written by the
+ * same model, and only moves on when that provider fails.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+class RoutingChatModel implements ChatModel {
+
+    /** Logger instance for this class. */
+    private static final Logger logger = Logger.getLogger(RoutingChatModel.class.getName());
+
+    /** The providers calls are routed to, in configured order. */
+    private final List<Target> targets;
+
+    /** How the provider of a call is chosen. */
+    private final WaverConfig.Routing.Strategy strategy;
+
+    /** Whether the run sticks to the provider that answered last. */
+    private final boolean pin;
+
+    /** Counter of calls routed to another provider after a failure. */
+    private final Counter failovers;
+
+    /** The provider the run is pinned to, or null before the first answer; shared by the stages of the run. */
+    private final AtomicReference<ProviderRoute> pinned;
+
+    /**
+     * Constructs a new RoutingChatModel.
+     *
+     * @param targets The providers calls are routed to, in configured order
+     * @param strategy How the provider of a call is chosen
+     * @param pin Whether the run sticks to the provider that answered last
+     * @param failovers The counter of calls routed to another provider after a failure
+     * @throws IllegalArgumentException if no provider is given
+     */
+    RoutingChatModel(List<Target> targets, WaverConfig.Routing.Strategy strategy, boolean pin, Counter failovers) {
+        this(targets, strategy, pin, failovers, new AtomicReference<>());
+    }
+
+    /**
+     * Constructs a new RoutingChatModel sharing the pin of a run.
+     *
+     * @param targets The providers calls are routed to, in configured order
+     * @param strategy How the provider of a call is chosen
+     * @param pin Whether the run sticks to the provider that answered last
+     * @param failovers The counter of calls routed to another provider after a failure
+     * @param pinned The provider the run is pinned to, shared by the stages of the run
+     * @throws IllegalArgumentException if no provider is given
+     */
+    RoutingChatModel(List<Target> targets, WaverConfig.Routing.Strategy strategy, boolean pin, Counter failovers,
+                     AtomicReference<ProviderRoute> pinned) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("At least one LLM provider must be routed to");
+        }
+        this.targets = List.copyOf(targets);
+        this.strategy = strategy;
+        this.pin = pin;
+        this.failovers = failovers;
+        this.pinned = pinned;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        RuntimeException failure = null;
+        Target failed = null;
+        for (Target target : order()) {
+            if (failure != null) {
+                failovers.increment();
+                logger.warning("LLM call to " + failed.route() + " failed (" + failure.getMessage()
+                        + "), failing over to " + target.route());
+            }
+            long start = target.route().started();
+            ChatResponse response;
+            try {
+                response = target.chatModel().chat(chatRequest);
+            } catch (RuntimeException e) {
+                target.route().failed();
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                failure = e;
+                failed = target;
+                continue;
+            }
+            target.route().succeeded(start);
+            if (pin) {
+                pinned.set(target.route());
+            }
+            return response;
+        }
+        throw failure;
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return current().chatModel().defaultRequestParameters();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return current().chatModel().provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return current().chatModel().supportedCapabilities();
+    }
+
+    /**
+     * Gets the providers in the order a call tries them: healthy providers
+     * before those cooling down, the pinned provider first, and the others by
+     * strategy. The state of every provider is read once, as concurrent calls
+     * keep changing it.
+     *
+     * @return The providers to try
+     */
+    List<Target> order() {
+        ProviderRoute pinnedRoute = pinned.get();
+        List<Candidate> candidates = new ArrayList<>(targets.size());
+        for (Target target : targets) {
+            ProviderRoute route = target.route();
+            candidates.add(new Candidate(target, route.isCoolingDown(), route == pinnedRoute,
+                    route.inFlight(), route.latencyNanos()));
+        }
+        Comparator<Candidate> byStrategy = switch (strategy) {
+            case LEAST_LOADED -> Comparator.comparingInt(Candidate::inFlight);
+            case LOWEST_LATENCY -> Comparator.comparingDouble(Candidate::latencyNanos);
+        };
+        candidates.sort(Comparator.comparing(Candidate::coolingDown)
+                .thenComparing(Candidate::pinned, Comparator.reverseOrder())
+                .thenComparing(byStrategy));
+        return candidates.stream().map(Candidate::target).toList();
+    }
+
+    private Target current() {
+        ProviderRoute pinnedRoute = pinned.get();
+        return targets.stream()
+                .filter(target -> target.route() == pinnedRoute)
+                .findFirst()
+                .orElse(targets.getFirst());
+    }
+
+    /**
+     * A provider calls can be routed to.
+     *
+     * @param route The load, latency and health of the provider, shared by all runs
+     * @param chatModel The chat model calling the provider
+     */
+    record Target(ProviderRoute route, ChatModel chatModel) {
+    }
+
+    /**
+     * The state of a provider when a call is routed.
+     */
+    private record Candidate(Target target, boolean coolingDown, boolean pinned, int inFlight, double latencyNanos) {
+    }
+}
@@ -0,0 +1,70 @@
+package dev.shaaf.waver.backend.work;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Work store keeping the items in memory.
+ * <p>
+ * Only useful for a single replica and for tests, as items are neither
+ * shared nor survive a restart. All methods are thread safe.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class InMemoryWorkStore implements WorkStore {
+
+    /** Items keyed by id, in the order they were offered. */
+    private final Map<String, WorkItem> items = new LinkedHashMap<>();
+
+    @Override
+    public synchronized Optional<WorkItem> offer(WorkItem item) {
+        WorkItem existing = items.putIfAbsent(item.id(), item);
+        return Optional.ofNullable(existing);
+    }
+
+    @Override
+    public synchronized Optional<WorkItem> claim(String replica, Instant now, Duration lease) {
+        Optional<WorkItem> claimable = items.values().stream()
+                .filter(item -> item.isClaimable(now))
+                .min(WorkItem.claimOrder(items.values(), now));
+        claimable.ifPresent(item -> items.put(item.id(), item.claimedBy(replica, now, lease)));
+        return claimable.map(item -> items.get(item.id()));
+    }
+
+    @Override
+    public synchronized boolean renew(String id, String replica, Instant now, Duration lease) {
+        WorkItem item = items.get(id);
+        if (item == null || !item.isLeasedBy(replica, now)) {
+            return false;
+        }
+        items.put(id, item.renewed(now, lease));
+        return true;
+    }
+
+    @Override
+    public synchronized boolean complete(String id, String replica) {
+        WorkItem item = items.get(id);
+        if (item == null || !replica.equals(item.owner())) {
+            return false;
+        }
+        items.remove(id);
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<WorkItem> find(String id) {
+        return Optional.ofNullable(items.get(id));
+    }
+
+    @Override
+    public synchronized List<WorkItem> list() {
+        return new ArrayList<>(items.values());
+    }
+}
@@ -0,0 +1,279 @@
+package dev.shaaf.waver.backend.work;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Item;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Work store keeping one JSON object per item in the MinIO bucket.
+ * <p>
+ * Items are stored under {@value #PREFIX}. Every change is a conditional
+ * write: a new item is only written if no object with its name exists
+ * ({@code If-None-Match: *}), and a claimed or renewed item only replaces
+ * the exact version that was read ({@code If-Match} with its ETag). Of two
+ * replicas claiming the same item, one write therefore fails and that
+ * replica moves on to the next item. This requires a MinIO or S3 server
+ * supporting conditional writes.
+ * <p>
+ * Claiming and listing remember every item they read together with its
+ * ETag, so polling the store lists the items but only reads those that
+ * changed since the last poll.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class MinioWorkStore implements WorkStore {
+
+    /** Object name prefix of work items. */
+    public static final String PREFIX = ".waver/work/";
+
+    /** Logger instance for this store. */
+    private static final Logger logger = Logger.getLogger(MinioWorkStore.class.getName());
+
+    /** Mapper writing timestamps as ISO-8601 strings. */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    /** How often offering an item is retried when the existing item vanished in between. */
+    private static final int OFFER_ATTEMPTS = 3;
+
+    /** MinIO client for storage operations. */
+    private final MinioClient minioClient;
+
+    /** Bucket holding the work items. */
+    private final String bucketName;
+
+    /** Items read by the last poll, keyed by id. */
+    private final Map<String, Versioned> polled = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new MinioWorkStore.
+     *
+     * @param minioClient The MinIO client
+     * @param bucketName The bucket holding the work items
+     */
+    public MinioWorkStore(MinioClient minioClient, String bucketName) {
+        this.minioClient = minioClient;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public Optional<WorkItem> offer(WorkItem item) throws IOException {
+        for (int attempt = 0; attempt < OFFER_ATTEMPTS; attempt++) {
+            if (write(item, Map.of("If-None-Match", "*"))) {
+                return Optional.empty();
+            }
+            Optional<WorkItem> existing = find(item.id());
+            if (existing.isPresent()) {
+                return existing;
+            }
+        }
+        throw new IOException("Failed to queue work item " + item.id() + ": it keeps changing");
+    }
+
+    @Override
+    public Optional<WorkItem> claim(String replica, Instant now, Duration lease) throws IOException {
+        List<Versioned> items = poll();
+        List<Versioned> claimable = new ArrayList<>();
+        for (Versioned versioned : items) {
+            if (versioned.item().isClaimable(now)) {
+                claimable.add(versioned);
+            }
+        }
+        claimable.sort(Comparator.comparing(Versioned::item,
+                WorkItem.claimOrder(items.stream().map(Versioned::item).toList(), now)));
+        for (Versioned versioned : claimable) {
+            WorkItem claimed = versioned.item().claimedBy(replica, now, lease);
+            if (write(claimed, Map.of("If-Match", versioned.etag()))) {
+                return Optional.of(claimed);
+            }
+            // Another replica claimed it first
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean renew(String id, String replica, Instant now, Duration lease) throws IOException {
+        Optional<Versioned> current = read(id);
+        if (current.isEmpty() || !current.get().item().isLeasedBy(replica, now)) {
+            return false;
+        }
+        return write(current.get().item().renewed(now, lease), Map.of("If-Match", current.get().etag()));
+    }
+
+    @Override
+    public boolean complete(String id, String replica) throws IOException {
+        Optional<WorkItem> current = find(id);
+        if (current.isEmpty() || !replica.equals(current.get().owner())) {
+            return false;
+        }
+        try {
+            minioClient.removeObject(
+                    RemoveObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName(id))
+                            .build());
+            return true;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to remove work item " + id, e);
+        }
+    }
+
+    @Override
+    public Optional<WorkItem> find(String id) throws IOException {
+        return read(id).map(Versioned::item);
+    }
+
+    @Override
+    public List<WorkItem> list() throws IOException {
+        return poll().stream().map(Versioned::item).toList();
+    }
+
+    /**
+     * Gets the object name of a work item.
+     *
+     * @param id The item id
+     * @return The object name in the bucket
+     */
+    public static String objectName(String id) {
+        return PREFIX + id + ".json";
+    }
+
+    /**
+     * Lists the items, reading only those whose ETag changed since the last poll.
+     *
+     * @return The items with the ETags they were read at
+     */
+    private List<Versioned> poll() throws IOException {
+        List<Versioned> items = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        try {
+            for (Result<Item> result : minioClient.listObjects(
+                    ListObjectsArgs.builder()
+                            .bucket(bucketName)
+                            .prefix(PREFIX)
+                            .build())) {
+                Item object = result.get();
+                String objectName = object.objectName();
+                if (!objectName.endsWith(".json")) {
+                    continue;
+                }
+                String id = objectName.substring(PREFIX.length(), objectName.length() - ".json".length());
+                seen.add(id);
+                Versioned known = polled.get(id);
+                if (known != null && known.etag() != null && unquoted(known.etag()).equals(unquoted(object.etag()))) {
+                    items.add(known);
+                    continue;
+                }
+                try {
+                    Optional<Versioned> read = read(id);
+                    if (read.isPresent()) {
+                        polled.put(id, read.get());
+                        items.add(read.get());
+                    }
+                } catch (IOException e) {
+                    logger.warning("Skipping unreadable work item " + id + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to list work items", e);
+        }
+        polled.keySet().retainAll(seen);
+        return items;
+    }
+
+    private Optional<Versioned> read(String id) throws IOException {
+        try (GetObjectResponse response = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName(id))
+                        .build())) {
+            WorkItem item = MAPPER.readValue(response, WorkItem.class);
+            return Optional.of(new Versioned(item, response.headers().get("ETag")));
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw new IOException("Failed to read work item " + id, e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to read work item " + id, e);
+        }
+    }
+
+    /**
+     * Strips the quotes from an ETag; listings and reads do not agree on them.
+     */
+    private static String unquoted(String etag) {
+        return etag == null ? null : etag.replace("\"", "");
+    }
+
+    /**
+     * Writes an item if the given precondition holds.
+     *
+     * @return true if the item was written, false if the precondition failed
+     */
+    private boolean write(WorkItem item, Map<String, String> precondition) throws IOException {
+        byte[] json = MAPPER.writeValueAsBytes(item);
+        try {
+            minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName(item.id()))
+                            .stream(new ByteArrayInputStream(json), json.length, -1)
+                            .contentType("application/json")
+                            .headers(precondition)
+                            .build());
+            return true;
+        } catch (ErrorResponseException e) {
+            String code = e.errorResponse().code();
+            if ("PreconditionFailed".equals(code) || "ConditionalRequestConflict".equals(code)) {
+                return false;
+            }
+            throw new IOException("Failed to write work item " + item.id(), e);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to write work item " + item.id(), e);
+        }
+    }
+
+    /**
+     * A work item together with the ETag of the object it was read from.
+     *
+     * @param item The work item
+     * @param etag The ETag of its object
+     */
+    private record Versioned(WorkItem item, String etag) {
+    }
+}
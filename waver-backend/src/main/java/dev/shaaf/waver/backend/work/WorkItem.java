@@ -0,0 +1,178 @@
+package dev.shaaf.waver.backend.work;
+
+import dev.shaaf.waver.backend.WaverProcessEvent;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Record representing a generation request in a shared {@link WorkStore}.
+ * <p>
+ * An item is either waiting or leased by one backend replica until its
+ * lease expires. The item id is derived from the normalized source URL, so
+ * a repository can only be queued once across all replicas. Items are
+ * immutable; claiming, renewing and releasing produce new instances.
+ * <p>
+ * The tenant and priority of the request are kept with the item, so the
+ * replica claiming it schedules and runs it like the replica that received
+ * it would have (see {@link #claimOrder(Collection, Instant)}).
+ *
+ * @param id The item id, derived from the normalized source URL
+ * @param jobId The id of the job tracking the request
+ * @param sourceUrl The source URL to generate a tutorial for
+ * @param tenant The tenant the request comes from, or null if it is unknown
+ * @param priority The priority lane of the request; {@link WaverProcessEvent.Priority#NORMAL} if not given
+ * @param createdAt When the request was queued
+ * @param owner The replica holding the lease, or null if the item is waiting
+ * @param leaseExpiresAt When the lease expires, or null if the item is waiting
+ * @param attempts How often the item was claimed
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RegisterForReflection
+public record WorkItem(String id, String jobId, String sourceUrl, String tenant, WaverProcessEvent.Priority priority,
+                       Instant createdAt, String owner, Instant leaseExpiresAt, int attempts) {
+
+    /**
+     * Constructs a new WorkItem, defaulting a missing priority to
+     * {@link WaverProcessEvent.Priority#NORMAL}.
+     */
+    public WorkItem {
+        if (priority == null) {
+            priority = WaverProcessEvent.Priority.NORMAL;
+        }
+    }
+
+    /**
+     * Creates a waiting item of an unknown tenant with normal priority.
+     *
+     * @param key The normalized source URL
+     * @param jobId The id of the job tracking the request
+     * @param sourceUrl The source URL as requested
+     * @param now The current time
+     * @return The waiting item
+     */
+    public static WorkItem queued(String key, String jobId, String sourceUrl, Instant now) {
+        return queued(key, jobId, new WaverProcessEvent(sourceUrl), now);
+    }
+
+    /**
+     * Creates a waiting item for a request.
+     *
+     * @param key The normalized source URL
+     * @param jobId The id of the job tracking the request
+     * @param event The request, with the source URL as requested
+     * @param now The current time
+     * @return The waiting item
+     */
+    public static WorkItem queued(String key, String jobId, WaverProcessEvent event, Instant now) {
+        return new WorkItem(idOf(key), jobId, event.sourceUrl(), event.tenant(), event.priority(), now, null, null, 0);
+    }
+
+    /**
+     * Gets the order in which claimable items are claimed: higher priority
+     * lanes first; within a lane, the tenant with the fewest items leased
+     * at the moment; then the oldest item. Lanes are strict, so requests of
+     * a lower lane wait while requests of a higher lane are waiting.
+     *
+     * @param items All items of the store, leased ones included
+     * @param now The current time
+     * @return The claim order
+     */
+    public static Comparator<WorkItem> claimOrder(Collection<WorkItem> items, Instant now) {
+        Map<String, Integer> leased = new HashMap<>();
+        for (WorkItem item : items) {
+            if (!item.isClaimable(now)) {
+                leased.merge(item.tenantKey(), 1, Integer::sum);
+            }
+        }
+        return Comparator.comparing(WorkItem::priority)
+                .thenComparingInt(item -> leased.getOrDefault(item.tenantKey(), 0))
+                .thenComparing(WorkItem::createdAt);
+    }
+
+    /**
+     * Gets the request the item was queued for.
+     *
+     * @return The processing event with the source URL, tenant and priority of the request
+     */
+    public WaverProcessEvent event() {
+        return new WaverProcessEvent(sourceUrl, tenant, priority);
+    }
+
+    /**
+     * Gets the item id of a repository.
+     *
+     * @param key The normalized source URL
+     * @return The hex encoded SHA-256 hash of the key
+     */
+    public static String idOf(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Checks whether the item can be claimed: it is waiting, or the replica
+     * holding it stopped renewing its lease.
+     *
+     * @param now The current time
+     * @return true if the item can be claimed
+     */
+    public boolean isClaimable(Instant now) {
+        return owner == null || !leaseExpiresAt.isAfter(now);
+    }
+
+    /**
+     * Checks whether a replica holds a lease on the item that has not expired.
+     *
+     * @param replica The replica
+     * @param now The current time
+     * @return true if the replica holds the lease
+     */
+    public boolean isLeasedBy(String replica, Instant now) {
+        return replica.equals(owner) && leaseExpiresAt.isAfter(now);
+    }
+
+    /**
+     * Leases the item to a replica.
+     *
+     * @param replica The replica claiming the item
+     * @param now The current time
+     * @param lease How long the lease lasts unless renewed
+     * @return The leased item, with the attempt counted
+     */
+    public WorkItem claimedBy(String replica, Instant now, Duration lease) {
+        return new WorkItem(id, jobId, sourceUrl, tenant, priority, createdAt, replica, now.plus(lease), attempts + 1);
+    }
+
+    /**
+     * Extends the lease of the item.
+     *
+     * @param now The current time
+     * @param lease How long the lease lasts from now
+     * @return The item with the extended lease
+     */
+    public WorkItem renewed(Instant now, Duration lease) {
+        return new WorkItem(id, jobId, sourceUrl, tenant, priority, createdAt, owner, now.plus(lease), attempts);
+    }
+
+    private String tenantKey() {
+        return Objects.requireNonNullElse(tenant, "");
+    }
+}
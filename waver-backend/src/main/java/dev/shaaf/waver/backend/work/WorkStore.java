@@ -0,0 +1,82 @@
+package dev.shaaf.waver.backend.work;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queue of generation requests shared by all backend replicas.
+ * <p>
+ * Replicas claim items under a lease, renew the lease while the pipeline
+ * runs and remove the item once it finished. An item whose lease expired,
+ * because its replica crashed or was restarted, can be claimed again by any
+ * replica. Every operation that changes an item must be atomic, so at most
+ * one replica holds a lease on an item at any time.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public interface WorkStore {
+
+    /**
+     * Adds a waiting item unless an item with the same id exists.
+     *
+     * @param item The item to add
+     * @return The existing item with the same id, or empty if the item was added
+     * @throws IOException if the store cannot be accessed
+     */
+    Optional<WorkItem> offer(WorkItem item) throws IOException;
+
+    /**
+     * Claims the first claimable item in {@link WorkItem#claimOrder claim order}.
+     *
+     * @param replica The replica claiming the item
+     * @param now The current time
+     * @param lease How long the lease lasts unless renewed
+     * @return The claimed item, or empty if no item can be claimed
+     * @throws IOException if the store cannot be accessed
+     */
+    Optional<WorkItem> claim(String replica, Instant now, Duration lease) throws IOException;
+
+    /**
+     * Extends the lease of a replica on an item.
+     *
+     * @param id The item id
+     * @param replica The replica holding the lease
+     * @param now The current time
+     * @param lease How long the lease lasts from now
+     * @return true if the lease was extended, false if the replica no longer holds it
+     * @throws IOException if the store cannot be accessed
+     */
+    boolean renew(String id, String replica, Instant now, Duration lease) throws IOException;
+
+    /**
+     * Removes an item the replica holds the lease on.
+     *
+     * @param id The item id
+     * @param replica The replica holding the lease
+     * @return true if the item was removed, false if the replica no longer holds the lease
+     * @throws IOException if the store cannot be accessed
+     */
+    boolean complete(String id, String replica) throws IOException;
+
+    /**
+     * Looks up an item by id.
+     *
+     * @param id The item id
+     * @return The item, or empty if there is none
+     * @throws IOException if the store cannot be accessed
+     */
+    Optional<WorkItem> find(String id) throws IOException;
+
+    /**
+     * Lists all items, in no particular order.
+     *
+     * @return The items
+     * @throws IOException if the store cannot be accessed
+     */
+    List<WorkItem> list() throws IOException;
+}
@@ -1,11 +1,16 @@
 package dev.shaaf.waver.backend;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -231,4 +236,75 @@ class FileUtilTest {
         // Then
         assertEquals("my-awesome_project@2023", result);
     }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'https://github.com/owner/repo', 'github.com/owner/repo'",
+            "'https://github.com/owner/repo.git', 'github.com/owner/repo'",
+            "'http://GitHub.com/Owner/Repo/', 'github.com/owner/repo'",
+            "'  https://github.com/owner/repo  ', 'github.com/owner/repo'",
+            "'https://token@github.com/owner/repo.git', 'github.com/owner/repo'",
+            "'https://github.com/owner/repo?tab=readme#intro', 'github.com/owner/repo'",
+            "'git@github.com:owner/repo.git', 'github.com/owner/repo'",
+            "'ssh://git@github.com/owner/repo.git', 'github.com/owner/repo'"
+    })
+    void testNormalizeSourceUrlWithRemoteRepositories(String sourceUrl, String expectedKey) {
+        // When
+        String result = FileUtil.normalizeSourceUrl(sourceUrl);
+
+        // Then
+        assertEquals(expectedKey, result);
+    }
+
+    @Test
+    void testNormalizeSourceUrlWithLocalPathKeepsCase() {
+        // Given
+        String sourceUrl = "/Projects/./My-Repo";
+
+        // When
+        String result = FileUtil.normalizeSourceUrl(sourceUrl);
+
+        // Then
+        assertEquals(java.nio.file.Paths.get("/Projects/My-Repo").toAbsolutePath().toString(), result);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"   "})
+    void testNormalizeSourceUrlWithBlankInput(String sourceUrl) {
+        assertNull(FileUtil.normalizeSourceUrl(sourceUrl));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://github.com/owner/repo",
+            "git@github.com:owner/repo.git",
+            "ssh://git@github.com/owner/repo.git",
+            "file:///srv/git/repo.git"
+    })
+    void testIsRemoteSourceWithRemoteRepositories(String sourceUrl) {
+        assertTrue(FileUtil.isRemoteSource(sourceUrl));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"/projects/repo", "relative/repo", "C:\\projects\\repo", "   "})
+    void testIsRemoteSourceWithLocalPaths(String sourceUrl) {
+        assertFalse(FileUtil.isRemoteSource(sourceUrl));
+    }
+
+    @Test
+    void testDeleteRecursivelyRemovesDirectoryTree(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path dir = Files.createDirectories(tempDir.resolve("a/b"));
+        Files.writeString(dir.resolve("file.txt"), "content");
+
+        // When
+        FileUtil.deleteRecursively(tempDir.resolve("a"));
+
+        // Then
+        assertFalse(Files.exists(tempDir.resolve("a")));
+        assertDoesNotThrow(() -> FileUtil.deleteRecursively(tempDir.resolve("a")));
+        assertDoesNotThrow(() -> FileUtil.deleteRecursively(null));
+    }
 }
@@ -0,0 +1,207 @@
+package dev.shaaf.waver.backend;
+
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.job.FileJobStore;
+import dev.shaaf.waver.backend.job.GenerationJob;
+import dev.shaaf.waver.backend.job.JobService;
+import dev.shaaf.waver.backend.job.JobState;
+import dev.shaaf.waver.llm.config.FormatConverter;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JobFunqy class.
+ * <p>
+ * Tests the job status endpoints against a job service backed by a temporary
+ * directory, without using mocks.
+ */
+class JobFunqyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JobFunqy jobFunqy;
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jobService = new JobService(new FileJobStore(tempDir), Clock.systemUTC());
+        jobFunqy = new JobFunqy();
+        jobFunqy.jobService = jobService;
+        jobFunqy.waverConfig = new TestWaverConfig(2);
+    }
+
+    @Test
+    void testJobsListIsLimited() {
+        // Given
+        jobService.create("job-1", "repo-1");
+        jobService.create("job-2", "repo-2");
+        jobService.create("job-3", "repo-3");
+
+        // When
+        List<GenerationJob> jobs = jobFunqy.jobs();
+
+        // Then
+        assertEquals(2, jobs.size());
+    }
+
+    @Test
+    void testJobById() {
+        // Given
+        jobService.create("job-1", "https://github.com/user/repo");
+        jobService.transition("job-1", JobState.WRITING);
+
+        // When
+        GenerationJob job = jobFunqy.job(new JobQuery("job-1", null));
+
+        // Then
+        assertEquals(JobState.WRITING, job.state());
+    }
+
+    @Test
+    void testJobBySourceUrl() {
+        // Given
+        jobService.create("job-1", "https://github.com/user/repo");
+
+        // When
+        GenerationJob job = jobFunqy.job(new JobQuery(null, "git@github.com:user/repo.git"));
+
+        // Then
+        assertEquals("job-1", job.id());
+    }
+
+    @Test
+    void testUnknownOrEmptyQueryReturnsNull() {
+        assertNull(jobFunqy.job(new JobQuery("missing", null)));
+        assertNull(jobFunqy.job(new JobQuery(null, null)));
+        assertNull(jobFunqy.job(null));
+    }
+
+    private record TestJobs(Store store, String path, int listLimit) implements WaverConfig.Jobs {
+        @Override
+        public Duration retention() {
+            return Duration.ZERO;
+        }
+    }
+
+    /**
+     * Test implementation of WaverConfig that only provides job settings.
+     */
+    private static class TestWaverConfig implements WaverConfig {
+        private final Jobs jobs;
+
+        TestWaverConfig(int listLimit) {
+            this.jobs = new TestJobs(Jobs.Store.LOCAL, "jobs", listLimit);
+        }
+
+        @Override
+        public LLMProvider llmProvider() {
+            return LLMProvider.OpenAI;
+        }
+
+        @Override
+        public String outputPath() {
+            return "./test-output";
+        }
+
+        @Override
+        public boolean verbose() {
+            return false;
+        }
+
+        @Override
+        public FormatConverter.OutputFormat outputFormat() {
+            return FormatConverter.OutputFormat.MARKDOWN;
+        }
+
+        @Override
+        public OpenAI openai() {
+            return null;
+        }
+
+        @Override
+        public Gemini gemini() {
+            return null;
+        }
+
+        @Override
+        public Queue queue() {
+            return null;
+        }
+
+        @Override
+        public Jobs jobs() {
+            return jobs;
+        }
+
+        @Override
+        public Work work() {
+            return null;
+        }
+
+        @Override
+        public Checkpoints checkpoints() {
+            return null;
+        }
+
+        @Override
+        public Models models() {
+            return null;
+        }
+
+        @Override
+        public Cache cache() {
+            return null;
+        }
+
+        @Override
+        public Incremental incremental() {
+            return null;
+        }
+
+        @Override
+        public Checkout checkout() {
+            return null;
+        }
+
+        @Override
+        public Ingest ingest() {
+            return null;
+        }
+
+        @Override
+        public Shards shards() {
+            return null;
+        }
+
+        @Override
+        public Threads threads() {
+            return null;
+        }
+
+        @Override
+        public Retry retry() {
+            return null;
+        }
+
+        @Override
+        public Routing routing() {
+            return null;
+        }
+
+        @Override
+        public Streaming streaming() {
+            return null;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package dev.shaaf.waver.backend;
 
-import org.eclipse.microprofile.reactive.messaging.Emitter;
+import dev.shaaf.waver.backend.process.GenerationQueue;
+import io.quarkus.funqy.knative.events.CloudEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,13 +22,13 @@ import static org.junit.jupiter.api.Assertions.*;
 class WaverFunqyTest {
 
     private WaverFunqy waverFunqy;
-    private TestEmitter<WaverProcessEvent> testEmitter;
+    private TestGenerationQueue testQueue;
 
     @BeforeEach
     void setUp() {
         waverFunqy = new WaverFunqy();
-        testEmitter = new TestEmitter<>();
-        waverFunqy.requestEmitter = testEmitter;
+        testQueue = new TestGenerationQueue();
+        waverFunqy.generationQueue = testQueue;
     }
 
     @Test
@@ -37,9 +40,8 @@ class WaverFunqyTest {
         waverFunqy.generate(request);
         
         // Then
-        assertEquals(1, testEmitter.getSentMessages().size());
-        assertEquals(request, testEmitter.getSentMessages().get(0));
-        assertFalse(testEmitter.hasErrors());
+        assertEquals(1, testQueue.getSubmitted().size());
+        assertEquals(request, testQueue.getSubmitted().get(0));
     }
 
     @Test
@@ -48,8 +50,7 @@ class WaverFunqyTest {
         waverFunqy.generate(null);
         
         // Then
-        assertEquals(0, testEmitter.getSentMessages().size());
-        assertFalse(testEmitter.hasErrors());
+        assertEquals(0, testQueue.getSubmitted().size());
     }
 
     @Test
@@ -61,8 +62,7 @@ class WaverFunqyTest {
         waverFunqy.generate(request);
         
         // Then
-        assertEquals(0, testEmitter.getSentMessages().size());
-        assertFalse(testEmitter.hasErrors());
+        assertEquals(0, testQueue.getSubmitted().size());
     }
 
     @Test
@@ -76,9 +76,9 @@ class WaverFunqyTest {
         waverFunqy.generate(request2);
         
         // Then
-        assertEquals(2, testEmitter.getSentMessages().size());
-        assertTrue(testEmitter.getSentMessages().contains(request1));
-        assertTrue(testEmitter.getSentMessages().contains(request2));
+        assertEquals(2, testQueue.getSubmitted().size());
+        assertTrue(testQueue.getSubmitted().contains(request1));
+        assertTrue(testQueue.getSubmitted().contains(request2));
     }
 
     @Test
@@ -90,9 +90,9 @@ class WaverFunqyTest {
         waverFunqy.generate(request);
         
         // Then
-        // The actual implementation sends even empty strings through
-        assertEquals(1, testEmitter.getSentMessages().size());
-        assertEquals(request, testEmitter.getSentMessages().get(0));
+        // The actual implementation submits even empty strings through
+        assertEquals(1, testQueue.getSubmitted().size());
+        assertEquals(request, testQueue.getSubmitted().get(0));
     }
 
     @Test
@@ -104,9 +104,9 @@ class WaverFunqyTest {
         waverFunqy.generate(request);
         
         // Then
-        // The actual implementation sends even whitespace-only strings through
-        assertEquals(1, testEmitter.getSentMessages().size());
-        assertEquals(request, testEmitter.getSentMessages().get(0));
+        // The actual implementation submits even whitespace-only strings through
+        assertEquals(1, testQueue.getSubmitted().size());
+        assertEquals(request, testQueue.getSubmitted().get(0));
     }
 
     @Test
@@ -118,8 +118,8 @@ class WaverFunqyTest {
         waverFunqy.generate(request);
         
         // Then
-        assertEquals(1, testEmitter.getSentMessages().size());
-        assertEquals(request, testEmitter.getSentMessages().get(0));
+        assertEquals(1, testQueue.getSubmitted().size());
+        assertEquals(request, testQueue.getSubmitted().get(0));
     }
 
     @Test
@@ -131,8 +131,8 @@ class WaverFunqyTest {
         waverFunqy.generate(request);
         
         // Then
-        assertEquals(1, testEmitter.getSentMessages().size());
-        assertEquals(request, testEmitter.getSentMessages().get(0));
+        assertEquals(1, testQueue.getSubmitted().size());
+        assertEquals(request, testQueue.getSubmitted().get(0));
     }
 
     @Test
@@ -147,56 +147,168 @@ class WaverFunqyTest {
         assertDoesNotThrow(() -> waverFunqy.generate(null));
     }
 
-    /**
-     * Test implementation of Emitter for unit testing.
-     */
-    private static class TestEmitter<T> implements Emitter<T> {
-        private final List<T> sentMessages = new ArrayList<>();
-        private boolean hasErrors = false;
+    @Test
+    void testGenerateReturnsQueueSubmission() {
+        // Given
+        WaverProcessEvent request = new WaverProcessEvent("https://github.com/user/repo.git");
 
-        @Override
-        public CompletableFuture<Void> send(T msg) {
-            sentMessages.add(msg);
-            return CompletableFuture.completedFuture(null);
-        }
+        // When
+        GenerationSubmission submission = waverFunqy.generate(request);
 
-        public void send(T msg, @SuppressWarnings("rawtypes") org.eclipse.microprofile.reactive.messaging.Metadata metadata) {
-            sentMessages.add(msg);
-        }
+        // Then
+        assertTrue(submission.isAccepted());
+        assertEquals(request.sourceUrl(), submission.sourceUrl());
+    }
 
-        @Override
-        public <M extends org.eclipse.microprofile.reactive.messaging.Message<? extends T>> void send(M msg) {
-            if (msg.getPayload() != null) {
-                sentMessages.add(msg.getPayload());
-            }
-        }
+    @Test
+    void testGenerateReportsQueueFull() {
+        // Given
+        testQueue.status = GenerationSubmission.Status.QUEUE_FULL;
 
-        @Override
-        public void error(Exception e) {
-            hasErrors = true;
-        }
+        // When
+        GenerationSubmission submission = waverFunqy.generate(new WaverProcessEvent("https://github.com/user/repo.git"));
 
-        @Override
-        public void complete() {
-            // Implementation not needed for this test
-        }
+        // Then
+        assertEquals(GenerationSubmission.Status.QUEUE_FULL, submission.status());
+        assertFalse(submission.isAccepted());
+    }
+
+    @Test
+    void testGenerateWithNullRequestIsReportedInvalid() {
+        // When
+        GenerationSubmission submission = waverFunqy.generate(null);
+
+        // Then
+        assertEquals(GenerationSubmission.Status.INVALID, submission.status());
+        assertNull(submission.sourceUrl());
+    }
+
+    @Test
+    void testCloudEventAttributesSetTenantAndPriority() {
+        // Given
+        WaverProcessEvent request = new WaverProcessEvent("https://github.com/user/repo.git", "payload-tenant",
+                WaverProcessEvent.Priority.LOW);
+        TestCloudEvent cloudEvent = cloudEvent("/sources/github", Map.of("tenant", "acme", "priority", "high"));
+
+        // When
+        waverFunqy.generate(request, cloudEvent);
+
+        // Then
+        assertEquals(new WaverProcessEvent("https://github.com/user/repo.git", "acme", WaverProcessEvent.Priority.HIGH),
+                testQueue.getSubmitted().get(0));
+    }
+
+    @Test
+    void testCloudEventSourceIsTenantIfNoneIsGiven() {
+        // Given
+        WaverProcessEvent request = new WaverProcessEvent("https://github.com/user/repo.git");
+
+        // When
+        waverFunqy.generate(request, cloudEvent("/sources/github", Map.of()));
+
+        // Then
+        WaverProcessEvent submitted = testQueue.getSubmitted().get(0);
+        assertEquals("/sources/github", submitted.tenant());
+        assertEquals(WaverProcessEvent.Priority.NORMAL, submitted.priority());
+    }
+
+    @Test
+    void testPayloadTenantIsKeptWithoutTenantAttribute() {
+        // Given
+        WaverProcessEvent request = new WaverProcessEvent("https://github.com/user/repo.git", "acme",
+                WaverProcessEvent.Priority.HIGH);
+
+        // When
+        waverFunqy.generate(request, cloudEvent("/sources/github", Map.of("priority", "urgent")));
+
+        // Then
+        assertEquals(request, testQueue.getSubmitted().get(0));
+    }
+
+    @Test
+    void testGenerateBatchSubmitsValidRequestsTogether() {
+        // Given
+        List<WaverProcessEvent> requests = Arrays.asList(
+                new WaverProcessEvent("https://github.com/user/first.git"),
+                null,
+                new WaverProcessEvent(null),
+                new WaverProcessEvent("https://github.com/user/second.git"));
+
+        // When
+        List<GenerationSubmission> outcomes = waverFunqy.generateBatch(requests);
+
+        // Then
+        assertEquals(1, testQueue.batches);
+        assertEquals(List.of(requests.get(0), requests.get(3)), testQueue.getSubmitted());
+        assertEquals(List.of(GenerationSubmission.Status.ACCEPTED, GenerationSubmission.Status.INVALID,
+                        GenerationSubmission.Status.INVALID, GenerationSubmission.Status.ACCEPTED),
+                outcomes.stream().map(GenerationSubmission::status).toList());
+        assertEquals("https://github.com/user/second.git", outcomes.get(3).sourceUrl());
+    }
+
+    @Test
+    void testGenerateBatchAppliesCloudEventAttributesToEveryRequest() {
+        // Given
+        List<WaverProcessEvent> requests = List.of(
+                new WaverProcessEvent("https://github.com/user/first.git"),
+                new WaverProcessEvent("https://github.com/user/second.git", "acme", WaverProcessEvent.Priority.HIGH));
+
+        // When
+        waverFunqy.generateBatch(requests, cloudEvent("/sources/nightly", Map.of("priority", "low")));
+
+        // Then
+        assertEquals(List.of(
+                        new WaverProcessEvent("https://github.com/user/first.git", "/sources/nightly",
+                                WaverProcessEvent.Priority.LOW),
+                        new WaverProcessEvent("https://github.com/user/second.git", "acme",
+                                WaverProcessEvent.Priority.LOW)),
+                testQueue.getSubmitted());
+    }
+
+    @Test
+    void testGenerateBatchWithoutRequests() {
+        // When & Then
+        assertTrue(waverFunqy.generateBatch(null).isEmpty());
+        assertTrue(waverFunqy.generateBatch(List.of()).isEmpty());
+        assertEquals(0, testQueue.batches);
+    }
+
+    private static TestCloudEvent cloudEvent(String source, Map<String, String> extensions) {
+        return new TestCloudEvent("event-1", "1.0", source, "dev.shaaf.waver.generate", null, OffsetDateTime.now(),
+                extensions, null, "application/json", null);
+    }
+
+    /**
+     * Test implementation of GenerationQueue that records submissions instead of running pipelines.
+     */
+    private static class TestGenerationQueue extends GenerationQueue {
+        private final List<WaverProcessEvent> submitted = new ArrayList<>();
+        private GenerationSubmission.Status status = GenerationSubmission.Status.ACCEPTED;
+        private int batches;
 
         @Override
-        public boolean isCancelled() {
-            return false;
+        public synchronized GenerationSubmission submit(WaverProcessEvent event) {
+            submitted.add(event);
+            return new GenerationSubmission(status, "job-1", event.sourceUrl(), 0, status.name());
         }
 
         @Override
-        public boolean hasRequests() {
-            return true;
+        public synchronized List<GenerationSubmission> submitAll(List<WaverProcessEvent> events) {
+            batches++;
+            return events.stream().map(this::submit).toList();
         }
 
-        public List<T> getSentMessages() {
-            return new ArrayList<>(sentMessages);
+        public List<WaverProcessEvent> getSubmitted() {
+            return new ArrayList<>(submitted);
         }
+    }
 
-        public boolean hasErrors() {
-            return hasErrors;
-        }
+    /**
+     * Test implementation of CloudEvent holding fixed attributes.
+     */
+    private record TestCloudEvent(String id, String specVersion, String source, String type, String subject,
+                                  OffsetDateTime time, Map<String, String> extensions, String dataSchema,
+                                  String dataContentType, WaverProcessEvent data)
+            implements CloudEvent<WaverProcessEvent> {
     }
 }
@@ -0,0 +1,182 @@
+package dev.shaaf.waver.backend.cache;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CachingChatModel.
+ */
+class CachingChatModelTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private TestChatModel delegate;
+    private LruResponseStore store;
+    private CachingChatModel chatModel;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        delegate = new TestChatModel();
+        store = new LruResponseStore(100, 1024 * 1024, Duration.ofDays(1), clock);
+        chatModel = new CachingChatModel(delegate, store, clock);
+    }
+
+    @Test
+    void testRepeatedPromptIsServedFromCache() {
+        // When
+        String first = chatModel.chat("Identify the abstractions of this code");
+        String second = chatModel.chat("Identify the abstractions of this code");
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(1, delegate.requests.size());
+    }
+
+    @Test
+    void testCachedResponseCarriesNoTokenUsage() {
+        // Given
+        chatModel.chat("Order the chapters");
+
+        // When
+        ChatResponse cached = chatModel.chat(ChatRequest.builder()
+                .messages(UserMessage.from("Order the chapters"))
+                .build());
+
+        // Then
+        assertNull(cached.tokenUsage());
+        assertEquals(FinishReason.STOP, cached.finishReason());
+        assertEquals("test-model", cached.modelName());
+    }
+
+    @Test
+    void testWhitespaceDifferencesHitTheSameEntry() {
+        // When
+        chatModel.chat("Write   chapter 1\n\nabout the parser ");
+        chatModel.chat(" Write chapter 1 about\tthe parser");
+
+        // Then
+        assertEquals(1, delegate.requests.size());
+    }
+
+    @Test
+    void testDifferentPromptsOrParametersMiss() {
+        // When
+        chatModel.chat("Write chapter 1");
+        chatModel.chat("Write chapter 2");
+        chatModel.chat(ChatRequest.builder()
+                .messages(UserMessage.from("Write chapter 1"))
+                .parameters(ChatRequestParameters.builder().temperature(0.9).build())
+                .build());
+        chatModel.chat(ChatRequest.builder()
+                .messages(SystemMessage.from("You are a technical writer"), UserMessage.from("Write chapter 1"))
+                .build());
+
+        // Then
+        assertEquals(4, delegate.requests.size());
+    }
+
+    @Test
+    void testKeyDependsOnProviderAndModel() {
+        // Given
+        ChatRequest request = ChatRequest.builder().messages(UserMessage.from("Describe the project")).build();
+        ChatRequestParameters gpt = ChatRequestParameters.builder().modelName("gpt-4o").build();
+        ChatRequestParameters mini = ChatRequestParameters.builder().modelName("gpt-4o-mini").build();
+
+        // When & Then
+        assertEquals(CachingChatModel.keyOf(ModelProvider.OPEN_AI, gpt, request),
+                CachingChatModel.keyOf(ModelProvider.OPEN_AI, gpt, request));
+        assertNotEquals(CachingChatModel.keyOf(ModelProvider.OPEN_AI, gpt, request),
+                CachingChatModel.keyOf(ModelProvider.OPEN_AI, mini, request));
+        assertNotEquals(CachingChatModel.keyOf(ModelProvider.OPEN_AI, gpt, request),
+                CachingChatModel.keyOf(ModelProvider.GOOGLE_AI_GEMINI, gpt, request));
+        assertEquals(64, CachingChatModel.keyOf(ModelProvider.OPEN_AI, gpt, request).length());
+    }
+
+    @Test
+    void testTruncatedOrEmptyAnswersAreNotCached() {
+        // Given
+        delegate.finishReason = FinishReason.LENGTH;
+        chatModel.chat("Write chapter 1");
+        delegate.finishReason = FinishReason.STOP;
+        delegate.answer = "  ";
+        chatModel.chat("Write chapter 2");
+
+        // When
+        chatModel.chat("Write chapter 1");
+        chatModel.chat("Write chapter 2");
+
+        // Then
+        assertEquals(4, delegate.requests.size());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testRequestsWithToolsBypassTheCache() {
+        // Given
+        ChatRequest request = ChatRequest.builder()
+                .messages(UserMessage.from("Look up the weather"))
+                .toolSpecifications(ToolSpecification.builder().name("weather").build())
+                .build();
+
+        // When
+        chatModel.chat(request);
+        chatModel.chat(request);
+
+        // Then
+        assertEquals(2, delegate.requests.size());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("a b c", CachingChatModel.normalize("  a \n b\t\tc "));
+        assertEquals("", CachingChatModel.normalize(null));
+    }
+
+    /**
+     * Test implementation of ChatModel answering every request with a numbered answer.
+     */
+    private static class TestChatModel implements ChatModel {
+        private final List<ChatRequest> requests = new ArrayList<>();
+        private FinishReason finishReason = FinishReason.STOP;
+        private String answer;
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            requests.add(chatRequest);
+            String text = answer != null ? answer : "answer " + requests.size();
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from(text))
+                    .modelName("test-model")
+                    .tokenUsage(new TokenUsage(100, 20))
+                    .finishReason(finishReason)
+                    .build();
+        }
+
+        @Override
+        public ModelProvider provider() {
+            return ModelProvider.OPEN_AI;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dev.shaaf.waver.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LruResponseStore.
+ */
+class LruResponseStoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private Clock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    }
+
+    @Test
+    void testStoredResponseIsReturned() {
+        // Given
+        LruResponseStore store = new LruResponseStore(10, 1024, Duration.ofDays(1), clock);
+
+        // When
+        store.put("key", response("answer"));
+
+        // Then
+        assertEquals("answer", store.get("key").orElseThrow().text());
+        assertTrue(store.get("other").isEmpty());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvictedByCount() {
+        // Given
+        LruResponseStore store = new LruResponseStore(2, 1024, Duration.ofDays(1), clock);
+        store.put("a", response("A"));
+        store.put("b", response("B"));
+        store.get("a");
+
+        // When
+        store.put("c", response("C"));
+
+        // Then
+        assertTrue(store.get("a").isPresent());
+        assertTrue(store.get("b").isEmpty());
+        assertTrue(store.get("c").isPresent());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testEntriesAreEvictedBySize() {
+        // Given: every response of 10 characters takes 20 bytes
+        LruResponseStore store = new LruResponseStore(100, 50, Duration.ofDays(1), clock);
+        store.put("a", response("0123456789"));
+        store.put("b", response("0123456789"));
+
+        // When
+        store.put("c", response("0123456789"));
+
+        // Then
+        assertTrue(store.get("a").isEmpty());
+        assertEquals(2, store.size());
+        assertEquals(40, store.sizeInBytes());
+    }
+
+    @Test
+    void testResponseLargerThanStoreIsNotCached() {
+        // Given
+        LruResponseStore store = new LruResponseStore(10, 10, Duration.ofDays(1), clock);
+        store.put("small", response("ok"));
+
+        // When
+        store.put("large", response("this answer does not fit"));
+
+        // Then
+        assertTrue(store.get("large").isEmpty());
+        assertTrue(store.get("small").isPresent());
+    }
+
+    @Test
+    void testReplacingEntryUpdatesSize() {
+        // Given
+        LruResponseStore store = new LruResponseStore(10, 1024, Duration.ofDays(1), clock);
+        store.put("key", response("short"));
+
+        // When
+        store.put("key", response("a longer answer"));
+
+        // Then
+        assertEquals(1, store.size());
+        assertEquals(30, store.sizeInBytes());
+    }
+
+    @Test
+    void testExpiredEntryIsDropped() {
+        // Given
+        LruResponseStore store = new LruResponseStore(10, 1024, Duration.ofHours(1), clock);
+        store.put("key", new CachedResponse("old", null, NOW.minus(Duration.ofHours(2))));
+
+        // When & Then
+        assertTrue(store.get("key").isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testInvalidBoundsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LruResponseStore(0, 1024, Duration.ofDays(1), clock));
+        assertThrows(IllegalArgumentException.class, () -> new LruResponseStore(10, 0, Duration.ofDays(1), clock));
+    }
+
+    private static CachedResponse response(String text) {
+        return new CachedResponse(text, null, NOW);
+    }
+}
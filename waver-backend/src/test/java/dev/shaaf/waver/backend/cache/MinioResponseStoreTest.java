@@ -0,0 +1,64 @@
+package dev.shaaf.waver.backend.cache;
+
+import dev.shaaf.waver.backend.minio.InMemoryMinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinioResponseStore.
+ */
+class MinioResponseStoreTest {
+
+    private static final String BUCKET = "tutorials";
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private InMemoryMinioClient minioClient;
+    private MinioResponseStore store;
+
+    @BeforeEach
+    void setUp() {
+        minioClient = new InMemoryMinioClient();
+        store = new MinioResponseStore(minioClient, BUCKET, Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testResponseIsStoredUnderHiddenPrefix() {
+        // When
+        store.put("abc123", new CachedResponse("answer", "gpt-4o-mini", NOW));
+
+        // Then
+        assertTrue(minioClient.getObjects().containsKey(BUCKET + "/.waver/llm-cache/abc123.json"));
+        assertEquals(new CachedResponse("answer", "gpt-4o-mini", NOW), store.get("abc123").orElseThrow());
+    }
+
+    @Test
+    void testMissingResponseIsEmpty() {
+        assertTrue(store.get("missing").isEmpty());
+    }
+
+    @Test
+    void testExpiredResponseIsIgnored() {
+        // Given
+        store.put("old", new CachedResponse("answer", null, NOW.minus(Duration.ofDays(8))));
+
+        // When & Then
+        assertTrue(store.get("old").isEmpty());
+    }
+
+    @Test
+    void testUnreadableObjectIsAMiss() {
+        // Given
+        minioClient.putDirect(BUCKET, MinioResponseStore.objectName("broken"), "{".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertTrue(store.get("broken").isEmpty());
+    }
+}
@@ -0,0 +1,258 @@
+package dev.shaaf.waver.backend.cache;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.MinioConfig;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.minio.InMemoryMinioClient;
+import dev.shaaf.waver.llm.config.FormatConverter;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseCache.
+ */
+class ResponseCacheTest {
+
+    private static final String BUCKET = "tutorials";
+
+    private InMemoryMinioClient minioClient;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        minioClient = new InMemoryMinioClient();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testDisabledCacheReturnsModelUnchanged() {
+        // Given
+        ResponseCache cache = newCache(false, false);
+        ChatModel chatModel = new ChatModel() {
+        };
+
+        // When & Then
+        assertSame(chatModel, cache.wrap(chatModel));
+    }
+
+    @Test
+    void testEnabledCacheWrapsModel() {
+        // Given
+        ResponseCache cache = newCache(true, false);
+
+        // When & Then
+        assertInstanceOf(CachingChatModel.class, cache.wrap(new ChatModel() {
+        }));
+    }
+
+    @Test
+    void testLookupsAreCountedByTier() {
+        // Given
+        ResponseCache cache = newCache(true, false);
+        cache.put("key", new CachedResponse("answer", null, Instant.now()));
+
+        // When
+        cache.get("key");
+        cache.get("other");
+
+        // Then
+        assertEquals(1, registry.get("waver.llm.cache").tags("result", "local").counter().count());
+        assertEquals(1, registry.get("waver.llm.cache").tags("result", "miss").counter().count());
+    }
+
+    @Test
+    void testSharedTierAnswersOtherInstances() {
+        // Given
+        ResponseCache writer = newCache(true, true);
+        writer.put("key", new CachedResponse("answer", null, Instant.now()));
+        ResponseCache reader = newCache(true, true);
+
+        // When
+        Optional<CachedResponse> first = reader.get("key");
+        Optional<CachedResponse> second = reader.get("key");
+
+        // Then
+        assertEquals("answer", first.orElseThrow().text());
+        assertTrue(second.isPresent());
+        assertEquals(1, registry.get("waver.llm.cache").tags("result", "shared").counter().count());
+        assertEquals(1, registry.get("waver.llm.cache").tags("result", "local").counter().count());
+    }
+
+    @Test
+    void testResponsesStayLocalWithoutSharedTier() {
+        // Given
+        ResponseCache cache = newCache(true, false);
+
+        // When
+        cache.put("key", new CachedResponse("answer", null, Instant.now()));
+
+        // Then
+        assertTrue(minioClient.getObjects().isEmpty());
+    }
+
+    private ResponseCache newCache(boolean enabled, boolean shared) {
+        ResponseCache cache = new ResponseCache();
+        cache.waverConfig = new TestWaverConfig(new TestCache(enabled, 100,
+                new MemorySize(BigInteger.valueOf(1024 * 1024)), shared, Duration.ofDays(1)));
+        cache.minioConfig = new TestMinioConfig();
+        cache.minioClient = minioClient;
+        cache.registry = registry;
+        cache.init();
+        return cache;
+    }
+
+    private record TestCache(boolean enabled, int maxEntries, MemorySize maxSize, boolean shared, Duration ttl)
+            implements WaverConfig.Cache {
+    }
+
+    /**
+     * Test implementation of MinioConfig that only provides the bucket name.
+     */
+    private static class TestMinioConfig implements MinioConfig {
+        @Override
+        public String endpoint() {
+            return "http://localhost:9000";
+        }
+
+        @Override
+        public String accessKey() {
+            return "minioadmin";
+        }
+
+        @Override
+        public String secretKey() {
+            return "minioadmin";
+        }
+
+        @Override
+        public String bucketName() {
+            return BUCKET;
+        }
+
+        @Override
+        public Upload upload() {
+            return null;
+        }
+    }
+
+    /**
+     * Test implementation of WaverConfig that only provides cache settings.
+     */
+    private static class TestWaverConfig implements WaverConfig {
+        private final Cache cache;
+
+        TestWaverConfig(Cache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public LLMProvider llmProvider() {
+            return LLMProvider.OpenAI;
+        }
+
+        @Override
+        public String outputPath() {
+            return "./test-output";
+        }
+
+        @Override
+        public boolean verbose() {
+            return false;
+        }
+
+        @Override
+        public FormatConverter.OutputFormat outputFormat() {
+            return FormatConverter.OutputFormat.MARKDOWN;
+        }
+
+        @Override
+        public OpenAI openai() {
+            return null;
+        }
+
+        @Override
+        public Gemini gemini() {
+            return null;
+        }
+
+        @Override
+        public Queue queue() {
+            return null;
+        }
+
+        @Override
+        public Jobs jobs() {
+            return null;
+        }
+
+        @Override
+        public Work work() {
+            return null;
+        }
+
+        @Override
+        public Checkpoints checkpoints() {
+            return null;
+        }
+
+        @Override
+        public Models models() {
+            return null;
+        }
+
+        @Override
+        public Cache cache() {
+            return cache;
+        }
+
+        @Override
+        public Incremental incremental() {
+            return null;
+        }
+
+        @Override
+        public Checkout checkout() {
+            return null;
+        }
+
+        @Override
+        public Ingest ingest() {
+            return null;
+        }
+
+        @Override
+        public Shards shards() {
+            return null;
+        }
+
+        @Override
+        public Threads threads() {
+            return null;
+        }
+
+        @Override
+        public Retry retry() {
+            return null;
+        }
+
+        @Override
+        public Routing routing() {
+            return null;
+        }
+
+        @Override
+        public Streaming streaming() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package dev.shaaf.waver.backend.checkout;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GitRefs.
+ */
+class GitRefsTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRemoteHeadIsCommitOfDefaultBranch() throws Exception {
+        // Given
+        Path origin = tempDir.resolve("origin.git");
+        Git.init().setBare(true).setInitialBranch("main").setDirectory(origin.toFile()).call().close();
+        RevCommit commit;
+        try (Git work = Git.init().setInitialBranch("main").setDirectory(tempDir.resolve("work").toFile()).call()) {
+            work.remoteAdd().setName("origin").setUri(new URIish(origin.toUri().toString())).call();
+            commit = work.commit().setMessage("Initial commit").setAllowEmpty(true)
+                    .setAuthor("Test", "test@example.com").setCommitter("Test", "test@example.com").call();
+            work.push().setRemote("origin").add("main").call();
+        }
+
+        // When
+        Optional<String> head = GitRefs.remoteHead(origin.toUri().toString(), TIMEOUT);
+
+        // Then
+        assertEquals(Optional.of(commit.name()), head);
+    }
+
+    @Test
+    void testRemoteHeadOfMissingRepositoryFails() {
+        assertThrows(IOException.class,
+                () -> GitRefs.remoteHead(tempDir.resolve("missing.git").toUri().toString(), TIMEOUT));
+    }
+
+    @Test
+    void testLocalHeadIsFoundFromSubdirectory() throws Exception {
+        // Given
+        RevCommit commit;
+        try (Git work = Git.init().setInitialBranch("main").setDirectory(tempDir.toFile()).call()) {
+            commit = work.commit().setMessage("Initial commit").setAllowEmpty(true)
+                    .setAuthor("Test", "test@example.com").setCommitter("Test", "test@example.com").call();
+        }
+        Path subdirectory = Files.createDirectories(tempDir.resolve("src/main"));
+
+        // When & Then
+        assertEquals(Optional.of(commit.name()), GitRefs.localHead(subdirectory));
+    }
+
+    @Test
+    void testLocalHeadOutsideRepositoryIsEmpty() throws IOException {
+        assertEquals(Optional.empty(), GitRefs.localHead(tempDir));
+    }
+}
@@ -0,0 +1,299 @@
+package dev.shaaf.waver.backend.checkout;
+
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.llm.config.FormatConverter;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RepositoryCheckout.
+ * <p>
+ * The remote repository is a local bare repository, cloned through a
+ * {@code file://} URL so that shallow cloning applies as it does for remote hosts.
+ * Repositories are created with JGit, so no {@code git} command line is needed.
+ */
+class RepositoryCheckoutTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @TempDir
+    Path tempDir;
+
+    private Path work;
+    private Git workGit;
+    private String url;
+    private RepositoryCheckout checkout;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path origin = tempDir.resolve("origin.git");
+        Git.init().setBare(true).setInitialBranch("main").setDirectory(origin.toFile()).call().close();
+        work = tempDir.resolve("work");
+        workGit = Git.init().setInitialBranch("main").setDirectory(work.toFile()).call();
+        workGit.remoteAdd().setName("origin").setUri(new URIish(origin.toUri().toString())).call();
+        url = origin.toUri().toString();
+
+        Files.createDirectories(work.resolve("src"));
+        Files.writeString(work.resolve("src/App.java"), "class App {}");
+        Files.writeString(work.resolve("README.md"), "# Repo");
+        Files.writeString(work.resolve("logo.png"), "binary");
+        commitAndPush("Initial commit");
+
+        checkout = new RepositoryCheckout(new TestWaverConfig(tempDir.resolve("repositories")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        workGit.close();
+    }
+
+    @Test
+    void testCheckoutContainsOnlyIncludedFiles() throws IOException {
+        // When
+        Path dir = checkout.checkout(url);
+
+        // Then
+        assertTrue(Files.exists(dir.resolve("src/App.java")));
+        assertTrue(Files.exists(dir.resolve("README.md")));
+        assertFalse(Files.exists(dir.resolve("logo.png")));
+    }
+
+    @Test
+    void testCheckoutIsShallow() throws Exception {
+        // Given
+        Files.writeString(work.resolve("src/App.java"), "class App { int version = 2; }");
+        commitAndPush("Second commit");
+
+        // When
+        Path dir = checkout.checkout(url);
+
+        // Then
+        try (Git git = Git.open(dir.toFile())) {
+            int commits = 0;
+            for (RevCommit ignored : git.log().call()) {
+                commits++;
+            }
+            assertEquals(1, commits);
+        }
+    }
+
+    @Test
+    void testRepeatedCheckoutFetchesNewCommitsIntoTheCachedClone() throws Exception {
+        // Given
+        Path first = checkout.checkout(url);
+        Files.writeString(work.resolve("src/Service.java"), "class Service {}");
+        Files.delete(work.resolve("README.md"));
+        commitAndPush("Add service");
+
+        // When
+        Path second = checkout.checkout(url);
+
+        // Then
+        assertEquals(first, second);
+        assertTrue(Files.exists(second.resolve("src/Service.java")));
+        assertFalse(Files.exists(second.resolve("README.md")));
+        assertEquals(GitRefs.localHead(work), GitRefs.localHead(second));
+    }
+
+    @Test
+    void testBrokenCachedCloneIsClonedAgain() throws IOException {
+        // Given
+        Path dir = checkout.checkout(url);
+        Files.writeString(dir.resolve(".git/HEAD"), "garbage");
+
+        // When
+        Path again = checkout.checkout(url);
+
+        // Then
+        assertTrue(Files.exists(again.resolve("src/App.java")));
+    }
+
+    @Test
+    void testFailedCloneLeavesNoCacheEntry() throws IOException {
+        // Given
+        String missing = tempDir.resolve("missing.git").toUri().toString();
+
+        // When
+        assertThrows(IOException.class, () -> checkout.checkout(missing));
+
+        // Then
+        try (var entries = Files.list(tempDir.resolve("repositories"))) {
+            assertEquals(0, entries.filter(Files::isDirectory).count());
+        }
+    }
+
+    @Test
+    void testDirectoryNameIsTheSameForAllSpellingsOfAUrl() {
+        assertEquals("github.com_user_repo", RepositoryCheckout.directoryName("https://GitHub.com/User/Repo.git"));
+        assertEquals("github.com_user_repo", RepositoryCheckout.directoryName("git@github.com:user/repo.git"));
+    }
+
+    @Test
+    void testExcludedPatternOverridesEarlierInclude() throws Exception {
+        // Given
+        Files.createDirectories(work.resolve("src/generated"));
+        Files.writeString(work.resolve("src/generated/Stub.java"), "class Stub {}");
+        commitAndPush("Add generated code");
+        checkout = new RepositoryCheckout(new TestWaverConfig(tempDir.resolve("repositories"),
+                List.of("*.java", "!src/generated/")));
+
+        // When
+        Path dir = checkout.checkout(url);
+
+        // Then
+        assertTrue(Files.exists(dir.resolve("src/App.java")));
+        assertFalse(Files.exists(dir.resolve("src/generated/Stub.java")));
+    }
+
+    private void commitAndPush(String message) throws GitAPIException {
+        workGit.add().addFilepattern(".").call();
+        workGit.add().addFilepattern(".").setUpdate(true).call();
+        workGit.commit().setMessage(message).setAuthor("Test", "test@example.com")
+                .setCommitter("Test", "test@example.com").call();
+        workGit.push().setRemote("origin").add("main").call();
+    }
+
+    /**
+     * Test implementation of WaverConfig providing only the checkout settings.
+     */
+    private record TestWaverConfig(Path checkoutPath, List<String> include) implements WaverConfig {
+        TestWaverConfig(Path checkoutPath) {
+            this(checkoutPath, List.of("*.java", "*.md"));
+        }
+
+        @Override
+        public LLMProvider llmProvider() {
+            return LLMProvider.OpenAI;
+        }
+
+        @Override
+        public String outputPath() {
+            return "./test-output";
+        }
+
+        @Override
+        public boolean verbose() {
+            return false;
+        }
+
+        @Override
+        public FormatConverter.OutputFormat outputFormat() {
+            return FormatConverter.OutputFormat.MARKDOWN;
+        }
+
+        @Override
+        public OpenAI openai() {
+            return null;
+        }
+
+        @Override
+        public Gemini gemini() {
+            return null;
+        }
+
+        @Override
+        public Queue queue() {
+            return null;
+        }
+
+        @Override
+        public Jobs jobs() {
+            return null;
+        }
+
+        @Override
+        public Work work() {
+            return null;
+        }
+
+        @Override
+        public Checkpoints checkpoints() {
+            return null;
+        }
+
+        @Override
+        public Models models() {
+            return null;
+        }
+
+        @Override
+        public Cache cache() {
+            return null;
+        }
+
+        @Override
+        public Incremental incremental() {
+            return null;
+        }
+
+        @Override
+        public Ingest ingest() {
+            return null;
+        }
+
+        @Override
+        public Shards shards() {
+            return null;
+        }
+
+        @Override
+        public Threads threads() {
+            return null;
+        }
+
+        @Override
+        public Retry retry() {
+            return null;
+        }
+
+        @Override
+        public Routing routing() {
+            return null;
+        }
+
+        @Override
+        public Streaming streaming() {
+            return null;
+        }
+
+        @Override
+        public Checkout checkout() {
+            return new Checkout() {
+                @Override
+                public boolean enabled() {
+                    return true;
+                }
+
+                @Override
+                public String path() {
+                    return checkoutPath.toString();
+                }
+
+                @Override
+                public List<String> include() {
+                    return include;
+                }
+
+                @Override
+                public Duration timeout() {
+                    return TIMEOUT;
+                }
+            };
+        }
+    }
+}
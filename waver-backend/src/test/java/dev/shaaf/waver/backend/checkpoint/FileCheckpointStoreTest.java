@@ -0,0 +1,63 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FileCheckpointStore.
+ */
+class FileCheckpointStoreTest {
+
+    private static final byte[] CHECKPOINT = "{\"stage\":\"Identify-abstraction\"}".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSavedCheckpointCanBeLoadedAfterRestart() throws IOException {
+        // Given
+        new FileCheckpointStore(tempDir.resolve("checkpoints")).save("job-1", "Identify-abstraction", CHECKPOINT);
+
+        // When
+        FileCheckpointStore restarted = new FileCheckpointStore(tempDir.resolve("checkpoints"));
+
+        // Then
+        assertArrayEquals(CHECKPOINT, restarted.load("job-1", "Identify-abstraction").orElseThrow());
+        assertTrue(restarted.load("job-1", "Chapter-organizer").isEmpty());
+        assertTrue(restarted.load("job-2", "Identify-abstraction").isEmpty());
+    }
+
+    @Test
+    void testDeleteRemovesAllCheckpointsOfJob() throws IOException {
+        // Given
+        FileCheckpointStore store = new FileCheckpointStore(tempDir);
+        store.save("job-1", "Identify-abstraction", CHECKPOINT);
+        store.save("job-1", "Identify-relationships", CHECKPOINT);
+        store.save("job-2", "Identify-abstraction", CHECKPOINT);
+
+        // When
+        store.delete("job-1");
+        store.delete("missing");
+
+        // Then
+        assertFalse(Files.exists(tempDir.resolve("job-1")));
+        assertTrue(store.load("job-2", "Identify-abstraction").isPresent());
+    }
+
+    @Test
+    void testNamesEscapingTheDirectoryAreRejected() throws IOException {
+        // Given
+        FileCheckpointStore store = new FileCheckpointStore(tempDir);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> store.save("../job", "Identify-abstraction", CHECKPOINT));
+        assertThrows(IllegalArgumentException.class, () -> store.load("job-1", "a/b"));
+    }
+}
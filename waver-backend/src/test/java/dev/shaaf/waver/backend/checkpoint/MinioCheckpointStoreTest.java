@@ -0,0 +1,57 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import dev.shaaf.waver.backend.minio.InMemoryMinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinioCheckpointStore.
+ */
+class MinioCheckpointStoreTest {
+
+    private static final String BUCKET = "tutorials";
+    private static final byte[] CHECKPOINT = "{\"stage\":\"Identify-abstraction\"}".getBytes(StandardCharsets.UTF_8);
+
+    private InMemoryMinioClient minioClient;
+    private MinioCheckpointStore store;
+
+    @BeforeEach
+    void setUp() {
+        minioClient = new InMemoryMinioClient();
+        store = new MinioCheckpointStore(minioClient, BUCKET);
+    }
+
+    @Test
+    void testCheckpointsAreStoredPerJobUnderHiddenPrefix() throws IOException {
+        // When
+        store.save("job-1", "Identify-abstraction", CHECKPOINT);
+
+        // Then
+        assertEquals(".waver/checkpoints/job-1/Identify-abstraction.json",
+                MinioCheckpointStore.objectName("job-1", "Identify-abstraction"));
+        assertTrue(minioClient.getObjects().containsKey(BUCKET + "/.waver/checkpoints/job-1/Identify-abstraction.json"));
+        assertArrayEquals(CHECKPOINT, store.load("job-1", "Identify-abstraction").orElseThrow());
+        assertTrue(store.load("job-1", "Chapter-organizer").isEmpty());
+    }
+
+    @Test
+    void testDeleteOnlyRemovesCheckpointsOfJob() throws IOException {
+        // Given
+        store.save("job-1", "Identify-abstraction", CHECKPOINT);
+        store.save("job-1", "Identify-relationships", CHECKPOINT);
+        store.save("job-10", "Identify-abstraction", CHECKPOINT);
+
+        // When
+        store.delete("job-1");
+
+        // Then
+        assertTrue(store.load("job-1", "Identify-abstraction").isEmpty());
+        assertTrue(store.load("job-1", "Identify-relationships").isEmpty());
+        assertTrue(store.load("job-10", "Identify-abstraction").isPresent());
+    }
+}
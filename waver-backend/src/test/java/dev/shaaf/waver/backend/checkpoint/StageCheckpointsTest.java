@@ -0,0 +1,134 @@
+package dev.shaaf.waver.backend.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StageCheckpoints.
+ */
+class StageCheckpointsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRestoredOutputEqualsSavedOutput() throws IOException {
+        // Given
+        StageCheckpoints checkpoints = new StageCheckpoints(new FileCheckpointStore(tempDir));
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("files", 12);
+        details.put("modules", Set.of("api", "web"));
+        Analysis analysis = new Analysis(List.of(
+                new Abstraction("Order", "An order placed by a customer", List.of(0, 3)),
+                new Abstraction("OrderPage", "Renders an order", List.of(1))), details);
+
+        // When
+        checkpoints.save("job-1", "Identify-abstraction", analysis);
+        Optional<Object> restored = new StageCheckpoints(new FileCheckpointStore(tempDir))
+                .restore("job-1", "Identify-abstraction");
+
+        // Then
+        assertEquals(Optional.of(analysis), restored);
+    }
+
+    @Test
+    void testListOutputKeepsItsElementType() throws IOException {
+        // Given
+        StageCheckpoints checkpoints = new StageCheckpoints(new FileCheckpointStore(tempDir));
+        List<Abstraction> abstractions = List.of(new Abstraction("Order", "An order", List.of()));
+
+        // When
+        checkpoints.save("job-1", "Identify-abstraction", abstractions);
+
+        // Then
+        Object restored = checkpoints.restore("job-1", "Identify-abstraction").orElseThrow();
+        assertEquals(abstractions, restored);
+        assertInstanceOf(Abstraction.class, ((List<?>) restored).getFirst());
+    }
+
+    @Test
+    void testUnreadableCheckpointIsIgnored() throws IOException {
+        // Given
+        FileCheckpointStore store = new FileCheckpointStore(tempDir);
+        store.save("job-1", "Identify-abstraction", "{".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertTrue(new StageCheckpoints(store).restore("job-1", "Identify-abstraction").isEmpty());
+    }
+
+    @Test
+    void testCheckpointOfForeignClassIsNotRestored() throws IOException {
+        // Given
+        FileCheckpointStore store = new FileCheckpointStore(tempDir);
+        store.save("job-1", "Identify-abstraction", ("{\"stage\":\"Identify-abstraction\",\"createdAt\":null,"
+                + "\"output\":[\"javax.swing.JButton\",{}]}").getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertTrue(new StageCheckpoints(store).restore("job-1", "Identify-abstraction").isEmpty());
+    }
+
+    @Test
+    void testCheckpointOfUnlistedJdkClassIsNotRestored() throws IOException {
+        // Given
+        FileCheckpointStore store = new FileCheckpointStore(tempDir);
+        store.save("job-1", "Identify-abstraction", ("{\"stage\":\"Identify-abstraction\",\"createdAt\":null,"
+                + "\"output\":[\"java.lang.ProcessBuilder\",{}]}").getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertTrue(new StageCheckpoints(store).restore("job-1", "Identify-abstraction").isEmpty());
+    }
+
+    @Test
+    void testCheckpointOfUnlistedJavaUtilClassIsNotRestored() throws IOException {
+        // Given
+        FileCheckpointStore store = new FileCheckpointStore(tempDir);
+        store.save("job-1", "Identify-abstraction", ("{\"stage\":\"Identify-abstraction\",\"createdAt\":null,"
+                + "\"output\":[\"java.util.logging.FileHandler\",{}]}").getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertTrue(new StageCheckpoints(store).restore("job-1", "Identify-abstraction").isEmpty());
+    }
+
+    @Test
+    void testDiscardRemovesCheckpointsOfJob() throws IOException {
+        // Given
+        StageCheckpoints checkpoints = new StageCheckpoints(new FileCheckpointStore(tempDir));
+        checkpoints.save("job-1", "Identify-abstraction", List.of("Order"));
+
+        // When
+        checkpoints.discard("job-1");
+
+        // Then
+        assertTrue(checkpoints.restore("job-1", "Identify-abstraction").isEmpty());
+    }
+
+    @Test
+    void testNothingIsCheckpointedWithoutStore() {
+        // Given
+        StageCheckpoints checkpoints = new StageCheckpoints(null);
+
+        // When
+        checkpoints.save("job-1", "Identify-abstraction", List.of("Order"));
+
+        // Then
+        assertFalse(checkpoints.isEnabled());
+        assertTrue(checkpoints.restore("job-1", "Identify-abstraction").isEmpty());
+    }
+
+    record Abstraction(String name, String description, List<Integer> files) {
+    }
+
+    record Analysis(List<Abstraction> abstractions, Map<String, Object> details) {
+    }
+}
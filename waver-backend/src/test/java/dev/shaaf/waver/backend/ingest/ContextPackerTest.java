@@ -0,0 +1,186 @@
+package dev.shaaf.waver.backend.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContextPacker.
+ * <p>
+ * The sample repositories under {@code src/test/resources/sample-repos}
+ * compare the packed prompt with the existing behavior, where the
+ * abstraction stage is given every file of the repository.
+ */
+class ContextPackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRepositoryWithinBudgetIsPackedCompletely() throws IOException {
+        // Given
+        write("App.java", "class App {}");
+        write("README.md", "# App");
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000).pack(tempDir, files("App.java", "README.md"));
+
+        // Then
+        assertTrue(packing.isComplete());
+        assertEquals(packing.totalTokens(), packing.tokens());
+    }
+
+    @Test
+    void testFilesReferencedByOthersArePackedFirst() throws IOException {
+        // Given
+        write("Order.java", "record Order(String id) {}");
+        write("Invoice.java", "class Invoice { Order order; }");
+        write("Shipment.java", "class Shipment { Order order; }");
+        write("Audit.java", "class Audit { String note; }");
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000)
+                .pack(tempDir, files("Audit.java", "Invoice.java", "Order.java", "Shipment.java"));
+
+        // Then
+        assertEquals(Paths.get("Order.java"), packing.files().getFirst());
+    }
+
+    @Test
+    void testPublicApiRanksBeforeInternalCode() throws IOException {
+        // Given
+        write("Internal.java", "class Internal {\n    void run() {}\n}");
+        write("Api.java", "public class Api {\n    public void run() {}\n}");
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000).pack(tempDir, files("Internal.java", "Api.java"));
+
+        // Then
+        assertEquals(files("Api.java", "Internal.java"), packing.files());
+    }
+
+    @Test
+    void testTestsRankAfterSourcesOfEqualImportance() throws IOException {
+        // Given
+        write("test/Check.java", "class Check {}");
+        write("src/Check2.java", "class Check2 {}");
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000)
+                .pack(tempDir, files("test/Check.java", "src/Check2.java"));
+
+        // Then
+        assertEquals(files("src/Check2.java", "test/Check.java"), packing.files());
+    }
+
+    @Test
+    void testSmallerFilesStillFillTheBudgetAfterALargeOne() throws IOException {
+        // Given
+        write("Large.java", "public class Large {\n" + "    public int value;\n".repeat(50) + "}");
+        write("Small.java", "class Small {}");
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(20).pack(tempDir, files("Large.java", "Small.java"));
+
+        // Then
+        assertEquals(files("Small.java"), packing.files());
+        assertTrue(packing.tokens() <= 20);
+        assertEquals(2, packing.totalFiles());
+    }
+
+    @Test
+    void testBinaryFilesAreEstimatedWithoutFailing() throws IOException {
+        // Given
+        Files.write(tempDir.resolve("logo.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G', (byte) 0xff, (byte) 0xfe});
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000).pack(tempDir, files("logo.png"));
+
+        // Then
+        assertTrue(packing.tokens() > 0);
+    }
+
+    @Test
+    void testReferenceNameIgnoresShortAndCommonNames() {
+        assertEquals("InventoryService", ContextPacker.referenceName(Paths.get("src/InventoryService.java")));
+        assertEquals("store", ContextPacker.referenceName(Paths.get("src/store.test.ts")));
+        assertNull(ContextPacker.referenceName(Paths.get("src/index.ts")));
+        assertNull(ContextPacker.referenceName(Paths.get("go.mod")));
+    }
+
+    @Test
+    void testJavaSampleRepositoryKeepsItsCoreAbstractions() throws Exception {
+        // Given
+        Path root = sampleRepository("inventory-service");
+        List<Path> files = new SourceSampler(Long.MAX_VALUE, Long.MAX_VALUE).select(root).files();
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000).pack(root, files);
+
+        // Then
+        assertTrue(packing.tokens() <= 1000);
+        assertTrue(packing.tokens() < packing.totalTokens() / 3, "Packed " + packing.tokens()
+                + " of " + packing.totalTokens() + " tokens");
+        assertEquals(Paths.get("src/main/java/inventory/Item.java"), packing.files().getFirst());
+        assertTrue(packing.files().containsAll(files(
+                "src/main/java/inventory/InventoryRepository.java",
+                "src/main/java/inventory/InventoryService.java",
+                "src/main/java/inventory/InventoryResource.java")));
+        assertFalse(packing.files().contains(Paths.get("src/main/java/inventory/internal/LegacyCsvExporter.java")));
+        assertFalse(packing.files().contains(Paths.get("docs/CHANGELOG.md")));
+    }
+
+    @Test
+    void testTypeScriptSampleRepositoryDropsVendoredCode() throws Exception {
+        // Given
+        Path root = sampleRepository("todo-web");
+        List<Path> files = new SourceSampler(Long.MAX_VALUE, Long.MAX_VALUE).select(root).files();
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(1000).pack(root, files);
+
+        // Then
+        assertTrue(packing.tokens() < packing.totalTokens() / 5, "Packed " + packing.tokens()
+                + " of " + packing.totalTokens() + " tokens");
+        assertEquals(files("src/model.ts", "src/store.ts"), packing.files().subList(0, 2));
+        assertTrue(packing.files().containsAll(files("src/api.ts", "src/components/TodoList.tsx")));
+        assertFalse(packing.files().contains(Paths.get("src/vendor/polyfills.js")));
+    }
+
+    @Test
+    void testTightBudgetKeepsTheMostReferencedFiles() throws Exception {
+        // Given
+        Path root = sampleRepository("todo-web");
+        List<Path> files = new SourceSampler(Long.MAX_VALUE, Long.MAX_VALUE).select(root).files();
+
+        // When
+        ContextPacker.Packing packing = new ContextPacker(250).pack(root, files);
+
+        // Then
+        assertTrue(packing.tokens() <= 250);
+        assertTrue(packing.files().containsAll(files("src/model.ts", "src/store.ts")));
+    }
+
+    private Path sampleRepository(String name) throws URISyntaxException {
+        return Paths.get(getClass().getResource("/sample-repos/" + name).toURI());
+    }
+
+    private static List<Path> files(String... paths) {
+        return Arrays.stream(paths).map(Paths::get).toList();
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,90 @@
+package dev.shaaf.waver.backend.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModulePartitioner.
+ */
+class ModulePartitionerTest {
+
+    @Test
+    void testSingleShardKeepsAllFiles() {
+        // Given
+        List<String> files = List.of("a/One.java", "b/Two.java");
+
+        // When & Then
+        assertEquals(List.of(files), ModulePartitioner.partition(files, file -> file, file -> 1, 1));
+    }
+
+    @Test
+    void testTopLevelModulesStayTogether() {
+        // Given
+        List<String> files = List.of("api/Order.java", "web/Page.java", "api/Invoice.java", "web/Form.java");
+
+        // When
+        List<List<String>> shards = ModulePartitioner.partition(files, file -> file, file -> 1, 2);
+
+        // Then
+        assertEquals(List.of(List.of("api/Order.java", "api/Invoice.java"), List.of("web/Page.java", "web/Form.java")),
+                shards);
+    }
+
+    @Test
+    void testModuleHeavierThanAShardIsSplitByTheNextDirectoryLevel() {
+        // Given
+        List<String> files = List.of("core/model/Order.java", "core/model/Item.java",
+                "core/service/OrderService.java", "core/service/ItemService.java");
+
+        // When
+        List<List<String>> shards = ModulePartitioner.partition(files, file -> file, file -> 1, 2);
+
+        // Then
+        assertEquals(List.of(List.of("core/model/Order.java", "core/model/Item.java"),
+                List.of("core/service/OrderService.java", "core/service/ItemService.java")), shards);
+    }
+
+    @Test
+    void testShardsAreBalancedByWeight() {
+        // Given
+        Map<String, Long> sizes = Map.of("big/A.java", 90L, "small/B.java", 30L, "small2/C.java", 30L,
+                "small3/D.java", 30L);
+        List<String> files = List.of("big/A.java", "small/B.java", "small2/C.java", "small3/D.java");
+
+        // When
+        List<List<String>> shards = ModulePartitioner.partition(files, file -> file, sizes::get, 2);
+
+        // Then
+        assertEquals(List.of(List.of("big/A.java"), List.of("small/B.java", "small2/C.java", "small3/D.java")),
+                shards);
+    }
+
+    @Test
+    void testFilesOfOneDirectoryAreNeverSplit() {
+        // Given
+        List<String> files = List.of("src/A.java", "src/B.java", "src/C.java");
+
+        // When
+        List<List<String>> shards = ModulePartitioner.partition(files, file -> file, file -> 1, 3);
+
+        // Then
+        assertEquals(List.of(files), shards);
+    }
+
+    @Test
+    void testRootFilesFormTheirOwnModule() {
+        // Given
+        List<String> files = List.of("README.md", "pom.xml", "src\\main\\App.java", "src\\main\\Util.java");
+
+        // When
+        List<List<String>> shards = ModulePartitioner.partition(files, file -> file, file -> 1, 2);
+
+        // Then
+        assertEquals(List.of(List.of("README.md", "pom.xml"), List.of("src\\main\\App.java", "src\\main\\Util.java")),
+                shards);
+    }
+}
@@ -0,0 +1,116 @@
+package dev.shaaf.waver.backend.ingest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SourceSampler.
+ */
+class SourceSamplerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRepositoryWithinBudgetIsSelectedCompletely() throws IOException {
+        // Given
+        write("src/App.java", 10);
+        write("README.md", 10);
+
+        // When
+        SourceSampler.Selection selection = new SourceSampler(100, 100).select(tempDir);
+
+        // Then
+        assertTrue(selection.isComplete());
+        assertEquals(20, selection.bytes());
+        assertEquals(List.of(Paths.get("README.md"), Paths.get("src/App.java")), selection.files());
+    }
+
+    @Test
+    void testRegularSourcesAreSelectedBeforeTestsAndVendoredCode() throws IOException {
+        // Given
+        write("vendor/lib/Lib.java", 40);
+        write("src/test/java/AppTest.java", 40);
+        write("src/main/java/App.java", 40);
+
+        // When
+        SourceSampler.Selection selection = new SourceSampler(80, 100).select(tempDir);
+
+        // Then
+        assertFalse(selection.isComplete());
+        assertEquals(List.of(Paths.get("src/main/java/App.java"), Paths.get("src/test/java/AppTest.java")),
+                selection.files());
+        assertEquals(3, selection.totalFiles());
+        assertEquals(120, selection.totalBytes());
+    }
+
+    @Test
+    void testSmallerFilesStillFillTheBudgetAfterALargeOne() throws IOException {
+        // Given
+        write("a/Large.java", 90);
+        write("b/Small.java", 10);
+        write("Root.java", 50);
+
+        // When
+        SourceSampler.Selection selection = new SourceSampler(60, 100).select(tempDir);
+
+        // Then
+        assertEquals(List.of(Paths.get("Root.java"), Paths.get("b/Small.java")), selection.files());
+        assertEquals(60, selection.bytes());
+    }
+
+    @Test
+    void testFilesOverThePerFileLimitAndGitDirectoryAreSkipped() throws IOException {
+        // Given
+        write("bundle.min.js", 500);
+        write(".git/objects/pack", 10);
+        write("App.java", 10);
+
+        // When
+        SourceSampler.Selection selection = new SourceSampler(10_000, 100).select(tempDir);
+
+        // Then
+        assertEquals(List.of(Paths.get("App.java")), selection.files());
+        assertEquals(2, selection.totalFiles());
+    }
+
+    @Test
+    void testMaterializeKeepsRelativePaths() throws IOException {
+        // Given
+        Path repo = Files.createDirectories(tempDir.resolve("repo"));
+        Files.createDirectories(repo.resolve("src"));
+        Files.writeString(repo.resolve("src/App.java"), "class App {}");
+        Files.writeString(repo.resolve("Skipped.java"), "class Skipped {}");
+        SourceSampler.Selection selection = new SourceSampler.Selection(List.of(Paths.get("src/App.java")), 12, 2, 28);
+        Path target = Files.createDirectories(tempDir.resolve("sample"));
+
+        // When
+        SourceSampler.materialize(repo, selection.files(), target);
+
+        // Then
+        assertEquals("class App {}", Files.readString(target.resolve("src/App.java")));
+        assertFalse(Files.exists(target.resolve("Skipped.java")));
+    }
+
+    @Test
+    void testPriorityOfDirectories() {
+        assertEquals(0, SourceSampler.priority(Paths.get("src/main/java/App.java")));
+        assertEquals(1, SourceSampler.priority(Paths.get("docs/guide.md")));
+        assertEquals(2, SourceSampler.priority(Paths.get("node_modules/lib/index.js")));
+        assertEquals(0, SourceSampler.priority(Paths.get("test.py")));
+    }
+
+    private void write(String path, int size) throws IOException {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "x".repeat(size));
+    }
+}
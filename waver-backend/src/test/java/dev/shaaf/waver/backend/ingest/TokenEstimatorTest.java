@@ -0,0 +1,73 @@
+package dev.shaaf.waver.backend.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenEstimator.
+ */
+class TokenEstimatorTest {
+
+    @Test
+    void testEmptyTextHasNoTokens() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(0, TokenEstimator.estimate("   "));
+    }
+
+    @Test
+    void testShortWordsAreOneTokenAndSpacesAreMerged() {
+        assertEquals(3, TokenEstimator.estimate("get the item"));
+    }
+
+    @Test
+    void testLongWordsTakeOneTokenPerFourCharacters() {
+        // 'InventoryRepository' has 19 characters
+        assertEquals(5, TokenEstimator.estimate("InventoryRepository"));
+    }
+
+    @Test
+    void testPunctuationRunsTakeOneTokenPerTwoCharacters() {
+        // 'a', '();' and 'b', '->' and 'c'
+        assertEquals(6, TokenEstimator.estimate("a(); b -> c"));
+    }
+
+    @Test
+    void testLineBreakWithIndentationIsOneToken() {
+        assertEquals(3, TokenEstimator.estimate("a\n        b"));
+        assertEquals(3, TokenEstimator.estimate("a\r\n\r\nb"));
+    }
+
+    @Test
+    void testNonAsciiCharactersAreOneTokenEach() {
+        assertEquals(3, TokenEstimator.estimate("数据库"));
+        assertEquals(1, TokenEstimator.estimate("🚀"));
+    }
+
+    @Test
+    void testChunksAreCountedLikeTheWholeText() {
+        // Given
+        String text = "public record Item(String sku, int quantity) {\n    // In stock\n}\n";
+
+        // When
+        TokenEstimator estimator = new TokenEstimator();
+        for (int i = 0; i < text.length(); i += 3) {
+            estimator.accept(text.substring(i, Math.min(text.length(), i + 3)));
+        }
+
+        // Then
+        assertEquals(TokenEstimator.estimate(text), estimator.tokens());
+    }
+
+    @Test
+    void testSourceCodeIsEstimatedNearFourCharactersPerToken() {
+        // Given
+        String code = "public static void main(String[] args) {\n    System.out.println(\"hello world\");\n}";
+
+        // When
+        long tokens = TokenEstimator.estimate(code);
+
+        // Then
+        assertTrue(tokens >= code.length() / 5 && tokens <= code.length() / 2, "Estimated " + tokens);
+    }
+}
@@ -0,0 +1,117 @@
+package dev.shaaf.waver.backend.job;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FileJobStore.
+ */
+class FileJobStoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSavedJobCanBeFoundAfterRestart() throws IOException {
+        // Given
+        GenerationJob job = GenerationJob.queued("job-1", "https://github.com/user/repo", NOW)
+                .withState(JobState.CRAWLING, NOW.plusSeconds(5))
+                .failed("Clone failed", NOW.plusSeconds(9));
+        new FileJobStore(tempDir.resolve("jobs")).save(job);
+
+        // When
+        Optional<GenerationJob> found = new FileJobStore(tempDir.resolve("jobs")).find("job-1");
+
+        // Then
+        assertEquals(Optional.of(job), found);
+    }
+
+    @Test
+    void testSaveReplacesPreviousVersion() throws IOException {
+        // Given
+        FileJobStore store = new FileJobStore(tempDir);
+        GenerationJob job = GenerationJob.queued("job-1", "repo", NOW);
+        store.save(job);
+
+        // When
+        store.save(job.withState(JobState.DONE, NOW.plusSeconds(60)));
+
+        // Then
+        assertEquals(JobState.DONE, store.find("job-1").orElseThrow().state());
+        assertEquals(1, store.list().size());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of("job-1.json"), files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void testLatestJobPointerSurvivesRestart() throws IOException {
+        // Given
+        new FileJobStore(tempDir).saveLatest("https://github.com/user/repo", "job-1");
+
+        // When
+        FileJobStore restarted = new FileJobStore(tempDir);
+
+        // Then
+        assertEquals(Optional.of("job-1"), restarted.findLatest("https://github.com/user/repo"));
+        assertTrue(restarted.list().isEmpty());
+
+        // When
+        restarted.deleteLatest("https://github.com/user/repo");
+
+        // Then
+        assertTrue(restarted.findLatest("https://github.com/user/repo").isEmpty());
+    }
+
+    @Test
+    void testUnknownJobIsEmpty() throws IOException {
+        assertTrue(new FileJobStore(tempDir).find("missing").isEmpty());
+    }
+
+    @Test
+    void testListSkipsUnreadableFiles() throws IOException {
+        // Given
+        FileJobStore store = new FileJobStore(tempDir);
+        store.save(GenerationJob.queued("job-1", "repo", NOW));
+        Files.writeString(tempDir.resolve("broken.json"), "{not json");
+        Files.writeString(tempDir.resolve("notes.txt"), "ignored");
+
+        // When
+        List<GenerationJob> jobs = store.list();
+
+        // Then
+        assertEquals(1, jobs.size());
+        assertEquals("job-1", jobs.get(0).id());
+    }
+
+    @Test
+    void testDeleteRemovesJob() throws IOException {
+        // Given
+        FileJobStore store = new FileJobStore(tempDir);
+        store.save(GenerationJob.queued("job-1", "repo", NOW));
+
+        // When
+        store.delete("job-1");
+
+        // Then
+        assertTrue(store.find("job-1").isEmpty());
+    }
+
+    @Test
+    void testIdsEscapingTheDirectoryAreRejected() throws IOException {
+        FileJobStore store = new FileJobStore(tempDir);
+        assertThrows(IllegalArgumentException.class, () -> store.find("../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> store.delete("a/b"));
+    }
+}
@@ -0,0 +1,90 @@
+package dev.shaaf.waver.backend.job;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GenerationJob.
+ */
+class GenerationJobTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+    private static final Instant T1 = Instant.parse("2025-01-01T10:01:00Z");
+    private static final Instant T2 = Instant.parse("2025-01-01T10:02:00Z");
+
+    @Test
+    void testQueuedJob() {
+        // When
+        GenerationJob job = GenerationJob.queued("job-1", "https://github.com/user/repo", T0);
+
+        // Then
+        assertEquals(JobState.QUEUED, job.state());
+        assertEquals(T0, job.createdAt());
+        assertEquals(T0, job.updatedAt());
+        assertEquals(T0, job.stageTimestamps().get(JobState.QUEUED));
+        assertNull(job.error());
+    }
+
+    @Test
+    void testStateChangesRecordTimestampsInStateOrder() {
+        // Given
+        GenerationJob job = GenerationJob.queued("job-1", "repo", T0);
+
+        // When
+        GenerationJob writing = job.withState(JobState.WRITING, T2).withState(JobState.CRAWLING, T1);
+
+        // Then
+        assertEquals(JobState.CRAWLING, writing.state());
+        assertEquals(T1, writing.updatedAt());
+        assertEquals(List.of(JobState.QUEUED, JobState.CRAWLING, JobState.WRITING),
+                List.copyOf(writing.stageTimestamps().keySet()));
+    }
+
+    @Test
+    void testReenteringStateKeepsFirstTimestamp() {
+        // Given
+        GenerationJob job = GenerationJob.queued("job-1", "repo", T0)
+                .withState(JobState.ABSTRACTING, T1)
+                .withState(JobState.WRITING, T1);
+
+        // When
+        GenerationJob again = job.withState(JobState.ABSTRACTING, T2);
+
+        // Then
+        assertEquals(T1, again.stageTimestamps().get(JobState.ABSTRACTING));
+    }
+
+    @Test
+    void testTerminalJobNeverChanges() {
+        // Given
+        GenerationJob done = GenerationJob.queued("job-1", "repo", T0).withState(JobState.DONE, T1);
+
+        // When & Then
+        assertSame(done, done.withState(JobState.WRITING, T2));
+        assertSame(done, done.failed("too late", T2));
+        assertTrue(JobState.DONE.isTerminal());
+        assertFalse(JobState.UPLOADING.isTerminal());
+    }
+
+    @Test
+    void testFailedJobKeepsReason() {
+        // When
+        GenerationJob failed = GenerationJob.queued("job-1", "repo", T0).failed("Clone failed", T1);
+
+        // Then
+        assertEquals(JobState.FAILED, failed.state());
+        assertEquals("Clone failed", failed.error());
+        assertEquals(T1, failed.stageTimestamps().get(JobState.FAILED));
+    }
+
+    @Test
+    void testStageTimestampsAreUnmodifiable() {
+        GenerationJob job = GenerationJob.queued("job-1", "repo", T0);
+        assertThrows(UnsupportedOperationException.class,
+                () -> job.stageTimestamps().put(JobState.DONE, T1));
+    }
+}
@@ -0,0 +1,359 @@
+package dev.shaaf.waver.backend.job;
+
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.process.BackendProcessingService;
+import dev.shaaf.waver.backend.process.StageListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JobService.
+ */
+class JobServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TestClock clock;
+    private FileJobStore store;
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        clock = new TestClock(Instant.parse("2025-01-01T10:00:00Z"));
+        store = new FileJobStore(tempDir);
+        jobService = new JobService(store, clock);
+    }
+
+    @Test
+    void testCreatedJobIsPersisted() throws IOException {
+        // When
+        GenerationJob job = jobService.create("job-1", "https://github.com/user/repo");
+
+        // Then
+        assertEquals(JobState.QUEUED, job.state());
+        assertEquals(Optional.of(job), store.find("job-1"));
+    }
+
+    @Test
+    void testTrackerMovesJobThroughPipelineStages() throws IOException {
+        // Given
+        jobService.create("job-1", "repo");
+        StageListener tracker = jobService.tracker("job-1");
+
+        // When
+        clock.advance(Duration.ofSeconds(1));
+        tracker.stageStarted(BackendProcessingService.STAGE_CODE_CRAWLER);
+        clock.advance(Duration.ofSeconds(1));
+        tracker.stageStarted(BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS);
+        tracker.stageStarted(BackendProcessingService.STAGE_IDENTIFY_RELATIONSHIPS);
+        clock.advance(Duration.ofSeconds(1));
+        tracker.stageStarted(BackendProcessingService.STAGE_TECHNICAL_WRITER);
+        clock.advance(Duration.ofSeconds(1));
+        tracker.stageStarted(BackendProcessingService.STAGE_MINIO_UPLOAD);
+        tracker.stageStarted("Unknown-stage");
+
+        // Then
+        GenerationJob job = store.find("job-1").orElseThrow();
+        assertEquals(JobState.UPLOADING, job.state());
+        assertEquals(List.of(JobState.QUEUED, JobState.CRAWLING, JobState.ABSTRACTING, JobState.WRITING,
+                JobState.UPLOADING), List.copyOf(job.stageTimestamps().keySet()));
+        assertEquals(Instant.parse("2025-01-01T10:00:02Z"), job.stageTimestamps().get(JobState.ABSTRACTING));
+    }
+
+    @Test
+    void testFailedJobRecordsReason() {
+        // Given
+        jobService.create("job-1", "repo");
+
+        // When
+        jobService.fail("job-1", "Clone failed");
+
+        // Then
+        GenerationJob job = jobService.find("job-1").orElseThrow();
+        assertEquals(JobState.FAILED, job.state());
+        assertEquals("Clone failed", job.error());
+    }
+
+    @Test
+    void testUpdatingUnknownJobIsIgnored() {
+        assertTrue(jobService.transition("missing", JobState.DONE).isEmpty());
+    }
+
+    @Test
+    void testQueuedJobIsReadFromStore() throws IOException {
+        // Given
+        jobService.create("job-1", "repo");
+
+        // When
+        // Another replica claims and runs the job
+        new JobService(new FileJobStore(tempDir), clock).transition("job-1", JobState.WRITING);
+
+        // Then
+        assertEquals(JobState.WRITING, jobService.find("job-1").orElseThrow().state());
+        assertEquals(JobState.WRITING, jobService.list(10).getFirst().state());
+    }
+
+    @Test
+    void testFinishedJobIsReadFromStore() throws IOException {
+        // Given
+        jobService.create("job-1", "repo");
+        jobService.transition("job-1", JobState.DONE);
+
+        // When
+        JobService otherInstance = new JobService(new FileJobStore(tempDir), clock);
+
+        // Then
+        assertEquals(JobState.DONE, otherInstance.find("job-1").orElseThrow().state());
+    }
+
+    @Test
+    void testListReturnsNewestJobsFirstUpToLimit() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            jobService.create("job-" + i, "repo-" + i);
+            clock.advance(Duration.ofMinutes(1));
+        }
+
+        // When
+        List<GenerationJob> jobs = jobService.list(2);
+
+        // Then
+        assertEquals(List.of("job-2", "job-1"), jobs.stream().map(GenerationJob::id).toList());
+    }
+
+    @Test
+    void testLatestForMatchesAnySpellingOfTheSourceUrl() {
+        // Given
+        jobService.create("old", "https://github.com/user/repo");
+        clock.advance(Duration.ofMinutes(1));
+        jobService.create("other", "https://github.com/user/other");
+        clock.advance(Duration.ofMinutes(1));
+        jobService.create("new", "git@github.com:user/repo.git");
+
+        // When
+        Optional<GenerationJob> latest = jobService.latestFor("https://GitHub.com/user/repo/", 10);
+
+        // Then
+        assertEquals("new", latest.orElseThrow().id());
+    }
+
+    @Test
+    void testLatestForFindsJobBeyondListLimit() {
+        // Given
+        jobService.create("repo-job", "https://github.com/user/repo");
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofMinutes(1));
+            jobService.create("other-" + i, "https://github.com/user/other-" + i);
+        }
+
+        // When
+        Optional<GenerationJob> latest = jobService.latestFor("git@github.com:user/repo.git", 1);
+
+        // Then
+        assertEquals("repo-job", latest.orElseThrow().id());
+    }
+
+    @Test
+    void testPruneRemovesJobsPastRetention() throws IOException {
+        // Given
+        jobService.create("old", "https://github.com/user/old");
+        jobService.transition("old", JobState.DONE);
+        clock.advance(Duration.ofDays(8));
+        jobService.create("new", "https://github.com/user/new");
+        jobService.transition("new", JobState.DONE);
+
+        // When
+        int pruned = jobService.prune(Duration.ofDays(7));
+
+        // Then
+        assertEquals(1, pruned);
+        assertTrue(store.find("old").isEmpty());
+        assertTrue(store.findLatest("https://github.com/user/old").isEmpty());
+        assertEquals("new", jobService.latestFor("https://github.com/user/new", 10).orElseThrow().id());
+    }
+
+    @Test
+    void testPruneKeepsJobsThisInstanceIsRunning() {
+        // Given
+        jobService.create("running", "repo");
+        jobService.transition("running", JobState.WRITING);
+        clock.advance(Duration.ofDays(8));
+
+        // When & Then
+        assertEquals(0, jobService.prune(Duration.ofDays(7)));
+    }
+
+    @Test
+    void testConfiguredRetentionPrunesJobsOnStartup() throws Exception {
+        // Given
+        jobService.create("old", "https://github.com/user/old");
+        jobService.transition("old", JobState.DONE);
+        JobService started = new JobService();
+        started.waverConfig = config(Duration.ofDays(7));
+
+        // When
+        started.init();
+
+        // Then
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (store.find("old").isPresent() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(store.find("old").isEmpty());
+        } finally {
+            started.stop();
+        }
+    }
+
+    @Test
+    void testZeroRetentionKeepsJobsForever() throws IOException {
+        // Given
+        jobService.create("old", "https://github.com/user/old");
+        jobService.transition("old", JobState.DONE);
+        JobService started = new JobService();
+        started.waverConfig = config(Duration.ZERO);
+
+        // When
+        started.init();
+        started.stop();
+
+        // Then
+        assertTrue(store.find("old").isPresent());
+    }
+
+    @Test
+    void testStoreFailuresDoNotFailTheGeneration() {
+        // Given
+        JobService unavailable = new JobService(new FailingJobStore(), clock);
+
+        // When
+        unavailable.create("job-1", "repo");
+        unavailable.transition("job-1", JobState.CRAWLING);
+
+        // Then
+        assertEquals(JobState.CRAWLING, unavailable.find("job-1").orElseThrow().state());
+        assertEquals(1, unavailable.list(10).size());
+    }
+
+    @Test
+    void testDiscardRemovesJob() throws IOException {
+        // Given
+        jobService.create("job-1", "repo");
+
+        // When
+        jobService.discard("job-1");
+
+        // Then
+        assertTrue(jobService.find("job-1").isEmpty());
+        assertTrue(store.find("job-1").isEmpty());
+        assertTrue(store.findLatest("repo").isEmpty());
+    }
+
+    /**
+     * Test implementation of JobStore whose backend is unreachable.
+     */
+    /**
+     * Creates a configuration that only provides the job settings, storing
+     * jobs in the test directory.
+     */
+    private WaverConfig config(Duration retention) {
+        WaverConfig.Jobs jobs = (WaverConfig.Jobs) Proxy.newProxyInstance(WaverConfig.Jobs.class.getClassLoader(),
+                new Class<?>[]{WaverConfig.Jobs.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "store" -> WaverConfig.Jobs.Store.LOCAL;
+                    case "path" -> tempDir.toString();
+                    case "listLimit" -> 50;
+                    case "retention" -> retention;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (WaverConfig) Proxy.newProxyInstance(WaverConfig.class.getClassLoader(),
+                new Class<?>[]{WaverConfig.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("jobs")) {
+                        return jobs;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class FailingJobStore implements JobStore {
+        @Override
+        public void save(GenerationJob job) throws IOException {
+            throw new IOException("Store unavailable");
+        }
+
+        @Override
+        public Optional<GenerationJob> find(String id) throws IOException {
+            throw new IOException("Store unavailable");
+        }
+
+        @Override
+        public List<GenerationJob> list() throws IOException {
+            throw new IOException("Store unavailable");
+        }
+
+        @Override
+        public void delete(String id) throws IOException {
+            throw new IOException("Store unavailable");
+        }
+
+        @Override
+        public void saveLatest(String key, String id) throws IOException {
+            throw new IOException("Store unavailable");
+        }
+
+        @Override
+        public Optional<String> findLatest(String key) throws IOException {
+            throw new IOException("Store unavailable");
+        }
+
+        @Override
+        public void deleteLatest(String key) throws IOException {
+            throw new IOException("Store unavailable");
+        }
+    }
+
+    /**
+     * Test implementation of Clock that only moves when told to.
+     */
+    private static class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
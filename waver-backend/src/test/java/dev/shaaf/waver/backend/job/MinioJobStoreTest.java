@@ -0,0 +1,118 @@
+package dev.shaaf.waver.backend.job;
+
+import dev.shaaf.waver.backend.minio.InMemoryMinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinioJobStore.
+ */
+class MinioJobStoreTest {
+
+    private static final String BUCKET = "tutorials";
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private InMemoryMinioClient minioClient;
+    private MinioJobStore store;
+
+    @BeforeEach
+    void setUp() {
+        minioClient = new InMemoryMinioClient();
+        store = new MinioJobStore(minioClient, BUCKET);
+    }
+
+    @Test
+    void testJobsAreStoredUnderHiddenPrefix() throws IOException {
+        // When
+        store.save(GenerationJob.queued("job-1", "repo", NOW));
+
+        // Then
+        assertTrue(minioClient.getObjects().containsKey(BUCKET + "/.waver/jobs/job-1.json"));
+        assertEquals(".waver/jobs/job-1.json", MinioJobStore.objectName("job-1"));
+    }
+
+    @Test
+    void testSavedJobCanBeFound() throws IOException {
+        // Given
+        GenerationJob job = GenerationJob.queued("job-1", "repo", NOW).withState(JobState.UPLOADING, NOW.plusSeconds(30));
+        store.save(job);
+
+        // When & Then
+        assertEquals(Optional.of(job), store.find("job-1"));
+        assertTrue(store.find("missing").isEmpty());
+    }
+
+    @Test
+    void testListOnlyReturnsJobObjects() throws IOException {
+        // Given
+        store.save(GenerationJob.queued("job-1", "repo-a", NOW));
+        store.save(GenerationJob.queued("job-2", "repo-b", NOW));
+        minioClient.putDirect(BUCKET, "repo-a/index.md", "# Tutorial".getBytes(StandardCharsets.UTF_8));
+        minioClient.putDirect(BUCKET, ".waver/jobs/broken.json", "{".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        List<GenerationJob> jobs = store.list();
+
+        // Then
+        assertEquals(List.of("job-1", "job-2"), jobs.stream().map(GenerationJob::id).sorted().toList());
+    }
+
+    @Test
+    void testRepeatedListOnlyReadsChangedJobs() throws IOException {
+        // Given
+        store.save(GenerationJob.queued("job-1", "repo-a", NOW));
+        store.save(GenerationJob.queued("job-2", "repo-b", NOW));
+        store.list();
+        store.save(GenerationJob.queued("job-2", "repo-b", NOW).withState(JobState.CRAWLING, NOW.plusSeconds(1)));
+        int requests = minioClient.getRequestCount();
+
+        // When
+        List<GenerationJob> jobs = store.list();
+
+        // Then
+        assertEquals(1, minioClient.getRequestCount() - requests);
+        assertEquals(List.of(JobState.QUEUED, JobState.CRAWLING),
+                jobs.stream().sorted(Comparator.comparing(GenerationJob::id)).map(GenerationJob::state).toList());
+    }
+
+    @Test
+    void testLatestJobPointerIsKeptOutsideJobListing() throws IOException {
+        // Given
+        store.save(GenerationJob.queued("job-1", "https://github.com/user/repo", NOW));
+
+        // When
+        store.saveLatest("https://github.com/user/repo", "job-1");
+
+        // Then
+        assertEquals(Optional.of("job-1"), store.findLatest("https://github.com/user/repo"));
+        assertTrue(store.findLatest("https://github.com/user/other").isEmpty());
+        assertEquals(List.of("job-1"), store.list().stream().map(GenerationJob::id).toList());
+
+        // When
+        store.deleteLatest("https://github.com/user/repo");
+
+        // Then
+        assertTrue(store.findLatest("https://github.com/user/repo").isEmpty());
+    }
+
+    @Test
+    void testDeleteRemovesJob() throws IOException {
+        // Given
+        store.save(GenerationJob.queued("job-1", "repo", NOW));
+
+        // When
+        store.delete("job-1");
+
+        // Then
+        assertTrue(store.find("job-1").isEmpty());
+    }
+}
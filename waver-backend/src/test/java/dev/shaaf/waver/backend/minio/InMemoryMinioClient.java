@@ -0,0 +1,224 @@
+package dev.shaaf.waver.backend.minio;
+
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.Result;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.Contents;
+import io.minio.messages.ErrorResponse;
+import io.minio.messages.Item;
+import okhttp3.Headers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for an S3/MinIO server used by unit tests.
+ * <p>
+ * Objects are kept in memory and every request can be delayed by a fixed
+ * latency to simulate a network round trip. The client also records how many
+ * requests were in flight at the same time so tests can verify concurrency limits.
+ * <p>
+ * Every write gives the object a new ETag, returned with reads and listings,
+ * and writes honor the {@code If-Match} and {@code If-None-Match: *} preconditions.
+ * <p>
+ * Public so that tests of other packages storing objects in MinIO can use it.
+ */
+public class InMemoryMinioClient extends MinioClient {
+
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final List<String> writeLog = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> deleteLog = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Integer> partCounts = new ConcurrentHashMap<>();
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    private final AtomicInteger etagSequence = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile long latencyMillis;
+
+    public InMemoryMinioClient() {
+        this(0);
+    }
+
+    InMemoryMinioClient(long latencyMillis) {
+        super(MinioClient.builder().endpoint("http://localhost:9000").build());
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public ObjectWriteResponse putObject(PutObjectArgs args) throws IOException, ErrorResponseException {
+        String key = key(args.bucket(), args.object());
+        byte[] content = request(() -> args.stream().readAllBytes());
+        String etag;
+        synchronized (objects) {
+            String current = etags.get(key);
+            Collection<String> ifMatch = args.headers().get("If-Match");
+            Collection<String> ifNoneMatch = args.headers().get("If-None-Match");
+            if ((!ifMatch.isEmpty() && (current == null || !ifMatch.contains(current)))
+                    || (ifNoneMatch.contains("*") && current != null)) {
+                throw new ErrorResponseException(
+                        new ErrorResponse("PreconditionFailed", "At least one of the pre-conditions you specified did not hold",
+                                args.bucket(), args.object(), null, null, null),
+                        null, null);
+            }
+            etag = "\"" + etagSequence.incrementAndGet() + "\"";
+            objects.put(key, content);
+            etags.put(key, etag);
+        }
+        partCounts.put(args.object(), args.partCount());
+        contentTypes.put(args.object(), args.contentType());
+        writeLog.add(args.object());
+        return new ObjectWriteResponse(null, args.bucket(), null, args.object(), etag, null);
+    }
+
+    @Override
+    public GetObjectResponse getObject(GetObjectArgs args) throws IOException, ErrorResponseException {
+        String key = key(args.bucket(), args.object());
+        StoredObject stored = request(() -> {
+            synchronized (objects) {
+                return new StoredObject(objects.get(key), etags.get(key));
+            }
+        });
+        if (stored.content() == null) {
+            throw new ErrorResponseException(
+                    new ErrorResponse("NoSuchKey", "Object does not exist", args.bucket(), args.object(), null, null, null),
+                    null, null);
+        }
+        return new GetObjectResponse(Headers.of("ETag", stored.etag()), args.bucket(), null, args.object(),
+                new ByteArrayInputStream(stored.content()));
+    }
+
+    @Override
+    public Iterable<Result<Item>> listObjects(ListObjectsArgs args) {
+        String bucketPrefix = key(args.bucket(), args.prefix() == null ? "" : args.prefix());
+        List<Result<Item>> results = new ArrayList<>();
+        for (String key : new TreeMap<>(objects).keySet()) {
+            if (key.startsWith(bucketPrefix)) {
+                String etag = etags.get(key);
+                results.add(new Result<>(new Contents(key.substring(args.bucket().length() + 1)) {
+                    @Override
+                    public String etag() {
+                        return etag;
+                    }
+                }));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void removeObject(RemoveObjectArgs args) throws IOException {
+        request(() -> {
+            synchronized (objects) {
+                objects.remove(key(args.bucket(), args.object()));
+                etags.remove(key(args.bucket(), args.object()));
+            }
+            deleteLog.add(args.object());
+            return null;
+        });
+    }
+
+    /**
+     * Stores an object directly, without counting it as a request.
+     */
+    public void putDirect(String bucket, String object, byte[] content) {
+        synchronized (objects) {
+            objects.put(key(bucket, object), content);
+            etags.put(key(bucket, object), "\"" + etagSequence.incrementAndGet() + "\"");
+        }
+    }
+
+    /**
+     * Returns a snapshot of the stored objects keyed by "bucket/object", sorted by key.
+     */
+    public Map<String, byte[]> getObjects() {
+        return new TreeMap<>(objects);
+    }
+
+    /**
+     * Returns the names of all written objects in the order the writes completed.
+     */
+    List<String> getWriteLog() {
+        return new ArrayList<>(writeLog);
+    }
+
+    /**
+     * Returns the names of all removed objects in the order the removals completed.
+     */
+    List<String> getDeleteLog() {
+        return new ArrayList<>(deleteLog);
+    }
+
+    /**
+     * Returns the number of parts the last write of an object was split into,
+     * or -1 if the client would have decided on its own.
+     */
+    int getPartCount(String object) {
+        return partCounts.get(object);
+    }
+
+    /**
+     * Returns the content type the last write of an object was sent with.
+     */
+    String getContentType(String object) {
+        return contentTypes.get(object);
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Returns the number of reads, writes and removals sent so far; listings are not counted.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    private static String key(String bucket, String object) {
+        return bucket + "/" + object;
+    }
+
+    private <T> T request(IoCall<T> call) throws IOException {
+        requestCount.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            return call.call();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private record StoredObject(byte[] content, String etag) {
+    }
+
+    @FunctionalInterface
+    private interface IoCall<T> {
+        T call() throws IOException;
+    }
+}
@@ -4,9 +4,12 @@ import dev.shaaf.waver.backend.config.MinioConfig;
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
+import io.quarkus.runtime.configuration.MemorySize;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -273,8 +276,35 @@ class MinioBucketInitializerTest {
             return bucketName;
         }
 
+        @Override
+        public Upload upload() {
+            return new TestUpload();
+        }
+
         public void setBucketName(String bucketName) {
             this.bucketName = bucketName;
         }
     }
+
+    private static class TestUpload implements MinioConfig.Upload {
+        @Override
+        public int concurrency() {
+            return 8;
+        }
+
+        @Override
+        public boolean streaming() {
+            return false;
+        }
+
+        @Override
+        public Duration pollInterval() {
+            return Duration.ofSeconds(2);
+        }
+
+        @Override
+        public MemorySize partSize() {
+            return new MemorySize(BigInteger.valueOf(16L * 1024 * 1024));
+        }
+    }
 }
@@ -2,9 +2,13 @@ package dev.shaaf.waver.backend.minio;
 
 import dev.shaaf.waver.backend.config.MinioConfig;
 import io.minio.MinioClient;
+import io.quarkus.runtime.configuration.MemorySize;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -172,6 +176,11 @@ class MinioClientProducerTest {
             return bucketName;
         }
 
+        @Override
+        public Upload upload() {
+            return new TestUpload();
+        }
+
         public void setEndpoint(String endpoint) {
             this.endpoint = endpoint;
         }
@@ -188,4 +197,26 @@ class MinioClientProducerTest {
             this.bucketName = bucketName;
         }
     }
+
+    private static class TestUpload implements MinioConfig.Upload {
+        @Override
+        public int concurrency() {
+            return 8;
+        }
+
+        @Override
+        public boolean streaming() {
+            return false;
+        }
+
+        @Override
+        public Duration pollInterval() {
+            return Duration.ofSeconds(2);
+        }
+
+        @Override
+        public MemorySize partSize() {
+            return new MemorySize(BigInteger.valueOf(16L * 1024 * 1024));
+        }
+    }
 }
@@ -4,6 +4,7 @@ import dev.shaaf.jgraphlet.PipelineContext;
 import dev.shaaf.waver.backend.FileUtil;
 import dev.shaaf.waver.llm.tutorial.model.GenerationContext;
 import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
 import io.minio.UploadObjectArgs;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -194,6 +195,343 @@ class MinioUploaderTaskTest {
         assertTrue(result.failedUploads().stream().anyMatch(path -> path.contains("failure.txt")));
     }
 
+    @Test
+    void testUploadDirectoryWithRealTaskUploadsAllFiles() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("index.md"), "index");
+        Path subDir = Files.createDirectories(tempDir.resolve("chapters"));
+        Files.writeString(subDir.resolve("01_intro.md"), "intro");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+        String prefix = "test-bucket/" + task.uploadProjectName + "/";
+
+        // When
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(0, result.getFailureCount());
+        assertArrayEquals("index".getBytes(), s3.getObjects().get(prefix + "index.md"));
+        assertArrayEquals("intro".getBytes(), s3.getObjects().get(prefix + "chapters/01_intro.md"));
+    }
+
+    @Test
+    void testParallelUploadReportsResultsInWalkOrder() throws IOException {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(tempDir.resolve(String.format("chapter_%02d.md", i)), "content " + i);
+        }
+        MinioUploaderTask serial = new MinioUploaderTask(new InMemoryMinioClient(10), tempDir, "test-bucket", 1);
+        MinioUploaderTask parallel = new MinioUploaderTask(new InMemoryMinioClient(10), tempDir, "test-bucket", 8);
+
+        // When
+        UploadResult serialResult = serial.uploadDirectory(tempDir, "test-bucket");
+        UploadResult parallelResult = parallel.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(20, parallelResult.getSuccessCount());
+        assertEquals(serialResult.successfulUploads(), parallelResult.successfulUploads());
+        assertTrue(parallelResult.successfulUploads().get(0).endsWith("chapter_00.md"));
+        assertTrue(parallelResult.successfulUploads().get(19).endsWith("chapter_19.md"));
+    }
+
+    @Test
+    void testUploadConcurrencyIsBounded() throws IOException {
+        // Given
+        for (int i = 0; i < 16; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".txt"), "content");
+        }
+        InMemoryMinioClient s3 = new InMemoryMinioClient(20);
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 3);
+
+        // When
+        task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(17, s3.getWriteLog().size());
+        assertTrue(s3.getMaxInFlight() <= 3, "max in flight was " + s3.getMaxInFlight());
+        assertTrue(s3.getMaxInFlight() > 1, "uploads never overlapped");
+    }
+
+    @Test
+    void testUploadsOverlapOnlyWithConcurrency() throws IOException {
+        // Given
+        for (int i = 0; i < 24; i++) {
+            Files.writeString(tempDir.resolve("chapter" + i + ".md"), "content " + i);
+        }
+        InMemoryMinioClient serial = new InMemoryMinioClient(25);
+        InMemoryMinioClient parallel = new InMemoryMinioClient(25);
+
+        // When
+        UploadResult serialResult = new MinioUploaderTask(serial, tempDir, "test-bucket", 1)
+                .uploadDirectory(tempDir, "test-bucket");
+        UploadResult parallelResult = new MinioUploaderTask(parallel, tempDir, "test-bucket", 8)
+                .uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(0, serialResult.getFailureCount());
+        assertEquals(0, parallelResult.getFailureCount());
+        assertEquals(1, serial.getMaxInFlight());
+        assertTrue(parallel.getMaxInFlight() > 1, "uploads never overlapped");
+        assertTrue(parallel.getMaxInFlight() <= 8, "max in flight was " + parallel.getMaxInFlight());
+    }
+
+    @Test
+    void testUploadFailuresAreCollectedWithParallelUploads() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("ok.txt"), "content");
+        Path unreadable = tempDir.resolve("gone.txt");
+        Files.writeString(unreadable, "content");
+        InMemoryMinioClient s3 = new InMemoryMinioClient() {
+            @Override
+            public io.minio.ObjectWriteResponse putObject(PutObjectArgs args)
+                    throws IOException, io.minio.errors.ErrorResponseException {
+                if (args.object().endsWith("gone.txt")) {
+                    throw new IOException("Simulated failure");
+                }
+                return super.putObject(args);
+            }
+        };
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+
+        // When
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(List.of(unreadable.toString()), result.failedUploads());
+    }
+
+    @Test
+    void testConstructorRejectsInvalidConcurrency() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MinioUploaderTask(new InMemoryMinioClient(), tempDir, "test-bucket", 0));
+    }
+
+    @Test
+    void testCommitMarkerIsUploadedLast() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("a_first.md"), "a");
+        Files.writeString(tempDir.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+        Files.writeString(tempDir.resolve("z_last.md"), "z");
+        InMemoryMinioClient s3 = new InMemoryMinioClient(5);
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+
+        // When
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(3, result.getSuccessCount());
+        List<String> writeLog = s3.getWriteLog();
+        assertTrue(writeLog.get(writeLog.size() - 2).endsWith(MinioUploaderTask.COMMIT_MARKER));
+        assertTrue(writeLog.get(writeLog.size() - 1).endsWith(UploadManifest.OBJECT_NAME));
+        assertTrue(result.successfulUploads().get(2).endsWith(MinioUploaderTask.COMMIT_MARKER));
+    }
+
+    @Test
+    void testCommitMarkerIsNotUploadedWhenAnotherUploadFails() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("broken.md"), "content");
+        Path marker = Files.writeString(tempDir.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+        InMemoryMinioClient s3 = new InMemoryMinioClient() {
+            @Override
+            public io.minio.ObjectWriteResponse putObject(PutObjectArgs args)
+                    throws IOException, io.minio.errors.ErrorResponseException {
+                if (args.object().endsWith("broken.md")) {
+                    throw new IOException("Simulated failure");
+                }
+                return super.putObject(args);
+            }
+        };
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+
+        // When
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(0, result.getSuccessCount());
+        assertTrue(result.failedUploads().contains(marker.toString()));
+        assertFalse(s3.getObjects().keySet().stream().anyMatch(key -> key.endsWith(MinioUploaderTask.COMMIT_MARKER)));
+    }
+
+    @Test
+    void testExecuteSkipsFilesAlreadyStreamed() throws IOException, ExecutionException, InterruptedException {
+        // Given
+        Path outputDir = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        StreamingMinioUploader streamingUploader =
+                new StreamingMinioUploader(s3, outputDir, "test-bucket", java.time.Duration.ofMinutes(1));
+        streamingUploader.poll();
+        streamingUploader.poll();
+        Files.writeString(outputDir.resolve("02_core.md"), "core");
+        Files.writeString(outputDir.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+        MinioUploaderTask task = new MinioUploaderTask(s3, outputDir, "test-bucket", 4, streamingUploader);
+
+        // When
+        UploadResult result = task.execute(generationContext, null).get();
+
+        // Then
+        assertEquals(List.of("project/01_intro.md", "project/02_core.md", "project/" + MinioUploaderTask.COMMIT_MARKER),
+                result.successfulUploads());
+        assertEquals(List.of("project/01_intro.md", "project/02_core.md", "project/" + MinioUploaderTask.COMMIT_MARKER,
+                "project/" + UploadManifest.OBJECT_NAME), s3.getWriteLog());
+    }
+
+    @Test
+    void testStreamedRerunWithUnchangedConfigKeepsCommitMarker() throws Exception {
+        // Given
+        Path outputDir = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+        Files.writeString(outputDir.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        new MinioUploaderTask(s3, outputDir, "test-bucket", 4).uploadDirectory(outputDir, "test-bucket");
+        StreamingMinioUploader streamingUploader =
+                new StreamingMinioUploader(s3, outputDir, "test-bucket", java.time.Duration.ofMinutes(1));
+        Files.writeString(outputDir.resolve("01_intro.md"), "intro, revised");
+        streamingUploader.poll();
+        streamingUploader.poll();
+        assertFalse(s3.getObjects().containsKey("test-bucket/project/" + MinioUploaderTask.COMMIT_MARKER));
+
+        // When
+        UploadResult result = new MinioUploaderTask(s3, outputDir, "test-bucket", 4, streamingUploader)
+                .execute(generationContext, null).get();
+
+        // Then
+        assertTrue(result.successfulUploads().contains("project/" + MinioUploaderTask.COMMIT_MARKER));
+        assertArrayEquals("{}".getBytes(), s3.getObjects().get("test-bucket/project/" + MinioUploaderTask.COMMIT_MARKER));
+    }
+
+    @Test
+    void testUnchangedFilesAreSkippedOnReupload() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("index.md"), "index");
+        Files.writeString(tempDir.resolve("01_intro.md"), "intro");
+        Files.writeString(tempDir.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+        UploadResult first = task.uploadDirectory(tempDir, "test-bucket");
+
+        // When
+        Files.writeString(tempDir.resolve("01_intro.md"), "intro, revised");
+        UploadResult second = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(3, first.getSuccessCount());
+        assertEquals(0, first.getSkippedCount());
+        assertEquals(List.of(task.uploadProjectName + "/01_intro.md",
+                task.uploadProjectName + "/" + MinioUploaderTask.COMMIT_MARKER), second.successfulUploads());
+        assertEquals(1, second.getSkippedCount());
+        assertEquals("intro, revised".length() + "{}".length(), second.uploadedBytes());
+        assertEquals("index".length(), second.skippedBytes());
+    }
+
+    @Test
+    void testObjectsNoLongerGeneratedAreDeleted() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("index.md"), "index");
+        Path removed = Files.writeString(tempDir.resolve("old_chapter.md"), "old");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+        task.uploadDirectory(tempDir, "test-bucket");
+        String staleObject = task.uploadProjectName + "/old_chapter.md";
+
+        // When
+        Files.delete(removed);
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(List.of(staleObject), result.deletedObjects());
+        assertEquals(List.of(staleObject), s3.getDeleteLog());
+        assertFalse(s3.getObjects().containsKey("test-bucket/" + staleObject));
+    }
+
+    @Test
+    void testManifestRecordsHashOfEveryStoredFile() throws Exception {
+        // Given
+        Path index = Files.writeString(tempDir.resolve("index.md"), "index");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+
+        // When
+        task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        UploadManifest manifest = UploadManifest.load(s3, "test-bucket", task.uploadProjectName);
+        assertEquals(1, manifest.files().size());
+        assertEquals(UploadManifest.sha256(index), manifest.hashOf(task.uploadProjectName + "/index.md"));
+    }
+
+    @Test
+    void testFailedUploadIsRetriedOnNextRun() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("flaky.md"), "content");
+        boolean[] fail = {true};
+        InMemoryMinioClient s3 = new InMemoryMinioClient() {
+            @Override
+            public io.minio.ObjectWriteResponse putObject(PutObjectArgs args)
+                    throws IOException, io.minio.errors.ErrorResponseException {
+                if (fail[0]) {
+                    throw new IOException("Simulated failure");
+                }
+                return super.putObject(args);
+            }
+        };
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4);
+        task.uploadDirectory(tempDir, "test-bucket");
+
+        // When
+        fail[0] = false;
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(0, result.getSkippedCount());
+    }
+
+    @Test
+    void testLargeFileIsUploadedInParts() throws IOException {
+        // Given
+        int partSize = 5 * 1024 * 1024;
+        Path large = tempDir.resolve("large.bin");
+        Files.write(large, new byte[2 * partSize + 1]);
+        Files.writeString(tempDir.resolve("small.md"), "small");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket", 4, null, partSize);
+        String prefix = FileUtil.getFolderNameFromInputPath(tempDir.toString()) + "/";
+
+        // When
+        UploadResult result = task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals(0, result.getFailureCount());
+        assertEquals(2L * partSize + 1 + "small".length(), result.uploadedBytes());
+        assertEquals(3, s3.getPartCount(prefix + "large.bin"));
+        assertEquals(1, s3.getPartCount(prefix + "small.md"));
+        assertEquals(2L * partSize + 1, s3.getObjects().get("test-bucket/" + prefix + "large.bin").length);
+    }
+
+    @Test
+    void testUnknownFileTypeIsUploadedAsOctetStream() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("data.waver-unknown"), "data");
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        MinioUploaderTask task = new MinioUploaderTask(s3, tempDir, "test-bucket");
+        String prefix = FileUtil.getFolderNameFromInputPath(tempDir.toString()) + "/";
+
+        // When
+        task.uploadDirectory(tempDir, "test-bucket");
+
+        // Then
+        assertEquals("application/octet-stream", s3.getContentType(prefix + "data.waver-unknown"));
+    }
+
+    @Test
+    void testConstructorRejectsPartSizeBelowS3Minimum() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MinioUploaderTask(new InMemoryMinioClient(), tempDir, "test-bucket", 4, null, 1024));
+    }
+
     /**
      * Test version of MinioUploaderTask that uses our TestMinioClient.
      */
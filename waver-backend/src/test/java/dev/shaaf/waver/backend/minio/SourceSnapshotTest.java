@@ -0,0 +1,123 @@
+package dev.shaaf.waver.backend.minio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SourceSnapshot record.
+ * <p>
+ * Tests the comparison of snapshots and their round trip through an in-memory MinIO stand-in.
+ */
+class SourceSnapshotTest {
+
+    private static final String URL = "https://github.com/user/repo";
+
+    @Test
+    void testLoadReturnsEmptyWhenNoneExists() throws Exception {
+        // When
+        Optional<SourceSnapshot> snapshot = SourceSnapshot.load(new InMemoryMinioClient(), "test-bucket", "project");
+
+        // Then
+        assertTrue(snapshot.isEmpty());
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws Exception {
+        // Given
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        SourceSnapshot snapshot = new SourceSnapshot("/src/repo", "abc123", "OpenAI/MARKDOWN/TUTORIAL",
+                Map.of("src/App.java", "h1"));
+
+        // When
+        snapshot.save(s3, "test-bucket", "project");
+        Optional<SourceSnapshot> loaded = SourceSnapshot.load(s3, "test-bucket", "project");
+
+        // Then
+        assertEquals(Optional.of(snapshot), loaded);
+        assertTrue(s3.getObjects().containsKey("test-bucket/project/" + SourceSnapshot.OBJECT_NAME));
+    }
+
+    @Test
+    void testSameCommitAndSettingsMatch() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot(URL, "abc123", "OpenAI/MARKDOWN", Map.of());
+        SourceSnapshot current = new SourceSnapshot(URL, "abc123", "OpenAI/MARKDOWN", Map.of());
+
+        // When & Then
+        assertTrue(current.matches(previous));
+    }
+
+    @Test
+    void testNewCommitDoesNotMatch() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot(URL, "abc123", "OpenAI/MARKDOWN", Map.of());
+        SourceSnapshot current = new SourceSnapshot(URL, "def456", "OpenAI/MARKDOWN", Map.of());
+
+        // When & Then
+        assertFalse(current.matches(previous));
+    }
+
+    @Test
+    void testChangedSettingsDoNotMatch() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot(URL, "abc123", "OpenAI/MARKDOWN", Map.of());
+        SourceSnapshot current = new SourceSnapshot(URL, "abc123", "Gemini/MARKDOWN", Map.of());
+
+        // When & Then
+        assertFalse(current.matches(previous));
+    }
+
+    @Test
+    void testUncommittedChangeDoesNotMatch() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot("/src/repo", "abc123", "s", Map.of("App.java", "h1"));
+        SourceSnapshot current = new SourceSnapshot("/src/repo", "abc123", "s", Map.of("App.java", "h2"));
+
+        // When & Then
+        assertFalse(current.matches(previous));
+    }
+
+    @Test
+    void testSnapshotWithoutCommitOrFilesNeverMatches() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot(URL, null, "s", Map.of());
+        SourceSnapshot current = new SourceSnapshot(URL, null, "s", Map.of());
+
+        // When & Then
+        assertFalse(current.matches(previous));
+        assertFalse(current.matches(null));
+    }
+
+    @Test
+    void testLocalDirectoryWithoutGitMatchesOnFileHashes() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot("/src/repo", null, "s", Map.of("App.java", "h1"));
+        SourceSnapshot current = new SourceSnapshot("/src/repo", null, "s", Map.of("App.java", "h1"));
+
+        // When & Then
+        assertTrue(current.matches(previous));
+    }
+
+    @Test
+    void testChangesSinceListsAddedModifiedAndRemovedFiles() {
+        // Given
+        SourceSnapshot previous = new SourceSnapshot("/src/repo", "a", "s",
+                Map.of("Kept.java", "h1", "Edited.java", "h2", "Deleted.java", "h3"));
+        SourceSnapshot current = new SourceSnapshot("/src/repo", "b", "s",
+                Map.of("Kept.java", "h1", "Edited.java", "h4", "New.java", "h5"));
+
+        // When
+        SourceSnapshot.Changes changes = current.changesSince(previous);
+
+        // Then
+        assertEquals(List.of("New.java"), changes.added());
+        assertEquals(List.of("Edited.java"), changes.modified());
+        assertEquals(List.of("Deleted.java"), changes.removed());
+        assertEquals(3, changes.size());
+    }
+}
@@ -0,0 +1,222 @@
+package dev.shaaf.waver.backend.minio;
+
+import io.minio.RemoveObjectArgs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StreamingMinioUploader.
+ * <p>
+ * Scans are triggered directly through {@code poll()} so the tests do not
+ * depend on scheduler timing.
+ */
+class StreamingMinioUploaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path outputDir;
+    private InMemoryMinioClient s3;
+    private StreamingMinioUploader uploader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        outputDir = Files.createDirectories(tempDir.resolve("my-project"));
+        s3 = new InMemoryMinioClient();
+        uploader = new StreamingMinioUploader(s3, outputDir, "test-bucket", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testFileIsUploadedOnceItIsStable() throws IOException {
+        // Given
+        Path chapter = Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+
+        // When
+        uploader.poll();
+
+        // Then
+        assertTrue(s3.getObjects().isEmpty(), "file must be seen unchanged twice before upload");
+
+        // When
+        uploader.poll();
+
+        // Then
+        assertEquals(List.of("my-project/01_intro.md"), s3.getWriteLog());
+        assertTrue(uploader.isUploaded(chapter));
+        assertEquals(1, uploader.getUploadedCount());
+    }
+
+    @Test
+    void testUnchangedFileIsNotUploadedTwice() throws IOException {
+        // Given
+        Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+
+        // When
+        uploader.poll();
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertEquals(1, s3.getWriteLog().size());
+    }
+
+    @Test
+    void testChangedFileIsUploadedAgain() throws IOException {
+        // Given
+        Path chapter = Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+        uploader.poll();
+        uploader.poll();
+
+        // When
+        Files.writeString(chapter, "intro, revised");
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertEquals(2, s3.getWriteLog().size());
+        assertArrayEquals("intro, revised".getBytes(), s3.getObjects().get("test-bucket/my-project/01_intro.md"));
+        assertTrue(uploader.isUploaded(chapter));
+    }
+
+    @Test
+    void testCommitMarkerIsNeverStreamed() throws IOException {
+        // Given
+        Files.writeString(outputDir.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+        Files.writeString(outputDir.resolve("index.md"), "index");
+
+        // When
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertEquals(List.of("my-project/index.md"), s3.getWriteLog());
+    }
+
+    @Test
+    void testCommitMarkerOfPreviousRunIsRemovedBeforeFirstFileIsStreamed() throws IOException {
+        // Given
+        s3.putDirect("test-bucket", "my-project/" + MinioUploaderTask.COMMIT_MARKER, "{}".getBytes());
+        Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+
+        // When
+        uploader.poll();
+
+        // Then
+        assertTrue(s3.getObjects().containsKey("test-bucket/my-project/" + MinioUploaderTask.COMMIT_MARKER),
+                "marker must stay until a file is streamed");
+
+        // When
+        uploader.poll();
+        Files.writeString(outputDir.resolve("02_core.md"), "core");
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertFalse(s3.getObjects().containsKey("test-bucket/my-project/" + MinioUploaderTask.COMMIT_MARKER));
+        assertEquals(List.of("my-project/" + MinioUploaderTask.COMMIT_MARKER), s3.getDeleteLog());
+        assertEquals(List.of("my-project/01_intro.md", "my-project/02_core.md"), s3.getWriteLog());
+    }
+
+    @Test
+    void testNothingIsStreamedWhileCommitMarkerCannotBeRemoved() throws IOException {
+        // Given
+        InMemoryMinioClient failingRemovals = new InMemoryMinioClient() {
+            @Override
+            public void removeObject(RemoveObjectArgs args) throws IOException {
+                throw new IOException("Service unavailable");
+            }
+        };
+        uploader = new StreamingMinioUploader(failingRemovals, outputDir, "test-bucket", Duration.ofSeconds(1));
+        Path chapter = Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+
+        // When
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertTrue(failingRemovals.getWriteLog().isEmpty());
+        assertFalse(uploader.isUploaded(chapter));
+    }
+
+    @Test
+    void testFilesFromEarlierRunsAreIgnored() throws IOException {
+        // Given
+        Path stale = Files.writeString(outputDir.resolve("old.md"), "old");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+
+        // When
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertTrue(s3.getObjects().isEmpty());
+        assertFalse(uploader.isUploaded(stale));
+    }
+
+    @Test
+    void testNestedFilesKeepTheirRelativePath() throws IOException {
+        // Given
+        Path chapters = Files.createDirectories(outputDir.resolve("chapters"));
+        Files.writeString(chapters.resolve("02_core.md"), "core");
+
+        // When
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertEquals(List.of("my-project/chapters/02_core.md"), s3.getWriteLog());
+    }
+
+    @Test
+    void testFileMatchingPreviousManifestIsNotTransferred() throws Exception {
+        // Given
+        Path chapter = Files.writeString(outputDir.resolve("01_intro.md"), "intro");
+        UploadManifest previous = UploadManifest.empty();
+        previous.files().put("my-project/01_intro.md", UploadManifest.sha256(chapter));
+        previous.save(s3, "test-bucket", "my-project");
+        int writesBefore = s3.getWriteLog().size();
+
+        // When
+        uploader.poll();
+        uploader.poll();
+
+        // Then
+        assertEquals(writesBefore, s3.getWriteLog().size());
+        assertTrue(uploader.isUploaded(chapter));
+        assertFalse(uploader.streamedFile(chapter).transferred());
+    }
+
+    @Test
+    void testMissingOutputDirectoryIsIgnored() throws IOException {
+        // Given
+        Files.delete(outputDir);
+
+        // When & Then
+        assertDoesNotThrow(() -> uploader.poll());
+        assertEquals(0, s3.getRequestCount());
+    }
+
+    @Test
+    void testCloseIsIdempotent() {
+        // Given
+        uploader.start();
+
+        // When & Then
+        assertDoesNotThrow(() -> {
+            uploader.close();
+            uploader.close();
+        });
+    }
+}
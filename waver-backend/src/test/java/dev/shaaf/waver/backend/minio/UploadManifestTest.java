@@ -0,0 +1,63 @@
+package dev.shaaf.waver.backend.minio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UploadManifest record.
+ * <p>
+ * Tests hashing and the round trip of the manifest through an in-memory MinIO stand-in.
+ */
+class UploadManifestTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLoadReturnsEmptyManifestWhenNoneExists() throws Exception {
+        // When
+        UploadManifest manifest = UploadManifest.load(new InMemoryMinioClient(), "test-bucket", "project");
+
+        // Then
+        assertTrue(manifest.files().isEmpty());
+    }
+
+    @Test
+    void testSaveAndLoadRoundTrip() throws Exception {
+        // Given
+        InMemoryMinioClient s3 = new InMemoryMinioClient();
+        UploadManifest manifest = UploadManifest.empty();
+        manifest.files().put("project/index.md", "abc123");
+
+        // When
+        manifest.save(s3, "test-bucket", "project");
+        UploadManifest loaded = UploadManifest.load(s3, "test-bucket", "project");
+
+        // Then
+        assertEquals("abc123", loaded.hashOf("project/index.md"));
+        assertTrue(s3.getObjects().containsKey("test-bucket/project/" + UploadManifest.OBJECT_NAME));
+    }
+
+    @Test
+    void testSha256OfKnownContent() throws IOException {
+        // Given
+        Path file = Files.writeString(tempDir.resolve("hello.txt"), "hello");
+
+        // When
+        String hash = UploadManifest.sha256(file);
+
+        // Then
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", hash);
+    }
+
+    @Test
+    void testHashOfUnknownObjectIsNull() {
+        assertNull(UploadManifest.empty().hashOf("project/missing.md"));
+    }
+}
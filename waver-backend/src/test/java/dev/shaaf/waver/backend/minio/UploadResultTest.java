@@ -208,4 +208,30 @@ class UploadResultTest {
         assertEquals(3, result.getSuccessCount()); // Including duplicates
         assertEquals(2, result.getFailureCount()); // Including duplicates
     }
+
+    @Test
+    void testTwoArgumentConstructorReportsNoSkippedOrDeletedObjects() {
+        // When
+        UploadResult result = new UploadResult(List.of("file1.txt"), List.of());
+
+        // Then
+        assertEquals(0, result.getSkippedCount());
+        assertEquals(0, result.getDeletedCount());
+        assertEquals(0, result.uploadedBytes());
+        assertEquals(0, result.skippedBytes());
+    }
+
+    @Test
+    void testCreateUploadResultWithSkippedAndDeletedObjects() {
+        // When
+        UploadResult result = new UploadResult(List.of("changed.md"), List.of(),
+                List.of("same1.md", "same2.md"), List.of("removed.md"), 100, 250);
+
+        // Then
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(2, result.getSkippedCount());
+        assertEquals(1, result.getDeletedCount());
+        assertEquals(100, result.uploadedBytes());
+        assertEquals(250, result.skippedBytes());
+    }
 }
@@ -1,21 +1,47 @@
 package dev.shaaf.waver.backend.process;
 
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.shaaf.jgraphlet.Task;
 import dev.shaaf.waver.backend.WaverProcessEvent;
+import dev.shaaf.waver.backend.cache.ResponseCache;
+import dev.shaaf.waver.backend.checkout.RepositoryCheckout;
+import dev.shaaf.waver.backend.checkpoint.FileCheckpointStore;
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
 import dev.shaaf.waver.backend.config.MinioConfig;
 import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.minio.InMemoryMinioClient;
+import dev.shaaf.waver.backend.minio.MinioUploaderTask;
+import dev.shaaf.waver.backend.minio.SourceSnapshot;
+import dev.shaaf.waver.backend.ratelimit.RateLimiter;
+import dev.shaaf.waver.backend.retry.ChatRetries;
+import dev.shaaf.waver.backend.routing.ProviderRouter;
+import dev.shaaf.waver.llm.config.AppConfig;
 import dev.shaaf.waver.llm.config.FormatConverter;
+import dev.shaaf.waver.llm.config.GenerationType;
 import dev.shaaf.waver.llm.config.LLMProvider;
 import dev.shaaf.waver.llm.config.MissingConfigurationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.minio.MinioClient;
+import io.quarkus.runtime.configuration.MemorySize;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.math.BigInteger;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ExecutionException;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -27,10 +53,14 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 class BackendProcessingServiceTest {
 
+    private static final String COMMIT = "3f2a9c1e";
+
     private BackendProcessingService service;
     private TestWaverConfig waverConfig;
     private TestMinioConfig minioConfig;
     private MinioClient minioClient;
+    private ChatModelPool chatModelPool;
+    private List<String> builtModels;
 
     @TempDir
     Path tempDir;
@@ -51,31 +81,103 @@ class BackendProcessingServiceTest {
         service.waverConfig = waverConfig;
         service.minioConfig = minioConfig;
         service.minioClient = minioClient;
+
+        // Record model builds instead of creating provider clients
+        builtModels = new ArrayList<>();
+        chatModelPool = new ChatModelPool();
+        chatModelPool.modelFactory = (provider, apiKey) -> {
+            builtModels.add(provider + ":" + apiKey);
+            return new ChatModel() {
+            };
+        };
+        service.chatModelPool = chatModelPool;
+        service.pipelineMetrics = new PipelineMetrics();
+        service.pipelineMetrics.registry = new SimpleMeterRegistry();
+        // An uninitialized cache passes models through unchanged
+        service.responseCache = new ResponseCache();
+        service.rateLimiter = new RateLimiter(waverConfig, service.pipelineMetrics.registry);
+        service.providerRouter = new ProviderRouter(waverConfig, service.pipelineMetrics.registry);
+        service.repositoryCheckout = new RepositoryCheckout(waverConfig);
+        service.sourceFingerprinter = new SourceFingerprinter();
+        service.sourceFingerprinter.remoteHead = url -> Optional.of(COMMIT);
+        service.sourceFingerprinter.localHead = dir -> Optional.of(COMMIT);
+        // Without a store nothing is checkpointed
+        service.stageCheckpoints = new StageCheckpoints(null);
+        service.pipelineExecutors = new PipelineExecutors(waverConfig, service.pipelineMetrics.registry);
+        service.chatRetries = new ChatRetries(waverConfig, service.pipelineMetrics.registry,
+                service.pipelineExecutors.llm());
     }
 
     @Test
-    void testInitAndRunPipelineWithValidEvent() throws ExecutionException, InterruptedException {
+    void testWarmUpBuildsChatModelOfConfiguredProvider() {
         // Given
-        WaverProcessEvent event = new WaverProcessEvent("https://github.com/test/repo.git");
-        
+        waverConfig.setLlmProvider(LLMProvider.Gemini);
+        waverConfig.setGeminiApiKey("gemini-key");
+
         // When
-        CompletionStage<Void> result = service.initAndRunPipeline(event);
-        
+        service.warmUpChatModel(null);
+        service.warmUpChatModel(null);
+
         // Then
-        assertNotNull(result);
-        // Note: The actual execution would require external services, so we're just testing the method structure
-        assertDoesNotThrow(() -> {
-            // This would normally complete the pipeline
-            // result.toCompletableFuture().get();
-        });
+        assertEquals(List.of("Gemini:gemini-key"), builtModels);
     }
 
     @Test
-    void testInitAndRunPipelineWithNullEvent() {
+    void testWarmUpBuildsChatModelsOfAllRoutedProviders() {
+        // Given
+        waverConfig.setRouting(List.of(LLMProvider.Gemini, LLMProvider.OpenAI));
+        waverConfig.setOpenAiApiKey("openai-key");
+        waverConfig.setGeminiApiKey("gemini-key");
+
+        // When
+        service.warmUpChatModel(null);
+
+        // Then
+        assertEquals(List.of("Gemini:gemini-key", "OpenAI:openai-key"), builtModels);
+    }
+
+    @Test
+    void testWarmUpIsSkippedWithoutApiKey() {
+        // Given
+        waverConfig.setOpenAiApiKey(null);
+
+        // When & Then
+        assertDoesNotThrow(() -> service.warmUpChatModel(null));
+        assertTrue(builtModels.isEmpty());
+    }
+
+    @Test
+    void testWarmUpCanBeDisabled() {
+        // Given
+        waverConfig.setWarmUp(false);
+
+        // When
+        service.warmUpChatModel(null);
+
+        // Then
+        assertTrue(builtModels.isEmpty());
+    }
+
+    @Test
+    void testRunPipelineWrapsGenerationFailure() {
+        // Given
+        waverConfig.setOpenAiApiKey(null);
+        WaverProcessEvent event = new WaverProcessEvent(tempDir.toString());
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> service.runPipeline(event));
+
+        // Then
+        assertEquals("Tutorial generation failed", exception.getMessage());
+        assertInstanceOf(MissingConfigurationException.class, exception.getCause());
+    }
+
+    @Test
+    void testRunPipelineWithNullEvent() {
         // When & Then
         // The actual implementation will throw NPE for null events
         assertThrows(NullPointerException.class, () -> {
-            service.initAndRunPipeline(null);
+            service.runPipeline(null);
         });
     }
 
@@ -191,6 +293,303 @@ class BackendProcessingServiceTest {
         });
     }
 
+    @Test
+    void testGenerateSkipsRepositoryUnchangedSinceLastUpload() throws Exception {
+        // Given
+        InMemoryMinioClient store = new InMemoryMinioClient();
+        service.minioClient = store;
+        Files.writeString(tempDir.resolve("App.java"), "class App {}");
+        AppConfig appConfig = appConfig(tempDir.toString());
+        service.captureSnapshot(appConfig).save(store, "test-bucket", "project");
+        store.putDirect("test-bucket", "project/" + MinioUploaderTask.COMMIT_MARKER, new byte[0]);
+
+        // When
+        service.generate(appConfig);
+
+        // Then
+        assertEquals(1.0, service.pipelineMetrics.registry.get("waver.pipeline.runs.skipped").counter().count());
+        assertTrue(builtModels.isEmpty());
+    }
+
+    @Test
+    void testRepositoryIsNotUpToDateWithoutCommitMarker() throws Exception {
+        // Given
+        InMemoryMinioClient store = new InMemoryMinioClient();
+        service.minioClient = store;
+        SourceSnapshot snapshot = service.captureSnapshot(appConfig(tempDir.toString()));
+        snapshot.save(store, "test-bucket", "project");
+
+        // When & Then
+        assertFalse(service.isUpToDate("project", snapshot));
+    }
+
+    @Test
+    void testRepositoryIsNotUpToDateAfterFileChange() throws Exception {
+        // Given
+        InMemoryMinioClient store = new InMemoryMinioClient();
+        service.minioClient = store;
+        Files.writeString(tempDir.resolve("App.java"), "class App {}");
+        service.captureSnapshot(appConfig(tempDir.toString())).save(store, "test-bucket", "project");
+        store.putDirect("test-bucket", "project/" + MinioUploaderTask.COMMIT_MARKER, new byte[0]);
+
+        // When
+        Files.writeString(tempDir.resolve("App.java"), "class App { int x; }");
+        SourceSnapshot changed = service.captureSnapshot(appConfig(tempDir.toString()));
+
+        // Then
+        assertFalse(service.isUpToDate("project", changed));
+    }
+
+    @Test
+    void testRepositoryIsNotUpToDateWhenFirstGenerated() {
+        // Given
+        service.minioClient = new InMemoryMinioClient();
+
+        // When & Then
+        assertFalse(service.isUpToDate("project", service.captureSnapshot(appConfig(tempDir.toString()))));
+    }
+
+    @Test
+    void testSnapshotIncludesOutputSettings() {
+        // When
+        SourceSnapshot snapshot = service.captureSnapshot(appConfig(tempDir.toString()));
+
+        // Then
+        assertEquals(COMMIT, snapshot.commit());
+        assertEquals("OpenAI/MARKDOWN/TUTORIAL", snapshot.settings());
+    }
+
+    @Test
+    void testNoSnapshotWhenIncrementalRegenerationIsDisabled() {
+        // Given
+        waverConfig.setIncremental(false);
+
+        // When & Then
+        assertNull(service.captureSnapshot(appConfig(tempDir.toString())));
+    }
+
+    @Test
+    void testLocalDirectoryIsCrawledInPlace() {
+        // When & Then
+        assertEquals(tempDir.toString(), service.checkout(tempDir.toString(), StageListener.NONE));
+    }
+
+    @Test
+    void testRemoteRepositoryIsNotCheckedOutWhenDisabled() {
+        // Given
+        waverConfig.setCheckout(false, tempDir.toString());
+
+        // When & Then
+        assertEquals("https://github.com/user/repo", service.checkout("https://github.com/user/repo", StageListener.NONE));
+    }
+
+    @Test
+    void testFailedCheckoutFallsBackToTheUrl() {
+        // Given
+        waverConfig.setCheckout(true, tempDir.resolve("repositories").toString());
+        String missing = tempDir.resolve("missing.git").toUri().toString();
+        List<String> failed = new ArrayList<>();
+        StageListener listener = new StageListener() {
+            @Override
+            public void stageFailed(String stage, Duration elapsed, Throwable cause) {
+                failed.add(stage);
+            }
+        };
+
+        // When
+        String crawlPath = service.checkout(missing, listener);
+
+        // Then
+        assertEquals(missing, crawlPath);
+        assertEquals(List.of(BackendProcessingService.STAGE_CHECKOUT), failed);
+    }
+
+    @Test
+    void testRepositoryWithinIngestBudgetIsCrawledInPlace() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("App.java"), "class App {}");
+
+        // When & Then
+        assertNull(service.sample(tempDir.toString(), LLMProvider.OpenAI));
+    }
+
+    @Test
+    void testRepositoryOverIngestBudgetIsSampled() throws Exception {
+        // Given
+        Path repo = Files.createDirectories(tempDir.resolve("repo"));
+        Files.createDirectories(repo.resolve("src"));
+        Files.createDirectories(repo.resolve("test"));
+        Files.writeString(repo.resolve("src/App.java"), "x".repeat(60));
+        Files.writeString(repo.resolve("test/AppTest.java"), "x".repeat(60));
+        waverConfig.setCheckout(true, tempDir.resolve("repositories").toString());
+        waverConfig.setIngestMaxSize(100);
+
+        // When
+        Path sample = service.sample(repo.toString(), LLMProvider.OpenAI);
+
+        // Then
+        assertEquals("repo", sample.getFileName().toString());
+        assertTrue(Files.exists(sample.resolve("src/App.java")));
+        assertFalse(Files.exists(sample.resolve("test/AppTest.java")));
+        assertTrue(Files.exists(repo.resolve("test/AppTest.java")));
+    }
+
+    @Test
+    void testRepositoryOverContextBudgetIsPacked() throws Exception {
+        // Given
+        Path repo = Files.createDirectories(tempDir.resolve("repo"));
+        Files.writeString(repo.resolve("Order.java"), "public record Order(String id) {}");
+        Files.writeString(repo.resolve("OrderService.java"), "class OrderService { Order find() { return null; } }");
+        Files.writeString(repo.resolve("Report.java"), "class Report { String text = \"" + "lorem ipsum ".repeat(100) + "\"; }");
+        waverConfig.setCheckout(true, tempDir.resolve("repositories").toString());
+        waverConfig.setContextTokens(50);
+
+        // When
+        Path sample = service.sample(repo.toString(), LLMProvider.OpenAI);
+
+        // Then
+        assertTrue(Files.exists(sample.resolve("Order.java")));
+        assertTrue(Files.exists(sample.resolve("OrderService.java")));
+        assertFalse(Files.exists(sample.resolve("Report.java")));
+    }
+
+    @Test
+    void testRepositoryWithinContextBudgetIsCrawledInPlace() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("App.java"), "class App {}");
+        waverConfig.setContextTokens(50);
+
+        // When & Then
+        assertNull(service.sample(tempDir.toString(), LLMProvider.OpenAI));
+    }
+
+    @Test
+    void testAbstractionStageIsShardedWhenEnabled() throws Exception {
+        // Given
+        waverConfig.setSharding(true);
+        List<Map<String, String>> shards = new CopyOnWriteArrayList<>();
+        Task<Map<String, String>, List<String>> abstractions = (files, context) -> {
+            shards.add(files);
+            return CompletableFuture.completedFuture(List.copyOf(files.keySet()));
+        };
+        Map<String, String> crawled = new LinkedHashMap<>();
+        crawled.put("api/Order.java", "record Order() {}");
+        crawled.put("web/OrderPage.java", "class OrderPage {}");
+
+        // When
+        List<String> result = service.sharded(abstractions).execute(crawled, null).get();
+
+        // Then
+        assertEquals(2, shards.size());
+        assertEquals(List.of("api/Order.java", "web/OrderPage.java"), result);
+    }
+
+    @Test
+    void testAbstractionStageIsNotShardedByDefault() {
+        // Given
+        Task<Map<String, String>, List<String>> abstractions =
+                (files, context) -> CompletableFuture.completedFuture(List.of());
+
+        // When & Then
+        assertSame(abstractions, service.sharded(abstractions));
+    }
+
+    @Test
+    void testAnalysisStageOfJobResumesFromCheckpoint() throws Exception {
+        // Given
+        service.stageCheckpoints = new StageCheckpoints(new FileCheckpointStore(tempDir.resolve("checkpoints")));
+        List<Map<String, String>> runs = new CopyOnWriteArrayList<>();
+        Task<Map<String, String>, List<String>> abstractions = (files, context) -> {
+            runs.add(files);
+            return CompletableFuture.completedFuture(List.copyOf(files.keySet()));
+        };
+        Map<String, String> crawled = Map.of("api/Order.java", "record Order() {}");
+        service.checkpointed("job-1", BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS, abstractions)
+                .execute(crawled, null).get();
+
+        // When
+        List<String> resumed = service.checkpointed("job-1", BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS,
+                abstractions).execute(crawled, null).get();
+
+        // Then
+        assertEquals(1, runs.size());
+        assertEquals(List.of("api/Order.java"), resumed);
+    }
+
+    @Test
+    void testStageIsNotCheckpointedWithoutJob() throws Exception {
+        // Given
+        service.stageCheckpoints = new StageCheckpoints(new FileCheckpointStore(tempDir.resolve("checkpoints")));
+        Task<Map<String, String>, List<String>> abstractions =
+                (files, context) -> CompletableFuture.completedFuture(List.of());
+
+        // When & Then
+        assertSame(abstractions, service.checkpointed(null, BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS,
+                abstractions));
+    }
+
+    @Test
+    void testChaptersAreNotStreamedByDefault() {
+        // Given
+        ChatModel chatModel = new ChatModel() {
+        };
+
+        // When & Then
+        assertSame(chatModel, service.writerChatModel(appConfig(tempDir.toString()), service.providerRouter.newRun(),
+                chatModel));
+    }
+
+    @Test
+    void testChaptersAreStreamedWhenEnabled() {
+        // Given
+        waverConfig.setStreaming(true);
+        chatModelPool.modelFactory = (provider, apiKey) -> new ChatModel() {
+            @Override
+            public ChatRequestParameters defaultRequestParameters() {
+                return ChatRequestParameters.builder().modelName("gpt-test").build();
+            }
+        };
+        List<String> streamingModels = new ArrayList<>();
+        chatModelPool.streamingFactory = (provider, apiKey, parameters) -> {
+            streamingModels.add(provider + ":" + parameters.modelName());
+            return new StreamingChatModel() {
+            };
+        };
+        ChatModel chatModel = new ChatModel() {
+        };
+
+        // When
+        ChatModel writerModel = service.writerChatModel(appConfig(tempDir.toString()),
+                service.providerRouter.newRun(), chatModel);
+
+        // Then
+        assertNotSame(chatModel, writerModel);
+        assertEquals(List.of("OpenAI:gpt-test"), streamingModels);
+    }
+
+    @Test
+    void testChaptersAreWrittenWithoutStreamingIfModelIsUnknown() {
+        // Given
+        waverConfig.setStreaming(true);
+        ChatModel chatModel = new ChatModel() {
+        };
+
+        // When & Then
+        assertSame(chatModel, service.writerChatModel(appConfig(tempDir.toString()), service.providerRouter.newRun(),
+                chatModel));
+    }
+
+    @Test
+    void testRemoteUrlIsNotSampled() {
+        // When & Then
+        assertNull(service.sample("https://github.com/user/repo", LLMProvider.OpenAI));
+    }
+
+    private AppConfig appConfig(String inputPath) {
+        return new AppConfig(inputPath, tempDir.resolve("output").toString(), LLMProvider.OpenAI, "test-key",
+                false, "project", FormatConverter.OutputFormat.MARKDOWN, GenerationType.TUTORIAL);
+    }
+
     // Test implementation classes
 
     /**
@@ -203,6 +602,15 @@ class BackendProcessingServiceTest {
         private FormatConverter.OutputFormat outputFormat = FormatConverter.OutputFormat.MARKDOWN;
         private String openAiApiKey = "test-key";
         private String geminiApiKey = "test-key";
+        private boolean warmUp = true;
+        private boolean incremental = true;
+        private boolean checkoutEnabled = true;
+        private String checkoutPath = "repositories";
+        private long ingestMaxSize = 16 * 1024 * 1024;
+        private OptionalInt contextTokens = OptionalInt.empty();
+        private boolean sharding = false;
+        private List<LLMProvider> routedProviders;
+        private boolean streaming = false;
 
         @Override
         public LLMProvider llmProvider() {
@@ -226,12 +634,82 @@ class BackendProcessingServiceTest {
 
         @Override
         public OpenAI openai() {
-            return new TestOpenAI(openAiApiKey);
+            return new TestOpenAI(openAiApiKey, contextTokens);
         }
 
         @Override
         public Gemini gemini() {
-            return new TestGemini(geminiApiKey);
+            return new TestGemini(geminiApiKey, contextTokens);
+        }
+
+        @Override
+        public Queue queue() {
+            return new TestQueue();
+        }
+
+        @Override
+        public Jobs jobs() {
+            return new TestJobs();
+        }
+
+        @Override
+        public Work work() {
+            return null;
+        }
+
+        @Override
+        public Checkpoints checkpoints() {
+            return null;
+        }
+
+        @Override
+        public Models models() {
+            return new TestModels(warmUp);
+        }
+
+        @Override
+        public Cache cache() {
+            return new TestCache();
+        }
+
+        @Override
+        public Incremental incremental() {
+            return () -> incremental;
+        }
+
+        @Override
+        public Checkout checkout() {
+            return new TestCheckout(checkoutEnabled, checkoutPath);
+        }
+
+        @Override
+        public Ingest ingest() {
+            return new TestIngest(ingestMaxSize);
+        }
+
+        @Override
+        public Shards shards() {
+            return new TestShards(sharding);
+        }
+
+        @Override
+        public Threads threads() {
+            return new TestThreads();
+        }
+
+        @Override
+        public Retry retry() {
+            return new TestRetry();
+        }
+
+        @Override
+        public Routing routing() {
+            return new TestRouting(routedProviders != null, Optional.ofNullable(routedProviders));
+        }
+
+        @Override
+        public Streaming streaming() {
+            return new TestStreaming(streaming);
         }
 
         public void setLlmProvider(LLMProvider provider) {
@@ -245,32 +723,343 @@ class BackendProcessingServiceTest {
         public void setGeminiApiKey(String apiKey) {
             this.geminiApiKey = apiKey;
         }
+
+        public void setWarmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+
+        public void setIncremental(boolean incremental) {
+            this.incremental = incremental;
+        }
+
+        public void setCheckout(boolean enabled, String path) {
+            this.checkoutEnabled = enabled;
+            this.checkoutPath = path;
+        }
+
+        public void setIngestMaxSize(long maxSize) {
+            this.ingestMaxSize = maxSize;
+        }
+
+        public void setContextTokens(int contextTokens) {
+            this.contextTokens = OptionalInt.of(contextTokens);
+        }
+
+        public void setSharding(boolean sharding) {
+            this.sharding = sharding;
+        }
+
+        public void setRouting(List<LLMProvider> providers) {
+            this.routedProviders = providers;
+        }
+
+        public void setStreaming(boolean streaming) {
+            this.streaming = streaming;
+        }
+    }
+
+    private static class TestCache implements WaverConfig.Cache {
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+
+        @Override
+        public int maxEntries() {
+            return 10;
+        }
+
+        @Override
+        public MemorySize maxSize() {
+            return new MemorySize(BigInteger.valueOf(1024));
+        }
+
+        @Override
+        public boolean shared() {
+            return false;
+        }
+
+        @Override
+        public Duration ttl() {
+            return Duration.ofDays(1);
+        }
+    }
+
+    private record TestModels(boolean warmUp) implements WaverConfig.Models {
+        @Override
+        public Optional<String> warmUpPrompt() {
+            return Optional.empty();
+        }
+    }
+
+    private static class TestQueue implements WaverConfig.Queue {
+        @Override
+        public int maxInFlight() {
+            return 2;
+        }
+
+        @Override
+        public int depth() {
+            return 16;
+        }
+
+        @Override
+        public OverflowStrategy overflow() {
+            return OverflowStrategy.REJECT;
+        }
+
+        @Override
+        public Duration completionWindow() {
+            return Duration.ofMinutes(5);
+        }
+
+        @Override
+        public Weights weights() {
+            return null;
+        }
+    }
+
+    private static class TestJobs implements WaverConfig.Jobs {
+        @Override
+        public Store store() {
+            return Store.LOCAL;
+        }
+
+        @Override
+        public String path() {
+            return "./test-jobs";
+        }
+
+        @Override
+        public int listLimit() {
+            return 50;
+        }
+
+        @Override
+        public Duration retention() {
+            return Duration.ZERO;
+        }
     }
 
     private static class TestOpenAI implements WaverConfig.OpenAI {
         private final String apiKey;
+        private final OptionalInt contextTokens;
 
-        public TestOpenAI(String apiKey) {
+        public TestOpenAI(String apiKey, OptionalInt contextTokens) {
             this.apiKey = apiKey;
+            this.contextTokens = contextTokens;
         }
 
         @Override
         public Optional<String> apiKey() {
             return Optional.ofNullable(apiKey);
         }
+
+        @Override
+        public WaverConfig.RateLimit rateLimit() {
+            return new TestRateLimit();
+        }
+
+        @Override
+        public OptionalInt contextTokens() {
+            return contextTokens;
+        }
     }
 
     private static class TestGemini implements WaverConfig.Gemini {
         private final String apiKey;
+        private final OptionalInt contextTokens;
 
-        public TestGemini(String apiKey) {
+        public TestGemini(String apiKey, OptionalInt contextTokens) {
             this.apiKey = apiKey;
+            this.contextTokens = contextTokens;
         }
 
         @Override
         public Optional<String> apiKey() {
             return Optional.ofNullable(apiKey);
         }
+
+        @Override
+        public WaverConfig.RateLimit rateLimit() {
+            return new TestRateLimit();
+        }
+
+        @Override
+        public OptionalInt contextTokens() {
+            return contextTokens;
+        }
+    }
+
+    private record TestCheckout(boolean enabled, String path) implements WaverConfig.Checkout {
+        @Override
+        public List<String> include() {
+            return List.of("*.java");
+        }
+
+        @Override
+        public Duration timeout() {
+            return Duration.ofSeconds(30);
+        }
+    }
+
+    private record TestIngest(long maxBytes) implements WaverConfig.Ingest {
+        @Override
+        public MemorySize maxSize() {
+            return new MemorySize(BigInteger.valueOf(maxBytes));
+        }
+
+        @Override
+        public OptionalInt maxTokens() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public MemorySize maxFileSize() {
+            return new MemorySize(BigInteger.valueOf(1024));
+        }
+    }
+
+    private record TestShards(boolean enabled) implements WaverConfig.Shards {
+        @Override
+        public int count() {
+            return 2;
+        }
+
+        @Override
+        public int concurrency() {
+            return 2;
+        }
+
+        @Override
+        public int minFiles() {
+            return 2;
+        }
+    }
+
+    private record TestThreads() implements WaverConfig.Threads {
+        @Override
+        public IoThreads io() {
+            return IoThreads.VIRTUAL;
+        }
+
+        @Override
+        public int ioPoolSize() {
+            return 4;
+        }
+
+        @Override
+        public OptionalInt cpuPoolSize() {
+            return OptionalInt.of(2);
+        }
+    }
+
+    private record TestStreaming(boolean enabled) implements WaverConfig.Streaming {
+        @Override
+        public MemorySize flushSize() {
+            return new MemorySize(BigInteger.valueOf(4096));
+        }
+
+        @Override
+        public Duration idleTimeout() {
+            return Duration.ofMinutes(2);
+        }
+    }
+
+    private record TestRouting(boolean enabled, Optional<List<LLMProvider>> providers) implements WaverConfig.Routing {
+        @Override
+        public Strategy strategy() {
+            return Strategy.LEAST_LOADED;
+        }
+
+        @Override
+        public boolean pinJobs() {
+            return true;
+        }
+
+        @Override
+        public Duration cooldown() {
+            return Duration.ofSeconds(30);
+        }
+    }
+
+    private record TestRetry() implements WaverConfig.Retry {
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+
+        @Override
+        public int maxAttempts() {
+            return 3;
+        }
+
+        @Override
+        public Duration deadline() {
+            return Duration.ofMinutes(10);
+        }
+
+        @Override
+        public Duration initialBackoff() {
+            return Duration.ofMillis(10);
+        }
+
+        @Override
+        public Duration maxBackoff() {
+            return Duration.ofMillis(100);
+        }
+
+        @Override
+        public boolean hedge() {
+            return false;
+        }
+
+        @Override
+        public double hedgeQuantile() {
+            return 0.95;
+        }
+
+        @Override
+        public int hedgeMinSamples() {
+            return 20;
+        }
+
+        @Override
+        public Duration hedgeMinDelay() {
+            return Duration.ofSeconds(5);
+        }
+
+        @Override
+        public Map<String, Stage> stages() {
+            return Map.of();
+        }
+    }
+
+    private static class TestRateLimit implements WaverConfig.RateLimit {
+        @Override
+        public OptionalInt requestsPerMinute() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public OptionalInt tokensPerMinute() {
+            return OptionalInt.empty();
+        }
+
+        @Override
+        public int maxRetries() {
+            return 0;
+        }
+
+        @Override
+        public Duration initialBackoff() {
+            return Duration.ZERO;
+        }
+
+        @Override
+        public Duration maxBackoff() {
+            return Duration.ZERO;
+        }
     }
 
     /**
@@ -296,5 +1085,32 @@ class BackendProcessingServiceTest {
         public String bucketName() {
             return "test-bucket";
         }
+
+        @Override
+        public Upload upload() {
+            return new TestUpload();
+        }
+    }
+
+    private static class TestUpload implements MinioConfig.Upload {
+        @Override
+        public int concurrency() {
+            return 8;
+        }
+
+        @Override
+        public boolean streaming() {
+            return false;
+        }
+
+        @Override
+        public Duration pollInterval() {
+            return Duration.ofSeconds(2);
+        }
+
+        @Override
+        public MemorySize partSize() {
+            return new MemorySize(BigInteger.valueOf(16L * 1024 * 1024));
+        }
     }
 }
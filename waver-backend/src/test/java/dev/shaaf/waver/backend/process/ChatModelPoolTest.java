@@ -0,0 +1,196 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatModelPool.
+ */
+class ChatModelPoolTest {
+
+    private ChatModelPool pool;
+    private AtomicInteger builds;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ChatModelPool();
+        builds = new AtomicInteger();
+        pool.modelFactory = (provider, apiKey) -> {
+            builds.incrementAndGet();
+            return new TestChatModel();
+        };
+    }
+
+    @Test
+    void testSameProviderAndKeyShareOneModel() {
+        // When
+        ChatModel first = pool.get(LLMProvider.OpenAI, "key-1");
+        ChatModel second = pool.get(LLMProvider.OpenAI, "key-1");
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testDifferentProviderOrKeyGetsOwnModel() {
+        // When
+        ChatModel openAi = pool.get(LLMProvider.OpenAI, "key-1");
+        ChatModel rotatedKey = pool.get(LLMProvider.OpenAI, "key-2");
+        ChatModel gemini = pool.get(LLMProvider.Gemini, "key-1");
+
+        // Then
+        assertNotSame(openAi, rotatedKey);
+        assertNotSame(openAi, gemini);
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void testConcurrentRequestsBuildModelOnce() throws Exception {
+        // Given
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ChatModel>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return pool.get(LLMProvider.OpenAI, "key-1");
+            }));
+        }
+        start.countDown();
+        List<ChatModel> models = Collections.synchronizedList(new ArrayList<>());
+        for (Future<ChatModel> future : futures) {
+            models.add(future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(1, builds.get());
+        assertTrue(models.stream().allMatch(model -> model == models.get(0)));
+    }
+
+    @Test
+    void testWarmUpBuildsModelAndSendsPrompt() {
+        // When
+        pool.warmUp(LLMProvider.OpenAI, "key-1", Optional.of("ping"));
+
+        // Then
+        TestChatModel model = (TestChatModel) pool.get(LLMProvider.OpenAI, "key-1");
+        assertEquals(1, builds.get());
+        assertEquals(List.of("ping"), model.prompts);
+    }
+
+    @Test
+    void testWarmUpWithoutPromptOnlyBuildsModel() {
+        // When
+        pool.warmUp(LLMProvider.OpenAI, "key-1", Optional.empty());
+
+        // Then
+        TestChatModel model = (TestChatModel) pool.get(LLMProvider.OpenAI, "key-1");
+        assertTrue(model.prompts.isEmpty());
+    }
+
+    @Test
+    void testFailedWarmUpIsRetriedOnFirstUse() {
+        // Given
+        pool.modelFactory = (provider, apiKey) -> {
+            if (builds.incrementAndGet() == 1) {
+                throw new IllegalStateException("Provider unreachable");
+            }
+            return new TestChatModel();
+        };
+
+        // When
+        assertDoesNotThrow(() -> pool.warmUp(LLMProvider.OpenAI, "key-1", Optional.empty()));
+        ChatModel model = pool.get(LLMProvider.OpenAI, "key-1");
+
+        // Then
+        assertNotNull(model);
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void testStreamingModelCallsModelOfChatModel() {
+        // Given
+        List<String> streamingBuilds = new ArrayList<>();
+        pool.streamingFactory = (provider, apiKey, parameters) -> {
+            streamingBuilds.add(provider + ":" + apiKey + ":" + parameters.modelName());
+            return new StreamingChatModel() {
+            };
+        };
+
+        // When
+        StreamingChatModel first = pool.getStreaming(LLMProvider.OpenAI, "key-1");
+        StreamingChatModel second = pool.getStreaming(LLMProvider.OpenAI, "key-1");
+
+        // Then
+        assertSame(first, second);
+        assertEquals(List.of("OpenAI:key-1:gpt-test"), streamingBuilds);
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void testStreamingModelNeedsKnownModelName() {
+        // Given
+        pool.modelFactory = (provider, apiKey) -> new ChatModel() {
+        };
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> pool.getStreaming(LLMProvider.Gemini, "key-1"));
+    }
+
+    @Test
+    void testClearEmptiesPool() {
+        // Given
+        pool.get(LLMProvider.OpenAI, "key-1");
+
+        // When
+        pool.clear();
+
+        // Then
+        assertEquals(0, pool.size());
+    }
+
+    /**
+     * Test implementation of ChatModel that records the prompts it receives.
+     */
+    private static class TestChatModel implements ChatModel {
+        private final List<String> prompts = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            prompts.add(((UserMessage) chatRequest.messages().get(0)).singleText());
+            return ChatResponse.builder().aiMessage(AiMessage.from("pong")).build();
+        }
+
+        @Override
+        public ChatRequestParameters defaultRequestParameters() {
+            return ChatRequestParameters.builder().modelName("gpt-test").build();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.Task;
+import dev.shaaf.waver.backend.checkpoint.FileCheckpointStore;
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CheckpointedTask.
+ */
+class CheckpointedTaskTest {
+
+    private static final String STAGE = BackendProcessingService.STAGE_CHAPTER_ORGANIZER;
+
+    @TempDir
+    Path tempDir;
+
+    private StageCheckpoints checkpoints;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        checkpoints = new StageCheckpoints(new FileCheckpointStore(tempDir));
+    }
+
+    @Test
+    void testOutputIsCheckpointedOnceStageCompleted() throws Exception {
+        // When
+        List<String> output = new CheckpointedTask<>("job-1", STAGE, chapters(), checkpoints)
+                .execute("Order", null).get();
+
+        // Then
+        assertEquals(List.of("Order: Introduction"), output);
+        assertEquals(output, checkpoints.restore("job-1", STAGE).orElseThrow());
+    }
+
+    @Test
+    void testRerunOfJobRestoresCheckpointWithoutExecutingStage() throws Exception {
+        // Given
+        new CheckpointedTask<>("job-1", STAGE, chapters(), checkpoints).execute("Order", null).get();
+
+        // When
+        List<String> resumed = new CheckpointedTask<>("job-1", STAGE, chapters(), checkpoints)
+                .execute("Order", null).get();
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(List.of("Order: Introduction"), resumed);
+    }
+
+    @Test
+    void testOtherJobExecutesStage() throws Exception {
+        // Given
+        new CheckpointedTask<>("job-1", STAGE, chapters(), checkpoints).execute("Order", null).get();
+
+        // When
+        new CheckpointedTask<>("job-2", STAGE, chapters(), checkpoints).execute("Order", null).get();
+
+        // Then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testFailedStageIsNotCheckpointed() {
+        // Given
+        Task<String, List<String>> failing = (input, context) ->
+                CompletableFuture.failedFuture(new IllegalStateException("Provider unavailable"));
+
+        // When
+        CompletableFuture<List<String>> result = new CheckpointedTask<>("job-1", STAGE, failing, checkpoints)
+                .execute("Order", null);
+
+        // Then
+        assertThrows(ExecutionException.class, result::get);
+        assertTrue(checkpoints.restore("job-1", STAGE).isEmpty());
+    }
+
+    private Task<String, List<String>> chapters() {
+        return (input, context) -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(List.of(input + ": Introduction"));
+        };
+    }
+}
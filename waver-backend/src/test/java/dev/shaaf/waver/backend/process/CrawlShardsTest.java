@@ -0,0 +1,92 @@
+package dev.shaaf.waver.backend.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CrawlShards.
+ */
+class CrawlShardsTest {
+
+    @Test
+    void testMapOfFilesIsSplitByModule() {
+        // Given
+        Map<String, String> crawled = new LinkedHashMap<>();
+        crawled.put("api/Order.java", "record Order() {}");
+        crawled.put("web/Page.java", "class Page {}");
+        crawled.put("api/Invoice.java", "record Invoice() {}");
+
+        // When
+        List<Map<String, String>> shards = CrawlShards.split(crawled, 2, 2);
+
+        // Then
+        assertEquals(2, shards.size());
+        assertEquals(Set.of("api/Order.java", "api/Invoice.java"), shards.get(0).keySet());
+        assertEquals(Set.of("web/Page.java"), shards.get(1).keySet());
+    }
+
+    @Test
+    void testListOfPathsIsSplitByModule() {
+        // Given
+        List<Path> crawled = List.of(Path.of("api/Order.java"), Path.of("web/Page.java"), Path.of("api/Invoice.java"),
+                Path.of("web/Form.java"));
+
+        // When
+        List<List<Path>> shards = CrawlShards.split(crawled, 2, 2);
+
+        // Then
+        assertEquals(List.of(List.of(Path.of("api/Order.java"), Path.of("api/Invoice.java")),
+                List.of(Path.of("web/Page.java"), Path.of("web/Form.java"))), shards);
+    }
+
+    @Test
+    void testOtherListsAreCutIntoConsecutiveSlices() {
+        // Given
+        List<Integer> crawled = List.of(1, 2, 3, 4, 5);
+
+        // When
+        List<List<Integer>> shards = CrawlShards.split(crawled, 2, 2);
+
+        // Then
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5)), shards);
+    }
+
+    @Test
+    void testInputsBelowTheThresholdAreASingleShard() {
+        // Given
+        Map<String, String> crawled = Map.of("api/Order.java", "", "web/Page.java", "");
+
+        // When & Then
+        assertEquals(List.of(crawled), CrawlShards.split(crawled, 2, 3));
+        assertEquals(List.of("crawl"), CrawlShards.split("crawl", 2, 0));
+    }
+
+    @Test
+    void testListsAreConcatenatedWithoutDuplicates() {
+        assertEquals(List.of("Order", "Invoice", "Page"),
+                CrawlShards.merge(List.of(List.of("Order", "Invoice"), List.of("Page", "Order"))));
+    }
+
+    @Test
+    void testMapsAreMergedKeyByKey() {
+        assertEquals(Map.of("Order", 1, "Page", 2),
+                CrawlShards.merge(List.of(Map.of("Order", 1), Map.of("Page", 2))));
+    }
+
+    @Test
+    void testSetsStaySets() {
+        assertEquals(Set.of("Order", "Page"), CrawlShards.merge(List.of(Set.of("Order"), Set.of("Page"))));
+    }
+
+    @Test
+    void testUnmergeableResultsAreRejected() {
+        assertThrows(IllegalStateException.class, () -> CrawlShards.merge(List.of("a", "b")));
+    }
+}
@@ -0,0 +1,149 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DraftStreamingChatModel.
+ */
+class DraftStreamingChatModelTest {
+
+    private static final ChatModel TEMPLATE = new ChatModel() {
+    };
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testTokensAreFlushedToDraftWhileStreaming() {
+        // Given
+        Path draft = tempDir.resolve("chapter-1.md.part");
+        List<String> seen = new ArrayList<>();
+        StreamingChatModel streaming = streaming((handler, tokens) -> {
+            for (String token : tokens) {
+                handler.onPartialResponse(token);
+                seen.add(read(draft));
+            }
+            handler.onCompleteResponse(response(String.join("", tokens)));
+        }, "# Chapter", " 1\n", "Text");
+
+        // When
+        String answer = new DraftStreamingChatModel(streaming, TEMPLATE, tempDir, 4, IDLE_TIMEOUT)
+                .chat("Write chapter 1");
+
+        // Then
+        assertEquals("# Chapter 1\nText", answer);
+        assertEquals(List.of("# Chapter", "# Chapter", "# Chapter 1\nText"), seen);
+        assertFalse(Files.exists(draft));
+    }
+
+    @Test
+    void testEveryCallWritesItsOwnDraft() {
+        // Given
+        List<Boolean> drafts = new ArrayList<>();
+        StreamingChatModel streaming = streaming((handler, tokens) -> {
+            handler.onPartialResponse(tokens.getFirst());
+            drafts.add(Files.exists(tempDir.resolve("chapter-1.md.part")));
+            drafts.add(Files.exists(tempDir.resolve("chapter-2.md.part")));
+            handler.onCompleteResponse(response(tokens.getFirst()));
+        }, "Text");
+        DraftStreamingChatModel chatModel = new DraftStreamingChatModel(streaming, TEMPLATE, tempDir, 1, IDLE_TIMEOUT);
+
+        // When
+        chatModel.chat("Write chapter 1");
+        chatModel.chat("Write chapter 2");
+
+        // Then
+        assertEquals(List.of(true, false, false, true), drafts);
+    }
+
+    @Test
+    void testStreamingFailureIsThrownAndDraftRemoved() {
+        // Given
+        StreamingChatModel streaming = streaming((handler, tokens) -> {
+            handler.onPartialResponse(tokens.getFirst());
+            handler.onError(new HttpException(503, "Unavailable"));
+        }, "# Chapter 1");
+
+        // When & Then
+        HttpException failure = assertThrows(HttpException.class,
+                () -> new DraftStreamingChatModel(streaming, TEMPLATE, tempDir, 1, IDLE_TIMEOUT)
+                        .chat("Write chapter 1"));
+        assertEquals(503, failure.statusCode());
+        assertFalse(Files.exists(tempDir.resolve("chapter-1.md.part")));
+    }
+
+    @Test
+    void testStalledStreamIsAbandonedAfterIdleTimeout() {
+        // Given
+        StreamingChatModel streaming = streaming((handler, tokens) -> handler.onPartialResponse(tokens.getFirst()),
+                "# Chapter 1");
+        DraftStreamingChatModel chatModel = new DraftStreamingChatModel(streaming, TEMPLATE, tempDir, 1,
+                Duration.ofMillis(100));
+
+        // When & Then
+        assertThrows(TimeoutException.class, () -> chatModel.chat("Write chapter 1"));
+        assertFalse(Files.exists(tempDir.resolve("chapter-1.md.part")));
+    }
+
+    @Test
+    void testUnwritableDraftDoesNotFailCall() throws IOException {
+        // Given
+        Path blocked = Files.writeString(tempDir.resolve("blocked"), "not a directory");
+        StreamingChatModel streaming = streaming((handler, tokens) -> {
+            handler.onPartialResponse(tokens.getFirst());
+            handler.onCompleteResponse(response(tokens.getFirst()));
+        }, "Text");
+
+        // When & Then
+        assertEquals("Text", new DraftStreamingChatModel(streaming, TEMPLATE, blocked, 1, IDLE_TIMEOUT)
+                .chat("Write chapter 1"));
+    }
+
+    private static StreamingChatModel streaming(Answer answer, String... tokens) {
+        return new StreamingChatModel() {
+            @Override
+            public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+                answer.stream(handler, List.of(tokens));
+            }
+        };
+    }
+
+    private static ChatResponse response(String text) {
+        return ChatResponse.builder().aiMessage(AiMessage.from(text)).build();
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.exists(file) ? Files.readString(file) : "";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streams an answer of the given tokens to a handler.
+     */
+    private interface Answer {
+        void stream(StreamingChatResponseHandler handler, List<String> tokens);
+    }
+}
@@ -0,0 +1,1092 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.waver.backend.FileUtil;
+import dev.shaaf.waver.backend.GenerationSubmission;
+import dev.shaaf.waver.backend.WaverProcessEvent;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.checkpoint.CheckpointStore;
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
+import dev.shaaf.waver.backend.job.FileJobStore;
+import dev.shaaf.waver.backend.job.GenerationJob;
+import dev.shaaf.waver.backend.job.JobService;
+import dev.shaaf.waver.backend.job.JobState;
+import dev.shaaf.waver.backend.work.InMemoryWorkStore;
+import dev.shaaf.waver.backend.work.WorkItem;
+import dev.shaaf.waver.llm.config.FormatConverter;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GenerationQueue.
+ * <p>
+ * Pipelines are replaced by a test processing service that blocks until the
+ * test releases it, so queue states can be observed deterministically.
+ */
+class GenerationQueueTest {
+
+    @TempDir
+    Path jobDir;
+
+    private GenerationQueue queue;
+    private StageCheckpoints stageCheckpoints = new StageCheckpoints(null);
+    private BlockingProcessingService processingService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JobService jobService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (processingService != null) {
+            processingService.release();
+        }
+        if (queue != null) {
+            queue.stop();
+            // Running pipelines still write their jobs, let them finish before the job directory is removed
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (queue.getInFlightCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    @Test
+    void testRunningPipelinesAreLimitedToMaxInFlight() throws InterruptedException {
+        // Given
+        startQueue(2, 10, WaverConfig.Queue.OverflowStrategy.REJECT, 5);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.submit(event("repo" + i)).isAccepted());
+        }
+
+        // Then
+        assertTrue(processingService.awaitStarted(2));
+        assertEquals(2, queue.getInFlightCount());
+        assertEquals(3, queue.getQueuedCount());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(5, processingService.getProcessed().size());
+        assertEquals(2, processingService.getMaxConcurrent());
+    }
+
+    @Test
+    void testRejectStrategyReportsQueueFull() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        queue.submit(event("waiting"));
+
+        // When
+        GenerationSubmission submission = queue.submit(event("overflow"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.QUEUE_FULL, submission.status());
+        assertEquals("overflow", submission.sourceUrl());
+        assertEquals(1, submission.queuedCount());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "waiting"), processingService.getProcessed());
+    }
+
+    @Test
+    void testDropOldestStrategyReplacesOldestWaitingRequest() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.DROP_OLDEST, 2);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        queue.submit(event("oldest"));
+
+        // When
+        GenerationSubmission submission = queue.submit(event("newest"));
+
+        // Then
+        assertTrue(submission.isAccepted());
+        assertEquals(1, queue.getQueuedCount());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "newest"), processingService.getProcessed());
+    }
+
+    @Test
+    void testBufferStrategyAcceptsBeyondDepth() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.BUFFER, 4);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.submit(event("repo" + i)).isAccepted());
+        }
+
+        // Then
+        assertTrue(processingService.awaitStarted(1));
+        assertEquals(3, queue.getQueuedCount());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("repo0", "repo1", "repo2", "repo3"), processingService.getProcessed());
+    }
+
+    @Test
+    void testWaitingRequestsAreServedFairlyAcrossTenants() throws InterruptedException {
+        // Given
+        startQueue(1, 10, WaverConfig.Queue.OverflowStrategy.REJECT, 5);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+
+        // When
+        queue.submit(event("acme-1", "acme", WaverProcessEvent.Priority.NORMAL));
+        queue.submit(event("acme-2", "acme", WaverProcessEvent.Priority.NORMAL));
+        queue.submit(event("acme-3", "acme", WaverProcessEvent.Priority.NORMAL));
+        queue.submit(event("beta-1", "beta", WaverProcessEvent.Priority.NORMAL));
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "acme-1", "beta-1", "acme-2", "acme-3"), processingService.getProcessed());
+    }
+
+    @Test
+    void testHigherPriorityLanesAreServedFirst() throws InterruptedException {
+        // Given
+        startQueue(1, 10, WaverConfig.Queue.OverflowStrategy.REJECT, 5);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+
+        // When
+        queue.submit(event("low-1", "acme", WaverProcessEvent.Priority.LOW));
+        queue.submit(event("low-2", "acme", WaverProcessEvent.Priority.LOW));
+        queue.submit(event("normal-1", "acme", WaverProcessEvent.Priority.NORMAL));
+        queue.submit(event("high-1", "acme", WaverProcessEvent.Priority.HIGH));
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "high-1", "normal-1", "low-1", "low-2"), processingService.getProcessed());
+        assertEquals(1, meterRegistry.get("waver.queue.wait").tag("lane", "high").timer().count());
+        assertEquals(2, meterRegistry.get("waver.queue.wait").tag("lane", "normal").timer().count());
+        assertEquals(2, meterRegistry.get("waver.queue.wait").tag("lane", "low").timer().count());
+    }
+
+    @Test
+    void testDropOldestStrategyDropsFromLowestLaneFirst() throws InterruptedException {
+        // Given
+        startQueue(1, 2, WaverConfig.Queue.OverflowStrategy.DROP_OLDEST, 3);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        queue.submit(event("normal-1", "acme", WaverProcessEvent.Priority.NORMAL));
+        queue.submit(event("low-1", "acme", WaverProcessEvent.Priority.LOW));
+
+        // When
+        GenerationSubmission submission = queue.submit(event("normal-2", "beta", WaverProcessEvent.Priority.NORMAL));
+        processingService.release();
+
+        // Then
+        assertEquals(GenerationSubmission.Status.ACCEPTED, submission.status());
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "normal-1", "normal-2"), processingService.getProcessed());
+    }
+
+    @Test
+    void testFailedPipelineDoesNotStopTheQueue() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+        processingService.failOn("broken");
+        processingService.release();
+
+        // When
+        queue.submit(event("broken"));
+        queue.submit(event("healthy"));
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("broken", "healthy"), processingService.getProcessed());
+    }
+
+    @Test
+    void testSubmitAfterStopIsUnavailable() {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 0);
+        queue.stop();
+
+        // When
+        GenerationSubmission submission = queue.submit(event("late"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.UNAVAILABLE, submission.status());
+    }
+
+    @Test
+    void testInvalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> newQueue(0, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 0).start());
+        assertThrows(IllegalArgumentException.class,
+                () -> newQueue(1, 0, WaverConfig.Queue.OverflowStrategy.DROP_OLDEST, 0).start());
+        assertDoesNotThrow(() -> {
+            GenerationQueue buffering = newQueue(1, 0, WaverConfig.Queue.OverflowStrategy.BUFFER, 0);
+            buffering.start();
+            buffering.stop();
+        });
+        GenerationQueue unweighted = newQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 0);
+        unweighted.waverConfig = new TestWaverConfig(new TestQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT,
+                Duration.ZERO, new TestWeights(8, 0, 1)), TestWork.LOCAL);
+        assertThrows(IllegalArgumentException.class, unweighted::start);
+    }
+
+    @Test
+    void testConcurrentDuplicatesAttachToRunningJob() throws InterruptedException {
+        // Given
+        startQueue(2, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+        queue.submit(event("https://github.com/user/repo"));
+        assertTrue(processingService.awaitStarted(1));
+
+        // When
+        GenerationSubmission duplicate = queue.submit(event("git@github.com:user/repo.git"));
+        GenerationSubmission differentSpelling = queue.submit(event("https://GitHub.com/user/repo/"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.COALESCED, duplicate.status());
+        assertEquals(GenerationSubmission.Status.COALESCED, differentSpelling.status());
+        assertTrue(duplicate.isAccepted());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("https://github.com/user/repo"), processingService.getProcessed());
+    }
+
+    @Test
+    void testQueuedDuplicateIsNotQueuedTwice() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        queue.submit(event("https://github.com/user/waiting"));
+
+        // When
+        GenerationSubmission duplicate = queue.submit(event("https://github.com/user/waiting.git"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.COALESCED, duplicate.status());
+        assertEquals(1, queue.getQueuedCount());
+    }
+
+    @Test
+    void testBatchDuplicatesAttachToFirstRequest() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+
+        // When
+        List<GenerationSubmission> outcomes = queue.submitAll(List.of(event("running"),
+                event("https://github.com/user/waiting"), event("https://github.com/user/waiting.git")));
+
+        // Then
+        assertEquals(List.of(GenerationSubmission.Status.ACCEPTED, GenerationSubmission.Status.ACCEPTED,
+                GenerationSubmission.Status.COALESCED), outcomes.stream().map(GenerationSubmission::status).toList());
+        assertEquals(outcomes.get(1).jobId(), outcomes.get(2).jobId());
+        assertEquals("https://github.com/user/waiting.git", outcomes.get(2).sourceUrl());
+        assertTrue(outcomes.stream().allMatch(outcome -> outcome.queuedCount() == 1));
+        assertEquals(2, jobService.list(10).size());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "https://github.com/user/waiting"), processingService.getProcessed());
+    }
+
+    @Test
+    void testBatchOverflowIsReportedPerRequest() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+
+        // When
+        List<GenerationSubmission> outcomes = queue.submitAll(List.of(event("running"), event("waiting"),
+                event("overflow"), event("overflow")));
+
+        // Then
+        assertEquals(List.of(GenerationSubmission.Status.ACCEPTED, GenerationSubmission.Status.ACCEPTED,
+                        GenerationSubmission.Status.QUEUE_FULL, GenerationSubmission.Status.QUEUE_FULL),
+                outcomes.stream().map(GenerationSubmission::status).toList());
+        assertNull(outcomes.get(3).jobId());
+        assertEquals(2, jobService.list(10).size());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("running", "waiting"), processingService.getProcessed());
+    }
+
+    @Test
+    void testDuplicateWithinCompletionWindowIsAnsweredFromExistingOutput() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+        processingService.release();
+        queue.submit(event("https://github.com/user/repo"));
+        assertTrue(processingService.awaitFinished());
+        awaitNotInFlight("https://github.com/user/repo");
+
+        // When
+        GenerationSubmission submission = queue.submit(event("https://github.com/user/repo.git"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.ALREADY_GENERATED, submission.status());
+        assertEquals(1, processingService.getProcessed().size());
+    }
+
+    @Test
+    void testFailedRunIsRetriedOnNextSubmission() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+        processingService.failOn("https://github.com/user/repo");
+        processingService.release();
+        queue.submit(event("https://github.com/user/repo"));
+        assertTrue(processingService.awaitFinished());
+        awaitNotInFlight("https://github.com/user/repo");
+
+        // When
+        GenerationSubmission submission = queue.submit(event("https://github.com/user/repo"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.ACCEPTED, submission.status());
+    }
+
+    @Test
+    void testRejectedRequestIsNotRegisteredAsInFlight() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        queue.submit(event("waiting"));
+        assertEquals(GenerationSubmission.Status.QUEUE_FULL, queue.submit(event("overflow")).status());
+
+        // When
+        processingService.release();
+        assertTrue(processingService.awaitFinished());
+        GenerationSubmission retry = queue.submit(event("overflow"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.ACCEPTED, retry.status());
+    }
+
+    @Test
+    void testAcceptedRequestIsTrackedAsJobUntilDone() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+
+        // When
+        GenerationSubmission submission = queue.submit(event("https://github.com/user/repo"));
+
+        // Then
+        assertNotNull(submission.jobId());
+        assertTrue(processingService.awaitStarted(1));
+        assertEquals(JobState.CRAWLING, awaitState(submission.jobId(), JobState.CRAWLING));
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(JobState.DONE, awaitState(submission.jobId(), JobState.DONE));
+        GenerationJob job = jobService.find(submission.jobId()).orElseThrow();
+        assertEquals("https://github.com/user/repo", job.sourceUrl());
+        assertTrue(job.stageTimestamps().keySet().containsAll(
+                List.of(JobState.QUEUED, JobState.CRAWLING, JobState.DONE)));
+    }
+
+    @Test
+    void testFailedPipelineMarksJobFailed() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+        processingService.failOn("broken");
+        processingService.release();
+
+        // When
+        GenerationSubmission submission = queue.submit(event("broken"));
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(JobState.FAILED, awaitState(submission.jobId(), JobState.FAILED));
+        assertEquals("Pipeline exploded", jobService.find(submission.jobId()).orElseThrow().error());
+    }
+
+    @Test
+    void testDuplicatesReceiveTheJobIdOfTheFirstRequest() throws InterruptedException {
+        // Given
+        startQueue(1, 4, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+        GenerationSubmission first = queue.submit(event("https://github.com/user/repo"));
+        assertTrue(processingService.awaitStarted(1));
+
+        // When
+        GenerationSubmission duplicate = queue.submit(event("https://github.com/user/repo.git"));
+        processingService.release();
+        assertTrue(processingService.awaitFinished());
+        awaitNotInFlight("https://github.com/user/repo");
+        GenerationSubmission repeat = queue.submit(event("https://github.com/user/repo"));
+
+        // Then
+        assertEquals(first.jobId(), duplicate.jobId());
+        assertEquals(GenerationSubmission.Status.ALREADY_GENERATED, repeat.status());
+        assertEquals(first.jobId(), repeat.jobId());
+        assertEquals(1, jobService.list(10).size());
+    }
+
+    @Test
+    void testRejectedRequestDoesNotCreateJob() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 2);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        queue.submit(event("waiting"));
+
+        // When
+        GenerationSubmission submission = queue.submit(event("overflow"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.QUEUE_FULL, submission.status());
+        assertNull(submission.jobId());
+        assertEquals(2, jobService.list(10).size());
+    }
+
+    @Test
+    void testDroppedRequestMarksJobFailed() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.DROP_OLDEST, 2);
+        queue.submit(event("running"));
+        assertTrue(processingService.awaitStarted(1));
+        GenerationSubmission oldest = queue.submit(event("oldest"));
+
+        // When
+        queue.submit(event("newest"));
+
+        // Then
+        GenerationJob dropped = jobService.find(oldest.jobId()).orElseThrow();
+        assertEquals(JobState.FAILED, dropped.state());
+        assertEquals("Dropped from the full generation queue", dropped.error());
+    }
+
+    @Test
+    void testLeasedRequestIsClaimedRunAndRemoved() throws InterruptedException, IOException {
+        // Given
+        InMemoryWorkStore store = new InMemoryWorkStore();
+        startLeasedQueue(store, 1, 3);
+
+        // When
+        GenerationSubmission submission = queue.submit(event("https://github.com/example/leased"));
+
+        // Then
+        assertTrue(submission.isAccepted());
+        assertTrue(processingService.awaitStarted(1));
+        WorkItem item = store.find(WorkItem.idOf("github.com/example/leased")).orElseThrow();
+        assertNotNull(item.owner());
+        assertEquals(1, item.attempts());
+        assertTrue(queue.isInFlight("https://github.com/example/leased"));
+
+        // When
+        processingService.release();
+
+        // Then
+        assertEquals(JobState.DONE, awaitState(submission.jobId(), JobState.DONE));
+        awaitNotInFlight("https://github.com/example/leased");
+        assertTrue(store.list().isEmpty());
+    }
+
+    @Test
+    void testLeasedClaimsAreLimitedToMaxInFlight() throws InterruptedException {
+        // Given
+        startLeasedQueue(new InMemoryWorkStore(), 1, 3);
+
+        // When
+        assertTrue(queue.submit(event("repo1")).isAccepted());
+        assertTrue(queue.submit(event("repo2")).isAccepted());
+
+        // Then
+        assertTrue(processingService.awaitStarted(1));
+        Thread.sleep(50);
+        assertEquals(1, processingService.started.size());
+        assertEquals(1, queue.getQueuedCount());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("repo1", "repo2"), processingService.getProcessed());
+    }
+
+    @Test
+    void testLeasedRequestKeepsTenantAndPriority() throws InterruptedException, IOException {
+        // Given
+        InMemoryWorkStore store = new InMemoryWorkStore();
+        startLeasedQueue(store, 1, 3);
+        WaverProcessEvent request = event("https://github.com/example/urgent", "tenant-a",
+                WaverProcessEvent.Priority.HIGH);
+
+        // When
+        queue.submit(request);
+
+        // Then
+        assertTrue(processingService.awaitStarted(1));
+        WorkItem item = store.find(WorkItem.idOf("github.com/example/urgent")).orElseThrow();
+        assertEquals("tenant-a", item.tenant());
+        assertEquals(WaverProcessEvent.Priority.HIGH, item.priority());
+        assertEquals(List.of(request), processingService.events);
+        processingService.release();
+    }
+
+    @Test
+    void testLeasedDuplicateWithinCompletionWindowIsAnsweredFromExistingOutput() throws InterruptedException {
+        // Given
+        startLeasedQueue(new InMemoryWorkStore(), 1, 3);
+        processingService.release();
+        GenerationSubmission first = queue.submit(event("https://github.com/example/leased"));
+        assertEquals(JobState.DONE, awaitState(first.jobId(), JobState.DONE));
+        awaitNotInFlight("https://github.com/example/leased");
+
+        // When
+        GenerationSubmission submission = queue.submit(event("https://github.com/example/leased.git"));
+
+        // Then
+        assertEquals(GenerationSubmission.Status.ALREADY_GENERATED, submission.status());
+        assertEquals(first.jobId(), submission.jobId());
+        assertEquals(1, processingService.getProcessed().size());
+    }
+
+    @Test
+    void testLeasedBatchIsOfferedToWorkStore() throws InterruptedException, IOException {
+        // Given
+        InMemoryWorkStore store = new InMemoryWorkStore();
+        startLeasedQueue(store, 1, 3);
+
+        // When
+        List<GenerationSubmission> outcomes = queue.submitAll(List.of(event("https://github.com/example/first"),
+                event("https://github.com/example/first.git"), event("https://github.com/example/second")));
+
+        // Then
+        assertEquals(List.of(GenerationSubmission.Status.ACCEPTED, GenerationSubmission.Status.COALESCED,
+                GenerationSubmission.Status.ACCEPTED), outcomes.stream().map(GenerationSubmission::status).toList());
+        assertEquals(outcomes.get(0).jobId(), outcomes.get(1).jobId());
+        assertEquals(2, store.list().size());
+
+        // When
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(List.of("https://github.com/example/first", "https://github.com/example/second"),
+                processingService.getProcessed());
+    }
+
+    @Test
+    void testLeasedDuplicateAttachesToJobOfOtherReplica() throws InterruptedException {
+        // Given
+        InMemoryWorkStore store = new InMemoryWorkStore();
+        startLeasedQueue(store, 1, 1);
+        GenerationQueue otherReplica = leasedQueue(store, 1);
+        otherReplica.start();
+
+        try {
+            // When
+            GenerationSubmission first = queue.submit(event("https://github.com/example/shared"));
+            GenerationSubmission duplicate = otherReplica.submit(event("https://github.com/example/shared.git"));
+
+            // Then
+            assertEquals(GenerationSubmission.Status.COALESCED, duplicate.status());
+            assertEquals(first.jobId(), duplicate.jobId());
+            assertEquals(1, jobService.list(10).size());
+
+            // When
+            processingService.release();
+
+            // Then
+            assertEquals(JobState.DONE, awaitState(first.jobId(), JobState.DONE));
+            assertEquals(List.of("https://github.com/example/shared"), processingService.getProcessed());
+        } finally {
+            otherReplica.stop();
+        }
+    }
+
+    @Test
+    void testRequestOfCrashedReplicaIsReclaimedAfterLeaseExpired() throws InterruptedException, IOException {
+        // Given
+        InMemoryWorkStore store = new InMemoryWorkStore();
+        String jobId = abandonedItem(store, "https://github.com/example/crashed");
+
+        // When
+        startLeasedQueue(store, 1, 3);
+
+        // Then
+        assertTrue(processingService.awaitStarted(1));
+        assertEquals(2, store.find(WorkItem.idOf(keyOf("https://github.com/example/crashed"))).orElseThrow().attempts());
+        // Resumes from the checkpoints of the crashed run
+        assertEquals(List.of(jobId), processingService.jobIds);
+
+        // When
+        processingService.release();
+
+        // Then
+        assertEquals(JobState.DONE, awaitState(jobId, JobState.DONE));
+    }
+
+    @Test
+    void testCheckpointsOfClaimedRequestAreDiscardedOnceDone() throws InterruptedException {
+        // Given
+        RecordingCheckpointStore checkpointStore = new RecordingCheckpointStore();
+        stageCheckpoints = new StageCheckpoints(checkpointStore);
+        startLeasedQueue(new InMemoryWorkStore(), 1, 3);
+        GenerationSubmission submission = queue.submit(event("https://github.com/example/checkpointed"));
+
+        // When
+        processingService.release();
+
+        // Then
+        assertEquals(JobState.DONE, awaitState(submission.jobId(), JobState.DONE));
+        awaitNotInFlight("https://github.com/example/checkpointed");
+        assertEquals(List.of(submission.jobId()), checkpointStore.deleted);
+        assertEquals(List.of(submission.jobId()), processingService.jobIds);
+    }
+
+    @Test
+    void testRequestIsAbandonedAfterMaxAttempts() throws InterruptedException, IOException {
+        // Given
+        InMemoryWorkStore store = new InMemoryWorkStore();
+        String jobId = abandonedItem(store, "https://github.com/example/poison");
+        RecordingCheckpointStore checkpointStore = new RecordingCheckpointStore();
+        stageCheckpoints = new StageCheckpoints(checkpointStore);
+
+        // When
+        startLeasedQueue(store, 1, 1);
+
+        // Then
+        assertEquals(JobState.FAILED, awaitState(jobId, JobState.FAILED));
+        assertEquals("Abandoned after 1 attempts", jobService.find(jobId).orElseThrow().error());
+        assertEquals(List.of(jobId), checkpointStore.deleted);
+        awaitNotInFlight("https://github.com/example/poison");
+        assertTrue(store.list().isEmpty());
+        assertTrue(processingService.getProcessed().isEmpty());
+    }
+
+    @Test
+    void testRequestWhoseLeaseWasLostIsLeftToOtherReplica() throws InterruptedException, IOException {
+        // Given
+        LosingWorkStore store = new LosingWorkStore();
+        RecordingCheckpointStore checkpointStore = new RecordingCheckpointStore();
+        stageCheckpoints = new StageCheckpoints(checkpointStore);
+        processingService = new BlockingProcessingService(1);
+        createJobService();
+        queue = leasedQueue(store, 1, 3, Duration.ofMillis(300));
+        queue.start();
+        GenerationSubmission submission = queue.submit(event("https://github.com/example/stolen"));
+        assertTrue(processingService.awaitStarted(1));
+
+        // When
+        store.losing = true;
+        Thread.sleep(250);
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        awaitIdle();
+        assertEquals(JobState.CRAWLING, jobService.find(submission.jobId()).orElseThrow().state());
+        assertTrue(checkpointStore.deleted.isEmpty());
+        assertTrue(store.find(WorkItem.idOf(keyOf("https://github.com/example/stolen"))).isPresent());
+    }
+
+    @Test
+    void testLocalRequestIsNotCheckpointed() throws InterruptedException {
+        // Given
+        startQueue(1, 1, WaverConfig.Queue.OverflowStrategy.REJECT, 1);
+
+        // When
+        assertTrue(queue.submit(event("repo")).isAccepted());
+        processingService.release();
+
+        // Then
+        assertTrue(processingService.awaitFinished());
+        assertEquals(Collections.singletonList(null), processingService.jobIds);
+    }
+
+    private JobState awaitState(String jobId, JobState expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        JobState state = jobService.find(jobId).map(GenerationJob::state).orElse(null);
+        while (state != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            state = jobService.find(jobId).map(GenerationJob::state).orElse(null);
+        }
+        return state;
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.getInFlightCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitNotInFlight(String sourceUrl) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.isInFlight(sourceUrl) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Queues a request for the source URL that a replica claimed and then
+     * stopped renewing.
+     *
+     * @return The job id of the request
+     */
+    private String abandonedItem(InMemoryWorkStore store, String sourceUrl) throws IOException {
+        createJobService();
+        String jobId = jobService.create("abandoned-job", sourceUrl).id();
+        Instant crashed = Instant.now().minus(Duration.ofHours(1));
+        store.offer(WorkItem.queued(keyOf(sourceUrl), jobId, sourceUrl, crashed));
+        store.claim("crashed-replica", crashed, Duration.ofMinutes(1));
+        return jobId;
+    }
+
+    private static String keyOf(String sourceUrl) {
+        return FileUtil.normalizeSourceUrl(sourceUrl);
+    }
+
+    private void startLeasedQueue(InMemoryWorkStore store, int maxInFlight, int maxAttempts) {
+        processingService = new BlockingProcessingService(2);
+        if (jobService == null) {
+            createJobService();
+        }
+        queue = leasedQueue(store, maxInFlight, maxAttempts);
+        queue.start();
+    }
+
+    private GenerationQueue leasedQueue(InMemoryWorkStore store, int maxInFlight) {
+        return leasedQueue(store, maxInFlight, 3);
+    }
+
+    private GenerationQueue leasedQueue(InMemoryWorkStore store, int maxInFlight, int maxAttempts) {
+        return leasedQueue(store, maxInFlight, maxAttempts, Duration.ofSeconds(30));
+    }
+
+    private GenerationQueue leasedQueue(InMemoryWorkStore store, int maxInFlight, int maxAttempts, Duration lease) {
+        GenerationQueue generationQueue = new GenerationQueue();
+        generationQueue.waverConfig = new TestWaverConfig(
+                new TestQueue(maxInFlight, 4, WaverConfig.Queue.OverflowStrategy.REJECT, Duration.ofMinutes(5)),
+                new TestWork(WaverConfig.Work.Mode.LEASED, WaverConfig.Work.Store.MEMORY,
+                        lease, Duration.ofMillis(10), maxAttempts));
+        generationQueue.processingService = processingService;
+        generationQueue.meterRegistry = meterRegistry;
+        generationQueue.jobService = jobService;
+        generationQueue.workStore = store;
+        generationQueue.stageCheckpoints = stageCheckpoints;
+        return generationQueue;
+    }
+
+    private void startQueue(int maxInFlight, int depth, WaverConfig.Queue.OverflowStrategy overflow, int expectedRuns) {
+        queue = newQueue(maxInFlight, depth, overflow, expectedRuns);
+        queue.start();
+    }
+
+    private GenerationQueue newQueue(int maxInFlight, int depth, WaverConfig.Queue.OverflowStrategy overflow,
+                                     int expectedRuns) {
+        return newQueue(maxInFlight, depth, overflow, expectedRuns, Duration.ofMinutes(5));
+    }
+
+    private GenerationQueue newQueue(int maxInFlight, int depth, WaverConfig.Queue.OverflowStrategy overflow,
+                                     int expectedRuns, Duration completionWindow) {
+        processingService = new BlockingProcessingService(expectedRuns);
+        GenerationQueue generationQueue = new GenerationQueue();
+        generationQueue.waverConfig = new TestWaverConfig(
+                new TestQueue(maxInFlight, depth, overflow, completionWindow), TestWork.LOCAL);
+        generationQueue.processingService = processingService;
+        generationQueue.meterRegistry = meterRegistry;
+        createJobService();
+        generationQueue.jobService = jobService;
+        generationQueue.stageCheckpoints = new StageCheckpoints(null);
+        return generationQueue;
+    }
+
+    private void createJobService() {
+        try {
+            jobService = new JobService(new FileJobStore(jobDir), Clock.systemUTC());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static WaverProcessEvent event(String sourceUrl) {
+        return new WaverProcessEvent(sourceUrl);
+    }
+
+    private static WaverProcessEvent event(String sourceUrl, String tenant, WaverProcessEvent.Priority priority) {
+        return new WaverProcessEvent(sourceUrl, tenant, priority);
+    }
+
+    /**
+     * Test implementation of BackendProcessingService whose pipelines block until released.
+     */
+    private static class BlockingProcessingService extends BackendProcessingService {
+        private final List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> jobIds = Collections.synchronizedList(new ArrayList<>());
+        private final List<WaverProcessEvent> events = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch releaseLatch = new CountDownLatch(1);
+        private final CountDownLatch finishedLatch;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private volatile String failingSourceUrl;
+
+        BlockingProcessingService(int expectedRuns) {
+            this.finishedLatch = new CountDownLatch(expectedRuns);
+        }
+
+        @Override
+        public void runPipeline(WaverProcessEvent event, String jobId, StageListener listener) {
+            listener.stageStarted(STAGE_CODE_CRAWLER);
+            jobIds.add(jobId);
+            events.add(event);
+            started.add(event.sourceUrl());
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                releaseLatch.await();
+                processed.add(event.sourceUrl());
+                if (event.sourceUrl().equals(failingSourceUrl)) {
+                    throw new RuntimeException("Tutorial generation failed",
+                            new IllegalStateException("Pipeline exploded"));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+                finishedLatch.countDown();
+            }
+        }
+
+        boolean awaitStarted(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (started.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            return started.size() >= count;
+        }
+
+        boolean awaitFinished() throws InterruptedException {
+            return finishedLatch.await(5, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            releaseLatch.countDown();
+        }
+
+        void failOn(String sourceUrl) {
+            this.failingSourceUrl = sourceUrl;
+        }
+
+        List<String> getProcessed() {
+            return new ArrayList<>(processed);
+        }
+
+        int getMaxConcurrent() {
+            return maxConcurrent.get();
+        }
+    }
+
+    /**
+     * Test implementation of WorkStore that refuses to renew leases once
+     * told to, as if another replica had claimed the items.
+     */
+    private static class LosingWorkStore extends InMemoryWorkStore {
+        private volatile boolean losing;
+
+        @Override
+        public synchronized boolean renew(String id, String replica, Instant now, Duration lease) {
+            return !losing && super.renew(id, replica, now, lease);
+        }
+    }
+
+    /**
+     * Test implementation of CheckpointStore that records which jobs were deleted.
+     */
+    private static class RecordingCheckpointStore implements CheckpointStore {
+        private final List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void save(String jobId, String stage, byte[] checkpoint) {
+        }
+
+        @Override
+        public Optional<byte[]> load(String jobId, String stage) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void delete(String jobId) {
+            deleted.add(jobId);
+        }
+    }
+
+    private record TestQueue(int maxInFlight, int depth, OverflowStrategy overflow, Duration completionWindow,
+                             Weights weights) implements WaverConfig.Queue {
+        TestQueue(int maxInFlight, int depth, OverflowStrategy overflow, Duration completionWindow) {
+            this(maxInFlight, depth, overflow, completionWindow, new TestWeights(8, 4, 1));
+        }
+    }
+
+    private record TestWeights(int high, int normal, int low) implements WaverConfig.Queue.Weights {
+    }
+
+    private record TestWork(Mode mode, Store store, Duration lease, Duration pollInterval, int maxAttempts)
+            implements WaverConfig.Work {
+        static final TestWork LOCAL = new TestWork(Mode.LOCAL, Store.MEMORY, Duration.ofMinutes(2),
+                Duration.ofSeconds(5), 3);
+    }
+
+    /**
+     * Test implementation of WaverConfig that only provides queue and work settings.
+     */
+    private static class TestWaverConfig implements WaverConfig {
+        private final Queue queue;
+        private final Work work;
+
+        TestWaverConfig(Queue queue, Work work) {
+            this.queue = queue;
+            this.work = work;
+        }
+
+        @Override
+        public LLMProvider llmProvider() {
+            return LLMProvider.OpenAI;
+        }
+
+        @Override
+        public String outputPath() {
+            return "./test-output";
+        }
+
+        @Override
+        public boolean verbose() {
+            return false;
+        }
+
+        @Override
+        public FormatConverter.OutputFormat outputFormat() {
+            return FormatConverter.OutputFormat.MARKDOWN;
+        }
+
+        @Override
+        public OpenAI openai() {
+            return null;
+        }
+
+        @Override
+        public Gemini gemini() {
+            return null;
+        }
+
+        @Override
+        public Queue queue() {
+            return queue;
+        }
+
+        @Override
+        public Jobs jobs() {
+            return null;
+        }
+
+        @Override
+        public Work work() {
+            return work;
+        }
+
+        @Override
+        public Checkpoints checkpoints() {
+            return null;
+        }
+
+        @Override
+        public Models models() {
+            return null;
+        }
+
+        @Override
+        public Cache cache() {
+            return null;
+        }
+
+        @Override
+        public Incremental incremental() {
+            return null;
+        }
+
+        @Override
+        public Checkout checkout() {
+            return null;
+        }
+
+        @Override
+        public Ingest ingest() {
+            return null;
+        }
+
+        @Override
+        public Shards shards() {
+            return null;
+        }
+
+        @Override
+        public Threads threads() {
+            return null;
+        }
+
+        @Override
+        public Retry retry() {
+            return null;
+        }
+
+        @Override
+        public Routing routing() {
+            return null;
+        }
+
+        @Override
+        public Streaming streaming() {
+            return null;
+        }
+    }
+}
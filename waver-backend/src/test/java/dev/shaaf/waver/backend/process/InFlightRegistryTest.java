@@ -0,0 +1,169 @@
+package dev.shaaf.waver.backend.process;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InFlightRegistry.
+ */
+class InFlightRegistryTest {
+
+    private static final String KEY = "github.com/user/repo";
+
+    private TestClock clock;
+    private InFlightRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock(Instant.parse("2025-01-01T10:00:00Z"));
+        registry = new InFlightRegistry(Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void testFirstRequestStartsJob() {
+        assertEquals(InFlightRegistry.Outcome.STARTED, registry.register(KEY, "job-1").outcome());
+        assertTrue(registry.isInFlight(KEY));
+    }
+
+    @Test
+    void testDuplicatesAttachAndAreCountedOnCompletion() {
+        // Given
+        registry.register(KEY, "job-1");
+
+        // When
+        InFlightRegistry.Registration second = registry.register(KEY, "job-2");
+        InFlightRegistry.Registration third = registry.register(KEY, "job-3");
+
+        // Then
+        assertEquals(InFlightRegistry.Outcome.ATTACHED, second.outcome());
+        assertEquals(InFlightRegistry.Outcome.ATTACHED, third.outcome());
+        assertEquals(2, registry.complete(KEY, true));
+        assertFalse(registry.isInFlight(KEY));
+    }
+
+    @Test
+    void testRequestWithinCompletionWindowIsAnsweredFromExistingOutput() {
+        // Given
+        registry.register(KEY, "job-1");
+        registry.complete(KEY, true);
+
+        // When
+        clock.advance(Duration.ofMinutes(4));
+
+        // Then
+        assertEquals(InFlightRegistry.Outcome.COMPLETED, registry.register(KEY, "job-1").outcome());
+        assertFalse(registry.isInFlight(KEY));
+    }
+
+    @Test
+    void testRequestAfterCompletionWindowStartsNewJob() {
+        // Given
+        registry.register(KEY, "job-1");
+        registry.complete(KEY, true);
+
+        // When
+        clock.advance(Duration.ofMinutes(5));
+
+        // Then
+        assertEquals(InFlightRegistry.Outcome.STARTED, registry.register(KEY, "job-1").outcome());
+    }
+
+    @Test
+    void testFailedRunDoesNotAnswerLaterRequests() {
+        // Given
+        registry.register(KEY, "job-1");
+        registry.complete(KEY, false);
+
+        // When & Then
+        assertEquals(InFlightRegistry.Outcome.STARTED, registry.register(KEY, "job-1").outcome());
+    }
+
+    @Test
+    void testZeroWindowNeverAnswersFromExistingOutput() {
+        // Given
+        InFlightRegistry noWindow = new InFlightRegistry(Duration.ZERO, clock);
+        noWindow.register(KEY, "job-1");
+        noWindow.complete(KEY, true);
+
+        // When & Then
+        assertEquals(InFlightRegistry.Outcome.STARTED, noWindow.register(KEY, "job-1").outcome());
+    }
+
+    @Test
+    void testReleasedJobCanBeStartedAgain() {
+        // Given
+        registry.register(KEY, "job-1");
+        registry.register(KEY, "job-2");
+
+        // When
+        registry.release(KEY);
+
+        // Then
+        assertFalse(registry.isInFlight(KEY));
+        assertEquals(InFlightRegistry.Outcome.STARTED, registry.register(KEY, "job-1").outcome());
+        assertEquals(0, registry.complete(KEY, true));
+    }
+
+    @Test
+    void testDuplicatesReceiveTheIdOfTheRunningJob() {
+        // Given
+        registry.register(KEY, "job-1");
+
+        // When
+        InFlightRegistry.Registration duplicate = registry.register(KEY, "job-2");
+
+        // Then
+        assertEquals(new InFlightRegistry.Registration(InFlightRegistry.Outcome.ATTACHED, "job-1"), duplicate);
+    }
+
+    @Test
+    void testRequestWithinCompletionWindowReceivesTheIdOfTheCompletedJob() {
+        // Given
+        registry.register(KEY, "job-1");
+        registry.complete(KEY, true);
+
+        // When
+        InFlightRegistry.Registration repeat = registry.register(KEY, "job-2");
+
+        // Then
+        assertEquals(new InFlightRegistry.Registration(InFlightRegistry.Outcome.COMPLETED, "job-1"), repeat);
+    }
+
+    /**
+     * Test implementation of Clock that only moves when told to.
+     */
+    private static class TestClock extends Clock {
+        private Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
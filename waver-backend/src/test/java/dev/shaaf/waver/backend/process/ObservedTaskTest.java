@@ -0,0 +1,113 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ObservedTask.
+ */
+class ObservedTaskTest {
+
+    @Test
+    void testSuccessfulStageIsReportedAsStartedAndCompleted() {
+        // Given
+        RecordingListener listener = new RecordingListener();
+        Task<String, Integer> delegate = (input, context) -> CompletableFuture.completedFuture(input.length());
+        ObservedTask<String, Integer> task = new ObservedTask<>("Stage", delegate, listener);
+
+        // When
+        Integer result = task.execute("waver", null).join();
+
+        // Then
+        assertEquals(5, result);
+        assertEquals(List.of("started Stage", "completed Stage", "output Stage waver->5"), listener.events);
+    }
+
+    @Test
+    void testCombinedListenersAreNotifiedInOrder() {
+        // Given
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        Task<String, Integer> delegate = (input, context) -> CompletableFuture.completedFuture(input.length());
+        ObservedTask<String, Integer> task = new ObservedTask<>("Stage", delegate, first.andThen(second));
+
+        // When
+        task.execute("waver", null).join();
+
+        // Then
+        assertEquals(first.events, second.events);
+        assertEquals(3, first.events.size());
+    }
+
+    @Test
+    void testFailedFutureIsReportedWithUnwrappedCause() {
+        // Given
+        RecordingListener listener = new RecordingListener();
+        IllegalStateException failure = new IllegalStateException("LLM unavailable");
+        Task<String, Integer> delegate = (input, context) -> CompletableFuture.supplyAsync(() -> {
+            throw failure;
+        });
+        ObservedTask<String, Integer> task = new ObservedTask<>("Stage", delegate, listener);
+
+        // When
+        CompletableFuture<Integer> result = task.execute("waver", null);
+
+        // Then
+        assertThrows(CompletionException.class, result::join);
+        assertEquals(List.of("started Stage", "failed Stage"), listener.events);
+        assertSame(failure, listener.cause);
+    }
+
+    @Test
+    void testSynchronousExceptionIsReportedAndRethrown() {
+        // Given
+        RecordingListener listener = new RecordingListener();
+        Task<String, Integer> delegate = (input, context) -> {
+            throw new IllegalArgumentException("bad input");
+        };
+        ObservedTask<String, Integer> task = new ObservedTask<>("Stage", delegate, listener);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> task.execute("waver", null));
+        assertEquals(List.of("started Stage", "failed Stage"), listener.events);
+        assertEquals("Stage", task.getStage());
+    }
+
+    /**
+     * Test implementation of StageListener that records every notification.
+     */
+    private static class RecordingListener implements StageListener {
+        private final List<String> events = new ArrayList<>();
+        private Throwable cause;
+
+        @Override
+        public void stageStarted(String stage) {
+            events.add("started " + stage);
+        }
+
+        @Override
+        public void stageCompleted(String stage, Duration elapsed) {
+            events.add("completed " + stage);
+        }
+
+        @Override
+        public void stageOutput(String stage, Object input, Object output) {
+            events.add("output " + stage + " " + input + "->" + output);
+        }
+
+        @Override
+        public void stageFailed(String stage, Duration elapsed, Throwable cause) {
+            events.add("failed " + stage);
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OffloadedTask.
+ */
+class OffloadedTaskTest {
+
+    private static final Executor TEST_THREAD = runnable -> Thread.ofPlatform().name("test-executor").start(runnable);
+
+    @Test
+    void testTaskIsCalledOnExecutor() throws Exception {
+        // Given
+        Task<String, String> naming = (input, context) ->
+                CompletableFuture.completedFuture(input + "@" + Thread.currentThread().getName());
+
+        // When
+        String result = new OffloadedTask<>(naming, TEST_THREAD).execute("crawl", new PipelineContext())
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("crawl@test-executor", result);
+    }
+
+    @Test
+    void testThrowingTaskFailsFuture() {
+        // Given
+        Task<String, String> throwing = (input, context) -> {
+            throw new IllegalStateException("Crawl failed");
+        };
+
+        // When
+        CompletableFuture<String> result = new OffloadedTask<>(throwing, TEST_THREAD)
+                .execute("crawl", new PipelineContext());
+
+        // Then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void testFailedFutureOfTaskIsPassedOn() {
+        // Given
+        Task<String, String> failing = (input, context) ->
+                CompletableFuture.failedFuture(new IllegalArgumentException("No sources"));
+
+        // When
+        CompletableFuture<String> result = new OffloadedTask<>(failing, TEST_THREAD)
+                .execute("crawl", new PipelineContext());
+
+        // Then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+}
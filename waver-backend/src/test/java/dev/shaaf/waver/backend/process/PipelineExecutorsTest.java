@@ -0,0 +1,226 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PipelineExecutors.
+ */
+class PipelineExecutorsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PipelineExecutors executors;
+
+    @AfterEach
+    void tearDown() {
+        if (executors != null) {
+            executors.stop();
+        }
+    }
+
+    @Test
+    void testIoTasksRunOnVirtualThreadsByDefault() throws Exception {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.VIRTUAL, 2), registry);
+
+        // When
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executors.io()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("waver-io-"));
+    }
+
+    @Test
+    void testIoTasksRunOnPlatformPoolIfConfigured() throws Exception {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.PLATFORM, 2), registry);
+
+        // When
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executors.io()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(thread.isVirtual());
+        assertNotNull(registry.find("waver.executor.saturation").tag("pool", "io").gauge());
+    }
+
+    @Test
+    void testLlmAttemptsRunOnThreadsOfTheirOwn() throws Exception {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.PLATFORM, 2), registry);
+
+        // When
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executors.llm()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("waver-llm-"));
+        assertNotNull(registry.find("waver.executor.saturation").tag("pool", "llm").gauge());
+    }
+
+    @Test
+    void testStopShutsAllExecutorsDown() {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.VIRTUAL, 1), registry);
+
+        // When
+        executors.stop();
+
+        // Then
+        assertThrows(RejectedExecutionException.class, () -> executors.io().execute(() -> { }));
+        assertThrows(RejectedExecutionException.class, () -> executors.llm().execute(() -> { }));
+        assertThrows(RejectedExecutionException.class, () -> executors.cpu().execute(() -> { }));
+    }
+
+    @Test
+    void testCpuPoolIsBoundedAndReportsSaturation() throws Exception {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.VIRTUAL, 2), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        Runnable blocking = () -> {
+            started.countDown();
+            await(release);
+        };
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            executors.cpu().execute(blocking);
+        }
+
+        // Then
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(2.0, registry.get("waver.executor.active").tag("pool", "cpu").gauge().value());
+        assertEquals(1.0, registry.get("waver.executor.queued").tag("pool", "cpu").gauge().value());
+        assertEquals(1.0, registry.get("waver.executor.saturation").tag("pool", "cpu").gauge().value());
+        assertNull(registry.find("waver.executor.saturation").tag("pool", "io").gauge());
+
+        // When
+        release.countDown();
+
+        // Then
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("waver.executor.active").tag("pool", "cpu").gauge().value() > 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0.0, registry.get("waver.executor.queued").tag("pool", "cpu").gauge().value());
+        assertEquals(3, registry.get("waver.executor.wait").tag("pool", "cpu").timer().count());
+    }
+
+    @Test
+    void testOffloadedTaskRunsOnCpuPool() throws Exception {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.VIRTUAL, 1), registry);
+        Task<String, String> crawler = (input, context) ->
+                CompletableFuture.completedFuture(Thread.currentThread().getName());
+
+        // When
+        String thread = executors.onCpu(crawler).execute("repo", new PipelineContext()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(thread.startsWith("waver-cpu-"));
+    }
+
+    @Test
+    void testChatCallsRunOnIoExecutor() throws Exception {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.PLATFORM, 1), registry);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        ChatModel chatModel = executors.onIo(new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                threads.add(Thread.currentThread().getName());
+                return ChatResponse.builder().aiMessage(AiMessage.from("answer")).build();
+            }
+        });
+
+        // When
+        String answer = CompletableFuture.supplyAsync(() -> chatModel.chat("Write chapter 1"))
+                .get(5, TimeUnit.SECONDS);
+        CompletableFuture.supplyAsync(() -> chatModel.chat("Write chapter 2"), executors.io())
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(2, threads.size());
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("waver-io-")), threads.toString());
+    }
+
+    @Test
+    void testComputeOnCpuRethrowsFailure() {
+        // Given
+        executors = new PipelineExecutors(config(WaverConfig.Threads.IoThreads.VIRTUAL, 1), registry);
+
+        // When & Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> executors.computeOnCpu(() -> {
+            throw new IllegalStateException("Hashing failed");
+        }));
+        assertEquals("Hashing failed", e.getMessage());
+        assertEquals("sampled", executors.computeOnCpu(() -> "sampled"));
+    }
+
+    @Test
+    void testInvalidPoolSizeIsRejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> new PipelineExecutors(config(WaverConfig.Threads.IoThreads.VIRTUAL, 0), registry));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates a configuration that only provides thread settings.
+     */
+    private static WaverConfig config(WaverConfig.Threads.IoThreads io, int cpuThreads) {
+        WaverConfig.Threads threads = new WaverConfig.Threads() {
+            @Override
+            public IoThreads io() {
+                return io;
+            }
+
+            @Override
+            public int ioPoolSize() {
+                return 2;
+            }
+
+            @Override
+            public OptionalInt cpuPoolSize() {
+                return OptionalInt.of(cpuThreads);
+            }
+        };
+        return (WaverConfig) Proxy.newProxyInstance(WaverConfig.class.getClassLoader(),
+                new Class<?>[]{WaverConfig.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("threads")) {
+                        return threads;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
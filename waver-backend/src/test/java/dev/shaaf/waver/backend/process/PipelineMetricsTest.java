@@ -0,0 +1,153 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.shaaf.waver.backend.minio.UploadResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PipelineMetrics and MeteredChatModel.
+ */
+class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new PipelineMetrics();
+        metrics.registry = registry;
+    }
+
+    @Test
+    void testStageDurationIsRecordedPerStageAndOutcome() {
+        // When
+        metrics.stageCompleted("Technical-writer", Duration.ofSeconds(90));
+        metrics.stageCompleted("Technical-writer", Duration.ofSeconds(30));
+        metrics.stageFailed("Code-crawler", Duration.ofSeconds(2), new IllegalStateException("clone failed"));
+
+        // Then
+        var writer = registry.get("waver.pipeline.stage.duration")
+                .tags("stage", "Technical-writer", "outcome", "success").timer();
+        assertEquals(2, writer.count());
+        assertEquals(120, writer.totalTime(TimeUnit.SECONDS), 0.001);
+        assertEquals(1, registry.get("waver.pipeline.stage.duration")
+                .tags("stage", "Code-crawler", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testStageErrorsAreCountedByExceptionType() {
+        // When
+        metrics.stageFailed("Meta-info", Duration.ZERO, new IllegalStateException("boom"));
+        metrics.stageFailed("Meta-info", Duration.ZERO, new IllegalStateException("boom again"));
+
+        // Then
+        assertEquals(2, registry.get("waver.pipeline.stage.errors")
+                .tags("stage", "Meta-info", "exception", "IllegalStateException").counter().count());
+    }
+
+    @Test
+    void testPayloadSizesAreRecorded() {
+        // When
+        metrics.stageOutput("Code-crawler", "/tmp/repo", List.of("A.java", "B.java", "C.java"));
+        metrics.stageOutput("Minio-upload", new Object(),
+                new UploadResult(List.of("index.md"), List.of(), List.of(), List.of(), 2048, 0));
+
+        // Then
+        assertEquals(9, registry.get("waver.pipeline.stage.payload")
+                .tags("stage", "Code-crawler", "direction", "input").summary().totalAmount());
+        assertEquals(3, registry.get("waver.pipeline.stage.payload")
+                .tags("stage", "Code-crawler", "direction", "output").summary().totalAmount());
+        assertEquals(2048, registry.get("waver.pipeline.stage.payload")
+                .tags("stage", "Minio-upload", "direction", "output").summary().totalAmount());
+        assertNull(registry.find("waver.pipeline.stage.payload")
+                .tags("stage", "Minio-upload", "direction", "input").summary());
+    }
+
+    @Test
+    void testSizeOfKnownPayloads() {
+        assertEquals(5, PipelineMetrics.sizeOf("waver"));
+        assertEquals(2, PipelineMetrics.sizeOf(Map.of("a", 1, "b", 2)));
+        assertEquals(-1, PipelineMetrics.sizeOf(null));
+        assertEquals(-1, PipelineMetrics.sizeOf(42));
+    }
+
+    @Test
+    void testRunsAreRecordedByOutcome() {
+        // When
+        metrics.runCompleted(Duration.ofMinutes(7), true);
+        metrics.runCompleted(Duration.ofMinutes(1), false);
+
+        // Then
+        assertEquals(1, registry.get("waver.pipeline.runs").tags("outcome", "success").timer().count());
+        assertEquals(1, registry.get("waver.pipeline.runs").tags("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testMeteredChatModelRecordsTokensPerStage() {
+        // Given
+        ChatModel shared = new TestChatModel(new TokenUsage(120, 30));
+        ChatModel writer = metrics.metered(shared, "Technical-writer");
+        ChatModel organizer = metrics.metered(shared, "Chapter-organizer");
+
+        // When
+        writer.chat("Write chapter 1");
+        writer.chat("Write chapter 2");
+        organizer.chat("Order the chapters");
+
+        // Then
+        assertEquals(240, registry.get("waver.llm.tokens")
+                .tags("stage", "Technical-writer", "type", "input").counter().count());
+        assertEquals(60, registry.get("waver.llm.tokens")
+                .tags("stage", "Technical-writer", "type", "output").counter().count());
+        assertEquals(1, registry.get("waver.llm.calls")
+                .tags("stage", "Chapter-organizer", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testMeteredChatModelRecordsFailedCalls() {
+        // Given
+        ChatModel failing = new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                throw new IllegalStateException("Rate limited");
+            }
+        };
+        ChatModel metered = metrics.metered(failing, "Meta-info");
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> metered.chat("Describe the project"));
+        assertEquals(1, registry.get("waver.llm.calls")
+                .tags("stage", "Meta-info", "outcome", "failure").timer().count());
+        assertNull(registry.find("waver.llm.tokens").counter());
+    }
+
+    /**
+     * Test implementation of ChatModel answering every request with a fixed token usage.
+     */
+    private static class TestChatModel implements ChatModel {
+        private final TokenUsage tokenUsage;
+
+        TestChatModel(TokenUsage tokenUsage) {
+            this.tokenUsage = tokenUsage;
+        }
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            return ChatResponse.builder().aiMessage(AiMessage.from("ok")).tokenUsage(tokenUsage).build();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShardedTask.
+ */
+class ShardedTaskTest {
+
+    /** Splits a list into one shard per element. */
+    private static final Function<List<Integer>, List<List<Integer>>> PER_ELEMENT =
+            input -> input.stream().map(List::of).toList();
+
+    /** Concatenates the shard outputs. */
+    private static final Function<List<List<Integer>>, List<Integer>> CONCAT =
+            outputs -> outputs.stream().flatMap(List::stream).toList();
+
+    @Test
+    void testOutputsAreReducedInShardOrder() throws Exception {
+        // Given
+        Task<List<Integer>, List<Integer>> doubling = (input, context) -> CompletableFuture.supplyAsync(() -> {
+            // Later shards finish first
+            sleep(10L * (5 - input.getFirst()));
+            return List.of(input.getFirst() * 2);
+        });
+        ShardedTask<List<Integer>, List<Integer>> task = new ShardedTask<>(doubling, PER_ELEMENT, CONCAT, 5);
+
+        // When
+        List<Integer> result = task.execute(List.of(1, 2, 3, 4), new PipelineContext()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of(2, 4, 6, 8), result);
+    }
+
+    @Test
+    void testAtMostTheConfiguredNumberOfShardsRunAtTheSameTime() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Task<List<Integer>, List<Integer>> tracking = (input, context) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+            return CompletableFuture.completedFuture(input);
+        };
+        ShardedTask<List<Integer>, List<Integer>> task = new ShardedTask<>(tracking, PER_ELEMENT, CONCAT, 2);
+
+        // When
+        List<Integer> result = task.execute(IntStream.range(0, 8).boxed().toList(), new PipelineContext())
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(8, result.size());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testSingleShardIsPassedThroughUnchanged() throws Exception {
+        // Given
+        List<List<Integer>> inputs = new ArrayList<>();
+        Task<List<Integer>, List<Integer>> recording = (input, context) -> {
+            inputs.add(input);
+            return CompletableFuture.completedFuture(input);
+        };
+        List<Integer> input = List.of(1, 2);
+        ShardedTask<List<Integer>, List<Integer>> task =
+                new ShardedTask<>(recording, List::of, outputs -> fail("Nothing to reduce"), 2);
+
+        // When
+        task.execute(input, new PipelineContext()).get();
+
+        // Then
+        assertSame(input, inputs.getFirst());
+    }
+
+    @Test
+    void testFailedShardFailsTheStageAndSkipsPendingShards() {
+        // Given
+        AtomicInteger started = new AtomicInteger();
+        Task<List<Integer>, List<Integer>> failing = (input, context) -> {
+            started.incrementAndGet();
+            if (input.getFirst() == 0) {
+                return CompletableFuture.failedFuture(new IllegalStateException("context length exceeded"));
+            }
+            sleep(20);
+            return CompletableFuture.completedFuture(input);
+        };
+        ShardedTask<List<Integer>, List<Integer>> task = new ShardedTask<>(failing, PER_ELEMENT, CONCAT, 1);
+
+        // When
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> task.execute(List.of(0, 1, 2, 3), new PipelineContext()).get(5, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals("context length exceeded", e.getCause().getMessage());
+        assertTrue(started.get() < 4, "Started " + started.get() + " shards");
+    }
+
+    @Test
+    void testConcurrencyBelowOneIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardedTask<List<Integer>, List<Integer>>((input, context) -> null, PER_ELEMENT, CONCAT, 0));
+    }
+
+    @Test
+    void testShardsRunOnGivenExecutor() throws Exception {
+        // Given
+        List<String> threads = new CopyOnWriteArrayList<>();
+        Task<List<Integer>, List<Integer>> recording = (input, context) -> {
+            threads.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(input);
+        };
+        ShardedTask<List<Integer>, List<Integer>> task = new ShardedTask<>(recording, PER_ELEMENT, CONCAT, 2,
+                runnable -> Thread.ofPlatform().name("test-io").start(runnable));
+
+        // When
+        task.execute(List.of(1, 2, 3), new PipelineContext()).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(List.of("test-io", "test-io", "test-io"), threads);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
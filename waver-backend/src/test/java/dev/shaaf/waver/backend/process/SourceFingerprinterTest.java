@@ -0,0 +1,105 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.waver.backend.minio.SourceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SourceFingerprinter.
+ * <p>
+ * Resolving commits is replaced by functions recording what they were asked for.
+ */
+class SourceFingerprinterTest {
+
+    private SourceFingerprinter fingerprinter;
+    private List<Object> lookups;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        lookups = new ArrayList<>();
+        fingerprinter = new SourceFingerprinter();
+        fingerprinter.remoteHead = url -> {
+            lookups.add(url);
+            return Optional.empty();
+        };
+        fingerprinter.localHead = dir -> {
+            lookups.add(dir);
+            return Optional.empty();
+        };
+    }
+
+    @Test
+    void testRemoteRepositoryResolvesCommitOfDefaultBranch() throws IOException {
+        // Given
+        fingerprinter.remoteHead = url -> {
+            lookups.add(url);
+            return Optional.of("0123abcd");
+        };
+
+        // When
+        SourceSnapshot snapshot = fingerprinter.capture("https://github.com/user/repo", "settings");
+
+        // Then
+        assertEquals(List.of("https://github.com/user/repo"), lookups);
+        assertEquals("0123abcd", snapshot.commit());
+        assertEquals("settings", snapshot.settings());
+        assertTrue(snapshot.files().isEmpty());
+    }
+
+    @Test
+    void testRemoteRepositoryWithoutResolvableCommitHasNoCommit() throws IOException {
+        // When
+        SourceSnapshot snapshot = fingerprinter.capture("https://github.com/user/repo", "settings");
+
+        // Then
+        assertNull(snapshot.commit());
+    }
+
+    @Test
+    void testLocalDirectoryResolvesCheckedOutCommitAndHashesFiles() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("hello.txt"), "hello");
+        fingerprinter.localHead = dir -> {
+            lookups.add(dir);
+            return Optional.of("0123abcd");
+        };
+
+        // When
+        SourceSnapshot snapshot = fingerprinter.capture(tempDir.toString(), "settings");
+
+        // Then
+        assertEquals(List.of(tempDir.toAbsolutePath()), lookups);
+        assertEquals("0123abcd", snapshot.commit());
+        assertEquals(Map.of("hello.txt", "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824"),
+                snapshot.files());
+    }
+
+    @Test
+    void testHashFilesSkipsGitDirectoryAndUsesForwardSlashes() throws IOException {
+        // Given
+        Files.createDirectories(tempDir.resolve(".git/objects"));
+        Files.writeString(tempDir.resolve(".git/HEAD"), "ref: refs/heads/main");
+        Files.createDirectories(tempDir.resolve("src/main"));
+        Files.writeString(tempDir.resolve("src/main/App.java"), "class App {}");
+
+        // When
+        Map<String, String> files = SourceFingerprinter.hashFiles(tempDir);
+
+        // Then
+        assertEquals(List.of("src/main/App.java"), List.copyOf(files.keySet()));
+    }
+}
@@ -0,0 +1,149 @@
+package dev.shaaf.waver.backend.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WeightedFairQueue.
+ * <p>
+ * Elements are named "flow:number"; the flow's weight is looked up by the
+ * part before the colon.
+ */
+class WeightedFairQueueTest {
+
+    @Test
+    void testFlowsTakeTurns() {
+        // Given
+        WeightedFairQueue<String> queue = queue(10);
+
+        // When
+        offerAll(queue, "a:1", "a:2", "a:3", "a:4", "b:1", "b:2");
+
+        // Then
+        assertEquals(List.of("a:1", "b:1", "a:2", "b:2", "a:3", "a:4"), drain(queue));
+    }
+
+    @Test
+    void testHeavierFlowsGetMoreTurns() {
+        // Given
+        WeightedFairQueue<String> queue = queue(10);
+
+        // When
+        offerAll(queue, "light:1", "light:2", "light:3", "heavy:1", "heavy:2", "heavy:3", "heavy:4");
+
+        // Then
+        assertEquals(List.of("heavy:1", "heavy:2", "heavy:3", "light:1", "heavy:4", "light:2", "light:3"),
+                drain(queue));
+    }
+
+    @Test
+    void testLateFlowDoesNotWaitForBacklog() {
+        // Given
+        WeightedFairQueue<String> queue = queue(10);
+        offerAll(queue, "a:1", "a:2", "a:3", "a:4");
+        assertEquals("a:1", queue.poll());
+
+        // When
+        queue.offer("b:1");
+
+        // Then
+        assertEquals(List.of("a:2", "b:1", "a:3", "a:4"), drain(queue));
+    }
+
+    @Test
+    void testOfferFailsWhenFull() {
+        // Given
+        WeightedFairQueue<String> queue = queue(2);
+        offerAll(queue, "a:1", "b:1");
+
+        // When & Then
+        assertFalse(queue.offer("c:1"));
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void testPollOldestOfLowestWeight() {
+        // Given
+        WeightedFairQueue<String> queue = queue(10);
+        offerAll(queue, "a:1", "light:1", "heavy:1", "light:2");
+
+        // When
+        String dropped = queue.pollOldestOfLowestWeight();
+
+        // Then
+        assertEquals("light:1", dropped);
+        assertEquals(List.of("heavy:1", "a:1", "light:2"), drain(queue));
+        assertNull(queue.pollOldestOfLowestWeight());
+    }
+
+    @Test
+    void testRemoveKeepsOrderOfOthers() {
+        // Given
+        WeightedFairQueue<String> queue = queue(10);
+        offerAll(queue, "a:1", "a:2", "b:1");
+
+        // When
+        boolean removed = queue.remove("a:1");
+
+        // Then
+        assertTrue(removed);
+        assertFalse(queue.remove("a:1"));
+        assertEquals(List.of("b:1", "a:2"), new ArrayList<>(queue));
+    }
+
+    @Test
+    void testTakeWaitsForElement() throws Exception {
+        // Given
+        WeightedFairQueue<String> queue = queue(1);
+        CompletableFuture<String> taken = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // When
+        Thread.sleep(50);
+        queue.put("a:1");
+
+        // Then
+        assertEquals("a:1", taken.get(5, TimeUnit.SECONDS));
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testInvalidCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> queue(0));
+    }
+
+    private static WeightedFairQueue<String> queue(int capacity) {
+        return new WeightedFairQueue<>(capacity, element -> {
+            String flow = element.substring(0, element.indexOf(':'));
+            return new WeightedFairQueue.Flow(flow, switch (flow) {
+                case "heavy" -> 4;
+                case "light" -> 1;
+                default -> 2;
+            });
+        });
+    }
+
+    private static void offerAll(WeightedFairQueue<String> queue, String... elements) {
+        for (String element : elements) {
+            assertTrue(queue.offer(element));
+        }
+    }
+
+    private static List<String> drain(WeightedFairQueue<String> queue) {
+        List<String> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        return drained;
+    }
+}
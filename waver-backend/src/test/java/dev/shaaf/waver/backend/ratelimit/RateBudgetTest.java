@@ -0,0 +1,173 @@
+package dev.shaaf.waver.backend.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateBudget.
+ * <p>
+ * Time is simulated: sleeping advances the clock instead of blocking.
+ */
+class RateBudgetTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now;
+    private List<Long> sleeps;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        sleeps = new ArrayList<>();
+    }
+
+    @Test
+    void testUnlimitedBudgetNeverWaits() {
+        // Given
+        RateBudget budget = budget(OptionalInt.empty(), OptionalInt.empty());
+
+        // When & Then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, budget.reserve(100_000));
+        }
+    }
+
+    @Test
+    void testRequestsBeyondTheMinuteBudgetWait() {
+        // Given
+        RateBudget budget = budget(OptionalInt.of(60), OptionalInt.empty());
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, budget.reserve(0));
+        }
+
+        // When
+        long first = budget.reserve(0);
+        long second = budget.reserve(0);
+
+        // Then
+        assertEquals(SECOND, first);
+        assertEquals(2 * SECOND, second);
+    }
+
+    @Test
+    void testTokensRefillOverTheMinute() {
+        // Given
+        RateBudget budget = budget(OptionalInt.empty(), OptionalInt.of(1000));
+        assertEquals(0, budget.reserve(1000));
+
+        // When
+        now += 30 * SECOND;
+
+        // Then
+        assertEquals(0, budget.reserve(500));
+        assertEquals(6 * SECOND, budget.reserve(100));
+    }
+
+    @Test
+    void testAcquireSleepsUntilTheReservationIsCovered() throws InterruptedException {
+        // Given
+        RateBudget budget = budget(OptionalInt.of(1), OptionalInt.empty());
+        budget.acquire(0);
+
+        // When
+        Duration waited = budget.acquire(0);
+
+        // Then
+        assertEquals(Duration.ofMinutes(1), waited);
+        assertEquals(List.of(60 * SECOND), sleeps);
+    }
+
+    @Test
+    void testReconcileReturnsUnusedTokens() {
+        // Given
+        RateBudget budget = budget(OptionalInt.empty(), OptionalInt.of(1000));
+        budget.reserve(1000);
+
+        // When
+        budget.reconcile(1000, 400);
+
+        // Then
+        assertEquals(0, budget.reserve(600));
+    }
+
+    @Test
+    void testRejectionPausesAllCallersWithExponentialBackoff() {
+        // Given
+        RateBudget budget = budget(OptionalInt.empty(), OptionalInt.empty());
+
+        // When
+        Duration first = budget.rejected();
+        Duration second = budget.rejected();
+        Duration third = budget.rejected();
+
+        // Then
+        assertEquals(Duration.ofSeconds(2), first);
+        assertEquals(Duration.ofSeconds(4), second);
+        assertEquals(Duration.ofSeconds(5), third);
+        assertEquals(5 * SECOND, budget.reserve(0));
+    }
+
+    @Test
+    void testRejectionHalvesTheRateDownToTheMinimum() {
+        // Given
+        RateBudget budget = budget(OptionalInt.of(60), OptionalInt.empty());
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            budget.rejected();
+        }
+
+        // Then
+        assertEquals(RateBudget.MIN_FACTOR, budget.factor());
+    }
+
+    @Test
+    void testReducedRateSpacesRequestsFurtherApart() {
+        // Given
+        RateBudget budget = budget(OptionalInt.of(60), OptionalInt.empty());
+        budget.rejected();
+        now += 5 * SECOND;
+        for (int i = 0; i < 30; i++) {
+            assertEquals(0, budget.reserve(0));
+        }
+
+        // When & Then
+        assertEquals(2 * SECOND, budget.reserve(0));
+    }
+
+    @Test
+    void testSuccessRecoversTheRateAndResetsTheBackoff() {
+        // Given
+        RateBudget budget = budget(OptionalInt.of(60), OptionalInt.empty());
+        budget.rejected();
+        budget.rejected();
+
+        // When
+        budget.succeeded();
+
+        // Then
+        assertEquals(0.25 + RateBudget.RECOVERY_STEP, budget.factor(), 1e-9);
+        assertEquals(Duration.ofSeconds(2), budget.rejected());
+    }
+
+    @Test
+    void testBudgetBelowOneIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> budget(OptionalInt.of(0), OptionalInt.empty()));
+    }
+
+    private RateBudget budget(OptionalInt requestsPerMinute, OptionalInt tokensPerMinute) {
+        return new RateBudget(requestsPerMinute, tokensPerMinute, Duration.ofSeconds(2), Duration.ofSeconds(5),
+                () -> now, nanos -> {
+                    sleeps.add(nanos);
+                    now += nanos;
+                });
+    }
+}
@@ -0,0 +1,159 @@
+package dev.shaaf.waver.backend.ratelimit;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimitedChatModel.
+ * <p>
+ * Time is simulated: sleeping advances the clock instead of blocking.
+ */
+class RateLimitedChatModelTest {
+
+    private long now;
+    private List<Long> sleeps;
+    private MeterRegistry registry;
+    private TestChatModel delegate;
+    private RateBudget budget;
+    private RateLimitedChatModel chatModel;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        sleeps = new ArrayList<>();
+        registry = new SimpleMeterRegistry();
+        delegate = new TestChatModel();
+        budget = new RateBudget(OptionalInt.of(60), OptionalInt.of(10_000), Duration.ofSeconds(1),
+                Duration.ofSeconds(30), () -> now, nanos -> {
+                    sleeps.add(nanos);
+                    now += nanos;
+                });
+        chatModel = new RateLimitedChatModel(delegate, budget, 2,
+                registry.timer("waver.llm.rate.wait"), registry.counter("waver.llm.rate.rejections"));
+    }
+
+    @Test
+    void testCallWithinBudgetDoesNotWait() {
+        // When
+        String answer = chatModel.chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertTrue(sleeps.isEmpty());
+        assertEquals(1, registry.timer("waver.llm.rate.wait").count());
+    }
+
+    @Test
+    void testRejectedCallIsRetriedAfterBackoff() {
+        // Given
+        delegate.failures.add(new RateLimitException("Too many requests"));
+        delegate.failures.add(new RuntimeException(new HttpException(429, "Too many requests")));
+
+        // When
+        String answer = chatModel.chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(3, delegate.calls);
+        assertEquals(List.of(TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(2)), sleeps);
+        assertEquals(2.0, registry.counter("waver.llm.rate.rejections").count());
+    }
+
+    @Test
+    void testRejectionIsRethrownAfterMaxRetries() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            delegate.failures.add(new RateLimitException("Too many requests"));
+        }
+
+        // When & Then
+        assertThrows(RateLimitException.class, () -> chatModel.chat("Write chapter 1"));
+        assertEquals(3, delegate.calls);
+    }
+
+    @Test
+    void testOtherFailuresAreNotRetried() {
+        // Given
+        delegate.failures.add(new HttpException(500, "Internal error"));
+
+        // When & Then
+        assertThrows(HttpException.class, () -> chatModel.chat("Write chapter 1"));
+        assertEquals(1, delegate.calls);
+        assertEquals(0.0, registry.counter("waver.llm.rate.rejections").count());
+    }
+
+    @Test
+    void testReportedUsageCorrectsTheEstimate() {
+        // Given
+        delegate.usage = new TokenUsage(5_000, 4_000);
+
+        // When
+        chatModel.chat(ChatRequest.builder().messages(UserMessage.from("x".repeat(400))).build());
+
+        // Then
+        // 100 tokens were reserved but 9000 used, leaving 1000 of the 10000 per minute
+        assertEquals(0, budget.reserve(1000));
+        assertTrue(budget.reserve(1) > 0);
+    }
+
+    @Test
+    void testEstimateCountsPromptCharactersAndMaxOutputTokens() {
+        // Given
+        ChatRequest request = ChatRequest.builder()
+                .messages(SystemMessage.from("x".repeat(40)), UserMessage.from("y".repeat(41)),
+                        AiMessage.from("z".repeat(3)))
+                .maxOutputTokens(500)
+                .build();
+
+        // When & Then
+        assertEquals(21 + 500, RateLimitedChatModel.estimateTokens(request));
+    }
+
+    @Test
+    void testRateLimitIsDetectedInCauses() {
+        assertTrue(RateLimitedChatModel.isRateLimited(new RuntimeException(new RateLimitException("429"))));
+        assertTrue(RateLimitedChatModel.isRateLimited(new HttpException(429, "Too many requests")));
+        assertFalse(RateLimitedChatModel.isRateLimited(new HttpException(503, "Unavailable")));
+        assertFalse(RateLimitedChatModel.isRateLimited(new IllegalStateException()));
+    }
+
+    /**
+     * Test implementation of ChatModel failing with queued exceptions before answering.
+     */
+    private static class TestChatModel implements ChatModel {
+        final List<RuntimeException> failures = new ArrayList<>();
+        TokenUsage usage;
+        int calls;
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            calls++;
+            if (!failures.isEmpty()) {
+                throw failures.removeFirst();
+            }
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from("answer"))
+                    .tokenUsage(usage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package dev.shaaf.waver.backend.ratelimit;
+
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.llm.config.FormatConverter;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimiter.
+ */
+class RateLimiterTest {
+
+    private MeterRegistry registry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        rateLimiter = new RateLimiter(new TestWaverConfig(), registry);
+    }
+
+    @Test
+    void testChatModelsOfOneProviderShareTheBudget() {
+        // When
+        ChatModel first = rateLimiter.wrap(new ChatModel() {
+        }, LLMProvider.OpenAI);
+        ChatModel second = rateLimiter.wrap(new ChatModel() {
+        }, LLMProvider.OpenAI);
+
+        // Then
+        assertInstanceOf(RateLimitedChatModel.class, first);
+        assertInstanceOf(RateLimitedChatModel.class, second);
+        assertNotNull(rateLimiter.budgetOf(LLMProvider.OpenAI));
+        assertNull(rateLimiter.budgetOf(LLMProvider.Gemini));
+    }
+
+    @Test
+    void testProvidersHaveSeparateBudgets() {
+        // When
+        rateLimiter.wrap(new ChatModel() {
+        }, LLMProvider.OpenAI);
+        rateLimiter.wrap(new ChatModel() {
+        }, LLMProvider.Gemini);
+
+        // Then
+        assertNotSame(rateLimiter.budgetOf(LLMProvider.OpenAI), rateLimiter.budgetOf(LLMProvider.Gemini));
+        assertEquals(1.0, registry.get("waver.llm.rate.factor").tag("provider", "Gemini").gauge().value());
+    }
+
+    @Test
+    void testUnknownProviderIsNotLimited() {
+        // Given
+        ChatModel chatModel = new ChatModel() {
+        };
+
+        // When & Then
+        assertSame(chatModel, rateLimiter.wrap(chatModel, null));
+    }
+
+    /**
+     * Test implementation of WaverConfig providing rate limits for both providers.
+     */
+    private static class TestWaverConfig implements WaverConfig {
+        @Override
+        public LLMProvider llmProvider() {
+            return LLMProvider.OpenAI;
+        }
+
+        @Override
+        public String outputPath() {
+            return "./test-output";
+        }
+
+        @Override
+        public boolean verbose() {
+            return false;
+        }
+
+        @Override
+        public FormatConverter.OutputFormat outputFormat() {
+            return FormatConverter.OutputFormat.MARKDOWN;
+        }
+
+        @Override
+        public OpenAI openai() {
+            return new OpenAI() {
+                @Override
+                public Optional<String> apiKey() {
+                    return Optional.of("test-key");
+                }
+
+                @Override
+                public RateLimit rateLimit() {
+                    return new TestRateLimit();
+                }
+
+                @Override
+                public OptionalInt contextTokens() {
+                    return OptionalInt.empty();
+                }
+            };
+        }
+
+        @Override
+        public Gemini gemini() {
+            return new Gemini() {
+                @Override
+                public Optional<String> apiKey() {
+                    return Optional.of("test-key");
+                }
+
+                @Override
+                public RateLimit rateLimit() {
+                    return new TestRateLimit();
+                }
+
+                @Override
+                public OptionalInt contextTokens() {
+                    return OptionalInt.empty();
+                }
+            };
+        }
+
+        @Override
+        public Queue queue() {
+            return null;
+        }
+
+        @Override
+        public Jobs jobs() {
+            return null;
+        }
+
+        @Override
+        public Work work() {
+            return null;
+        }
+
+        @Override
+        public Checkpoints checkpoints() {
+            return null;
+        }
+
+        @Override
+        public Models models() {
+            return null;
+        }
+
+        @Override
+        public Cache cache() {
+            return null;
+        }
+
+        @Override
+        public Incremental incremental() {
+            return null;
+        }
+
+        @Override
+        public Checkout checkout() {
+            return null;
+        }
+
+        @Override
+        public Ingest ingest() {
+            return null;
+        }
+
+        @Override
+        public Shards shards() {
+            return null;
+        }
+
+        @Override
+        public Threads threads() {
+            return null;
+        }
+
+        @Override
+        public Retry retry() {
+            return null;
+        }
+
+        @Override
+        public Routing routing() {
+            return null;
+        }
+
+        @Override
+        public Streaming streaming() {
+            return null;
+        }
+    }
+
+    private static class TestRateLimit implements WaverConfig.RateLimit {
+        @Override
+        public OptionalInt requestsPerMinute() {
+            return OptionalInt.of(500);
+        }
+
+        @Override
+        public OptionalInt tokensPerMinute() {
+            return OptionalInt.of(30_000);
+        }
+
+        @Override
+        public int maxRetries() {
+            return 3;
+        }
+
+        @Override
+        public Duration initialBackoff() {
+            return Duration.ofSeconds(2);
+        }
+
+        @Override
+        public Duration maxBackoff() {
+            return Duration.ofMinutes(1);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dev.shaaf.waver.backend.retry;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChatRetries.
+ */
+class ChatRetriesTest {
+
+    private static final ChatModel MODEL = new ChatModel() {
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            return ChatResponse.builder().aiMessage(AiMessage.from("answer")).build();
+        }
+    };
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private ChatRetries chatRetries;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testStageTakesDefaultSettings() {
+        // Given
+        chatRetries = new ChatRetries(config(true, Map.of()), registry, executor);
+
+        // When
+        RetryPolicy policy = chatRetries.policyOf("Technical-writer");
+
+        // Then
+        assertEquals(new RetryPolicy(3, Duration.ofMinutes(10), Duration.ofSeconds(1), Duration.ofSeconds(30),
+                false, 0.95, 20, Duration.ofSeconds(5)), policy);
+    }
+
+    @Test
+    void testStageSettingsOverrideDefaults() {
+        // Given
+        chatRetries = new ChatRetries(config(true, Map.of("Technical-writer",
+                new TestStage(Optional.empty(), OptionalInt.of(5), Optional.of(Duration.ofMinutes(2)),
+                        Optional.of(true)))), registry, executor);
+
+        // When
+        RetryPolicy policy = chatRetries.policyOf("Technical-writer");
+
+        // Then
+        assertEquals(5, policy.maxAttempts());
+        assertEquals(Duration.ofMinutes(2), policy.deadline());
+        assertTrue(policy.hedge());
+        assertFalse(chatRetries.policyOf("Meta-info").hedge());
+    }
+
+    @Test
+    void testRetriesCanBeEnabledForSingleStage() {
+        // Given
+        chatRetries = new ChatRetries(config(false, Map.of("Technical-writer",
+                new TestStage(Optional.of(true), OptionalInt.empty(), Optional.empty(), Optional.empty()))),
+                registry, executor);
+
+        // When & Then
+        assertSame(MODEL, chatRetries.wrap(MODEL, "Meta-info"));
+        assertNotSame(MODEL, chatRetries.wrap(MODEL, "Technical-writer"));
+    }
+
+    @Test
+    void testWrappedModelAnswersAndRegistersCounters() {
+        // Given
+        chatRetries = new ChatRetries(config(true, Map.of()), registry, executor);
+
+        // When
+        String answer = chatRetries.wrap(MODEL, "Chapter-organizer").chat("Order the chapters");
+
+        // Then
+        assertEquals("answer", answer);
+        assertNotNull(registry.find("waver.llm.retries").tag("stage", "Chapter-organizer").counter());
+        assertNotNull(registry.find("waver.llm.hedges").tag("stage", "Chapter-organizer").counter());
+        assertNotNull(registry.find("waver.llm.wasted.tokens").tag("stage", "Chapter-organizer").counter());
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        // Given
+        chatRetries = new ChatRetries(config(true, Map.of("Technical-writer",
+                new TestStage(Optional.empty(), OptionalInt.of(0), Optional.empty(), Optional.empty()))), registry,
+                executor);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> chatRetries.wrap(MODEL, "Technical-writer"));
+    }
+
+    /**
+     * Creates a configuration that only provides retry settings, with the default values.
+     */
+    private static WaverConfig config(boolean enabled, Map<String, WaverConfig.Retry.Stage> stages) {
+        WaverConfig.Retry retry = new TestRetry(enabled, stages);
+        return (WaverConfig) Proxy.newProxyInstance(WaverConfig.class.getClassLoader(),
+                new Class<?>[]{WaverConfig.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("retry")) {
+                        return retry;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private record TestRetry(boolean enabled, Map<String, Stage> stages) implements WaverConfig.Retry {
+        @Override
+        public int maxAttempts() {
+            return 3;
+        }
+
+        @Override
+        public Duration deadline() {
+            return Duration.ofMinutes(10);
+        }
+
+        @Override
+        public Duration initialBackoff() {
+            return Duration.ofSeconds(1);
+        }
+
+        @Override
+        public Duration maxBackoff() {
+            return Duration.ofSeconds(30);
+        }
+
+        @Override
+        public boolean hedge() {
+            return false;
+        }
+
+        @Override
+        public double hedgeQuantile() {
+            return 0.95;
+        }
+
+        @Override
+        public int hedgeMinSamples() {
+            return 20;
+        }
+
+        @Override
+        public Duration hedgeMinDelay() {
+            return Duration.ofSeconds(5);
+        }
+    }
+
+    private record TestStage(Optional<Boolean> enabled, OptionalInt maxAttempts, Optional<Duration> deadline,
+                             Optional<Boolean> hedge) implements WaverConfig.Retry.Stage {
+    }
+}
@@ -0,0 +1,62 @@
+package dev.shaaf.waver.backend.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for LatencyWindow.
+ */
+class LatencyWindowTest {
+
+    @Test
+    void testQuantileByNearestRank() {
+        // Given
+        LatencyWindow window = new LatencyWindow(100);
+
+        // When
+        for (int millis = 100; millis >= 1; millis--) {
+            window.record(Duration.ofMillis(millis));
+        }
+
+        // Then
+        assertEquals(100, window.size());
+        assertEquals(Duration.ofMillis(95), window.quantile(0.95));
+        assertEquals(Duration.ofMillis(50), window.quantile(0.5));
+        assertEquals(Duration.ofMillis(100), window.quantile(1.0));
+        assertEquals(Duration.ofMillis(1), window.quantile(0.001));
+    }
+
+    @Test
+    void testOldestLatenciesAreForgotten() {
+        // Given
+        LatencyWindow window = new LatencyWindow(3);
+        window.record(Duration.ofSeconds(60));
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            window.record(Duration.ofSeconds(1));
+        }
+
+        // Then
+        assertEquals(3, window.size());
+        assertEquals(Duration.ofSeconds(1), window.quantile(1.0));
+    }
+
+    @Test
+    void testEmptyWindowHasNoQuantile() {
+        // Given
+        LatencyWindow window = new LatencyWindow(3);
+
+        // When & Then
+        assertEquals(0, window.size());
+        assertNull(window.quantile(0.95));
+    }
+
+    @Test
+    void testInvalidCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyWindow(0));
+    }
+}
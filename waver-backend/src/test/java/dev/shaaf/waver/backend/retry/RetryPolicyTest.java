@@ -0,0 +1,50 @@
+package dev.shaaf.waver.backend.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetryPolicy.
+ */
+class RetryPolicyTest {
+
+    @Test
+    void testBackoffDoublesUpToMaximum() {
+        // Given
+        RetryPolicy policy = policy(3, Duration.ofMinutes(1), 0.95);
+
+        // When & Then
+        for (int i = 0; i < 100; i++) {
+            assertBetween(policy.backoff(1), Duration.ZERO, Duration.ofMillis(100));
+            assertBetween(policy.backoff(2), Duration.ZERO, Duration.ofMillis(200));
+            assertBetween(policy.backoff(4), Duration.ZERO, Duration.ofMillis(500));
+            assertBetween(policy.backoff(64), Duration.ZERO, Duration.ofMillis(500));
+        }
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> policy(0, Duration.ofMinutes(1), 0.95));
+        assertThrows(IllegalArgumentException.class, () -> policy(3, Duration.ofSeconds(-1), 0.95));
+        assertThrows(IllegalArgumentException.class, () -> policy(3, Duration.ofMinutes(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> policy(3, Duration.ofMinutes(1), 1.5));
+    }
+
+    @Test
+    void testZeroDeadlineMeansNoDeadline() {
+        assertFalse(policy(3, Duration.ZERO, 0.95).hasDeadline());
+        assertTrue(policy(3, Duration.ofMinutes(1), 0.95).hasDeadline());
+    }
+
+    private static void assertBetween(Duration actual, Duration min, Duration max) {
+        assertTrue(actual.compareTo(min) >= 0 && actual.compareTo(max) <= 0, actual + " not in [" + min + ", " + max + "]");
+    }
+
+    private static RetryPolicy policy(int maxAttempts, Duration deadline, double hedgeQuantile) {
+        return new RetryPolicy(maxAttempts, deadline, Duration.ofMillis(100), Duration.ofMillis(500), false,
+                hedgeQuantile, 20, Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,296 @@
+package dev.shaaf.waver.backend.retry;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.InvalidRequestException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.exception.TimeoutException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.shaaf.waver.backend.ratelimit.RateBudget;
+import dev.shaaf.waver.backend.ratelimit.RateLimitedChatModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RetryingChatModel.
+ */
+class RetryingChatModelTest {
+
+    private MeterRegistry registry;
+    private LatencyWindow latencies;
+    private ExecutorService executor;
+    private TestChatModel delegate;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        latencies = new LatencyWindow(10);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        delegate = new TestChatModel();
+    }
+
+    @AfterEach
+    void tearDown() {
+        delegate.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testTransientFailureIsRetried() {
+        // Given
+        delegate.failures.add(new InternalServerException("Bad gateway"));
+        delegate.failures.add(new RuntimeException(new HttpException(503, "Unavailable")));
+
+        // When
+        String answer = chatModel(policy(3, Duration.ofSeconds(10), false)).chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(3, delegate.calls.get());
+        assertEquals(2.0, registry.counter("waver.llm.retries").count());
+    }
+
+    @Test
+    void testCallWithoutDeadlineIsRetried() {
+        // Given
+        delegate.failures.add(new InternalServerException("Bad gateway"));
+
+        // When
+        String answer = chatModel(policy(3, Duration.ZERO, false)).chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(2, delegate.calls.get());
+    }
+
+    @Test
+    void testLastFailureIsThrownAfterMaxAttempts() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            delegate.failures.add(new UncheckedIOException(new SocketTimeoutException("Read timed out")));
+        }
+
+        // When & Then
+        assertThrows(UncheckedIOException.class,
+                () -> chatModel(policy(3, Duration.ofSeconds(10), false)).chat("Write chapter 1"));
+        assertEquals(3, delegate.calls.get());
+    }
+
+    @Test
+    void testPermanentFailureIsNotRetried() {
+        // Given
+        delegate.failures.add(new InvalidRequestException("Prompt too long"));
+
+        // When & Then
+        assertThrows(InvalidRequestException.class,
+                () -> chatModel(policy(3, Duration.ofSeconds(10), false)).chat("Write chapter 1"));
+        assertEquals(1, delegate.calls.get());
+        assertEquals(0.0, registry.counter("waver.llm.retries").count());
+    }
+
+    @Test
+    void testCallIsAbandonedAtDeadline() throws InterruptedException {
+        // Given
+        delegate.blocked.add(1);
+        delegate.usage = new TokenUsage(100, 50);
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class,
+                () -> chatModel(policy(3, Duration.ofMillis(100), false)).chat("Write chapter 1"));
+
+        // Then
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertEquals(1, delegate.calls.get());
+
+        // When
+        delegate.release.countDown();
+
+        // Then
+        awaitWastedTokens(150.0);
+    }
+
+    @Test
+    void testSlowCallIsHedgedAndFirstAnswerWins() throws InterruptedException {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            latencies.record(Duration.ofMillis(1));
+        }
+        delegate.blocked.add(1);
+        delegate.usage = new TokenUsage(10, 20);
+
+        // When
+        String answer = chatModel(policy(1, Duration.ofSeconds(10), true)).chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(2, delegate.calls.get());
+        assertEquals(1.0, registry.counter("waver.llm.hedges").count());
+        assertEquals(0.0, registry.counter("waver.llm.wasted.tokens").count());
+
+        // When
+        delegate.release.countDown();
+
+        // Then
+        awaitWastedTokens(30.0);
+    }
+
+    @Test
+    void testCallsAreNotHedgedBeforeEnoughLatenciesWereObserved() {
+        // When
+        chatModel(policy(1, Duration.ofSeconds(10), true)).chat("Write chapter 1");
+
+        // Then
+        assertEquals(1, delegate.calls.get());
+        assertEquals(0.0, registry.counter("waver.llm.hedges").count());
+        assertEquals(1, latencies.size());
+    }
+
+    @Test
+    void testEveryAttemptDrawsFromRateBudget() {
+        // Given
+        delegate.failures.add(new InternalServerException("Bad gateway"));
+        RateBudget budget = new RateBudget(OptionalInt.of(60), OptionalInt.empty(), Duration.ofMillis(1),
+                Duration.ofMillis(1));
+
+        // When
+        String answer = chatModel(rateLimited(delegate, budget), policy(3, Duration.ofSeconds(10), false))
+                .chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(2, delegate.calls.get());
+        assertEquals(2, registry.timer("waver.llm.rate.wait").count());
+    }
+
+    @Test
+    void testRejectedHedgeSlowsRateBudgetDown() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            latencies.record(Duration.ofMillis(1));
+        }
+        AtomicInteger calls = new AtomicInteger();
+        ChatModel provider = new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                if (calls.incrementAndGet() == 2) {
+                    throw new RateLimitException("Too many requests");
+                }
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return ChatResponse.builder().aiMessage(AiMessage.from("answer")).build();
+            }
+        };
+        RateBudget budget = new RateBudget(OptionalInt.of(60), OptionalInt.empty(), Duration.ofMillis(1),
+                Duration.ofMillis(1));
+
+        // When
+        String answer = chatModel(rateLimited(provider, budget), policy(1, Duration.ofSeconds(10), true))
+                .chat("Write chapter 1");
+
+        // Then
+        assertEquals("answer", answer);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, registry.counter("waver.llm.hedges").count());
+        assertEquals(2, registry.timer("waver.llm.rate.wait").count());
+        assertEquals(1.0, registry.counter("waver.llm.rate.rejections").count());
+        assertTrue(budget.factor() < 1.0);
+    }
+
+    @Test
+    void testRetryableFailures() {
+        assertTrue(RetryingChatModel.isRetryable(new TimeoutException("Timed out")));
+        assertTrue(RetryingChatModel.isRetryable(new RuntimeException(new HttpException(500, "Error"))));
+        assertTrue(RetryingChatModel.isRetryable(new HttpException(408, "Request timeout")));
+        assertTrue(RetryingChatModel.isRetryable(new UncheckedIOException(new SocketTimeoutException())));
+        assertFalse(RetryingChatModel.isRetryable(new RateLimitException("Too many requests")));
+        assertFalse(RetryingChatModel.isRetryable(new HttpException(429, "Too many requests")));
+        assertFalse(RetryingChatModel.isRetryable(new HttpException(401, "Unauthorized")));
+        assertFalse(RetryingChatModel.isRetryable(new IllegalArgumentException("Bad prompt")));
+    }
+
+    private void awaitWastedTokens(double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.counter("waver.llm.wasted.tokens").count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, registry.counter("waver.llm.wasted.tokens").count());
+    }
+
+    private RetryingChatModel chatModel(RetryPolicy policy) {
+        return chatModel(delegate, policy);
+    }
+
+    private RetryingChatModel chatModel(ChatModel delegate, RetryPolicy policy) {
+        return new RetryingChatModel(delegate, "Technical-writer", policy, latencies, executor,
+                registry.counter("waver.llm.retries"), registry.counter("waver.llm.hedges"),
+                registry.counter("waver.llm.wasted.tokens"));
+    }
+
+    private ChatModel rateLimited(ChatModel delegate, RateBudget budget) {
+        return new RateLimitedChatModel(delegate, budget, 0, registry.timer("waver.llm.rate.wait"),
+                registry.counter("waver.llm.rate.rejections"));
+    }
+
+    private static RetryPolicy policy(int maxAttempts, Duration deadline, boolean hedge) {
+        return new RetryPolicy(maxAttempts, deadline, Duration.ofMillis(5), Duration.ofMillis(20), hedge, 0.95, 5,
+                Duration.ofMillis(20));
+    }
+
+    /**
+     * Test implementation of ChatModel failing with queued exceptions and
+     * blocking the calls of the given numbers until released.
+     */
+    private static class TestChatModel implements ChatModel {
+        final List<RuntimeException> failures = new ArrayList<>();
+        final List<Integer> blocked = new ArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        volatile TokenUsage usage;
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            int call = calls.incrementAndGet();
+            synchronized (failures) {
+                if (!failures.isEmpty()) {
+                    throw failures.removeFirst();
+                }
+            }
+            if (blocked.contains(call)) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from("answer"))
+                    .tokenUsage(usage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.shaaf.waver.backend.routing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProviderRoute.
+ */
+class ProviderRouteTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private MeterRegistry registry;
+    private ProviderRoute route;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        route = new ProviderRoute("OpenAI", Duration.ofSeconds(30), registry.counter("successes"),
+                registry.counter("failures"), clock::get);
+    }
+
+    @Test
+    void testInFlightCallsAreCounted() {
+        // When
+        long first = route.started();
+        route.started();
+
+        // Then
+        assertEquals(2, route.inFlight());
+
+        // When
+        route.succeeded(first);
+        route.failed();
+
+        // Then
+        assertEquals(0, route.inFlight());
+        assertEquals(1.0, registry.counter("successes").count());
+        assertEquals(1.0, registry.counter("failures").count());
+    }
+
+    @Test
+    void testLatencyIsMovingAverage() {
+        // Given
+        long start = route.started();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        route.succeeded(start);
+
+        // When
+        start = route.started();
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        route.succeeded(start);
+
+        // Then
+        assertEquals(Duration.ofSeconds(12).toNanos(), route.latencyNanos(), 1.0);
+    }
+
+    @Test
+    void testFailureCoolsDownUntilCooldownEnds() {
+        // When
+        route.started();
+        route.failed();
+
+        // Then
+        assertTrue(route.isCoolingDown());
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        // Then
+        assertFalse(route.isCoolingDown());
+    }
+
+    @Test
+    void testSuccessEndsCooldown() {
+        // Given
+        route.started();
+        route.failed();
+
+        // When
+        route.succeeded(route.started());
+
+        // Then
+        assertFalse(route.isCoolingDown());
+    }
+}
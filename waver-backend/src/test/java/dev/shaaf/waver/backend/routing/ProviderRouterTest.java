@@ -0,0 +1,178 @@
+package dev.shaaf.waver.backend.routing;
+
+import dev.langchain4j.exception.RateLimitException;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ProviderRouter.
+ */
+class ProviderRouterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testProvidersWithoutApiKeyAreLeftOut() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.of(List.of(LLMProvider.Gemini, LLMProvider.OpenAI)),
+                Optional.of("openai-key"), Optional.empty()), registry);
+
+        // When & Then
+        assertEquals(Map.of(LLMProvider.OpenAI, "openai-key"), router.apiKeys());
+    }
+
+    @Test
+    void testConfiguredProviderIsRoutedByDefault() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.empty(),
+                Optional.of("openai-key"), Optional.of("gemini-key")), registry);
+
+        // When & Then
+        assertEquals(List.of(LLMProvider.OpenAI), List.copyOf(router.apiKeys().keySet()));
+    }
+
+    @Test
+    void testCallsFailOverBetweenProviders() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.of(List.of(LLMProvider.OpenAI, LLMProvider.Gemini)),
+                Optional.of("openai-key"), Optional.of("gemini-key")), registry);
+        StubChatModel openAi = new StubChatModel("OpenAI").failNext(new RateLimitException("Too many requests"));
+        List<String> created = new ArrayList<>();
+
+        // When
+        ChatModel chatModel = router.route((provider, apiKey, failover) -> {
+            created.add(provider + ":" + apiKey + ":" + failover);
+            return provider == LLMProvider.OpenAI ? openAi : new StubChatModel("Gemini");
+        });
+
+        // Then
+        assertEquals(List.of("OpenAI:openai-key:true", "Gemini:gemini-key:true"), created);
+        assertEquals("Gemini", chatModel.chat("Write chapter 1"));
+        assertEquals(1.0, registry.get("waver.llm.route.calls").tag("provider", "OpenAI").tag("outcome", "failure")
+                .counter().count());
+        assertEquals(1.0, registry.get("waver.llm.route.calls").tag("provider", "Gemini").tag("outcome", "success")
+                .counter().count());
+        assertEquals(0.0, registry.get("waver.llm.route.in.flight").tag("provider", "OpenAI").gauge().value());
+    }
+
+    @Test
+    void testChatModelsOfRunStayWithPinnedProvider() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.of(List.of(LLMProvider.OpenAI, LLMProvider.Gemini)),
+                Optional.of("openai-key"), Optional.of("gemini-key")), registry);
+        ProviderRouter.Run run = router.newRun();
+        ChatModel analysis = run.route((provider, apiKey, failover) -> provider == LLMProvider.OpenAI
+                ? new StubChatModel("OpenAI").failNext(new RateLimitException("Too many requests"))
+                : new StubChatModel("Gemini"));
+        assertEquals("Gemini", analysis.chat("Identify abstractions"));
+        router.routeOf("OpenAI").succeeded(router.routeOf("OpenAI").started());
+
+        // When
+        ChatModel writer = run.route((provider, apiKey, failover) -> new StubChatModel(provider.name() + " writer"));
+
+        // Then
+        assertEquals("Gemini writer", writer.chat("Write chapter 1"));
+    }
+
+    @Test
+    void testRoutesAreSharedByAllRuns() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.empty(),
+                Optional.of("openai-key"), Optional.empty()), registry);
+
+        // When
+        router.route((provider, apiKey, failover) -> new StubChatModel(provider.name()));
+        router.route((provider, apiKey, failover) -> new StubChatModel(provider.name()));
+
+        // Then
+        assertSame(router.routeOf("OpenAI"), router.routeOf("OpenAI"));
+        assertEquals(1, registry.find("waver.llm.route.in.flight").gauges().size());
+    }
+
+    @Test
+    void testSingleProviderDoesNotFailOver() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.empty(),
+                Optional.of("openai-key"), Optional.empty()), registry);
+        List<Boolean> failovers = new ArrayList<>();
+
+        // When
+        router.route((provider, apiKey, failover) -> {
+            failovers.add(failover);
+            return new StubChatModel(provider.name());
+        });
+
+        // Then
+        assertEquals(List.of(false), failovers);
+    }
+
+    @Test
+    void testRoutingWithoutApiKeysIsRejected() {
+        // Given
+        ProviderRouter router = new ProviderRouter(config(Optional.empty(), Optional.empty(), Optional.empty()),
+                registry);
+
+        // When & Then
+        assertThrows(IllegalStateException.class,
+                () -> router.route((provider, apiKey, failover) -> new StubChatModel(provider.name())));
+    }
+
+    /**
+     * Creates a configuration that only provides the routing settings and API keys.
+     */
+    private static WaverConfig config(Optional<List<LLMProvider>> providers, Optional<String> openAiKey,
+                                      Optional<String> geminiKey) {
+        WaverConfig.Routing routing = new TestRouting(providers);
+        return (WaverConfig) Proxy.newProxyInstance(WaverConfig.class.getClassLoader(),
+                new Class<?>[]{WaverConfig.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "routing" -> routing;
+                    case "llmProvider" -> LLMProvider.OpenAI;
+                    case "openai" -> proxy(WaverConfig.OpenAI.class, openAiKey);
+                    case "gemini" -> proxy(WaverConfig.Gemini.class, geminiKey);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Object proxy(Class<?> type, Optional<String> apiKey) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("apiKey")) {
+                return apiKey;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private record TestRouting(Optional<List<LLMProvider>> providers) implements WaverConfig.Routing {
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+
+        @Override
+        public Strategy strategy() {
+            return Strategy.LEAST_LOADED;
+        }
+
+        @Override
+        public boolean pinJobs() {
+            return true;
+        }
+
+        @Override
+        public Duration cooldown() {
+            return Duration.ofSeconds(30);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package dev.shaaf.waver.backend.routing;
+
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.RateLimitException;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RoutingChatModel.
+ */
+class RoutingChatModelTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private MeterRegistry registry;
+    private StubChatModel openAi;
+    private StubChatModel gemini;
+    private ProviderRoute openAiRoute;
+    private ProviderRoute geminiRoute;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        openAi = new StubChatModel("OpenAI");
+        gemini = new StubChatModel("Gemini");
+        openAiRoute = route("OpenAI");
+        geminiRoute = route("Gemini");
+    }
+
+    @Test
+    void testRateLimitedCallFailsOverToNextProvider() {
+        // Given
+        openAi.failNext(new RateLimitException("Too many requests"));
+        RoutingChatModel chatModel = chatModel(WaverConfig.Routing.Strategy.LEAST_LOADED, false);
+
+        // When
+        String answer = chatModel.chat("Write chapter 1");
+
+        // Then
+        assertEquals("Gemini", answer);
+        assertEquals(1, openAi.calls());
+        assertEquals(1.0, registry.counter("waver.llm.route.failovers").count());
+        assertTrue(openAiRoute.isCoolingDown());
+    }
+
+    @Test
+    void testLastFailureIsThrownWhenAllProvidersFail() {
+        // Given
+        openAi.failNext(new RateLimitException("Too many requests"));
+        gemini.failNext(new HttpException(503, "Unavailable"));
+
+        // When
+        HttpException failure = assertThrows(HttpException.class,
+                () -> chatModel(WaverConfig.Routing.Strategy.LEAST_LOADED, false).chat("Write chapter 1"));
+
+        // Then
+        assertEquals(503, failure.statusCode());
+        assertEquals(0, openAiRoute.inFlight());
+        assertEquals(0, geminiRoute.inFlight());
+    }
+
+    @Test
+    void testProviderCoolingDownIsTriedLast() {
+        // Given
+        openAiRoute.started();
+        openAiRoute.failed();
+
+        // When & Then
+        assertEquals("Gemini", chatModel(WaverConfig.Routing.Strategy.LEAST_LOADED, false).chat("Write chapter 1"));
+
+        // When
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // Then
+        assertEquals("OpenAI", chatModel(WaverConfig.Routing.Strategy.LEAST_LOADED, false).chat("Write chapter 1"));
+    }
+
+    @Test
+    void testLeastLoadedProviderIsChosen() {
+        // Given
+        openAiRoute.started();
+        RoutingChatModel chatModel = chatModel(WaverConfig.Routing.Strategy.LEAST_LOADED, false);
+
+        // When & Then
+        assertEquals("Gemini", chatModel.chat("Write chapter 1"));
+        assertEquals(List.of(geminiRoute, openAiRoute),
+                chatModel.order().stream().map(RoutingChatModel.Target::route).toList());
+    }
+
+    @Test
+    void testLowestLatencyProviderIsChosen() {
+        // Given
+        long start = openAiRoute.started();
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        openAiRoute.succeeded(start);
+        start = geminiRoute.started();
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        geminiRoute.succeeded(start);
+
+        // When & Then
+        assertEquals("Gemini", chatModel(WaverConfig.Routing.Strategy.LOWEST_LATENCY, false).chat("Write chapter 1"));
+    }
+
+    @Test
+    void testRunIsPinnedToProviderThatAnswered() {
+        // Given
+        openAi.failNext(new RateLimitException("Too many requests"));
+        RoutingChatModel chatModel = chatModel(WaverConfig.Routing.Strategy.LEAST_LOADED, true);
+        assertEquals("Gemini", chatModel.chat("Write chapter 1"));
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        // When
+        geminiRoute.started();
+        String answer = chatModel.chat("Write chapter 2");
+
+        // Then
+        assertEquals("Gemini", answer);
+        assertEquals(1, openAi.calls());
+    }
+
+    @Test
+    void testWithoutProvidersIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RoutingChatModel(List.of(),
+                WaverConfig.Routing.Strategy.LEAST_LOADED, false, registry.counter("waver.llm.route.failovers")));
+    }
+
+    private RoutingChatModel chatModel(WaverConfig.Routing.Strategy strategy, boolean pin) {
+        return new RoutingChatModel(List.of(new RoutingChatModel.Target(openAiRoute, openAi),
+                new RoutingChatModel.Target(geminiRoute, gemini)), strategy, pin,
+                registry.counter("waver.llm.route.failovers"));
+    }
+
+    private ProviderRoute route(String name) {
+        return new ProviderRoute(name, Duration.ofSeconds(30), registry.counter("successes", "provider", name),
+                registry.counter("failures", "provider", name), clock::get);
+    }
+}
@@ -0,0 +1,102 @@
+package dev.shaaf.waver.backend.routing;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for an LLM provider used by unit tests.
+ * <p>
+ * Every call is answered with the name of the provider, so tests can tell
+ * which provider a call was routed to, after an optional latency simulating
+ * the provider's response time. Queued failures are thrown by the next calls,
+ * for example a {@link dev.langchain4j.exception.RateLimitException} to
+ * simulate throttling.
+ * <p>
+ * Public so that tests of other packages routing LLM calls can use it.
+ */
+public class StubChatModel implements ChatModel {
+
+    /** The name answered by every call. */
+    private final String name;
+
+    /** Failures thrown by the next calls, in order. */
+    private final Deque<RuntimeException> failures = new ArrayDeque<>();
+
+    /** Number of calls received, failed ones included. */
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /** Time every call takes. */
+    private volatile Duration latency = Duration.ZERO;
+
+    /**
+     * Constructs a new StubChatModel.
+     *
+     * @param name The name answered by every call
+     */
+    public StubChatModel(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        calls.incrementAndGet();
+        RuntimeException failure;
+        synchronized (failures) {
+            failure = failures.poll();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return ChatResponse.builder()
+                .aiMessage(AiMessage.from(name))
+                .tokenUsage(new TokenUsage(10, 5))
+                .build();
+    }
+
+    /**
+     * Makes the next call fail.
+     *
+     * @param failure The failure thrown by the call
+     * @return This stub
+     */
+    public StubChatModel failNext(RuntimeException failure) {
+        synchronized (failures) {
+            failures.add(failure);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the time every call takes.
+     *
+     * @param latency The latency
+     * @return This stub
+     */
+    public StubChatModel withLatency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Gets the number of calls received, failed ones included.
+     *
+     * @return The call count
+     */
+    public int calls() {
+        return calls.get();
+    }
+}
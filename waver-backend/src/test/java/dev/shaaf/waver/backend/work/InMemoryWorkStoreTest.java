@@ -0,0 +1,101 @@
+package dev.shaaf.waver.backend.work;
+
+import dev.shaaf.waver.backend.WaverProcessEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InMemoryWorkStore.
+ */
+class InMemoryWorkStoreTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final InMemoryWorkStore store = new InMemoryWorkStore();
+
+    @Test
+    void testOfferReturnsExistingItemForSameRepository() {
+        // Given
+        WorkItem first = WorkItem.queued("repo", "job-1", "repo", NOW);
+
+        // When
+        Optional<WorkItem> offered = store.offer(first);
+        Optional<WorkItem> duplicate = store.offer(WorkItem.queued("repo", "job-2", "repo", NOW));
+
+        // Then
+        assertTrue(offered.isEmpty());
+        assertEquals(Optional.of(first), duplicate);
+        assertEquals(List.of(first), store.list());
+    }
+
+    @Test
+    void testClaimedItemIsReclaimableOnlyAfterLeaseExpired() {
+        // Given
+        store.offer(WorkItem.queued("repo", "job-1", "repo", NOW));
+
+        // When
+        WorkItem claimed = store.claim("replica-a", NOW, LEASE).orElseThrow();
+
+        // Then
+        assertEquals("replica-a", claimed.owner());
+        assertTrue(store.claim("replica-b", NOW.plusSeconds(60), LEASE).isEmpty());
+        WorkItem reclaimed = store.claim("replica-b", NOW.plus(LEASE).plusSeconds(1), LEASE).orElseThrow();
+        assertEquals("replica-b", reclaimed.owner());
+        assertEquals(2, reclaimed.attempts());
+    }
+
+    @Test
+    void testHigherPriorityIsClaimedFirst() {
+        // Given
+        store.offer(WorkItem.queued("repo1", "job-1", "repo1", NOW));
+        store.offer(WorkItem.queued("repo2", "job-2",
+                new WaverProcessEvent("repo2", "tenant-a", WaverProcessEvent.Priority.HIGH), NOW.plusSeconds(1)));
+
+        // When
+        WorkItem claimed = store.claim("replica-a", NOW.plusSeconds(2), LEASE).orElseThrow();
+
+        // Then
+        assertEquals("job-2", claimed.jobId());
+        assertEquals("tenant-a", claimed.tenant());
+        assertEquals(WaverProcessEvent.Priority.HIGH, claimed.priority());
+    }
+
+    @Test
+    void testTenantWithFewestLeasedItemsIsClaimedFirst() {
+        // Given
+        store.offer(WorkItem.queued("repo1", "job-1", new WaverProcessEvent("repo1", "busy", null), NOW));
+        store.offer(WorkItem.queued("repo2", "job-2", new WaverProcessEvent("repo2", "busy", null), NOW));
+        store.offer(WorkItem.queued("repo3", "job-3", new WaverProcessEvent("repo3", "idle", null),
+                NOW.plusSeconds(1)));
+        assertEquals("job-1", store.claim("replica-a", NOW.plusSeconds(2), LEASE).orElseThrow().jobId());
+
+        // When
+        WorkItem claimed = store.claim("replica-b", NOW.plusSeconds(2), LEASE).orElseThrow();
+
+        // Then
+        assertEquals("job-3", claimed.jobId());
+    }
+
+    @Test
+    void testOnlyOwnerCanRenewAndComplete() {
+        // Given
+        WorkItem item = WorkItem.queued("repo", "job-1", "repo", NOW);
+        store.offer(item);
+        store.claim("replica-a", NOW, LEASE);
+
+        // When & Then
+        assertFalse(store.renew(item.id(), "replica-b", NOW, LEASE));
+        assertTrue(store.renew(item.id(), "replica-a", NOW.plusSeconds(60), LEASE));
+        assertTrue(store.claim("replica-b", NOW.plus(LEASE).plusSeconds(1), LEASE).isEmpty());
+        assertFalse(store.complete(item.id(), "replica-b"));
+        assertTrue(store.complete(item.id(), "replica-a"));
+        assertTrue(store.list().isEmpty());
+    }
+}
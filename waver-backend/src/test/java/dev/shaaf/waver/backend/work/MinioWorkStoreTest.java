@@ -0,0 +1,187 @@
+package dev.shaaf.waver.backend.work;
+
+import dev.shaaf.waver.backend.minio.InMemoryMinioClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MinioWorkStore.
+ */
+class MinioWorkStoreTest {
+
+    private static final String BUCKET = "tutorials";
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private InMemoryMinioClient minioClient;
+    private MinioWorkStore store;
+
+    @BeforeEach
+    void setUp() {
+        minioClient = new InMemoryMinioClient();
+        store = new MinioWorkStore(minioClient, BUCKET);
+    }
+
+    @Test
+    void testItemsAreStoredUnderHiddenPrefix() throws IOException {
+        // Given
+        WorkItem item = WorkItem.queued("github.com/example/repo", "job-1", "https://github.com/example/repo", NOW);
+
+        // When
+        store.offer(item);
+
+        // Then
+        assertTrue(minioClient.getObjects().containsKey(BUCKET + "/" + MinioWorkStore.objectName(item.id())));
+        assertEquals(Optional.of(item), store.find(item.id()));
+    }
+
+    @Test
+    void testOfferReturnsExistingItemForSameRepository() throws IOException {
+        // Given
+        WorkItem first = WorkItem.queued("repo", "job-1", "repo", NOW);
+        store.offer(first);
+
+        // When
+        Optional<WorkItem> existing = store.offer(WorkItem.queued("repo", "job-2", "repo", NOW.plusSeconds(1)));
+
+        // Then
+        assertEquals(Optional.of(first), existing);
+        assertEquals(List.of(first), store.list());
+    }
+
+    @Test
+    void testClaimTakesOldestClaimableItem() throws IOException {
+        // Given
+        store.offer(WorkItem.queued("newer", "job-2", "newer", NOW.plusSeconds(10)));
+        store.offer(WorkItem.queued("older", "job-1", "older", NOW));
+
+        // When
+        WorkItem first = store.claim("replica-a", NOW, LEASE).orElseThrow();
+        WorkItem second = store.claim("replica-b", NOW, LEASE).orElseThrow();
+
+        // Then
+        assertEquals("job-1", first.jobId());
+        assertEquals("replica-a", first.owner());
+        assertEquals(NOW.plus(LEASE), first.leaseExpiresAt());
+        assertEquals(1, first.attempts());
+        assertEquals("job-2", second.jobId());
+        assertTrue(store.claim("replica-c", NOW, LEASE).isEmpty());
+    }
+
+    @Test
+    void testExpiredLeaseCanBeClaimedByAnotherReplica() throws IOException {
+        // Given
+        store.offer(WorkItem.queued("repo", "job-1", "repo", NOW));
+        store.claim("replica-a", NOW, LEASE);
+
+        // When
+        Optional<WorkItem> beforeExpiry = store.claim("replica-b", NOW.plus(LEASE).minusSeconds(1), LEASE);
+        Optional<WorkItem> afterExpiry = store.claim("replica-b", NOW.plus(LEASE).plusSeconds(1), LEASE);
+
+        // Then
+        assertTrue(beforeExpiry.isEmpty());
+        assertEquals("replica-b", afterExpiry.orElseThrow().owner());
+        assertEquals(2, afterExpiry.get().attempts());
+    }
+
+    @Test
+    void testOnlyOwnerCanRenewAndComplete() throws IOException {
+        // Given
+        WorkItem item = WorkItem.queued("repo", "job-1", "repo", NOW);
+        store.offer(item);
+        store.claim("replica-a", NOW, LEASE);
+
+        // When & Then
+        assertFalse(store.renew(item.id(), "replica-b", NOW.plusSeconds(30), LEASE));
+        assertTrue(store.renew(item.id(), "replica-a", NOW.plusSeconds(30), LEASE));
+        assertEquals(NOW.plusSeconds(30).plus(LEASE), store.find(item.id()).orElseThrow().leaseExpiresAt());
+        assertFalse(store.complete(item.id(), "replica-b"));
+        assertTrue(store.complete(item.id(), "replica-a"));
+        assertTrue(store.find(item.id()).isEmpty());
+    }
+
+    @Test
+    void testRenewFailsOnceLeaseWasLost() throws IOException {
+        // Given
+        WorkItem item = WorkItem.queued("repo", "job-1", "repo", NOW);
+        store.offer(item);
+        store.claim("replica-a", NOW, LEASE);
+        store.claim("replica-b", NOW.plus(LEASE).plusSeconds(1), LEASE);
+
+        // When & Then
+        assertFalse(store.renew(item.id(), "replica-a", NOW.plus(LEASE).plusSeconds(2), LEASE));
+        assertFalse(store.complete(item.id(), "replica-a"));
+        assertEquals("replica-b", store.find(item.id()).orElseThrow().owner());
+    }
+
+    @Test
+    void testConcurrentClaimsOfOneItemHaveOneWinner() throws Exception {
+        // Given
+        store.offer(WorkItem.queued("repo", "job-1", "repo", NOW));
+        List<Callable<Optional<WorkItem>>> replicas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            // Every replica has its own store, as separate backend instances do
+            MinioWorkStore replicaStore = new MinioWorkStore(minioClient, BUCKET);
+            String replica = "replica-" + i;
+            replicas.add(() -> replicaStore.claim(replica, NOW, LEASE));
+        }
+
+        // When
+        List<WorkItem> claimed = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (Future<Optional<WorkItem>> result : executor.invokeAll(replicas)) {
+                result.get().ifPresent(claimed::add);
+            }
+        }
+
+        // Then
+        assertEquals(1, claimed.size());
+        assertEquals(claimed.getFirst(), store.find(claimed.getFirst().id()).orElseThrow());
+    }
+
+    @Test
+    void testPollingOnlyReadsChangedItems() throws IOException {
+        // Given
+        store.offer(WorkItem.queued("first", "job-1", "first", NOW));
+        store.offer(WorkItem.queued("second", "job-2", "second", NOW.plusSeconds(1)));
+        store.claim("replica-a", NOW, LEASE);
+        int requests = minioClient.getRequestCount();
+
+        // When
+        Optional<WorkItem> claimed = store.claim("replica-a", NOW, LEASE);
+
+        // Then
+        // The item claimed first changed and is read again, the other one is known; one write claims it
+        assertEquals("job-2", claimed.orElseThrow().jobId());
+        assertEquals(2, minioClient.getRequestCount() - requests);
+    }
+
+    @Test
+    void testListSkipsUnreadableItems() throws IOException {
+        // Given
+        store.offer(WorkItem.queued("repo", "job-1", "repo", NOW));
+        minioClient.putDirect(BUCKET, MinioWorkStore.PREFIX + "broken.json", "{".getBytes(StandardCharsets.UTF_8));
+        minioClient.putDirect(BUCKET, "repo/index.md", "# Tutorial".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        List<WorkItem> items = store.list();
+
+        // Then
+        assertEquals(1, items.size());
+        assertEquals("job-1", items.getFirst().jobId());
+    }
+}
@@ -0,0 +1,25 @@
+package inventory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores items by SKU.
+ */
+public class InventoryRepository {
+
+    private final Map<String, Item> items = new ConcurrentHashMap<>();
+
+    public Optional<Item> find(String sku) {
+        return Optional.ofNullable(items.get(sku));
+    }
+
+    public void save(Item item) {
+        items.put(item.sku(), item);
+    }
+
+    public Iterable<Item> all() {
+        return items.values();
+    }
+}
@@ -0,0 +1,21 @@
+package inventory;
+
+/**
+ * HTTP endpoints for the inventory.
+ */
+public class InventoryResource {
+
+    private final InventoryService service;
+
+    public InventoryResource(InventoryService service) {
+        this.service = service;
+    }
+
+    public Item post(String sku, String name, int quantity) {
+        return service.receive(sku, name, quantity);
+    }
+
+    public Item delete(String sku, int quantity) {
+        return service.ship(sku, quantity);
+    }
+}
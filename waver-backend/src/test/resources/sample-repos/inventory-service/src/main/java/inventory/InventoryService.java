@@ -0,0 +1,31 @@
+package inventory;
+
+/**
+ * Updates stock levels.
+ */
+public class InventoryService {
+
+    private final InventoryRepository repository;
+
+    public InventoryService(InventoryRepository repository) {
+        this.repository = repository;
+    }
+
+    public Item receive(String sku, String name, int quantity) {
+        Item item = repository.find(sku)
+                .map(existing -> existing.withQuantity(existing.quantity() + quantity))
+                .orElse(new Item(sku, name, quantity));
+        repository.save(item);
+        return item;
+    }
+
+    public Item ship(String sku, int quantity) {
+        Item item = repository.find(sku).orElseThrow(() -> new IllegalArgumentException("Unknown SKU " + sku));
+        if (item.quantity() < quantity) {
+            throw new IllegalStateException("Only " + item.quantity() + " of " + sku + " in stock");
+        }
+        Item shipped = item.withQuantity(item.quantity() - quantity);
+        repository.save(shipped);
+        return shipped;
+    }
+}
@@ -0,0 +1,11 @@
+package inventory;
+
+/**
+ * An item in stock.
+ */
+public record Item(String sku, String name, int quantity) {
+
+    public Item withQuantity(int quantity) {
+        return new Item(sku, name, quantity);
+    }
+}
@@ -0,0 +1,23 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InventoryServiceTest {
+
+    private final InventoryService service = new InventoryService(new InventoryRepository());
+
+    @Test
+    void testReceiveAddsToStock() {
+        service.receive("A-1", "Anchor", 2);
+        assertEquals(5, service.receive("A-1", "Anchor", 3).quantity());
+    }
+
+    @Test
+    void testShipMoreThanInStockFails() {
+        service.receive("A-1", "Anchor", 2);
+        assertThrows(IllegalStateException.class, () -> service.ship("A-1", 3));
+    }
+}
@@ -0,0 +1,8 @@
+import { Todo } from './model';
+import { TodoStore } from './store';
+
+export async function sync(store: TodoStore, baseUrl: string): Promise<void> {
+  const response = await fetch(`${baseUrl}/todos`);
+  const todos: Todo[] = await response.json();
+  todos.forEach((todo) => store.add(todo.title));
+}
@@ -0,0 +1,14 @@
+import { Filter } from '../model';
+import { TodoStore } from '../store';
+
+export function TodoList({ store, filter }: { store: TodoStore; filter: Filter }) {
+  return (
+    <ul>
+      {store.visible(filter).map((todo) => (
+        <li key={todo.id} onClick={() => store.toggle(todo.id)}>
+          {todo.done ? <s>{todo.title}</s> : todo.title}
+        </li>
+      ))}
+    </ul>
+  );
+}
@@ -0,0 +1,7 @@
+export interface Todo {
+  id: number;
+  title: string;
+  done: boolean;
+}
+
+export type Filter = 'all' | 'open' | 'done';
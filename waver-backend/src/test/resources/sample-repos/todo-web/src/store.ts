@@ -0,0 +1,23 @@
+import { Filter, Todo } from './model';
+
+export class TodoStore {
+  private todos: Todo[] = [];
+  private nextId = 1;
+
+  add(title: string): Todo {
+    const todo = { id: this.nextId++, title, done: false };
+    this.todos.push(todo);
+    return todo;
+  }
+
+  toggle(id: number): void {
+    const todo = this.todos.find((t) => t.id === id);
+    if (todo) {
+      todo.done = !todo.done;
+    }
+  }
+
+  visible(filter: Filter): Todo[] {
+    return this.todos.filter((t) => filter === 'all' || (filter === 'done') === t.done);
+  }
+}
@@ -0,0 +1,11 @@
+import { describe, expect, it } from 'vitest';
+import { TodoStore } from '../src/store';
+
+describe('TodoStore', () => {
+  it('hides done todos from the open filter', () => {
+    const store = new TodoStore();
+    const todo = store.add('write tests');
+    store.toggle(todo.id);
+    expect(store.visible('open')).toEqual([]);
+  });
+});
@@ -0,0 +1,44 @@
+package dev.shaaf.waver.backend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks deriving the project name of every request from its source URL
+ * with {@link FileUtil#getFolderNameFromInputPath(String)}.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileUtilBenchmark {
+
+    /** Local paths, HTTPS and scp-like SSH URLs as the Funqy endpoint receives them. */
+    @Param({
+            "/home/waver/projects/waver-backend",
+            "https://github.com/sshaaf/waver-kubernetes.git",
+            "git@github.com:sshaaf/waver-kubernetes.git"
+    })
+    String inputPath;
+
+    @Benchmark
+    public String getFolderNameFromInputPath() {
+        return FileUtil.getFolderNameFromInputPath(inputPath);
+    }
+}
@@ -0,0 +1,96 @@
+package dev.shaaf.waver.backend;
+
+import dev.shaaf.waver.backend.job.FileJobStore;
+import dev.shaaf.waver.backend.job.JobService;
+import dev.shaaf.waver.backend.process.BackendProcessingService;
+import dev.shaaf.waver.backend.process.GenerationQueues;
+import dev.shaaf.waver.backend.process.StageListener;
+import dev.shaaf.waver.benchmarks.BenchmarkConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks handing a request from {@link WaverFunqy#generate(WaverProcessEvent)}
+ * to a pipeline worker.
+ * <p>
+ * One operation submits a request and waits until a worker of the
+ * {@link dev.shaaf.waver.backend.process.GenerationQueue} starts its
+ * pipeline. This covers validation, duplicate detection, creating the job
+ * in the file job store and the worker handoff. The pipeline itself returns
+ * at once.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaverFunqyBenchmark {
+
+    private Path jobDirectory;
+    private HandoffProcessingService processingService;
+    private WaverFunqy funqy;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void startQueue() throws IOException {
+        jobDirectory = Files.createTempDirectory("waver-funqy-benchmark");
+        processingService = new HandoffProcessingService();
+        funqy = new WaverFunqy();
+        // Finished repositories are not remembered, so every request is started
+        funqy.generationQueue = GenerationQueues.start(
+                BenchmarkConfig.waverConfig(Map.of("waver.queue.completion-window", "0s")),
+                processingService, new JobService(new FileJobStore(jobDirectory), Clock.systemUTC()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopQueue() throws IOException {
+        GenerationQueues.stop(funqy.generationQueue);
+        FileUtil.deleteRecursively(jobDirectory);
+    }
+
+    @Benchmark
+    public WaverProcessEvent generateUntilPipelineStarts() throws InterruptedException {
+        GenerationSubmission submission = funqy.generate(
+                new WaverProcessEvent("https://github.com/waver/repository-" + sequence++ + ".git"));
+        if (!submission.isAccepted()) {
+            throw new IllegalStateException("Request was not accepted: " + submission.message());
+        }
+        return processingService.started.take();
+    }
+
+    /**
+     * Processing service whose pipelines only report that they started.
+     */
+    private static final class HandoffProcessingService extends BackendProcessingService {
+        private final BlockingQueue<WaverProcessEvent> started = new LinkedBlockingQueue<>();
+
+        @Override
+        public void runPipeline(WaverProcessEvent event, StageListener listener) {
+            started.add(event);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.shaaf.waver.backend.cache;
+
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates response caches outside of CDI, for benchmarks in other packages.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ResponseCaches {
+
+    private ResponseCaches() {
+    }
+
+    /**
+     * Creates a response cache with its local tier only.
+     *
+     * @param waverConfig The configuration holding the cache settings
+     * @param registry The registry the cache lookups are counted in
+     * @return The initialized cache
+     */
+    public static ResponseCache create(WaverConfig waverConfig, MeterRegistry registry) {
+        ResponseCache responseCache = new ResponseCache();
+        responseCache.waverConfig = waverConfig;
+        responseCache.registry = registry;
+        responseCache.init();
+        return responseCache;
+    }
+}
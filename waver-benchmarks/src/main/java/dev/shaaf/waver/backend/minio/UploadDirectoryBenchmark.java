@@ -0,0 +1,106 @@
+package dev.shaaf.waver.backend.minio;
+
+import dev.shaaf.waver.backend.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link MinioUploaderTask#uploadDirectory(Path, String)} against
+ * the in-process S3 stand-in of the backend tests.
+ * <p>
+ * The generated tutorial has a fixed number of files between 1 KB and
+ * 256 KB, most of them small, as chapters are. A fresh bucket measures a
+ * complete upload; with {@code changed=false} the bucket already holds the
+ * tutorial and its manifest, which measures hashing and skipping unchanged
+ * files. The latency delays every request to simulate a network round trip.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UploadDirectoryBenchmark {
+
+    private static final String BUCKET = "waver-bucket";
+
+    /** Smallest and largest file sizes, in bytes. */
+    private static final int MIN_SIZE = 1024;
+    private static final int MAX_SIZE = 256 * 1024;
+
+    @Param({"10", "100"})
+    int fileCount;
+
+    @Param({"1", "8"})
+    int concurrency;
+
+    @Param({"0", "2"})
+    long latencyMillis;
+
+    @Param({"true", "false"})
+    boolean changed;
+
+    private Path root;
+    private Path tutorial;
+    private InMemoryMinioClient minioClient;
+    private MinioUploaderTask uploader;
+
+    @Setup(Level.Trial)
+    public void writeTutorial() throws IOException {
+        root = Files.createTempDirectory("waver-upload-benchmark");
+        tutorial = Files.createDirectories(root.resolve("tutorial"));
+        Random random = new Random(42);
+        for (int i = 0; i < fileCount; i++) {
+            // Log-uniform sizes: many small chapters, few large ones
+            double scale = Math.log(MAX_SIZE / (double) MIN_SIZE);
+            byte[] content = new byte[(int) (MIN_SIZE * Math.exp(random.nextDouble() * scale))];
+            random.nextBytes(content);
+            Files.write(tutorial.resolve(String.format("%02d_chapter.md", i)), content);
+        }
+        Files.writeString(tutorial.resolve(MinioUploaderTask.COMMIT_MARKER), "{}");
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareBucket() {
+        if (minioClient == null || changed) {
+            minioClient = new InMemoryMinioClient(latencyMillis);
+            uploader = new MinioUploaderTask(minioClient, tutorial, BUCKET, concurrency);
+            if (!changed) {
+                // Upload once, so every invocation finds the tutorial unchanged
+                uploader.uploadDirectory(tutorial, BUCKET);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTutorial() throws IOException {
+        FileUtil.deleteRecursively(root);
+        minioClient = null;
+    }
+
+    @Benchmark
+    public UploadResult uploadDirectory() {
+        return uploader.uploadDirectory(tutorial, BUCKET);
+    }
+}
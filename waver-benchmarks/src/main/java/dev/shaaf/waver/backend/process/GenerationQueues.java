@@ -0,0 +1,50 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.shaaf.waver.backend.checkpoint.StageCheckpoints;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.job.JobService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Starts and stops generation queues outside of CDI, for benchmarks in
+ * other packages.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class GenerationQueues {
+
+    private GenerationQueues() {
+    }
+
+    /**
+     * Starts a generation queue running its pipelines on the given service.
+     *
+     * @param waverConfig The configuration holding the queue settings
+     * @param processingService The service running the pipelines
+     * @param jobService The service tracking the jobs of the requests
+     * @return The started queue
+     */
+    public static GenerationQueue start(WaverConfig waverConfig, BackendProcessingService processingService,
+                                        JobService jobService) {
+        GenerationQueue queue = new GenerationQueue();
+        queue.waverConfig = waverConfig;
+        queue.processingService = processingService;
+        queue.jobService = jobService;
+        queue.meterRegistry = new SimpleMeterRegistry();
+        // Without a store nothing is checkpointed
+        queue.stageCheckpoints = new StageCheckpoints(null);
+        queue.start();
+        return queue;
+    }
+
+    /**
+     * Stops a generation queue.
+     *
+     * @param queue The queue to stop
+     */
+    public static void stop(GenerationQueue queue) {
+        queue.stop();
+    }
+}
@@ -0,0 +1,172 @@
+package dev.shaaf.waver.backend.process;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import dev.shaaf.jgraphlet.PipelineContext;
+import dev.shaaf.jgraphlet.Task;
+import dev.shaaf.jgraphlet.TaskPipeline;
+import dev.shaaf.waver.backend.cache.ResponseCache;
+import dev.shaaf.waver.backend.cache.ResponseCaches;
+import dev.shaaf.waver.backend.config.WaverConfig;
+import dev.shaaf.waver.backend.ratelimit.RateLimiter;
+import dev.shaaf.waver.benchmarks.BenchmarkConfig;
+import dev.shaaf.waver.llm.config.LLMProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the overhead the backend adds around the LLM calls of a
+ * pipeline, with a chat model that answers at once with a canned response.
+ * <p>
+ * The chat model is wrapped as {@link BackendProcessingService} wraps it:
+ * the response cache, the rate limiter and the per-stage metrics. The
+ * pipeline has the six stages of a generation run, each making one call,
+ * observed and moved onto the pipeline executors as in a real run.
+ * Comparing with the bare model and with the stages run inline on the
+ * calling thread gives the cost of the decorators and of the pipeline.
+ * With the cache enabled every call after the first is a cache hit.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineOverheadBenchmark {
+
+    /** The stages of a generation run, in order; the first one does not call the model. */
+    private static final List<String> STAGES = List.of(
+            BackendProcessingService.STAGE_CODE_CRAWLER,
+            BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS,
+            BackendProcessingService.STAGE_IDENTIFY_RELATIONSHIPS,
+            BackendProcessingService.STAGE_CHAPTER_ORGANIZER,
+            BackendProcessingService.STAGE_TECHNICAL_WRITER,
+            BackendProcessingService.STAGE_META_INFO);
+
+    private static final String PROMPT = "Identify the core abstractions of the following sources: "
+            + "class GenerationQueue { void submit(WaverProcessEvent event) { } }";
+
+    @Param({"true", "false"})
+    boolean cacheEnabled;
+
+    private ChatModel cannedModel;
+    private ChatModel decoratedModel;
+    private PipelineMetrics pipelineMetrics;
+    private PipelineExecutors pipelineExecutors;
+
+    @Setup(Level.Trial)
+    public void wrapChatModel() {
+        WaverConfig waverConfig = BenchmarkConfig.waverConfig(
+                Map.of("waver.cache.enabled", String.valueOf(cacheEnabled)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pipelineMetrics = new PipelineMetrics();
+        pipelineMetrics.registry = registry;
+        ResponseCache responseCache = ResponseCaches.create(waverConfig, registry);
+        pipelineExecutors = new PipelineExecutors(waverConfig, registry);
+
+        cannedModel = new CannedChatModel();
+        decoratedModel = responseCache.wrap(new RateLimiter(waverConfig, registry).wrap(cannedModel,
+                LLMProvider.OpenAI));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopExecutors() {
+        pipelineExecutors.stop();
+    }
+
+    @Benchmark
+    public String bareChatCall() {
+        return cannedModel.chat(PROMPT);
+    }
+
+    @Benchmark
+    public String decoratedChatCall() {
+        return pipelineMetrics.metered(decoratedModel, BackendProcessingService.STAGE_IDENTIFY_ABSTRACTIONS)
+                .chat(PROMPT);
+    }
+
+    @Benchmark
+    public Object stagesInline() {
+        PipelineContext context = new PipelineContext();
+        Object output = new PromptTask(null).execute(PROMPT, context).join();
+        for (int i = 1; i < STAGES.size(); i++) {
+            output = new PromptTask(cannedModel).execute(output, context).join();
+        }
+        return output;
+    }
+
+    @Benchmark
+    public Object pipelineRun() throws Exception {
+        try (TaskPipeline pipeline = new TaskPipeline()) {
+            pipeline.add(STAGES.getFirst(), new ObservedTask<>(STAGES.getFirst(),
+                    pipelineExecutors.onCpu(new PromptTask(null)), pipelineMetrics));
+            for (String stage : STAGES.subList(1, STAGES.size())) {
+                pipeline.then(stage, new ObservedTask<>(stage, pipelineExecutors.onIo(
+                        new PromptTask(pipelineMetrics.metered(decoratedModel, stage))), pipelineMetrics));
+            }
+            return pipeline.run(PROMPT).join();
+        }
+    }
+
+    /**
+     * Stage asking the chat model about its input, or passing the input on
+     * if it has no chat model.
+     */
+    private static final class PromptTask implements Task<Object, Object> {
+        private final ChatModel chatModel;
+
+        private PromptTask(ChatModel chatModel) {
+            this.chatModel = chatModel;
+        }
+
+        @Override
+        public CompletableFuture<Object> execute(Object input, PipelineContext context) {
+            if (chatModel != null) {
+                chatModel.chat(PROMPT);
+            }
+            return CompletableFuture.completedFuture(input);
+        }
+    }
+
+    /**
+     * Chat model answering every request at once with the same response.
+     */
+    private static final class CannedChatModel implements ChatModel {
+        private static final ChatResponse RESPONSE = ChatResponse.builder()
+                .aiMessage(AiMessage.from("- name: GenerationQueue\n  description: Bounded work queue\n"))
+                .modelName("canned-model")
+                .tokenUsage(new TokenUsage(120, 24))
+                .finishReason(FinishReason.STOP)
+                .build();
+
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            return RESPONSE;
+        }
+    }
+}
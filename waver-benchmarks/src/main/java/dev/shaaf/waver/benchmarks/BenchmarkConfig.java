@@ -0,0 +1,64 @@
+package dev.shaaf.waver.benchmarks;
+
+import dev.shaaf.waver.backend.config.WaverConfig;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.SmallRyeConfig;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the backend configuration for benchmarks without starting Quarkus.
+ * <p>
+ * The {@link WaverConfig} mapping is bound by SmallRye Config, so every
+ * setting has the default a deployment would have unless a benchmark
+ * overrides it. Durations and memory sizes are converted as Quarkus does.
+ *
+ * @author Waver Team
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BenchmarkConfig {
+
+    /** Settings without a default, as the application properties set them. */
+    private static final Map<String, String> REQUIRED = Map.of(
+            "waver.llm-provider", "OpenAI",
+            "waver.output-path", System.getProperty("java.io.tmpdir"),
+            "waver.verbose", "false",
+            "waver.output-format", "MARKDOWN",
+            "waver.openai.api-key", "benchmark-key");
+
+    private BenchmarkConfig() {
+    }
+
+    /**
+     * Builds the configuration with all defaults.
+     *
+     * @return The configuration
+     */
+    public static WaverConfig waverConfig() {
+        return waverConfig(Map.of());
+    }
+
+    /**
+     * Builds the configuration with the given settings.
+     *
+     * @param overrides Settings by their property name, such as "waver.cache.enabled"
+     * @return The configuration
+     */
+    public static WaverConfig waverConfig(Map<String, String> overrides) {
+        Map<String, String> values = new HashMap<>(REQUIRED);
+        values.putAll(overrides);
+        SmallRyeConfig config = new SmallRyeConfigBuilder()
+                .withConverter(Duration.class, 200, new DurationConverter())
+                .withConverter(MemorySize.class, 200, new MemorySizeConverter())
+                .withDefaultValues(values)
+                .withMapping(WaverConfig.class)
+                .build();
+        return config.getConfigMapping(WaverConfig.class);
+    }
+}
@@ -134,9 +134,10 @@ export async function getTutorialDirectories(): Promise<string[]> {
   try {
     const objects = await listObjects();
     
-    // Filter for directories (objects ending with /)
+    // Filter for directories (objects ending with /), skipping hidden
+    // backend folders such as .waver/ that hold job state, not tutorials
     const directories = objects
-      .filter(obj => obj.endsWith('/'))
+      .filter(obj => obj.endsWith('/') && !obj.startsWith('.'))
       .map(dir => dir.replace(/\/$/, '')); // Remove trailing slash
     
     return directories;